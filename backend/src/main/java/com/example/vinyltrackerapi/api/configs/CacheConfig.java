@@ -0,0 +1,109 @@
+package com.example.vinyltrackerapi.api.configs;
+
+import com.example.vinyltrackerapi.api.dto.UserView;
+import com.example.vinyltrackerapi.api.dto.UserVinylView;
+import com.example.vinyltrackerapi.api.dto.VerifiedToken;
+import com.example.vinyltrackerapi.api.dto.VinylView;
+import com.example.vinyltrackerapi.service.CacheRegionManager;
+import com.example.vinyltrackerapi.service.CacheInvalidationBus;
+import com.example.vinyltrackerapi.service.CacheService;
+import com.example.vinyltrackerapi.service.CatalogSnapshot;
+import com.example.vinyltrackerapi.service.InProcessInvalidationBus;
+import com.example.vinyltrackerapi.service.OffHeapListCache;
+import com.example.vinyltrackerapi.service.PostgresInvalidationBus;
+import com.example.vinyltrackerapi.service.UserCollection;
+import com.example.vinyltrackerapi.service.VinylViewCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    @Bean
+    public CacheService<VinylView> vinylCache(CacheRegionManager manager) {
+        return manager.getRegion("vinyl");
+    }
+
+    @Bean
+    public CacheService<Boolean> vinylMissingCache(CacheRegionManager manager) {
+        return manager.getRegion("vinyl-missing");
+    }
+
+    @Bean
+    public CacheService<List<VinylView>> vinylListCache(CacheRegionManager manager) {
+        return manager.getRegion("vinyl-list");
+    }
+
+    @Bean
+    public CacheService<CatalogSnapshot<VinylView>> vinylCatalogCache(CacheRegionManager manager) {
+        return manager.getRegion("vinyl-catalog");
+    }
+
+    @Bean
+    public OffHeapListCache<VinylView> vinylSearchOffHeapCache(CacheRegionManager manager,
+                                                             CacheProperties properties) {
+        return new OffHeapListCache<>(manager.getRegion("vinyl-search-offheap"), VinylViewCodec.INSTANCE,
+                properties.getOffHeap().isEnabled());
+    }
+
+    @Bean
+    public CacheService<UserView> userCache(CacheRegionManager manager) {
+        return manager.getRegion("user");
+    }
+
+    @Bean
+    public CacheService<Boolean> userMissingCache(CacheRegionManager manager) {
+        return manager.getRegion("user-missing");
+    }
+
+    @Bean
+    public CacheService<List<UserView>> userListCache(CacheRegionManager manager) {
+        return manager.getRegion("user-list");
+    }
+
+    @Bean
+    public CacheService<List<UserView>> userByUsernameCache(CacheRegionManager manager) {
+        return manager.getRegion("user-by-username");
+    }
+
+    @Bean
+    public CacheService<UserCollection> userVinylCache(CacheRegionManager manager) {
+        return manager.getRegion("user-vinyl");
+    }
+
+    @Bean
+    public CacheService<List<UserVinylView>> vinylUserCache(CacheRegionManager manager) {
+        return manager.getRegion("vinyl-user");
+    }
+
+    @Bean
+    public CacheService<VerifiedToken> verifiedTokenCache(CacheRegionManager manager) {
+        return manager.getRegion("jwt-verified");
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "cache.invalidation", name = "transport", havingValue = "postgres")
+    public CacheInvalidationBus postgresInvalidationBus(DataSource dataSource, ObjectMapper objectMapper,
+                                                        CacheProperties properties, CacheRegionManager manager) {
+        PostgresInvalidationBus bus = new PostgresInvalidationBus(dataSource, objectMapper,
+                properties.getInvalidation().getFlushInterval());
+        bus.subscribe(manager::invalidate);
+        bus.start();
+        return bus;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "cache.invalidation", name = "transport", havingValue = "in-process",
+            matchIfMissing = true)
+    public CacheInvalidationBus inProcessInvalidationBus(CacheProperties properties, CacheRegionManager manager) {
+        InProcessInvalidationBus bus = new InProcessInvalidationBus(properties.getInvalidation().getFlushInterval());
+        bus.subscribe(manager::invalidate);
+        return bus;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.vinyltrackerapi.api.configs;
+
+import com.example.vinyltrackerapi.service.CacheRegionSettings;
+import com.example.vinyltrackerapi.service.EvictionPolicyType;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "cache")
+public class CacheProperties {
+    private Region defaults = new Region();
+    private Map<String, Region> regions = new HashMap<>();
+    private OffHeap offHeap = new OffHeap();
+    private Snapshot snapshot = new Snapshot();
+    private Invalidation invalidation = new Invalidation();
+
+    public CacheRegionSettings resolve(String name) {
+        Region region = regions.getOrDefault(name, new Region());
+        CacheRegionSettings fallback = CacheRegionSettings.DEFAULT;
+        return new CacheRegionSettings(name,
+                firstNonNull(region.getTtl(), defaults.getTtl(), fallback.ttl()),
+                firstNonNull(region.getMaxSize(), defaults.getMaxSize(), fallback.maxSize()),
+                firstNonNull(region.getPolicy(), defaults.getPolicy(), fallback.policy()),
+                firstNonNull(region.getMaxBytes(), defaults.getMaxBytes(), DataSize.ofBytes(fallback.maxBytes()))
+                        .toBytes(),
+                firstNonNull(region.getRefreshAfter(), defaults.getRefreshAfter(), fallback.refreshAfter()),
+                firstNonNull(region.getTtlJitter(), defaults.getTtlJitter(), fallback.ttlJitter()),
+                firstNonNull(region.getExpireAfterWrite(), defaults.getExpireAfterWrite(),
+                        fallback.expireAfterWrite()));
+    }
+
+    private static <V> V firstNonNull(V value, V defaultValue, V fallback) {
+        if (value != null) {
+            return value;
+        }
+        return defaultValue != null ? defaultValue : fallback;
+    }
+
+    @Getter
+    @Setter
+    public static class Region {
+        private Duration ttl;
+        private Integer maxSize;
+        private EvictionPolicyType policy;
+        private DataSize maxBytes;
+        private Duration refreshAfter;
+        private Double ttlJitter;
+        private Boolean expireAfterWrite;
+    }
+
+    @Getter
+    @Setter
+    public static class OffHeap {
+        private boolean enabled = false;
+    }
+
+    @Getter
+    @Setter
+    public static class Snapshot {
+        private boolean enabled = false;
+        private Path directory = Path.of("cache-snapshot");
+        private Duration interval = Duration.ofMinutes(10);
+    }
+
+    @Getter
+    @Setter
+    public static class Invalidation {
+        private Transport transport = Transport.IN_PROCESS;
+        private Duration flushInterval = Duration.ofMillis(50);
+    }
+
+    public enum Transport {
+        IN_PROCESS,
+        POSTGRES
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.vinyltrackerapi.api.configs;
+
+import com.example.vinyltrackerapi.service.CatalogSearchIndex;
+import java.io.IOException;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(SearchProperties.class)
+public class SearchConfig {
+
+    @Bean(destroyMethod = "close")
+    public CatalogSearchIndex catalogSearchIndex(SearchProperties properties) throws IOException {
+        SearchProperties.FullText settings = properties.getFullText();
+        if (!settings.isEnabled()) {
+            return CatalogSearchIndex.disabled();
+        }
+        return new CatalogSearchIndex(FSDirectory.open(settings.getDirectory()), settings.getRefreshInterval(),
+                settings.getCommitInterval());
+    }
+
+    // до создания EntityManagerFactory таблиц ещё нет; миграции применяет VinylSearchSchema после Hibernate
+    @Bean
+    public FlywayMigrationStrategy deferredFlywayMigration() {
+        return flyway -> { };
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.vinyltrackerapi.api.configs;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "search")
+public class SearchProperties {
+    private FullText fullText = new FullText();
+    private Database database = new Database();
+
+    @Getter
+    @Setter
+    public static class FullText {
+        private boolean enabled = false;
+        private Path directory = Path.of("search-index");
+        private Duration refreshInterval = Duration.ofSeconds(1);
+        private Duration commitInterval = Duration.ofMinutes(1);
+    }
+
+    @Getter
+    @Setter
+    public static class Database {
+        private boolean enabled = false;
+    }
+}
@@ -48,6 +48,8 @@ public class SecurityConfig {
                                 "/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html"
                         ).permitAll()
                         .requestMatchers("/api/vinyls/**").permitAll()
+                        .requestMatchers("/actuator/health/**").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
                         .requestMatchers("/api/vip/**").hasAnyRole("VIP_USER", "ADMIN")
                         .requestMatchers("/api/user/**").hasAnyRole("USER", "VIP_USER", "ADMIN")
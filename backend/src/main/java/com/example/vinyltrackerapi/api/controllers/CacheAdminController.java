@@ -0,0 +1,27 @@
+package com.example.vinyltrackerapi.api.controllers;
+
+import com.example.vinyltrackerapi.api.dto.CacheStatsDto;
+import com.example.vinyltrackerapi.service.CacheRegionManager;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@RequiredArgsConstructor
+@Tag(name = "Кеш", description = "Статистика регионов кеша")
+@PreAuthorize("hasRole('ADMIN')")
+public class CacheAdminController {
+    private final CacheRegionManager cacheRegionManager;
+
+    @Operation(summary = "Сводная статистика по всем регионам кеша")
+    @GetMapping
+    public List<CacheStatsDto> getSummary() {
+        return cacheRegionManager.getSummary();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.vinyltrackerapi.api.controllers;
+
+import com.example.vinyltrackerapi.api.dto.SearchIndexStatusDto;
+import com.example.vinyltrackerapi.service.SearchIndexService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/search-index")
+@RequiredArgsConstructor
+@Tag(name = "Поисковый индекс", description = "Полнотекстовый индекс каталога")
+@PreAuthorize("hasRole('ADMIN')")
+public class SearchAdminController {
+    private final SearchIndexService searchIndexService;
+
+    @Operation(summary = "Состояние индекса на этом узле")
+    @GetMapping
+    public SearchIndexStatusDto getStatus() {
+        return searchIndexService.getStatus();
+    }
+
+    @Operation(summary = "Перестроить индекс из БД в фоне")
+    @PostMapping("/rebuild")
+    public ResponseEntity<SearchIndexStatusDto> rebuild() {
+        HttpStatus status = searchIndexService.startRebuild() ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(searchIndexService.getStatus());
+    }
+}
@@ -2,6 +2,7 @@ package com.example.vinyltrackerapi.api.controllers;
 
 import com.example.vinyltrackerapi.api.dto.UpdateUserRoleDto;
 import com.example.vinyltrackerapi.api.dto.UserDto;
+import com.example.vinyltrackerapi.api.dto.UserView;
 import com.example.vinyltrackerapi.api.models.User;
 import com.example.vinyltrackerapi.service.UserService;
 import com.example.vinyltrackerapi.service.UserVinylFacade;
@@ -34,27 +35,22 @@ public class UserAdminController {
 
     @Operation(summary = "Получить всех пользователей")
     @GetMapping
-    public List<UserDto> getAllUsers() {
-        return userService.getAllUsers().stream()
-                .map(UserDto::new)
-                .toList();
+    public List<UserView> getAllUsers() {
+        return userService.getAllUsers();
     }
 
     @Operation(summary = "Получить пользователя по ID")
     @GetMapping("/{id}")
-    public ResponseEntity<UserDto> getUserById(@Parameter(description = "ID пользователя")
-                                               @PathVariable Integer id) {
-        User user = userService.getUser(id);
-        return ResponseEntity.ok(new UserDto(user));
+    public ResponseEntity<UserView> getUserById(@Parameter(description = "ID пользователя")
+                                                @PathVariable Integer id) {
+        return ResponseEntity.ok(userService.getUserView(id));
     }
 
     @Operation(summary = "Получить пользователей по username")
     @GetMapping("/search")
-    public List<UserDto> getUserByUsername(@Parameter(description = "Имя пользователя")
-                                           @RequestParam String username) {
-        return userService.getUserByUsername(username).stream()
-                .map(UserDto::new)
-                .toList();
+    public List<UserView> getUserByUsername(@Parameter(description = "Имя пользователя")
+                                            @RequestParam String username) {
+        return userService.getUserByUsername(username);
     }
 
     @Operation(summary = "Получить пользователя по email")
@@ -1,15 +1,16 @@
 package com.example.vinyltrackerapi.api.controllers;
 
+import com.example.vinyltrackerapi.api.dto.AuthenticatedUser;
 import com.example.vinyltrackerapi.api.dto.UserDto;
-import com.example.vinyltrackerapi.api.models.User;
+import com.example.vinyltrackerapi.api.dto.UserView;
 import com.example.vinyltrackerapi.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import java.security.Principal;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -26,18 +27,15 @@ public class UserSelfController {
 
     @GetMapping
     @Operation(summary = "Получить информацию о себе")
-    public ResponseEntity<UserDto> getMyProfile(Principal principal) {
-        User user = userService.getUserByEmail(principal.getName())
-                .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
-        return ResponseEntity.ok(new UserDto(user));
+    public ResponseEntity<UserView> getMyProfile(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(userService.getUserView(currentUser.id()));
     }
 
     @PutMapping
     @Operation(summary = "Обновить свой профиль")
-    public ResponseEntity<UserDto> updateMyProfile(@Valid @RequestBody UserDto userDto, Principal principal) {
-        User user = userService.getUserByEmail(principal.getName())
-                .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
-        userDto.setId(user.getId());
-        return ResponseEntity.ok(new UserDto(userService.updateUser(user.getId(), userDto)));
+    public ResponseEntity<UserDto> updateMyProfile(@Valid @RequestBody UserDto userDto,
+                                                   @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        userDto.setId(currentUser.id());
+        return ResponseEntity.ok(new UserDto(userService.updateUser(currentUser.id(), userDto)));
     }
 }
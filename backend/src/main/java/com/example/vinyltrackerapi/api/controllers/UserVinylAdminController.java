@@ -1,6 +1,7 @@
 package com.example.vinyltrackerapi.api.controllers;
 
 import com.example.vinyltrackerapi.api.dto.UserVinylDto;
+import com.example.vinyltrackerapi.api.dto.UserVinylView;
 import com.example.vinyltrackerapi.service.UserVinylFacade;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import java.util.List;
@@ -25,7 +26,7 @@ public class UserVinylAdminController {
     }
 
     @GetMapping("/getUsers/{vinylId}")
-    public List<UserVinylDto> getUsersByVinyl(@PathVariable Integer vinylId) {
-        return userVinylFacade.getUsersByVinyl(vinylId).stream().map(UserVinylDto::new).toList();
+    public List<UserVinylView> getUsersByVinyl(@PathVariable Integer vinylId) {
+        return userVinylFacade.getUsersByVinyl(vinylId);
     }
 }
\ No newline at end of file
@@ -1,14 +1,16 @@
 package com.example.vinyltrackerapi.api.controllers;
 
+import com.example.vinyltrackerapi.api.dto.AuthenticatedUser;
 import com.example.vinyltrackerapi.api.dto.UserVinylDto;
+import com.example.vinyltrackerapi.api.dto.UserVinylView;
 import com.example.vinyltrackerapi.service.UserVinylFacade;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import java.security.Principal;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -29,27 +31,29 @@ public class UserVinylSelfController {
     @PostMapping("/add")
     public ResponseEntity<UserVinylDto> addVinyl(@RequestParam Integer vinylId,
                                                  @RequestParam Integer statusId,
-                                                 Principal principal) {
-        return ResponseEntity.ok(userVinylFacade.addVinylToCurrentUser(vinylId, statusId, principal));
+                                                 @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(userVinylFacade.addVinylToCurrentUser(vinylId, statusId, currentUser));
     }
 
     @Operation(summary = "Удалить пластинку у текущего пользователя")
     @DeleteMapping("/remove")
-    public ResponseEntity<Void> removeVinyl(@RequestParam Integer vinylId, Principal principal) {
-        userVinylFacade.removeVinylFromCurrentUser(vinylId, principal);
+    public ResponseEntity<Void> removeVinyl(@RequestParam Integer vinylId,
+                                            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        userVinylFacade.removeVinylFromCurrentUser(vinylId, currentUser);
         return ResponseEntity.noContent().build();
     }
 
     @Operation(summary = "Получить все связи текущего пользователя")
     @GetMapping
-    public List<UserVinylDto> getMyVinyls(Principal principal) {
-        return userVinylFacade.getCurrentUserVinyls(principal);
+    public List<UserVinylView> getMyVinyls(@AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return userVinylFacade.getCurrentUserVinyls(currentUser);
     }
 
     @Operation(summary = "Получить конкретную связь у текущего пользователя")
     @GetMapping("/find")
-    public ResponseEntity<UserVinylDto> findVinyl(@RequestParam Integer vinylId, Principal principal) {
-        return userVinylFacade.findVinylForCurrentUser(vinylId, principal)
+    public ResponseEntity<UserVinylDto> findVinyl(@RequestParam Integer vinylId,
+                                                  @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        return userVinylFacade.findVinylForCurrentUser(vinylId, currentUser)
                 .map(uv -> ResponseEntity.ok(new UserVinylDto(uv)))
                 .orElse(ResponseEntity.notFound().build());
     }
@@ -58,8 +62,8 @@ public class UserVinylSelfController {
     @PutMapping("/update-status")
     public ResponseEntity<UserVinylDto> updateStatus(@RequestParam Integer vinylId,
                                                      @RequestParam Integer newStatusId,
-                                                     Principal principal) {
+                                                     @AuthenticationPrincipal AuthenticatedUser currentUser) {
         return ResponseEntity.ok(new UserVinylDto(
-                userVinylFacade.updateCurrentUserVinylStatus(vinylId, newStatusId, principal)));
+                userVinylFacade.updateCurrentUserVinylStatus(vinylId, newStatusId, currentUser)));
     }
 }
\ No newline at end of file
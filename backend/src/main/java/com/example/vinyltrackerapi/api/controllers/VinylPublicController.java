@@ -1,21 +1,36 @@
 package com.example.vinyltrackerapi.api.controllers;
 
+import com.example.vinyltrackerapi.api.dto.CatalogSearchView;
+import com.example.vinyltrackerapi.api.dto.CursorSlice;
+import com.example.vinyltrackerapi.api.dto.FacetFilter;
+import com.example.vinyltrackerapi.api.dto.FacetedPageView;
+import com.example.vinyltrackerapi.api.dto.SuggestionView;
 import com.example.vinyltrackerapi.api.dto.VinylDto;
-import com.example.vinyltrackerapi.api.models.Vinyl;
+import com.example.vinyltrackerapi.api.dto.VinylView;
+import com.example.vinyltrackerapi.service.CatalogSuggester;
+import com.example.vinyltrackerapi.service.VinylExportService;
 import com.example.vinyltrackerapi.service.VinylService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.Duration;
 import java.util.List;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/vinyls")
@@ -23,39 +38,82 @@ import org.springframework.web.bind.annotation.RestController;
 @Tag(name = "Публичный доступ к пластинкам", description = "Просмотр и поиск винилов")
 public class VinylPublicController {
     private final VinylService vinylService;
+    private final CatalogSuggester catalogSuggester;
+    private final VinylExportService vinylExportService;
 
+    // ETag берётся до чтения данных: если между ними случится запись, клиент получит
+    // более старый тег и просто перезапросит, но никогда не закеширует старое тело под новым тегом
     @Operation(summary = "Получить все пластинки")
     @GetMapping
-    public List<VinylDto> getAllVinyls() {
-        return vinylService.getAllVinyls().stream()
-                .map(VinylDto::new)
-                .toList();
+    public ResponseEntity<List<VinylView>> getAllVinyls(WebRequest request) {
+        String etag = vinylService.getCatalogEtag();
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        return revalidated(etag).body(vinylService.getAllVinyls());
+    }
+
+    // в отличие от списка выше ответ не собирается в памяти: строки пишутся по мере чтения из БД
+    @Operation(summary = "Выгрузить весь каталог потоком в NDJSON или CSV")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCatalog(
+            @Parameter(description = "ndjson или csv") @RequestParam(defaultValue = "ndjson") String format) {
+        VinylExportService.Format exportFormat = VinylExportService.Format.of(format);
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename("vinyls." + exportFormat.extension())
+                .build();
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(out -> vinylExportService.export(exportFormat, out));
     }
 
     @Operation(summary = "Получить пластинку по ID")
     @GetMapping("/{id}")
-    public ResponseEntity<VinylDto> getVinylById(@Parameter(description = "ID пластинки")
-                                                 @PathVariable Integer id) {
-        Vinyl vinyl = vinylService.getVinyl(id);
-        return ResponseEntity.ok(new VinylDto(vinyl));
+    public ResponseEntity<VinylView> getVinylById(@Parameter(description = "ID пластинки")
+                                                  @PathVariable Integer id, WebRequest request) {
+        String etag = vinylService.getVinylEtag(id);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        return revalidated(etag).body(vinylService.getVinylView(id));
     }
 
     @Operation(summary = "Поиск пластинок по параметрам")
     @GetMapping("/search")
-    public List<VinylDto> searchVinyls(
+    public ResponseEntity<List<VinylView>> searchVinyls(
             @Parameter(description = "Название") @RequestParam(required = false) String title,
             @Parameter(description = "Артист") @RequestParam(required = false) String artist,
             @Parameter(description = "Год выпуска") @RequestParam(required = false) Integer releaseYear,
-            @Parameter(description = "Жанр") @RequestParam(required = false) Integer genreId) {
-        return vinylService.searchVinyls(title, artist, releaseYear, genreId);
+            @Parameter(description = "Жанр") @RequestParam(required = false) Integer genreId,
+            WebRequest request) {
+        String etag = vinylService.getCatalogEtag();
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        return revalidated(etag).body(vinylService.searchVinyls(title, artist, releaseYear, genreId));
     }
 
     @Operation(summary = "Гибкий поиск пластинок по текстовому запросу")
     @GetMapping("/search/global")
-    public List<VinylDto> searchVinylsByText(
+    public ResponseEntity<List<VinylView>> searchVinylsByText(
             @Parameter(description = "Произвольный поисковый запрос (название, артист, жанр или год)")
-            @RequestParam String query) {
-        return vinylService.searchVinylsGlobal(query);
+            @RequestParam String query, WebRequest request) {
+        String etag = vinylService.getTextSearchEtag();
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        return revalidated(etag).body(vinylService.searchVinylsGlobal(query));
+    }
+
+    // без ETag: словарь опечаток достраивается в фоне и может измениться без изменения каталога
+    @Operation(summary = "Текстовый поиск с исправлением опечаток")
+    @GetMapping("/search/smart")
+    public CatalogSearchView searchWithCorrections(
+            @Parameter(description = "Произвольный поисковый запрос") @RequestParam String query,
+            @Parameter(description = "Искать по лучшему исправлению, если совпадений мало")
+            @RequestParam(defaultValue = "false") boolean autoCorrect) {
+        return vinylService.searchWithCorrections(query, autoCorrect);
     }
 
     @Operation(summary = "Получить пластинки по username загрузившего пользователя (Path)")
@@ -77,6 +135,30 @@ public class VinylPublicController {
                 .toList();
     }
 
+    @Operation(summary = "Полнотекстовый поиск по каталогу с ранжированием и пагинацией")
+    @GetMapping("/search/text")
+    public ResponseEntity<Page<VinylView>> searchCatalog(
+            @Parameter(description = "Слова из названия, артиста, жанра, описания или год")
+            @RequestParam String query, Pageable pageable, WebRequest request) {
+        String etag = vinylService.getTextSearchEtag();
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        return revalidated(etag).body(vinylService.searchCatalog(query, pageable));
+    }
+
+    // подсказки на каждое нажатие клавиши: ответ из памяти, браузер может держать его минуту
+    @Operation(summary = "Подсказки по началу исполнителя, названия или жанра")
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionView>> suggest(
+            @Parameter(description = "Начало слова") @RequestParam String prefix,
+            @Parameter(description = "Число подсказок, не больше " + CatalogSuggester.MAX_LIMIT)
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(1)))
+                .body(catalogSuggester.suggest(prefix, limit));
+    }
+
     @Operation(summary = "Получить рандомные пластинки 2025 года")
     @GetMapping("/new")
     public List<VinylDto> getRandomVinyls2025(@RequestParam(defaultValue = "10") int limit) {
@@ -97,11 +179,72 @@ public class VinylPublicController {
             @RequestParam(required = false) String artist,
             @RequestParam(required = false) Integer releaseYear,
             @RequestParam(required = false, name = "genre") String genreName,
-            @RequestParam(required = false) Integer genreId
+            @RequestParam(required = false) Integer genreId,
+            WebRequest request
     ) {
-        return ResponseEntity.ok(
+        String etag = vinylService.getCatalogEtag();
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        return revalidated(etag).body(
                 vinylService.getVinylsPage(pageable, title, artist, releaseYear, genreName, genreId)
         );
     }
 
+    @Operation(summary = "Окно пластинок с фильтрами по курсору",
+            description = "Без OFFSET и общего числа записей. Сортировка по одному из полей id, title, artist, "
+                    + "releaseYear; следующее окно запрашивается с nextCursor из ответа")
+    @GetMapping("/scroll")
+    public CursorSlice<VinylView> scrollVinyls(
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String artist,
+            @RequestParam(required = false) Integer releaseYear,
+            @RequestParam(required = false, name = "genre") String genreName,
+            @RequestParam(required = false) Integer genreId,
+            @Parameter(description = "Курсор из предыдущего ответа") @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Sort sort) {
+        return vinylService.scrollVinyls(title, artist, releaseYear, genreName, genreId, sort, cursor, size);
+    }
+
+    @Operation(summary = "Универсальный поиск окнами по курсору")
+    @GetMapping("/search/global/scroll")
+    public CursorSlice<VinylView> scrollVinylsByText(
+            @Parameter(description = "Название, артист, год или жанр") @RequestParam String query,
+            @Parameter(description = "Курсор из предыдущего ответа") @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return vinylService.scrollVinylsGlobal(query, cursor, size);
+    }
+
+    @Operation(summary = "Пластинки загрузившего пользователя окнами по курсору")
+    @GetMapping("/uploaded-by/{username}/scroll")
+    public CursorSlice<VinylView> scrollVinylsByUploader(
+            @Parameter(description = "Username") @PathVariable String username,
+            @Parameter(description = "Курсор из предыдущего ответа") @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Sort sort) {
+        return vinylService.scrollVinylsByUploader(username, sort, cursor, size);
+    }
+
+    // без ETag: индекс фасетов на других узлах догоняет каталог асинхронно
+    @Operation(summary = "Страница каталога с множественными фильтрами и счётчиками по фасетам",
+            description = "Значения одного фильтра объединяются через ИЛИ, разные фильтры — через И. "
+                    + "Сортировка: id или releaseYear")
+    @GetMapping("/browse")
+    public FacetedPageView browseCatalog(
+            @Parameter(description = "ID жанров") @RequestParam(required = false) Set<Integer> genreId,
+            @Parameter(description = "Год выпуска от") @RequestParam(required = false) Integer yearFrom,
+            @Parameter(description = "Год выпуска до") @RequestParam(required = false) Integer yearTo,
+            @Parameter(description = "Десятилетия, например 1970") @RequestParam(required = false) Set<Integer> decade,
+            @Parameter(description = "ID загрузивших") @RequestParam(required = false) Set<Integer> uploaderId,
+            Pageable pageable) {
+        return vinylService.browseCatalog(new FacetFilter(genreId, yearFrom, yearTo, decade, uploaderId), pageable);
+    }
+
+    // no-cache: браузер хранит ответ, но каждый раз сверяет его по If-None-Match
+    private static ResponseEntity.BodyBuilder revalidated(String etag) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+        return etag != null ? builder.eTag(etag) : builder;
+    }
+
 }
\ No newline at end of file
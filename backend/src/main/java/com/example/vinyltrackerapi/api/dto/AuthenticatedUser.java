@@ -0,0 +1,15 @@
+package com.example.vinyltrackerapi.api.dto;
+
+import java.security.Principal;
+
+/**
+ * Текущий пользователь, восстановленный из проверенного JWT. Кладётся в SecurityContext
+ * как principal, поэтому сервисам не нужно заново искать пользователя в БД.
+ */
+public record AuthenticatedUser(Integer id, String username, String role) implements Principal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
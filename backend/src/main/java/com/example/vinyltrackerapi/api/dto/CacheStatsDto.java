@@ -0,0 +1,51 @@
+package com.example.vinyltrackerapi.api.dto;
+
+import com.example.vinyltrackerapi.service.CacheService;
+import com.example.vinyltrackerapi.service.CacheStats;
+import com.example.vinyltrackerapi.service.RemovalCause;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class CacheStatsDto {
+    private String region;
+    private int size;
+    private int maxSize;
+    private long maxBytes;
+    private long estimatedBytes;
+    private long hits;
+    private long misses;
+    private double hitRate;
+    private long puts;
+    private Map<RemovalCause, Long> evictions;
+    private long expirations;
+    private long loads;
+    private long loadFailures;
+    private double averageLoadMillis;
+
+    public CacheStatsDto(CacheService<?> cache) {
+        CacheStats stats = cache.getStats();
+        this.region = cache.getName();
+        this.size = cache.size();
+        this.maxSize = cache.getSettings().maxSize();
+        this.maxBytes = cache.getSettings().maxBytes();
+        this.estimatedBytes = cache.estimatedBytes();
+        this.hits = stats.hitCount();
+        this.misses = stats.missCount();
+        this.hitRate = stats.hitRate();
+        this.puts = stats.putCount();
+        this.evictions = new EnumMap<>(RemovalCause.class);
+        for (RemovalCause cause : RemovalCause.values()) {
+            this.evictions.put(cause, stats.evictionCount(cause));
+        }
+        this.expirations = stats.evictionCount(RemovalCause.EXPIRED);
+        this.loads = stats.loadCount();
+        this.loadFailures = stats.loadFailureCount();
+        this.averageLoadMillis = loads == 0 ? 0.0
+                : (double) stats.totalLoadTime(TimeUnit.MICROSECONDS) / loads / 1000;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.vinyltrackerapi.api.dto;
+
+import java.util.List;
+
+/**
+ * Результат универсального поиска с вариантами «возможно, вы имели в виду».
+ * {@code correctedQuery} заполнен, если результаты найдены по исправленному запросу.
+ */
+public record CatalogSearchView(String query, String correctedQuery, List<String> didYouMean,
+                                List<VinylView> results) {
+}
@@ -0,0 +1,12 @@
+package com.example.vinyltrackerapi.api.dto;
+
+import java.util.List;
+
+/**
+ * Окно keyset-пагинации: без общего числа записей, следующее окно запрашивается по {@code nextCursor}.
+ */
+public record CursorSlice<T>(List<T> content, int size, boolean hasNext, String nextCursor) {
+    public static <T> CursorSlice<T> empty(int size) {
+        return new CursorSlice<>(List.of(), size, false, null);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.vinyltrackerapi.api.dto;
+
+import java.util.Map;
+
+/**
+ * Число пластинок по каждому значению фасета. Счётчик фасета учитывает все фильтры, кроме
+ * его собственного, поэтому видно, сколько добавит ещё одно выбранное значение.
+ * Загрузившие — только самые активные.
+ */
+public record FacetCountsView(Map<Integer, Integer> genres, Map<Integer, Integer> years,
+                              Map<Integer, Integer> decades, Map<Integer, Integer> uploaders) {
+
+    public static final FacetCountsView EMPTY = new FacetCountsView(Map.of(), Map.of(), Map.of(), Map.of());
+}
@@ -0,0 +1,21 @@
+package com.example.vinyltrackerapi.api.dto;
+
+import java.util.Set;
+
+/**
+ * Фильтры страницы каталога. Значения одного фасета объединяются через ИЛИ, разные фасеты — через И;
+ * диапазон лет и десятилетия ограничивают год одновременно.
+ */
+public record FacetFilter(Set<Integer> genreIds, Integer yearFrom, Integer yearTo, Set<Integer> decades,
+                          Set<Integer> uploaderIds) {
+
+    public FacetFilter {
+        genreIds = genreIds == null ? Set.of() : Set.copyOf(genreIds);
+        decades = decades == null ? Set.of() : Set.copyOf(decades);
+        uploaderIds = uploaderIds == null ? Set.of() : Set.copyOf(uploaderIds);
+    }
+
+    public boolean hasYearRange() {
+        return yearFrom != null || yearTo != null;
+    }
+}
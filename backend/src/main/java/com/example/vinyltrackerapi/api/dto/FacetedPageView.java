@@ -0,0 +1,10 @@
+package com.example.vinyltrackerapi.api.dto;
+
+import java.util.List;
+
+/**
+ * Страница каталога вместе со счётчиками фасетов; пока индекс фасетов строится, счётчики пустые.
+ */
+public record FacetedPageView(List<VinylView> content, int page, int size, long totalElements, int totalPages,
+                              FacetCountsView facets) {
+}
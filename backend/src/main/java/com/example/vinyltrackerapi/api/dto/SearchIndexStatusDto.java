@@ -0,0 +1,10 @@
+package com.example.vinyltrackerapi.api.dto;
+
+import java.time.Instant;
+
+/**
+ * Состояние полнотекстового индекса каталога на этом узле.
+ */
+public record SearchIndexStatusDto(boolean enabled, int documents, boolean rebuilding,
+                                   Instant lastRebuildAt, Integer lastRebuildDocuments) {
+}
@@ -0,0 +1,13 @@
+package com.example.vinyltrackerapi.api.dto;
+
+/**
+ * Подсказка автодополнения: исполнитель, название или жанр и число пластинок каталога с ним.
+ */
+public record SuggestionView(String text, Type type, int popularity) {
+
+    public enum Type {
+        ARTIST,
+        TITLE,
+        GENRE
+    }
+}
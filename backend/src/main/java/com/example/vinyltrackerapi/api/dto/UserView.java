@@ -0,0 +1,18 @@
+package com.example.vinyltrackerapi.api.dto;
+
+import com.example.vinyltrackerapi.api.models.User;
+
+/**
+ * Неизменяемое представление пользователя для чтения. JSON совпадает с {@link UserDto}.
+ */
+public record UserView(Integer id, String username, String email, String password, Integer roleId) {
+
+    public static UserView of(User user) {
+        return new UserView(
+                user.getId(),
+                user.getUsername(),
+                user.getEmail(),
+                user.getPassword(),
+                user.getRole() != null ? user.getRole().getId() : null);
+    }
+}
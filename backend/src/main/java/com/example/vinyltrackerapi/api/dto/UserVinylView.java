@@ -0,0 +1,32 @@
+package com.example.vinyltrackerapi.api.dto;
+
+import com.example.vinyltrackerapi.api.models.UserVinyl;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Неизменяемое представление связи пользователя и пластинки. JSON совпадает с {@link UserVinylDto}.
+ */
+public record UserVinylView(UserView user, VinylView vinyl, Integer statusId, DictionaryEntryDto status) {
+
+    public static UserVinylView of(UserVinyl userVinyl) {
+        return new UserVinylView(
+                UserView.of(userVinyl.getUser()),
+                VinylView.of(userVinyl.getVinyl()),
+                userVinyl.getStatus().getId(),
+                new DictionaryEntryDto(userVinyl.getStatus().getId(), userVinyl.getStatus().getName()));
+    }
+
+    public UserVinylView withVinyl(VinylView changed) {
+        return new UserVinylView(user, changed, statusId, status);
+    }
+
+    @JsonProperty("userId")
+    public int userId() {
+        return user.id();
+    }
+
+    @JsonProperty("vinylId")
+    public int vinylId() {
+        return vinyl.id();
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.vinyltrackerapi.api.dto;
+
+/**
+ * Результат проверки подписи JWT: всё, что фильтру нужно из claims. Кэшируется до {@code expiresAt}.
+ */
+public record VerifiedToken(Integer userId, String role, long expiresAt) {
+
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.vinyltrackerapi.api.dto;
+
+import com.example.vinyltrackerapi.api.models.Vinyl;
+
+/**
+ * Неизменяемое представление пластинки для чтения. Строится один раз при загрузке в кэш
+ * и отдаётся клиенту как есть — JSON совпадает с {@link VinylDto}.
+ */
+public record VinylView(Integer id, String title, String artist, Integer genreId, Integer releaseYear,
+                        String description, String coverUrl, Integer addedById) {
+
+    public static VinylView of(Vinyl vinyl) {
+        return new VinylView(
+                vinyl.getId(),
+                vinyl.getTitle(),
+                vinyl.getArtist(),
+                vinyl.getGenre() != null ? vinyl.getGenre().getId() : null,
+                vinyl.getReleaseYear(),
+                vinyl.getDescription(),
+                vinyl.getCoverUrl(),
+                vinyl.getAddedBy() != null ? vinyl.getAddedBy().getId() : null);
+    }
+}
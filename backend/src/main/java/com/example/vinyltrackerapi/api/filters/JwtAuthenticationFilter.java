@@ -1,6 +1,8 @@
 package com.example.vinyltrackerapi.api.filters;
 
-import com.example.vinyltrackerapi.api.models.User;
+import com.example.vinyltrackerapi.api.dto.AuthenticatedUser;
+import com.example.vinyltrackerapi.api.dto.UserView;
+import com.example.vinyltrackerapi.api.dto.VerifiedToken;
 import com.example.vinyltrackerapi.api.utils.JwtUtil;
 import com.example.vinyltrackerapi.service.UserService;
 import jakarta.servlet.FilterChain;
@@ -39,25 +41,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String jwt = authHeader.substring(7);
 
         try {
-            final String idStr = jwtUtil.extractUsername(jwt);
-            final int userId = Integer.parseInt(idStr);
+            final VerifiedToken token = jwtUtil.verify(jwt);
 
-            final User user = userService.getUser(userId);
+            final UserView user = userService.getUserView(token.userId());
 
             if (user != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                if (jwtUtil.isTokenValid(jwt, user)) {
+                var authorities = List.of(new SimpleGrantedAuthority("ROLE_" + token.role()));
 
-                    final String role = jwtUtil.extractRole(jwt);
-                    var authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role));
+                var authToken = new UsernamePasswordAuthenticationToken(
+                        new AuthenticatedUser(user.id(), user.username(), token.role()),
+                        null,
+                        authorities
+                );
 
-                    var authToken = new UsernamePasswordAuthenticationToken(
-                            user.getEmail(),
-                            null,
-                            authorities
-                    );
-
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         } catch (Exception e) {
             System.err.println("[JWT] Ошибка обработки токена: " + e.getMessage());
@@ -10,15 +10,17 @@ import org.springframework.stereotype.Repository;
 
 @Repository
 public interface UserVinylRepository extends JpaRepository<UserVinyl, UserVinylId> {
-    List<UserVinyl> findByUserId(Integer userId);
-
     List<UserVinyl> findByVinylId(Integer vinylId);
 
+    @Query("SELECT uv.user.id FROM UserVinyl uv WHERE uv.vinyl.id = :vinylId")
+    List<Integer> findUserIdsByVinylId(@Param("vinylId") Integer vinylId);
+
     void deleteAllByUserId(Integer userId);
 
     void deleteAllByVinylId(Integer vinylId);
 
     @Query("SELECT uv FROM UserVinyl uv " +
+            "JOIN FETCH uv.user u " +
             "JOIN FETCH uv.vinyl v " +
             "JOIN FETCH uv.status s " +
             "WHERE uv.user.id = :userId")
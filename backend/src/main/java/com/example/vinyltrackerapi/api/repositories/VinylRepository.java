@@ -1,17 +1,26 @@
 package com.example.vinyltrackerapi.api.repositories;
 
+import com.example.vinyltrackerapi.api.dto.VinylView;
 import com.example.vinyltrackerapi.api.models.Genre;
 import com.example.vinyltrackerapi.api.models.User;
 import com.example.vinyltrackerapi.api.models.Vinyl;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface VinylRepository extends JpaRepository<Vinyl, Integer>, JpaSpecificationExecutor<Vinyl> {
+public interface VinylRepository extends JpaRepository<Vinyl, Integer>, JpaSpecificationExecutor<Vinyl>,
+        VinylSearchRepository {
     @Query(value = " SELECT v.* FROM vinyls v " +
             "JOIN users u ON v.added_by_id = u.id " +
             "WHERE u.username = :username", nativeQuery = true)
@@ -34,4 +43,17 @@ public interface VinylRepository extends JpaRepository<Vinyl, Integer>, JpaSpeci
     List<Vinyl> findByReleaseYear(Integer releaseYear);
 
     List<Vinyl> findByAddedBy(User addedBy);
+
+    // жанр нужен полнотекстовому индексу, без графа был бы отдельный запрос на каждую пластинку
+    @EntityGraph(attributePaths = "genre")
+    List<Vinyl> findByIdGreaterThanOrderByIdAsc(Integer id, Pageable limit);
+
+    @EntityGraph(attributePaths = "genre")
+    List<Vinyl> findByIdIn(Collection<Integer> ids);
+
+    // сразу представления, а не сущности: контекст не растёт, строки читаются курсором порциями
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.example.vinyltrackerapi.api.dto.VinylView(v.id, v.title, v.artist, v.genre.id, "
+            + "v.releaseYear, v.description, v.coverUrl, u.id) FROM Vinyl v LEFT JOIN v.addedBy u ORDER BY v.id")
+    Stream<VinylView> streamAllViews();
 }
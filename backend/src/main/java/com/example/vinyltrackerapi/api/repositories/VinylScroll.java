@@ -0,0 +1,14 @@
+package com.example.vinyltrackerapi.api.repositories;
+
+/**
+ * Окно keyset-пагинации: следующие {@code limit} записей строго после {@code after}
+ * в порядке (значение свойства, id). Без {@code after} — первое окно.
+ */
+public record VinylScroll(String property, boolean descending, Key after, int limit) {
+
+    /**
+     * Позиция записи в порядке окна: id и значение свойства сортировки.
+     */
+    public record Key(Integer id, Object value) {
+    }
+}
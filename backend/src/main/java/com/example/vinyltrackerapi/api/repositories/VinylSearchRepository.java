@@ -0,0 +1,45 @@
+package com.example.vinyltrackerapi.api.repositories;
+
+import com.example.vinyltrackerapi.api.models.Vinyl;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Поиск по нормализованным колонкам {@code search_*} с GIN-индексами (pg_trgm и tsvector).
+ * Колонки создаёт миграция, поэтому вызывать можно только при {@code VinylSearchSchema.isAvailable()};
+ * keyset-методы без {@code searchColumns} работают и без неё.
+ */
+public interface VinylSearchRepository {
+
+    /**
+     * Те же фильтры, что и у {@code VinylSpecification}, но без учёта регистра и диакритики.
+     * Без явной сортировки результаты упорядочены по похожести на title и artist.
+     */
+    Page<Vinyl> searchByFields(String title, String artist, Integer releaseYear, Integer genreId,
+                               Pageable pageable);
+
+    /**
+     * Подстрока в title или artist, все слова запроса в title, artist или description,
+     * год выпуска или один из жанров; лучшие {@code limit} по ts_rank и похожести.
+     */
+    List<Vinyl> searchByText(String query, Integer year, Collection<Integer> genreIds, int limit);
+
+    /**
+     * Id и ключи сортировки следующего окна по тем же фильтрам, что и {@link #searchByFields},
+     * плюс загрузивший пользователь. Порядок по свойству и id в одну сторону, поэтому окно
+     * читается по составному индексу (свойство, id) с места курсора, без OFFSET.
+     *
+     * @param searchColumns искать подстроку по колонкам {@code search_*}, иначе по {@code lower()}
+     */
+    List<VinylScroll.Key> scrollByFields(String title, String artist, Integer releaseYear, Integer genreId,
+                                         String uploaderUsername, boolean searchColumns, VinylScroll scroll);
+
+    /**
+     * Следующее окно текстового поиска. При {@code ranked} условия и порядок как у {@link #searchByText}
+     * (свойство {@code rank}), иначе подстрока по {@code lower()}, год или жанр в порядке id.
+     */
+    List<VinylScroll.Key> scrollByText(String query, Integer year, Collection<Integer> genreIds, boolean ranked,
+                                       VinylScroll scroll);
+}
@@ -0,0 +1,260 @@
+package com.example.vinyltrackerapi.api.repositories;
+
+import com.example.vinyltrackerapi.api.models.Vinyl;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+public class VinylSearchRepositoryImpl implements VinylSearchRepository {
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "v.id",
+            "title", "v.title",
+            "artist", "v.artist",
+            "releaseYear", "v.release_year",
+            "description", "v.description",
+            "coverUrl", "v.cover_url");
+    private static final Map<String, String> KEYSET_COLUMNS = Map.of(
+            "id", "v.id",
+            "title", "v.title",
+            "artist", "v.artist",
+            "releaseYear", "v.release_year");
+    private static final String TS_QUERY = "plainto_tsquery('simple', vinyl_search_normalize(:query))";
+    private static final String RANK = "ts_rank(v.search_document, " + TS_QUERY + ")"
+            + " + greatest(similarity(v.search_title, vinyl_search_normalize(:query)),"
+            + " similarity(v.search_artist, vinyl_search_normalize(:query)))";
+    private final EntityManager entityManager;
+
+    public VinylSearchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Page<Vinyl> searchByFields(String title, String artist, Integer releaseYear, Integer genreId,
+                                      Pageable pageable) {
+        StringBuilder where = new StringBuilder(" WHERE TRUE");
+        Map<String, Object> params = new HashMap<>();
+        Map<String, Object> rankParams = new HashMap<>();
+        List<String> ranks = new ArrayList<>();
+        if (StringUtils.hasText(title)) {
+            where.append(" AND v.search_title LIKE ").append(containsPattern("titlePattern"));
+            ranks.add("similarity(v.search_title, vinyl_search_normalize(:title))");
+            rankParams.put("title", title);
+            params.put("titlePattern", escapeLike(title));
+        }
+        if (StringUtils.hasText(artist)) {
+            where.append(" AND v.search_artist LIKE ").append(containsPattern("artistPattern"));
+            ranks.add("similarity(v.search_artist, vinyl_search_normalize(:artist))");
+            rankParams.put("artist", artist);
+            params.put("artistPattern", escapeLike(artist));
+        }
+        if (releaseYear != null) {
+            where.append(" AND v.release_year = :releaseYear");
+            params.put("releaseYear", releaseYear);
+        }
+        if (genreId != null) {
+            where.append(" AND v.genre_id = :genreId");
+            params.put("genreId", genreId);
+        }
+
+        // параметры ранжирования нужны только в ORDER BY, запросу количества их передавать нельзя
+        Map<String, Object> selectParams = new HashMap<>(params);
+        String order;
+        if (pageable.getSort().isSorted()) {
+            order = orderBy(pageable.getSort());
+        } else if (ranks.isEmpty()) {
+            order = "v.id";
+        } else {
+            order = "(" + String.join(" + ", ranks) + ") DESC, v.id";
+            selectParams.putAll(rankParams);
+        }
+        Query query = nativeQuery("SELECT v.* FROM vinyls v" + where + " ORDER BY " + order, Vinyl.class,
+                selectParams);
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(resultList(query));
+        }
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize());
+        Query count = nativeQuery("SELECT count(*) FROM vinyls v" + where, null, params);
+        return PageableExecutionUtils.getPage(resultList(query), pageable,
+                () -> ((Number) count.getSingleResult()).longValue());
+    }
+
+    @Override
+    public List<Vinyl> searchByText(String query, Integer year, Collection<Integer> genreIds, int limit) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("query", query);
+        params.put("pattern", escapeLike(query));
+        StringBuilder sql = new StringBuilder("SELECT v.* FROM vinyls v")
+                .append(" WHERE v.search_title LIKE ").append(containsPattern("pattern"))
+                .append(" OR v.search_artist LIKE ").append(containsPattern("pattern"))
+                .append(" OR v.search_document @@ ").append(TS_QUERY);
+        if (year != null) {
+            sql.append(" OR v.release_year = :year");
+            params.put("year", year);
+        }
+        if (!genreIds.isEmpty()) {
+            sql.append(" OR v.genre_id IN (:genreIds)");
+            params.put("genreIds", genreIds);
+        }
+        sql.append(" ORDER BY ").append(RANK).append(" DESC, v.id");
+
+        Query nativeQuery = nativeQuery(sql.toString(), Vinyl.class, params);
+        nativeQuery.setMaxResults(limit);
+        return resultList(nativeQuery);
+    }
+
+    @Override
+    public List<VinylScroll.Key> scrollByFields(String title, String artist, Integer releaseYear, Integer genreId,
+                                                String uploaderUsername, boolean searchColumns, VinylScroll scroll) {
+        String column = KEYSET_COLUMNS.get(scroll.property());
+        if (column == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Сортировка по полю " + scroll.property() + " не поддерживается");
+        }
+        StringBuilder sql = new StringBuilder("SELECT v.id, ").append(column).append(" AS sort_key FROM vinyls v");
+        Map<String, Object> params = new HashMap<>();
+        if (StringUtils.hasText(uploaderUsername)) {
+            sql.append(" JOIN users u ON u.id = v.added_by_id AND u.username = :username");
+            params.put("username", uploaderUsername);
+        }
+        sql.append(" WHERE TRUE");
+        if (StringUtils.hasText(title)) {
+            sql.append(" AND ").append(contains("title", searchColumns, "titlePattern"));
+            params.put("titlePattern", escapeLike(title));
+        }
+        if (StringUtils.hasText(artist)) {
+            sql.append(" AND ").append(contains("artist", searchColumns, "artistPattern"));
+            params.put("artistPattern", escapeLike(artist));
+        }
+        if (releaseYear != null) {
+            sql.append(" AND v.release_year = :releaseYear");
+            params.put("releaseYear", releaseYear);
+        }
+        if (genreId != null) {
+            sql.append(" AND v.genre_id = :genreId");
+            params.put("genreId", genreId);
+        }
+        // сравнение строк целиком даёт планировщику начальную точку в индексе (свойство, id)
+        String comparison = scroll.descending() ? " < " : " > ";
+        if (scroll.after() != null && "v.id".equals(column)) {
+            sql.append(" AND v.id").append(comparison).append(":afterId");
+            params.put("afterId", scroll.after().id());
+        } else if (scroll.after() != null) {
+            sql.append(" AND (").append(column).append(", v.id)").append(comparison).append("(:afterValue, :afterId)");
+            params.put("afterValue", scroll.after().value());
+            params.put("afterId", scroll.after().id());
+        }
+        String direction = scroll.descending() ? " DESC" : " ASC";
+        sql.append(" ORDER BY ").append(column).append(direction).append(", v.id").append(direction);
+        return keys(sql.toString(), params, scroll.limit());
+    }
+
+    @Override
+    public List<VinylScroll.Key> scrollByText(String query, Integer year, Collection<Integer> genreIds, boolean ranked,
+                                              VinylScroll scroll) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("pattern", escapeLike(query));
+        StringBuilder match = new StringBuilder();
+        if (ranked) {
+            params.put("query", query);
+            match.append(contains("title", true, "pattern"))
+                    .append(" OR ").append(contains("artist", true, "pattern"))
+                    .append(" OR v.search_document @@ ").append(TS_QUERY);
+        } else {
+            match.append(contains("title", false, "pattern"))
+                    .append(" OR ").append(contains("artist", false, "pattern"));
+        }
+        if (year != null) {
+            match.append(" OR v.release_year = :year");
+            params.put("year", year);
+        }
+        if (!genreIds.isEmpty()) {
+            match.append(" OR v.genre_id IN (:genreIds)");
+            params.put("genreIds", genreIds);
+        }
+
+        StringBuilder sql;
+        if (ranked) {
+            // по рангу индекса нет: направления разные, поэтому условие без сравнения строк
+            sql = new StringBuilder("SELECT r.id, r.sort_key FROM (SELECT v.id, (").append(RANK)
+                    .append(")::float8 AS sort_key FROM vinyls v WHERE ").append(match).append(") r");
+            if (scroll.after() != null) {
+                sql.append(" WHERE r.sort_key < :afterValue OR r.sort_key = :afterValue AND r.id > :afterId");
+                params.put("afterValue", scroll.after().value());
+                params.put("afterId", scroll.after().id());
+            }
+            sql.append(" ORDER BY r.sort_key DESC, r.id");
+        } else {
+            sql = new StringBuilder("SELECT v.id, v.id AS sort_key FROM vinyls v WHERE (").append(match).append(")");
+            if (scroll.after() != null) {
+                sql.append(" AND v.id > :afterId");
+                params.put("afterId", scroll.after().id());
+            }
+            sql.append(" ORDER BY v.id");
+        }
+        return keys(sql.toString(), params, scroll.limit());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<VinylScroll.Key> keys(String sql, Map<String, Object> params, int limit) {
+        Query query = nativeQuery(sql, null, params);
+        query.setMaxResults(limit);
+        List<Object[]> rows = query.getResultList();
+        return rows.stream().map(row -> new VinylScroll.Key(((Number) row[0]).intValue(), row[1])).toList();
+    }
+
+    private Query nativeQuery(String sql, Class<?> resultClass, Map<String, Object> params) {
+        Query query = resultClass == null ? entityManager.createNativeQuery(sql)
+                : entityManager.createNativeQuery(sql, resultClass);
+        params.forEach(query::setParameter);
+        return query;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Vinyl> resultList(Query query) {
+        return query.getResultList();
+    }
+
+    // нормализация та же, что у колонки, иначе «Ёж» не нашёлся бы по «еж»
+    private static String containsPattern(String param) {
+        return "('%' || vinyl_search_normalize(:" + param + ") || '%')";
+    }
+
+    private static String contains(String field, boolean searchColumns, String param) {
+        if (searchColumns) {
+            return "v.search_" + field + " LIKE " + containsPattern(param);
+        }
+        return "lower(v." + field + ") LIKE ('%' || lower(:" + param + ") || '%')";
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // имена колонок подставляются в SQL, поэтому принимаются только известные свойства
+    private static String orderBy(Sort sort) {
+        List<String> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Сортировка по полю " + order.getProperty() + " не поддерживается");
+            }
+            orders.add(column + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        orders.add("v.id");
+        return String.join(", ", orders);
+    }
+}
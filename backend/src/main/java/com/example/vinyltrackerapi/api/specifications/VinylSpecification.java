@@ -1,6 +1,8 @@
 package com.example.vinyltrackerapi.api.specifications;
 
 import com.example.vinyltrackerapi.api.models.Vinyl;
+import jakarta.persistence.criteria.Predicate;
+import java.util.Collection;
 import org.springframework.data.jpa.domain.Specification;
 
 public class VinylSpecification {
@@ -47,4 +49,27 @@ public class VinylSpecification {
                 cb.equal(cb.lower(root.get("genre").get("name")), name.toLowerCase());
     }
 
-}
\ No newline at end of file
+    public static Specification<Vinyl> hasGenreIdIn(Collection<Integer> genreIds) {
+        return (root, query, cb) -> root.get("genre").get("id").in(genreIds);
+    }
+
+    public static Specification<Vinyl> hasReleaseYearBetween(Integer from, Integer to) {
+        return (root, query, cb) -> {
+            if (from == null) {
+                return cb.lessThanOrEqualTo(root.get("releaseYear"), to);
+            }
+            return to == null ? cb.greaterThanOrEqualTo(root.get("releaseYear"), from)
+                    : cb.between(root.get("releaseYear"), from, to);
+        };
+    }
+
+    public static Specification<Vinyl> hasReleaseDecadeIn(Collection<Integer> decades) {
+        return (root, query, cb) -> cb.or(decades.stream()
+                .map(decade -> cb.between(root.<Integer>get("releaseYear"), decade, decade + 9))
+                .toArray(Predicate[]::new));
+    }
+
+    public static Specification<Vinyl> hasAddedByIdIn(Collection<Integer> userIds) {
+        return (root, query, cb) -> root.get("addedBy").get("id").in(userIds);
+    }
+}
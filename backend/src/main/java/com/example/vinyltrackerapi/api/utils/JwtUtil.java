@@ -1,26 +1,37 @@
 package com.example.vinyltrackerapi.api.utils;
 
+import com.example.vinyltrackerapi.api.dto.VerifiedToken;
 import com.example.vinyltrackerapi.api.models.User;
+import com.example.vinyltrackerapi.service.CacheService;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.Map;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 @Component
 public class JwtUtil {
-    @Value("${jwt.secret}")
-    private String secret;
+    private static final long TOKEN_LIFETIME_MS = 1000L * 60 * 60 * 10;
+    private final Key signingKey;
+    private final JwtParser parser;
+    private final CacheService<VerifiedToken> verifiedTokenCache;
 
-    private Key getSignInKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Qualifier("verifiedTokenCache") CacheService<VerifiedToken> verifiedTokenCache) {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.verifiedTokenCache = verifiedTokenCache;
     }
 
     public String generateToken(User user) {
@@ -31,33 +42,40 @@ public class JwtUtil {
                         "role", user.getRole().getName()
                 ))
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .setExpiration(new Date(System.currentTimeMillis() + TOKEN_LIFETIME_MS))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String extractUsername(String token) {
-        return extractAllClaims(token).getSubject();
+    /**
+     * Проверяет подпись и срок действия токена за один разбор. Проверенный токен кэшируется
+     * по SHA-256 до своего exp, поэтому повторные запросы с ним подпись уже не проверяют.
+     *
+     * @throws io.jsonwebtoken.JwtException если токен подделан, просрочен или без exp
+     */
+    public VerifiedToken verify(String token) {
+        String key = digest(token);
+        VerifiedToken cached = verifiedTokenCache.get(key);
+        if (cached != null && !cached.isExpired(System.currentTimeMillis())) {
+            return cached;
+        }
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() == null) {
+            throw new MalformedJwtException("Токен без срока действия");
+        }
+        VerifiedToken verified = new VerifiedToken(Integer.valueOf(claims.getSubject()),
+                claims.get("role", String.class), claims.getExpiration().getTime());
+        verifiedTokenCache.put(key, verified);
+        return verified;
     }
 
-    public String extractRole(String token) {
-        return extractAllClaims(token).get("role", String.class);
+    // в кэше не держим сами токены: по ключу их нельзя восстановить
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
-
-    public boolean isTokenValid(String token, User user) {
-        final String id = extractUsername(token);
-        return id.equals(String.valueOf(user.getId())) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractAllClaims(token).getExpiration().before(new Date());
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,113 @@
+package com.example.vinyltrackerapi.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Копит инвалидации и раз в {@code flushInterval} отправляет их одной пачкой. Повторы схлопываются,
+ * ключи региона, который очищается целиком, отбрасываются, а слишком много ключей одного региона
+ * заменяется очисткой региона. Если отправка не удалась, пачка остаётся в очереди до следующей попытки.
+ */
+public abstract class BatchingInvalidationBus implements CacheInvalidationBus {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchingInvalidationBus.class);
+    static final int REGION_KEY_LIMIT = 256;
+    private final Set<CacheInvalidation> pending = new LinkedHashSet<>();
+    private final List<Consumer<List<CacheInvalidation>>> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler;
+
+    protected BatchingInvalidationBus(Duration flushInterval) {
+        long interval = flushInterval.toMillis();
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "cache-invalidation-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        synchronized (pending) {
+            pending.add(invalidation);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<List<CacheInvalidation>> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void flush() {
+        List<CacheInvalidation> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = coalesce(pending);
+            pending.clear();
+        }
+        try {
+            send(batch);
+            LOGGER.debug("[CACHE-BUS] Отправлено инвалидаций: {}", batch.size());
+        } catch (RuntimeException e) {
+            LOGGER.warn("[CACHE-BUS] Не удалось отправить {} инвалидаций: {}", batch.size(), e.getMessage());
+            synchronized (pending) {
+                pending.addAll(batch);
+            }
+        }
+    }
+
+    static List<CacheInvalidation> coalesce(Collection<CacheInvalidation> invalidations) {
+        if (invalidations.contains(CacheInvalidation.everything())) {
+            return List.of(CacheInvalidation.everything());
+        }
+        Set<String> wholeRegions = new LinkedHashSet<>();
+        Map<String, Set<String>> keysByRegion = new LinkedHashMap<>();
+        for (CacheInvalidation invalidation : invalidations) {
+            if (invalidation.isRegionWide()) {
+                wholeRegions.add(invalidation.region());
+            } else {
+                keysByRegion.computeIfAbsent(invalidation.region(), region -> new LinkedHashSet<>())
+                        .add(invalidation.key());
+            }
+        }
+        List<CacheInvalidation> batch = new ArrayList<>();
+        keysByRegion.forEach((region, keys) -> {
+            if (keys.size() > REGION_KEY_LIMIT) {
+                wholeRegions.add(region);
+            } else if (!wholeRegions.contains(region)) {
+                keys.forEach(key -> batch.add(CacheInvalidation.key(region, key)));
+            }
+        });
+        wholeRegions.forEach(region -> batch.add(CacheInvalidation.region(region)));
+        return batch;
+    }
+
+    protected abstract void send(List<CacheInvalidation> batch);
+
+    /** Передаёт подписчикам пачку, пришедшую с другого узла. */
+    protected void deliver(List<CacheInvalidation> batch) {
+        LOGGER.debug("[CACHE-BUS] Получено инвалидаций: {}", batch.size());
+        listeners.forEach(listener -> listener.accept(batch));
+    }
+
+    @Override
+    public void shutdown() {
+        scheduler.shutdownNow();
+        flush();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.vinyltrackerapi.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class BinaryInput {
+    private final ByteBuffer buffer;
+
+    public BinaryInput(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public int readVarInt() {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    public Integer readNullableInt() {
+        int encoded = readVarInt();
+        if (encoded == 0) {
+            return null;
+        }
+        int zigZag = encoded - 1;
+        return (zigZag >>> 1) ^ -(zigZag & 1);
+    }
+
+    public String readString() {
+        int length = readVarInt() - 1;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Отдаёт следующие {@code length} байт отдельным входом и пропускает их в текущем.
+     */
+    public BinaryInput slice(int length) {
+        ByteBuffer slice = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return new BinaryInput(slice);
+    }
+
+    public boolean hasRemaining() {
+        return buffer.hasRemaining();
+    }
+}
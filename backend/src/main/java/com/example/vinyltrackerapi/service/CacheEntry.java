@@ -5,14 +5,45 @@ import lombok.Getter;
 @Getter
 public class CacheEntry<T> {
     private final T value;
+    private final long weight;
+    private final long writeTimestamp;
+    private final long expireAfterMs;
+    private final boolean expireAfterWrite;
     private long timestamp;
 
     public CacheEntry(T value) {
+        this(value, CacheSizeEstimator.estimate(value), Long.MAX_VALUE);
+    }
+
+    public CacheEntry(T value, long weight, long expireAfterMs) {
+        this(value, weight, expireAfterMs, false);
+    }
+
+    /**
+     * @param expireAfterWrite срок отсчитывается от записи, и чтения его не продлевают
+     */
+    public CacheEntry(T value, long weight, long expireAfterMs, boolean expireAfterWrite) {
         this.value = value;
+        this.weight = weight;
+        this.expireAfterMs = expireAfterMs;
+        this.expireAfterWrite = expireAfterWrite;
         this.timestamp = System.currentTimeMillis();
+        this.writeTimestamp = timestamp;
     }
 
     public void refresh() {
-        this.timestamp = System.currentTimeMillis();
+        if (!expireAfterWrite) {
+            this.timestamp = System.currentTimeMillis();
+        }
+    }
+
+    /** Момент истечения с учётом последнего чтения. */
+    public long getDeadline() {
+        long remaining = Long.MAX_VALUE - timestamp;
+        return expireAfterMs > remaining ? Long.MAX_VALUE : timestamp + expireAfterMs;
+    }
+
+    public boolean isExpired(long now) {
+        return now - timestamp > expireAfterMs;
     }
-}
\ No newline at end of file
+}
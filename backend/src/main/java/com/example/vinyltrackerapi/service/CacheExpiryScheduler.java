@@ -0,0 +1,26 @@
+package com.example.vinyltrackerapi.service;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Один поток на все регионы: раз в секунду продвигает их колёса таймеров.
+ */
+public final class CacheExpiryScheduler {
+    private static final long TICK_MS = 1000;
+    private static final ScheduledExecutorService EXECUTOR = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "cache-expiry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private CacheExpiryScheduler() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    public static ScheduledFuture<?> schedule(Runnable task) {
+        return EXECUTOR.scheduleWithFixedDelay(task, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+    }
+}
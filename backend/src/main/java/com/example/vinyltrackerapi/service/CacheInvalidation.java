@@ -0,0 +1,27 @@
+package com.example.vinyltrackerapi.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Сообщение шины инвалидации: ключ региона, весь регион ({@code key == null})
+ * или все регионы сразу ({@code region == null}).
+ */
+public record CacheInvalidation(String region, String key) {
+
+    public static CacheInvalidation key(String region, String key) {
+        return new CacheInvalidation(region, key);
+    }
+
+    public static CacheInvalidation region(String region) {
+        return new CacheInvalidation(region, null);
+    }
+
+    public static CacheInvalidation everything() {
+        return new CacheInvalidation(null, null);
+    }
+
+    @JsonIgnore
+    public boolean isRegionWide() {
+        return key == null;
+    }
+}
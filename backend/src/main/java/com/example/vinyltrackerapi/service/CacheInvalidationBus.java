@@ -0,0 +1,20 @@
+package com.example.vinyltrackerapi.service;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Рассылает инвалидации локальных кешей остальным узлам. Сообщения копятся и уходят пачкой,
+ * поэтому {@link #publish} не блокирует запрос; свои же сообщения узел не получает.
+ */
+public interface CacheInvalidationBus {
+
+    void publish(CacheInvalidation invalidation);
+
+    void subscribe(Consumer<List<CacheInvalidation>> listener);
+
+    /** Немедленно отправляет накопленные сообщения. */
+    void flush();
+
+    void shutdown();
+}
@@ -0,0 +1,142 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.configs.CacheProperties;
+import com.example.vinyltrackerapi.api.dto.CacheStatsDto;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+@Service
+public class CacheRegionManager {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheRegionManager.class);
+    private final CacheProperties cacheProperties;
+    private final MeterRegistry meterRegistry;
+    private static final int REFRESH_THREADS = 2;
+    private static final int REFRESH_QUEUE_SIZE = 64;
+    private final Map<String, CacheService<?>> regions = new ConcurrentHashMap<>();
+    // общий ограниченный пул фоновых обновлений; при переполнении обновление откладывается
+    private final ThreadPoolExecutor refreshExecutor = new ThreadPoolExecutor(REFRESH_THREADS, REFRESH_THREADS,
+            0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(REFRESH_QUEUE_SIZE), refreshThreadFactory());
+
+    public CacheRegionManager(CacheProperties cacheProperties, MeterRegistry meterRegistry) {
+        this.cacheProperties = cacheProperties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> CacheService<T> getRegion(String name) {
+        return (CacheService<T>) regions.computeIfAbsent(name, regionName -> {
+            CacheRegionSettings settings = cacheProperties.resolve(regionName);
+            CacheService<T> region = new CacheService<>(settings, refreshExecutor);
+            bindMetrics(region);
+            LOGGER.info("[CACHE] Создан регион {}: maxSize={}, maxBytes={}, ttl={}, refreshAfter={}, policy={}",
+                    regionName, settings.maxSize(), settings.maxBytes(), settings.ttl(), settings.refreshAfter(),
+                    settings.policy());
+            return region;
+        });
+    }
+
+    /**
+     * Применяет инвалидации, пришедшие с других узлов. Неизвестные регионы пропускаются.
+     */
+    public void invalidate(List<CacheInvalidation> invalidations) {
+        for (CacheInvalidation invalidation : invalidations) {
+            if (invalidation.region() == null) {
+                regions.values().forEach(CacheService::invalidateAll);
+                continue;
+            }
+            CacheService<?> region = regions.get(invalidation.region());
+            if (region == null) {
+                continue;
+            }
+            if (invalidation.isRegionWide()) {
+                region.invalidateAll();
+            } else {
+                region.remove(invalidation.key());
+            }
+        }
+    }
+
+    public Collection<CacheService<?>> getRegions() {
+        return Collections.unmodifiableCollection(regions.values());
+    }
+
+    public List<CacheStatsDto> getSummary() {
+        return regions.values().stream()
+                .sorted(Comparator.comparing(CacheService::getName))
+                .map(CacheStatsDto::new)
+                .toList();
+    }
+
+    private void bindMetrics(CacheService<?> region) {
+        CacheStats stats = region.getStats();
+        Tags tags = Tags.of("cache", region.getName());
+
+        FunctionCounter.builder("cache.gets", stats, CacheStats::hitCount)
+                .tags(tags).tag("result", "hit")
+                .description("Попадания в кеш")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", stats, CacheStats::missCount)
+                .tags(tags).tag("result", "miss")
+                .description("Промахи кеша")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.puts", stats, CacheStats::putCount)
+                .tags(tags)
+                .register(meterRegistry);
+        for (RemovalCause cause : RemovalCause.values()) {
+            FunctionCounter.builder("cache.evictions", stats, s -> s.evictionCount(cause))
+                    .tags(tags).tag("cause", cause.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        FunctionTimer.builder("cache.loads", stats, CacheStats::loadCount,
+                        s -> s.totalLoadTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS)
+                .tags(tags)
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.load.failures", stats, CacheStats::loadFailureCount)
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("cache.size", region, CacheService::size)
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("cache.estimated.bytes", region, CacheService::estimatedBytes)
+                .tags(tags).baseUnit("bytes")
+                .register(meterRegistry);
+        if (region.getSettings().isWeighted()) {
+            Gauge.builder("cache.max.bytes", region, r -> r.getSettings().maxBytes())
+                    .tags(tags).baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+    }
+
+    private static ThreadFactory refreshThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "cache-refresh-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+        regions.values().forEach(CacheService::shutdown);
+    }
+}
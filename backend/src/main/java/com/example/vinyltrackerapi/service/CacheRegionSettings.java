@@ -0,0 +1,39 @@
+package com.example.vinyltrackerapi.service;
+
+import java.time.Duration;
+
+/**
+ * Настройки региона. Если {@code maxBytes > 0}, регион ограничен суммарным оценочным весом
+ * записей в байтах, а {@code maxSize} служит лишь ожидаемым числом записей; иначе ограничение
+ * задаётся числом записей. {@code refreshAfter} включает фоновое обновление записей старше
+ * этого возраста, {@code ttlJitter} — доля случайного разброса TTL (0.1 означает ±10%).
+ * При {@code expireAfterWrite} TTL отсчитывается от записи и не продлевается чтениями.
+ */
+public record CacheRegionSettings(String name, Duration ttl, int maxSize, EvictionPolicyType policy,
+                                  long maxBytes, Duration refreshAfter, double ttlJitter,
+                                  boolean expireAfterWrite) {
+    public static final CacheRegionSettings DEFAULT =
+            new CacheRegionSettings("default", Duration.ofMinutes(30), 100, EvictionPolicyType.TINY_LFU);
+
+    public CacheRegionSettings(String name, Duration ttl, int maxSize, EvictionPolicyType policy) {
+        this(name, ttl, maxSize, policy, 0);
+    }
+
+    public CacheRegionSettings(String name, Duration ttl, int maxSize, EvictionPolicyType policy,
+                               long maxBytes) {
+        this(name, ttl, maxSize, policy, maxBytes, null, 0.0);
+    }
+
+    public CacheRegionSettings(String name, Duration ttl, int maxSize, EvictionPolicyType policy,
+                               long maxBytes, Duration refreshAfter, double ttlJitter) {
+        this(name, ttl, maxSize, policy, maxBytes, refreshAfter, ttlJitter, false);
+    }
+
+    public boolean isWeighted() {
+        return maxBytes > 0;
+    }
+
+    public boolean isRefreshAhead() {
+        return refreshAfter != null && !refreshAfter.isZero();
+    }
+}
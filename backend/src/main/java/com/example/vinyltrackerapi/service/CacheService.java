@@ -1,83 +1,443 @@
 package com.example.vinyltrackerapi.service;
 
 import jakarta.annotation.PreDestroy;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.stereotype.Service;
 
-@Service
 public class CacheService<T> {
     private static final Logger LOGGER = LoggerFactory.getLogger(CacheService.class);
     private final Map<String, CacheEntry<T>> cache = new ConcurrentHashMap<>();
-    private static final long CACHE_EXPIRATION_TIME_MS = 30L * 60 * 1000;
-    private static final int MAX_CACHE_SIZE = 100;
-    final ScheduledExecutorService scheduler;
+    private static final int READ_BUFFER_SIZE = 128;
+    private final CacheRegionSettings settings;
+    private final long expirationTimeMs;
+    private final long refreshAfterMs;
+    private final EvictionPolicy evictionPolicy;
+    private final CacheStats stats = new CacheStats();
+    private final AtomicLong estimatedBytes = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final Map<String, CompletableFuture<T>> inFlight = new ConcurrentHashMap<>();
+    // обращения копятся здесь и применяются к политике пачкой; при переполнении теряются
+    private final Queue<String> readBuffer = new ArrayBlockingQueue<>(READ_BUFFER_SIZE);
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final Executor refreshExecutor;
+    // сроки записей; изменяется только под evictionLock
+    private final TimerWheel timerWheel = new TimerWheel(System.currentTimeMillis());
+    private final ScheduledFuture<?> expiryTask;
+    // число явных удалений; изменяется только под evictionLock
+    private volatile long removals;
 
     public CacheService() {
-        this.scheduler = Executors.newScheduledThreadPool(1);
-        scheduler.scheduleAtFixedRate(this::cleanUp, 5, 5, TimeUnit.MINUTES);
+        this(CacheRegionSettings.DEFAULT);
+    }
+
+    public CacheService(CacheRegionSettings settings) {
+        this(settings, null);
+    }
+
+    /**
+     * @param refreshExecutor ограниченный пул для фонового обновления записей;
+     *                        без него {@code refreshAfter} из настроек не действует
+     */
+    public CacheService(CacheRegionSettings settings, Executor refreshExecutor) {
+        this.settings = settings;
+        this.refreshExecutor = refreshExecutor;
+        this.expirationTimeMs = settings.ttl().toMillis();
+        this.refreshAfterMs = settings.isRefreshAhead() ? settings.refreshAfter().toMillis() : Long.MAX_VALUE;
+        this.evictionPolicy = settings.policy().create(settings);
+        this.expiryTask = CacheExpiryScheduler.schedule(this::cleanUp);
     }
 
     public void put(String key, T value) {
-        if (cache.size() >= MAX_CACHE_SIZE) {
-            removeOldestEntry();
+        List<String> evicted;
+        evictionLock.lock();
+        try {
+            evicted = putLocked(key, value);
+        } finally {
+            evictionLock.unlock();
+        }
+        logPut(key, evicted);
+    }
+
+    /**
+     * Сохраняет значение, только если после {@code mark} из региона ничего не удаляли явно.
+     * Иначе значение могло быть прочитано до изменения, о котором сообщило удаление.
+     *
+     * @param mark значение {@link #removalMark()}, снятое до чтения источника
+     */
+    public boolean putIfNotRemovedSince(String key, T value, long mark) {
+        List<String> evicted;
+        evictionLock.lock();
+        try {
+            if (removals != mark) {
+                return false;
+            }
+            evicted = putLocked(key, value);
+        } finally {
+            evictionLock.unlock();
         }
-        cache.put(key, new CacheEntry<>(value));
-        LOGGER.info("[CACHE] Добавлено: {}", key);
+        logPut(key, evicted);
+        return true;
+    }
+
+    public long removalMark() {
+        return removals;
     }
 
     public T get(String key) {
-        CacheEntry<T> entry = cache.get(key);
-        if (entry != null) {
-            entry.refresh();
-            LOGGER.info("[CACHE] Найдено в кеше: {}", key);
-            return entry.getValue();
+        CacheEntry<T> entry = getEntry(key);
+        return entry != null ? entry.getValue() : null;
+    }
+
+    /**
+     * Возвращает значение из кеша, а при промахе загружает его через {@code loader}.
+     * Для одного ключа одновременно выполняется не больше одной загрузки: остальные
+     * потоки ждут её результата. Исключение загрузчика получают все ожидающие.
+     * Если запись старше {@code refreshAfter}, она перезагружается в фоне, а вызывающий
+     * сразу получает текущее значение.
+     */
+    public T get(String key, Supplier<? extends T> loader) {
+        CacheEntry<T> cached = getEntry(key);
+        if (cached != null) {
+            refreshIfStale(key, cached, loader);
+            return cached.getValue();
+        }
+
+        CompletableFuture<T> load = new CompletableFuture<>();
+        CompletableFuture<T> inProgress = inFlight.putIfAbsent(key, load);
+        if (inProgress != null) {
+            return await(inProgress);
+        }
+        CacheEntry<T> loadedMeanwhile = cache.get(key);
+        if (loadedMeanwhile != null && !loadedMeanwhile.isExpired(System.currentTimeMillis())) {
+            inFlight.remove(key, load);
+            load.complete(loadedMeanwhile.getValue());
+            return loadedMeanwhile.getValue();
+        }
+
+        long start = System.nanoTime();
+        try {
+            T value = loader.get();
+            stats.recordLoadSuccess(System.nanoTime() - start);
+            completeLoad(key, load, value);
+            load.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            stats.recordLoadFailure(System.nanoTime() - start);
+            inFlight.remove(key, load);
+            load.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Атомарно заменяет закешированное значение результатом {@code patch}. Если значения нет,
+     * отменяет начатую загрузку этого ключа, чтобы она не сохранила данные, прочитанные до изменения.
+     */
+    public void update(String key, UnaryOperator<T> patch) {
+        List<String> evicted = List.of();
+        boolean updated = false;
+        evictionLock.lock();
+        try {
+            CacheEntry<T> entry = cache.get(key);
+            if (entry != null && !entry.isExpired(System.currentTimeMillis())) {
+                evicted = putLocked(key, patch.apply(entry.getValue()));
+                updated = true;
+            } else {
+                inFlight.remove(key);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        if (updated) {
+            logPut(key, evicted);
         }
-        return null;
     }
 
     public boolean contains(String key) {
-        return cache.containsKey(key);
+        CacheEntry<T> entry = cache.get(key);
+        return entry != null && !entry.isExpired(System.currentTimeMillis());
     }
 
-    public void cleanUp() {
+    /**
+     * Есть ли значение или идёт его загрузка. Загрузка сохраняет значение раньше, чем перестаёт
+     * считаться начатой, поэтому между этими состояниями ключ не пропадает.
+     */
+    public boolean containsOrLoading(String key) {
+        return inFlight.containsKey(key) || contains(key);
+    }
+
+    /**
+     * Обходит неистёкшие записи, не затрагивая статистику и политику вытеснения.
+     */
+    public void forEach(BiConsumer<String, ? super T> action) {
         long now = System.currentTimeMillis();
-        cache.entrySet().removeIf(entry -> now - entry.getValue().getTimestamp() > CACHE_EXPIRATION_TIME_MS);
-        LOGGER.info("[CACHE] Очистка старых записей...");
+        cache.forEach((key, entry) -> {
+            if (!entry.isExpired(now)) {
+                action.accept(key, entry.getValue());
+            }
+        });
     }
 
-    private void removeOldestEntry() {
-        cache.entrySet().stream()
-                .min(Comparator.comparingLong(entry -> entry.getValue().getTimestamp()))
-                .ifPresent(entry -> {
-                    cache.remove(entry.getKey());
-                    LOGGER.info("[CACHE] Удалена самая старая запись: {}", entry.getKey());
-                });
+    /**
+     * Удаляет записи, срок которых наступил. Просматриваются только наступившие корзины колеса
+     * таймеров; запись, прочитанная после постановки, ставится на новый срок.
+     */
+    public void cleanUp() {
+        long now = System.currentTimeMillis();
+        int expired = 0;
+        evictionLock.lock();
+        try {
+            for (String key : timerWheel.advance(now)) {
+                CacheEntry<T> entry = cache.get(key);
+                if (entry == null) {
+                    continue;
+                }
+                if (entry.isExpired(now)) {
+                    removeLocked(key, RemovalCause.EXPIRED);
+                    expired++;
+                } else {
+                    timerWheel.schedule(key, entry.getDeadline());
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        if (expired > 0) {
+            LOGGER.info("[CACHE] {}: удалено истёкших записей: {}", getName(), expired);
+        }
     }
 
     public void remove(String key) {
-        cache.remove(key);
-        LOGGER.info("[CACHE] Удален ключ: {}", key);
+        evictionLock.lock();
+        try {
+            // загрузка, начатая до удаления, не должна вернуть в кеш устаревшее значение
+            inFlight.remove(key);
+            removals++;
+            removeLocked(key, RemovalCause.EXPLICIT);
+        } finally {
+            evictionLock.unlock();
+        }
+        LOGGER.info("[CACHE] {}: удален ключ: {}", getName(), key);
     }
 
-    @PreDestroy
-    public void shutdown() {
-        scheduler.shutdown();
+    /**
+     * Удаляет все записи региона и отменяет начатые загрузки.
+     */
+    public void invalidateAll() {
+        evictionLock.lock();
         try {
-            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                scheduler.shutdownNow();
+            inFlight.clear();
+            removals++;
+            new ArrayList<>(cache.keySet()).forEach(key -> removeLocked(key, RemovalCause.EXPLICIT));
+        } finally {
+            evictionLock.unlock();
+        }
+        LOGGER.info("[CACHE] {}: регион очищен", getName());
+    }
+
+    public String getName() {
+        return settings.name();
+    }
+
+    public CacheRegionSettings getSettings() {
+        return settings;
+    }
+
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public long estimatedBytes() {
+        return estimatedBytes.get();
+    }
+
+    private CacheEntry<T> getEntry(String key) {
+        CacheEntry<T> entry = cache.get(key);
+        // истёкшая запись считается промахом, даже если колесо ещё не дошло до её корзины
+        if (entry != null && !entry.isExpired(System.currentTimeMillis())) {
+            entry.refresh();
+            afterRead(key);
+            stats.recordHit();
+            LOGGER.debug("[CACHE] {}: найдено в кеше: {}", getName(), key);
+            return entry;
+        }
+        stats.recordMiss();
+        return null;
+    }
+
+    private void refreshIfStale(String key, CacheEntry<T> entry, Supplier<? extends T> loader) {
+        if (refreshExecutor == null
+                || System.currentTimeMillis() - entry.getWriteTimestamp() < refreshAfterMs
+                || !refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> refresh(key, entry, loader));
+        } catch (RejectedExecutionException e) {
+            // пул занят: обновим при одном из следующих чтений
+            refreshing.remove(key);
+        }
+    }
+
+    private void refresh(String key, CacheEntry<T> entry, Supplier<? extends T> loader) {
+        long start = System.nanoTime();
+        try {
+            T value = loader.get();
+            stats.recordLoadSuccess(System.nanoTime() - start);
+            List<String> evicted = List.of();
+            boolean stored = false;
+            evictionLock.lock();
+            try {
+                // запись удалили или заменили, пока шла загрузка: не возвращаем старые данные
+                if (value != null && cache.get(key) == entry) {
+                    evicted = putLocked(key, value);
+                    stored = true;
+                }
+            } finally {
+                evictionLock.unlock();
+            }
+            if (stored) {
+                logPut(key, evicted);
+            }
+        } catch (RuntimeException e) {
+            stats.recordLoadFailure(System.nanoTime() - start);
+            LOGGER.warn("[CACHE] {}: не удалось обновить ключ {} в фоне: {}", getName(), key, e.getMessage());
+        } finally {
+            refreshing.remove(key);
+        }
+    }
+
+    private long expireAfterMs() {
+        double jitter = settings.ttlJitter();
+        if (jitter <= 0) {
+            return expirationTimeMs;
+        }
+        double factor = 1 + ThreadLocalRandom.current().nextDouble(-jitter, jitter);
+        return (long) (expirationTimeMs * factor);
+    }
+
+    private List<String> putLocked(String key, T value) {
+        long size = CacheSizeEstimator.estimate(value);
+        CacheEntry<T> entry = new CacheEntry<>(value, size, expireAfterMs(), settings.expireAfterWrite());
+        long weight = settings.isWeighted() ? entry.getWeight() : 1;
+        drainReadBuffer();
+        CacheEntry<T> previous = cache.put(key, entry);
+        timerWheel.schedule(key, entry.getDeadline());
+        estimatedBytes.addAndGet(entry.getWeight());
+        stats.recordPut();
+        List<String> victims;
+        if (previous == null) {
+            victims = evictionPolicy.recordInsert(key, weight);
+        } else {
+            estimatedBytes.addAndGet(-previous.getWeight());
+            victims = evictionPolicy.recordUpdate(key, weight);
+        }
+        for (String victim : victims) {
+            removeLocked(victim, RemovalCause.SIZE);
+        }
+        return victims;
+    }
+
+    private void completeLoad(String key, CompletableFuture<T> load, T value) {
+        List<String> evicted = List.of();
+        boolean stored = false;
+        evictionLock.lock();
+        try {
+            if (inFlight.get(key) == load && value != null) {
+                evicted = putLocked(key, value);
+                stored = true;
             }
-            LOGGER.info("[CACHE] Планировщик успешно завершён.");
-        } catch (InterruptedException e) {
-            scheduler.shutdownNow();
-            Thread.currentThread().interrupt();
-            LOGGER.warn("[CACHE] Прерывание при завершении планировщика.");
+            inFlight.remove(key, load);
+        } finally {
+            evictionLock.unlock();
         }
+        if (stored) {
+            logPut(key, evicted);
+        }
+    }
+
+    private T await(CompletableFuture<T> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void logPut(String key, List<String> evicted) {
+        LOGGER.info("[CACHE] {}: добавлено: {}", getName(), key);
+        evicted.forEach(victim -> LOGGER.info("[CACHE] {}: вытеснена запись: {}", getName(), victim));
+    }
+
+    private void removeLocked(String key, RemovalCause cause) {
+        CacheEntry<T> removed = cache.remove(key);
+        if (removed != null) {
+            timerWheel.cancel(key);
+            evictionPolicy.recordRemove(key);
+            estimatedBytes.addAndGet(-removed.getWeight());
+            stats.recordEviction(cause);
+        }
+    }
+
+    private void afterRead(String key) {
+        readBuffer.offer(key);
+        if (evictionLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void drainReadBuffer() {
+        String key;
+        while ((key = readBuffer.poll()) != null) {
+            if (cache.containsKey(key)) {
+                evictionPolicy.recordAccess(key);
+            }
+        }
+    }
+
+    /**
+     * Снимает регион с общего планировщика истечения; сам планировщик продолжает работать для остальных.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (expiryTask.cancel(false)) {
+            LOGGER.info("[CACHE] {}: истечение записей остановлено", getName());
+        }
+    }
+
+    boolean isExpiryScheduled() {
+        return !expiryTask.isDone();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,101 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.dto.DictionaryEntryDto;
+import com.example.vinyltrackerapi.api.dto.UserView;
+import com.example.vinyltrackerapi.api.dto.UserVinylView;
+import com.example.vinyltrackerapi.api.dto.VinylView;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Грубая оценка удерживаемого объёма значения в байтах (64-битная JVM, сжатые ссылки).
+ */
+public final class CacheSizeEstimator {
+    private static final long OBJECT_HEADER = 16;
+    private static final long REFERENCE = 4;
+    private static final long UNKNOWN = 64;
+    private static final int SAMPLE_SIZE = 32;
+
+    private CacheSizeEstimator() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    public static long estimate(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof OffHeapList<?> offHeapList) {
+            // для off-heap региона учитываем сериализованные данные вне кучи
+            return offHeapList.sizeInBytes();
+        }
+        if (value instanceof CatalogSnapshot<?> snapshot) {
+            // индекс по id плюс список значений
+            return OBJECT_HEADER * 3 + (OBJECT_HEADER * 2 + REFERENCE * 5) * snapshot.size()
+                    + estimate(snapshot.values());
+        }
+        if (value instanceof UserCollection collection) {
+            // индекс по vinylId плюс список представлений
+            return OBJECT_HEADER * 3 + 8 + (OBJECT_HEADER * 2 + REFERENCE * 5) * collection.size()
+                    + estimate(collection.views());
+        }
+        if (value instanceof String string) {
+            return OBJECT_HEADER + 8 + OBJECT_HEADER + string.length() * 2L;
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return OBJECT_HEADER + 8;
+        }
+        if (value instanceof Collection<?> collection) {
+            return OBJECT_HEADER * 2 + REFERENCE * collection.size() + estimateElements(collection);
+        }
+        if (value instanceof Map<?, ?> map) {
+            long size = OBJECT_HEADER * 3 + (OBJECT_HEADER + REFERENCE * 4) * map.size();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += estimate(entry.getKey()) + estimate(entry.getValue());
+            }
+            return size;
+        }
+        if (value instanceof VinylView vinyl) {
+            return OBJECT_HEADER + REFERENCE * 8
+                    + estimate(vinyl.id())
+                    + estimate(vinyl.title())
+                    + estimate(vinyl.artist())
+                    + estimate(vinyl.genreId())
+                    + estimate(vinyl.releaseYear())
+                    + estimate(vinyl.description())
+                    + estimate(vinyl.coverUrl())
+                    + estimate(vinyl.addedById());
+        }
+        if (value instanceof UserView user) {
+            return OBJECT_HEADER + REFERENCE * 5
+                    + estimate(user.id())
+                    + estimate(user.username())
+                    + estimate(user.email())
+                    + estimate(user.password())
+                    + estimate(user.roleId());
+        }
+        if (value instanceof UserVinylView userVinyl) {
+            return OBJECT_HEADER + REFERENCE * 4
+                    + estimate(userVinyl.user())
+                    + estimate(userVinyl.vinyl())
+                    + estimate(userVinyl.status());
+        }
+        if (value instanceof DictionaryEntryDto entry) {
+            return OBJECT_HEADER + REFERENCE * 2 + estimate(entry.getName());
+        }
+        return UNKNOWN;
+    }
+
+    // большие списки оцениваем как длину, умноженную на средний размер первых элементов
+    private static long estimateElements(Collection<?> collection) {
+        long sampled = 0;
+        int count = 0;
+        for (Object element : collection) {
+            if (count == SAMPLE_SIZE) {
+                return sampled * collection.size() / SAMPLE_SIZE;
+            }
+            sampled += estimate(element);
+            count++;
+        }
+        return sampled;
+    }
+}
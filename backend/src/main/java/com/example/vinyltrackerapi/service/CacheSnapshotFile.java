@@ -0,0 +1,165 @@
+package com.example.vinyltrackerapi.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Бинарный снимок регионов кеша: заголовок с версией каталога, секции по регионам и CRC32 в конце.
+ * Пишется во временный файл с атомарной заменой, читается через memory-mapping.
+ */
+public final class CacheSnapshotFile {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheSnapshotFile.class);
+    private static final int MAGIC = 0x56435331;
+    // меняется вместе с форматом кодеков, старые снимки при этом отбрасываются
+    private static final int FORMAT = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final int CHECKSUM_SIZE = 4;
+
+    private CacheSnapshotFile() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * @return число записанных записей
+     */
+    public static int write(Path file, long catalogVersion, List<CacheSnapshotSection<?>> sections)
+            throws IOException {
+        return write(file, catalogVersion, sections, () -> true);
+    }
+
+    /**
+     * Обходит регионы и заменяет файл, только если после обхода {@code stillCurrent} подтверждает версию.
+     *
+     * @return число записанных записей или -1, если снимок устарел до записи
+     */
+    public static int write(Path file, long catalogVersion, List<CacheSnapshotSection<?>> sections,
+                            BooleanSupplier stillCurrent) throws IOException {
+        BinaryOutput body = new BinaryOutput(64 * 1024);
+        body.writeVarInt(sections.size());
+        int entries = 0;
+        for (CacheSnapshotSection<?> section : sections) {
+            entries += writeSection(section, body);
+        }
+        if (!stillCurrent.getAsBoolean()) {
+            return -1;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC)
+                .putInt(FORMAT)
+                .putLong(catalogVersion)
+                .putLong(System.currentTimeMillis())
+                .flip();
+        ByteBuffer payload = ByteBuffer.wrap(body.toByteArray());
+        CRC32 crc = new CRC32();
+        crc.update(header.duplicate());
+        crc.update(payload.duplicate());
+        ByteBuffer checksum = ByteBuffer.allocate(CHECKSUM_SIZE).putInt((int) crc.getValue()).flip();
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = directory.resolve(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer[] parts = {header, payload, checksum};
+            while (checksum.hasRemaining()) {
+                channel.write(parts);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return entries;
+    }
+
+    /**
+     * Загружает записи снимка в регионы с теми же именами; секции неизвестных регионов пропускаются.
+     *
+     * @return число восстановленных записей или -1, если файла нет, он повреждён
+     *         или снят с другой версии каталога
+     */
+    public static int restore(Path file, long catalogVersion, List<CacheSnapshotSection<?>> sections)
+            throws IOException {
+        if (!Files.isRegularFile(file)) {
+            LOGGER.info("[SNAPSHOT] Снимок {} не найден", file);
+            return -1;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + CHECKSUM_SIZE || size > Integer.MAX_VALUE) {
+                LOGGER.warn("[SNAPSHOT] Снимок {} имеет недопустимый размер: {}", file, size);
+                return -1;
+            }
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int bodyEnd = (int) size - CHECKSUM_SIZE;
+            if (data.getInt(0) != MAGIC || data.getInt(4) != FORMAT) {
+                LOGGER.warn("[SNAPSHOT] Снимок {} записан в другом формате", file);
+                return -1;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(data.slice(0, bodyEnd));
+            if (data.getInt(bodyEnd) != (int) crc.getValue()) {
+                LOGGER.warn("[SNAPSHOT] Снимок {} повреждён: не сошлась контрольная сумма", file);
+                return -1;
+            }
+            long snapshotVersion = data.getLong(8);
+            if (snapshotVersion != catalogVersion) {
+                LOGGER.info("[SNAPSHOT] Снимок устарел: версия каталога {}, в снимке {}",
+                        catalogVersion, snapshotVersion);
+                return -1;
+            }
+            return readSections(new BinaryInput(data.slice(HEADER_SIZE, bodyEnd - HEADER_SIZE)), sections);
+        }
+    }
+
+    private static <T> int writeSection(CacheSnapshotSection<T> section, BinaryOutput body) {
+        Map<String, T> entries = new LinkedHashMap<>();
+        section.region().forEach(entries::put);
+        BinaryOutput out = new BinaryOutput(entries.size() * 64);
+        out.writeVarInt(entries.size());
+        entries.forEach((key, value) -> {
+            out.writeString(key);
+            section.codec().write(value, out);
+        });
+        body.writeString(section.region().getName());
+        body.writeVarInt(out.size());
+        body.writeBytes(out.toByteArray());
+        return entries.size();
+    }
+
+    private static int readSections(BinaryInput in, List<CacheSnapshotSection<?>> sections) {
+        Map<String, CacheSnapshotSection<?>> byName = new LinkedHashMap<>();
+        sections.forEach(section -> byName.put(section.region().getName(), section));
+        int restored = 0;
+        int count = in.readVarInt();
+        for (int i = 0; i < count; i++) {
+            String name = in.readString();
+            BinaryInput sectionInput = in.slice(in.readVarInt());
+            CacheSnapshotSection<?> section = byName.get(name);
+            if (section != null) {
+                restored += readSection(section, sectionInput);
+            }
+        }
+        return restored;
+    }
+
+    private static <T> int readSection(CacheSnapshotSection<T> section, BinaryInput in) {
+        int count = in.readVarInt();
+        for (int i = 0; i < count; i++) {
+            String key = in.readString();
+            section.region().put(key, section.codec().read(in));
+        }
+        return count;
+    }
+}
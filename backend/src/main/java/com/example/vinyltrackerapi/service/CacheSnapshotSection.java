@@ -0,0 +1,7 @@
+package com.example.vinyltrackerapi.service;
+
+/**
+ * Регион кеша, который попадает в снимок, и кодек его значений.
+ */
+public record CacheSnapshotSection<T>(CacheService<T> region, RecordCodec<T> codec) {
+}
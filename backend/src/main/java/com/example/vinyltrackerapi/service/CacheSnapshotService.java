@@ -0,0 +1,132 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.configs.CacheProperties;
+import com.example.vinyltrackerapi.api.dto.VinylView;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+
+/**
+ * Снимок горячих регионов для тёплого рестарта: пишется периодически и при остановке,
+ * при старте восстанавливается, если версия каталога в БД не изменилась. Пользователи в снимок
+ * не попадают: в их представлении хеш пароля, ему не место в файле на диске.
+ */
+@Service
+public class CacheSnapshotService implements ApplicationRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheSnapshotService.class);
+    private static final String FILE_NAME = "cache.snapshot";
+    // сколько ждать, чтобы инвалидации изменений, уже учтённых в версии, дошли по шине до этого узла
+    private static final int DELIVERY_MARGIN = 20;
+    private final CacheProperties.Snapshot settings;
+    private final CatalogVersionService catalogVersionService;
+    private final VinylService vinylService;
+    private final List<CacheSnapshotSection<?>> sections;
+    private final long deliveryMillis;
+    private ScheduledExecutorService scheduler;
+
+    public CacheSnapshotService(CacheProperties properties,
+                                CatalogVersionService catalogVersionService,
+                                VinylService vinylService,
+                                @Qualifier("vinylCatalogCache")
+                                CacheService<CatalogSnapshot<VinylView>> vinylCatalogCache,
+                                @Qualifier("vinylCache") CacheService<VinylView> vinylCache) {
+        this.settings = properties.getSnapshot();
+        this.deliveryMillis = properties.getInvalidation().getFlushInterval().toMillis() * DELIVERY_MARGIN;
+        this.catalogVersionService = catalogVersionService;
+        this.vinylService = vinylService;
+        this.sections = List.of(
+                new CacheSnapshotSection<>(vinylCatalogCache,
+                        new CatalogSnapshotCodec<>(VinylViewCodec.INSTANCE, VinylView::id)),
+                new CacheSnapshotSection<>(vinylCache, VinylViewCodec.INSTANCE));
+    }
+
+    // раннеры выполняются до ApplicationReadyEvent, поэтому readiness станет UP только после прогрева
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        if (restore() < 0) {
+            vinylService.getAllVinyls();
+            LOGGER.info("[SNAPSHOT] Каталог прогрет из БД");
+        }
+        long interval = settings.getInterval().toMillis();
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "cache-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::write, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return число восстановленных записей или -1, если снимок не подошёл
+     */
+    public int restore() {
+        long start = System.nanoTime();
+        try {
+            long version = catalogVersionService.current();
+            int restored = CacheSnapshotFile.restore(file(), version, sections);
+            if (restored >= 0 && catalogVersionService.current() != version) {
+                // каталог изменился, пока читали снимок
+                sections.forEach(section -> section.region().invalidateAll());
+                LOGGER.info("[SNAPSHOT] Каталог изменился во время восстановления, снимок отброшен");
+                return -1;
+            }
+            if (restored >= 0) {
+                LOGGER.info("[SNAPSHOT] Восстановлено {} записей за {} мс", restored,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+            return restored;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("[SNAPSHOT] Не удалось прочитать снимок: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Версия читается до обхода регионов, но в неё уже может входить запись другого узла, чья
+     * инвалидация ещё не дошла. Поэтому обход начинается после времени доставки по шине, а снимок
+     * сохраняется, только если за время обхода версия не изменилась.
+     */
+    public void write() {
+        try {
+            long version = catalogVersionService.current();
+            TimeUnit.MILLISECONDS.sleep(deliveryMillis);
+            int written = CacheSnapshotFile.write(file(), version, sections,
+                    () -> catalogVersionService.current() == version);
+            if (written < 0) {
+                LOGGER.info("[SNAPSHOT] Каталог изменился во время записи, снимок не сохранён");
+                return;
+            }
+            LOGGER.info("[SNAPSHOT] Записано {} записей, версия каталога {}", written, version);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("[SNAPSHOT] Не удалось записать снимок: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        write();
+    }
+
+    private Path file() {
+        return settings.getDirectory().resolve(FILE_NAME);
+    }
+}
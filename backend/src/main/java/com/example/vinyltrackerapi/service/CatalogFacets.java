@@ -0,0 +1,103 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.dto.FacetCountsView;
+import com.example.vinyltrackerapi.api.dto.FacetFilter;
+import com.example.vinyltrackerapi.api.models.Vinyl;
+import com.example.vinyltrackerapi.api.repositories.VinylRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Фасеты каталога в памяти: жанры, годы, десятилетия и загрузившие. Читатели берут неизменяемый
+ * снимок без блокировок, каждая запись публикует новый, скопировав только затронутые множества.
+ */
+@Service
+public class CatalogFacets extends CatalogProjection<FacetBitmaps.Builder> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CatalogFacets.class);
+    // сортировать без БД можно только по тому, что есть в множествах
+    private static final Set<String> SORT_PROPERTIES = Set.of("id", "releaseYear");
+    private volatile FacetBitmaps bitmaps = FacetBitmaps.EMPTY;
+    private volatile boolean ready;
+
+    public CatalogFacets(VinylRepository vinylRepository,
+                         @Qualifier("taskExecutor") Executor executor,
+                         CacheInvalidationBus invalidationBus) {
+        super("FACETS", vinylRepository, executor, invalidationBus);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Id пластинок страницы, их общее число и счётчики фасетов. По умолчанию порядок по id.
+     */
+    public Selection select(FacetFilter filter, Pageable pageable) {
+        FacetBitmaps.Order order = order(pageable.getSort());
+        FacetBitmaps current = bitmaps;
+        FacetBitmaps.Selection selection = current.select(filter);
+        List<Integer> ids = current.page(selection.matching(), order, pageable.getOffset(), pageable.getPageSize());
+        return new Selection(ids, selection.matching().getCardinality(), selection.counts());
+    }
+
+    /**
+     * Проверяет, что порядок можно получить из множеств; нужен и для запроса в обход индекса.
+     */
+    public static void checkSort(Sort sort) {
+        order(sort);
+    }
+
+    private static FacetBitmaps.Order order(Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.isEmpty()) {
+            return new FacetBitmaps.Order(false, false);
+        }
+        Sort.Order first = orders.get(0);
+        if (orders.size() > 1 || !SORT_PROPERTIES.contains(first.getProperty())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Сортировка поддерживается только по одному из полей " + SORT_PROPERTIES);
+        }
+        return new FacetBitmaps.Order("releaseYear".equals(first.getProperty()), first.isDescending());
+    }
+
+    int size() {
+        return bitmaps.size();
+    }
+
+    @Override
+    protected FacetBitmaps.Builder newState() {
+        return FacetBitmaps.EMPTY.toBuilder();
+    }
+
+    @Override
+    protected void accumulate(FacetBitmaps.Builder state, Integer id, Vinyl vinyl) {
+        state.put(id, vinyl != null ? FacetBitmaps.VinylFacets.of(vinyl) : null);
+    }
+
+    @Override
+    protected void applyChanges(Map<Integer, Vinyl> changes) {
+        FacetBitmaps.Builder builder = bitmaps.toBuilder();
+        changes.forEach((id, vinyl) -> accumulate(builder, id, vinyl));
+        bitmaps = builder.build();
+    }
+
+    @Override
+    protected void install(FacetBitmaps.Builder built, long elapsedMillis) {
+        bitmaps = built.build();
+        ready = true;
+        LOGGER.info("[FACETS] Индекс фасетов построен: {} пластинок за {} мс", bitmaps.size(), elapsedMillis);
+    }
+
+    public record Selection(List<Integer> ids, long total, FacetCountsView counts) {
+    }
+}
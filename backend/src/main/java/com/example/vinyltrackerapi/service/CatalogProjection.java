@@ -0,0 +1,146 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.models.Vinyl;
+import com.example.vinyltrackerapi.api.repositories.VinylRepository;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+
+/**
+ * Производное от каталога состояние в памяти. Строится из БД в фоне при старте, дальше
+ * поддерживается изменениями: свои записи передаёт {@link VinylService}, о чужих узнаём по шине
+ * инвалидации и дочитываем изменённые пластинки. Все проекции слушают один регион {@value #NAME}.
+ * Изменения и подмена состояния идут под монитором проекции.
+ *
+ * @param <S> состояние, которое собирается при перестроении
+ */
+public abstract class CatalogProjection<S> implements ApplicationRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CatalogProjection.class);
+    public static final String NAME = "vinyl-projection";
+    static final String KEY_ID = "vinyl-";
+    private static final int BATCH_SIZE = 1000;
+    private final String tag;
+    private final VinylRepository vinylRepository;
+    private final Executor executor;
+    // изменения, пришедшие во время перестроения: их строки могли быть прочитаны до записи
+    private Map<Integer, Vinyl> pendingDuringRebuild;
+
+    protected CatalogProjection(String tag, VinylRepository vinylRepository, Executor executor,
+                                CacheInvalidationBus invalidationBus) {
+        this.tag = tag;
+        this.vinylRepository = vinylRepository;
+        this.executor = executor;
+        invalidationBus.subscribe(this::onInvalidations);
+    }
+
+    protected abstract S newState();
+
+    /**
+     * Заменяет вклад пластинки в собираемое состояние; {@code null} — пластинка удалена.
+     */
+    protected abstract void accumulate(S state, Integer id, Vinyl vinyl);
+
+    /**
+     * Применяет изменения к текущему состоянию; {@code null} в значении — пластинка удалена.
+     */
+    protected abstract void applyChanges(Map<Integer, Vinyl> changes);
+
+    protected abstract void install(S built, long elapsedMillis);
+
+    // пока состояние строится, проекция отвечает по пустому
+    @Override
+    public void run(ApplicationArguments args) {
+        startRebuild();
+    }
+
+    public synchronized void apply(Collection<Vinyl> upserted, Collection<Integer> deletedIds) {
+        Map<Integer, Vinyl> changes = new LinkedHashMap<>();
+        upserted.forEach(vinyl -> changes.put(vinyl.getId(), vinyl));
+        deletedIds.forEach(id -> changes.put(id, null));
+        if (changes.isEmpty()) {
+            return;
+        }
+        if (pendingDuringRebuild != null) {
+            pendingDuringRebuild.putAll(changes);
+        }
+        applyChanges(changes);
+    }
+
+    public void startRebuild() {
+        synchronized (this) {
+            if (pendingDuringRebuild != null) {
+                return;
+            }
+            pendingDuringRebuild = new LinkedHashMap<>();
+        }
+        executor.execute(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                LOGGER.error("[{}] Не удалось построить состояние по каталогу: {}", tag, e.getMessage(), e);
+                synchronized (this) {
+                    pendingDuringRebuild = null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Состояние собирается в стороне и подменяется целиком; изменения, случившиеся за время
+     * чтения, применяются поверх заново.
+     */
+    void rebuild() {
+        long start = System.nanoTime();
+        S built = newState();
+        int lastId = 0;
+        List<Vinyl> batch;
+        do {
+            batch = vinylRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.ofSize(BATCH_SIZE));
+            for (Vinyl vinyl : batch) {
+                accumulate(built, vinyl.getId(), vinyl);
+            }
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == BATCH_SIZE);
+
+        synchronized (this) {
+            pendingDuringRebuild.forEach((id, vinyl) -> accumulate(built, id, vinyl));
+            pendingDuringRebuild = null;
+            install(built, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    void onInvalidations(List<CacheInvalidation> invalidations) {
+        Set<Integer> ids = new HashSet<>();
+        for (CacheInvalidation invalidation : invalidations) {
+            if (invalidation.region() == null || NAME.equals(invalidation.region()) && invalidation.isRegionWide()) {
+                // после разрыва связи с шиной неизвестно, что пропущено
+                startRebuild();
+                return;
+            }
+            if (NAME.equals(invalidation.region())) {
+                ids.add(Integer.valueOf(invalidation.key().substring(KEY_ID.length())));
+            }
+        }
+        if (!ids.isEmpty()) {
+            executor.execute(() -> sync(ids));
+        }
+    }
+
+    void sync(Set<Integer> ids) {
+        List<Vinyl> found = vinylRepository.findByIdIn(ids);
+        Set<Integer> removed = new HashSet<>(ids);
+        found.forEach(vinyl -> removed.remove(vinyl.getId()));
+        apply(found, removed);
+    }
+}
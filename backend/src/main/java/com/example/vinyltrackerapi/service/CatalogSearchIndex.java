@@ -0,0 +1,454 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.dto.VinylView;
+import com.example.vinyltrackerapi.api.models.Vinyl;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.charfilter.MappingCharFilter;
+import org.apache.lucene.analysis.charfilter.NormalizeCharMap;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Встроенный полнотекстовый индекс каталога на Lucene: название, артист, жанр, год и описание.
+ * Поиск ранжирован по релевантности и не ходит в БД: представление пластинки хранится в самом
+ * документе. Свои изменения видны поиску сразу, остальные — не позже чем через {@code refreshInterval}.
+ * На диск изменения фиксируются раз в {@code commitInterval} и при закрытии, а не на каждую запись:
+ * фиксация — это fsync всего индекса. Если прошлый запуск не закрыл индекс, его надо перестроить.
+ * Выключенный индекс ничего не хранит, а записи в него игнорируются.
+ */
+public class CatalogSearchIndex implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CatalogSearchIndex.class);
+    public static final String NAME = "vinyl-search-index";
+    /** Глубже этого ранжированная выдача не листается: дальше стоимость растёт с номером страницы. */
+    public static final int MAX_WINDOW = 10_000;
+    private static final String ID = "id";
+    private static final String TITLE = "title";
+    private static final String ARTIST = "artist";
+    private static final String GENRE = "genre";
+    private static final String GENRE_ID = "genreId";
+    private static final String YEAR = "releaseYear";
+    private static final String DESCRIPTION = "description";
+    private static final String COVER_URL = "coverUrl";
+    private static final String ADDED_BY_ID = "addedById";
+    private static final String GENERATION = "generation";
+    private static final String CLOSED = "closed";
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final Analyzer ANALYZER = newAnalyzer();
+
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+    private final ScheduledExecutorService committer;
+    private final AtomicLong generation;
+    private final boolean closedCleanly;
+    // id, записанные или удалённые во время перестроения: его пакеты могли прочитать их раньше
+    private Set<Integer> touchedDuringRebuild;
+
+    private CatalogSearchIndex() {
+        this.writer = null;
+        this.searcherManager = null;
+        this.reopenThread = null;
+        this.committer = null;
+        this.generation = new AtomicLong();
+        this.closedCleanly = true;
+    }
+
+    public CatalogSearchIndex(Directory directory, Duration refreshInterval, Duration commitInterval) {
+        try {
+            this.writer = new IndexWriter(directory, new IndexWriterConfig(ANALYZER));
+            this.generation = new AtomicLong(Long.parseLong(storedValue(writer, GENERATION, "0")));
+            this.closedCleanly = Boolean.parseBoolean(storedValue(writer, CLOSED, "false"));
+            this.searcherManager = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        double maxStale = refreshInterval.toMillis() / 1000.0;
+        this.reopenThread = new ControlledRealTimeReopenThread<>(writer, searcherManager, maxStale,
+                Math.min(maxStale, 0.025));
+        reopenThread.setName("catalog-search-refresh");
+        reopenThread.setDaemon(true);
+        reopenThread.start();
+        this.committer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "catalog-search-commit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = commitInterval.toMillis();
+        committer.scheduleWithFixedDelay(this::commitChanges, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public static CatalogSearchIndex disabled() {
+        return new CatalogSearchIndex();
+    }
+
+    public boolean isEnabled() {
+        return writer != null;
+    }
+
+    /** Был ли индекс закрыт при прошлой остановке; иначе изменения после последней фиксации потеряны. */
+    public boolean wasClosedCleanly() {
+        return closedCleanly;
+    }
+
+    /** Добавляет или заменяет документы пластинок и сразу делает их видимыми поиску. */
+    public void index(Collection<Vinyl> vinyls) {
+        if (!isEnabled() || vinyls.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            if (touchedDuringRebuild != null) {
+                vinyls.forEach(vinyl -> touchedDuringRebuild.add(vinyl.getId()));
+            }
+            write(vinyls);
+        }
+        refresh();
+    }
+
+    public void delete(Collection<Integer> ids) {
+        if (!isEnabled() || ids.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            if (touchedDuringRebuild != null) {
+                touchedDuringRebuild.addAll(ids);
+            }
+            try {
+                for (Integer id : ids) {
+                    writer.deleteDocuments(new Term(ID, id.toString()));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        refresh();
+    }
+
+    /**
+     * Начинает перестроение: документы, записанные с этого момента, получают новое поколение,
+     * а старые остаются в поиске до {@link #finishRebuild(long)}.
+     */
+    public synchronized long beginRebuild() {
+        touchedDuringRebuild = new HashSet<>();
+        return generation.incrementAndGet();
+    }
+
+    /**
+     * Пакет перестроения: без фиксации, видимость — по обычному обновлению читателя. Пластинки,
+     * которые с начала перестроения уже записаны или удалены напрямую, пропускаются: пакет мог
+     * быть прочитан из БД до этих изменений.
+     */
+    public synchronized void add(Collection<Vinyl> vinyls) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (touchedDuringRebuild == null) {
+            write(vinyls);
+            return;
+        }
+        write(vinyls.stream().filter(vinyl -> !touchedDuringRebuild.contains(vinyl.getId())).toList());
+    }
+
+    /** Удаляет документы, не попавшие в перестроение, то есть пластинки, которых больше нет в БД. */
+    public void finishRebuild(long rebuildGeneration) {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            writer.deleteDocuments(LongPoint.newRangeQuery(GENERATION, Long.MIN_VALUE, rebuildGeneration - 1));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        abortRebuild();
+        commit();
+    }
+
+    /** Перестроение не закончено: старые документы остаются, прямые записи больше не отслеживаются. */
+    public synchronized void abortRebuild() {
+        touchedDuringRebuild = null;
+    }
+
+    private void write(Collection<Vinyl> vinyls) {
+        long current = generation.get();
+        try {
+            for (Vinyl vinyl : vinyls) {
+                writer.updateDocument(new Term(ID, vinyl.getId().toString()), toDocument(vinyl, current));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public Page<VinylView> search(String text, Pageable pageable) {
+        if (!isEnabled()) {
+            throw new IllegalStateException("Полнотекстовый индекс выключен");
+        }
+        Query query = toQuery(text);
+        long offset = pageable.getOffset();
+        if (query == null || offset >= MAX_WINDOW) {
+            return Page.empty(pageable);
+        }
+        int end = (int) Math.min(offset + pageable.getPageSize(), MAX_WINDOW);
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs top = searcher.search(query, end);
+                StoredFields storedFields = searcher.storedFields();
+                List<VinylView> items = new ArrayList<>(Math.max(0, top.scoreDocs.length - (int) offset));
+                for (int i = (int) offset; i < top.scoreDocs.length; i++) {
+                    items.add(toView(storedFields.document(top.scoreDocs[i].doc)));
+                }
+                // после 1000 совпадений Lucene перестаёт считать точно: total — нижняя граница
+                return new PageImpl<>(items, pageable, top.totalHits.value);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public int size() {
+        if (!isEnabled()) {
+            return 0;
+        }
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                return searcher.getIndexReader().numDocs();
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Делает видимыми все записанные документы, не дожидаясь фонового обновления. */
+    public void refresh() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        committer.shutdownNow();
+        reopenThread.close();
+        searcherManager.close();
+        writer.setLiveCommitData(commitData(true));
+        writer.close();
+    }
+
+    private void commit() {
+        try {
+            writer.setLiveCommitData(commitData(false));
+            writer.commit();
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void commitChanges() {
+        try {
+            if (writer.hasUncommittedChanges()) {
+                commit();
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("[SEARCH] Не удалось зафиксировать индекс: {}", e.getMessage());
+        }
+    }
+
+    private Iterable<Map.Entry<String, String>> commitData(boolean closed) {
+        return Map.of(GENERATION, Long.toString(generation.get()), CLOSED, Boolean.toString(closed)).entrySet();
+    }
+
+    private static String storedValue(IndexWriter writer, String key, String defaultValue) {
+        Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+        if (commitData != null) {
+            for (Map.Entry<String, String> entry : commitData) {
+                if (key.equals(entry.getKey())) {
+                    return entry.getValue();
+                }
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Каждое слово запроса должно найтись хотя бы в одном поле; совпадение в названии и артисте
+     * весит больше, чем в жанре и описании. Запрос-число дополнительно ищется как год выпуска.
+     */
+    private static Query toQuery(String text) {
+        List<String> terms = analyze(text);
+        if (terms.isEmpty()) {
+            return null;
+        }
+        BooleanQuery.Builder allTerms = new BooleanQuery.Builder();
+        for (String term : terms) {
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder()
+                    .add(new BoostQuery(new TermQuery(new Term(TITLE, term)), 3f), Occur.SHOULD)
+                    .add(new BoostQuery(new TermQuery(new Term(ARTIST, term)), 3f), Occur.SHOULD)
+                    .add(new BoostQuery(new TermQuery(new Term(GENRE, term)), 2f), Occur.SHOULD)
+                    .add(new TermQuery(new Term(DESCRIPTION, term)), Occur.SHOULD);
+            if (term.length() >= MIN_PREFIX_LENGTH) {
+                // недописанное слово из строки поиска: "beat" находит "Beatles"
+                anyField.add(new PrefixQuery(new Term(TITLE, term)), Occur.SHOULD)
+                        .add(new PrefixQuery(new Term(ARTIST, term)), Occur.SHOULD);
+            }
+            allTerms.add(anyField.build(), Occur.MUST);
+        }
+        Integer year = parseYear(text);
+        if (year == null) {
+            return allTerms.build();
+        }
+        return new BooleanQuery.Builder()
+                .add(allTerms.build(), Occur.SHOULD)
+                .add(new BoostQuery(IntPoint.newExactQuery(YEAR, year), 3f), Occur.SHOULD)
+                .build();
+    }
+
+    private static Integer parseYear(String text) {
+        try {
+            return Integer.valueOf(text.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream stream = ANALYZER.tokenStream(TITLE, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                terms.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    // регистр и диакритика не важны, "ё" ищется как "е"
+    private static Analyzer newAnalyzer() {
+        NormalizeCharMap.Builder charMap = new NormalizeCharMap.Builder();
+        charMap.add("ё", "е");
+        charMap.add("Ё", "Е");
+        NormalizeCharMap yoToYe = charMap.build();
+        return new Analyzer() {
+            @Override
+            protected Reader initReader(String fieldName, Reader reader) {
+                return new MappingCharFilter(yoToYe, reader);
+            }
+
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                Tokenizer tokenizer = new StandardTokenizer();
+                TokenStream stream = new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer));
+                return new TokenStreamComponents(tokenizer, stream);
+            }
+        };
+    }
+
+    private static Document toDocument(Vinyl vinyl, long generation) {
+        Document document = new Document();
+        document.add(new StringField(ID, vinyl.getId().toString(), Field.Store.YES));
+        document.add(new TextField(TITLE, vinyl.getTitle(), Field.Store.YES));
+        document.add(new TextField(ARTIST, vinyl.getArtist(), Field.Store.YES));
+        if (vinyl.getGenre() != null) {
+            document.add(new StoredField(GENRE_ID, vinyl.getGenre().getId()));
+            if (vinyl.getGenre().getName() != null) {
+                document.add(new TextField(GENRE, vinyl.getGenre().getName(), Field.Store.NO));
+            }
+        }
+        if (vinyl.getReleaseYear() != null) {
+            document.add(new IntPoint(YEAR, vinyl.getReleaseYear()));
+            document.add(new StoredField(YEAR, vinyl.getReleaseYear()));
+        }
+        if (vinyl.getDescription() != null) {
+            document.add(new TextField(DESCRIPTION, vinyl.getDescription(), Field.Store.YES));
+        }
+        if (vinyl.getCoverUrl() != null) {
+            document.add(new StoredField(COVER_URL, vinyl.getCoverUrl()));
+        }
+        if (vinyl.getAddedBy() != null) {
+            document.add(new StoredField(ADDED_BY_ID, vinyl.getAddedBy().getId()));
+        }
+        document.add(new LongPoint(GENERATION, generation));
+        return document;
+    }
+
+    private static VinylView toView(Document document) {
+        return new VinylView(
+                Integer.valueOf(document.get(ID)),
+                document.get(TITLE),
+                document.get(ARTIST),
+                intValue(document, GENRE_ID),
+                intValue(document, YEAR),
+                document.get(DESCRIPTION),
+                document.get(COVER_URL),
+                intValue(document, ADDED_BY_ID));
+    }
+
+    private static Integer intValue(Document document, String field) {
+        IndexableField value = document.getField(field);
+        return value != null ? value.numericValue().intValue() : null;
+    }
+}
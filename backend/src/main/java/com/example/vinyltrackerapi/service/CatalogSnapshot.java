@@ -0,0 +1,62 @@
+package com.example.vinyltrackerapi.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Неизменяемый снимок каталога с индексом по id. Изменения не трогают текущий снимок,
+ * а возвращают новый, поэтому читатели без блокировок всегда видят согласованный список.
+ */
+public final class CatalogSnapshot<T> {
+    private final Map<Integer, T> byId;
+    private final List<T> values;
+    private final Function<T, Integer> idExtractor;
+
+    private CatalogSnapshot(LinkedHashMap<Integer, T> byId, Function<T, Integer> idExtractor) {
+        this.byId = Collections.unmodifiableMap(byId);
+        this.values = List.copyOf(byId.values());
+        this.idExtractor = idExtractor;
+    }
+
+    public static <T> CatalogSnapshot<T> of(Collection<T> items, Function<T, Integer> idExtractor) {
+        LinkedHashMap<Integer, T> byId = new LinkedHashMap<>();
+        for (T item : items) {
+            byId.put(idExtractor.apply(item), item);
+        }
+        return new CatalogSnapshot<>(byId, idExtractor);
+    }
+
+    /** Заменяет записи с теми же id на месте, новые добавляет в конец. */
+    public CatalogSnapshot<T> withUpserted(Collection<T> items) {
+        LinkedHashMap<Integer, T> copy = new LinkedHashMap<>(byId);
+        for (T item : items) {
+            copy.put(idExtractor.apply(item), item);
+        }
+        return new CatalogSnapshot<>(copy, idExtractor);
+    }
+
+    public CatalogSnapshot<T> without(Integer id) {
+        if (!byId.containsKey(id)) {
+            return this;
+        }
+        LinkedHashMap<Integer, T> copy = new LinkedHashMap<>(byId);
+        copy.remove(id);
+        return new CatalogSnapshot<>(copy, idExtractor);
+    }
+
+    public T get(Integer id) {
+        return byId.get(id);
+    }
+
+    public List<T> values() {
+        return values;
+    }
+
+    public int size() {
+        return values.size();
+    }
+}
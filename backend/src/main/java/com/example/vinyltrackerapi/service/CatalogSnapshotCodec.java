@@ -0,0 +1,34 @@
+package com.example.vinyltrackerapi.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+public class CatalogSnapshotCodec<T> implements RecordCodec<CatalogSnapshot<T>> {
+    private final RecordCodec<T> itemCodec;
+    private final Function<T, Integer> idExtractor;
+
+    public CatalogSnapshotCodec(RecordCodec<T> itemCodec, Function<T, Integer> idExtractor) {
+        this.itemCodec = itemCodec;
+        this.idExtractor = idExtractor;
+    }
+
+    @Override
+    public void write(CatalogSnapshot<T> snapshot, BinaryOutput out) {
+        List<T> values = snapshot.values();
+        out.writeVarInt(values.size());
+        for (T value : values) {
+            itemCodec.write(value, out);
+        }
+    }
+
+    @Override
+    public CatalogSnapshot<T> read(BinaryInput in) {
+        int count = in.readVarInt();
+        List<T> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(itemCodec.read(in));
+        }
+        return CatalogSnapshot.of(values, idExtractor);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.dto.VinylView;
+import java.util.Collection;
+
+/**
+ * Отпечаток содержимого каталога для ETag (64-битный FNV-1a). Меняется при любом изменении
+ * пластинок и одинаков на всех узлах, поэтому ETag остаётся валидным за балансировщиком.
+ */
+public final class CatalogStamp {
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+    private static final long NULL_MARKER = Long.MIN_VALUE;
+
+    private CatalogStamp() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    public static long of(VinylView vinyl) {
+        long hash = OFFSET_BASIS;
+        hash = mix(hash, vinyl.id());
+        hash = mix(hash, vinyl.title());
+        hash = mix(hash, vinyl.artist());
+        hash = mix(hash, vinyl.genreId());
+        hash = mix(hash, vinyl.releaseYear());
+        hash = mix(hash, vinyl.description());
+        hash = mix(hash, vinyl.coverUrl());
+        return mix(hash, vinyl.addedById());
+    }
+
+    public static long of(Collection<VinylView> vinyls) {
+        long hash = mix(OFFSET_BASIS, vinyls.size());
+        for (VinylView vinyl : vinyls) {
+            hash = mix(hash, of(vinyl));
+        }
+        return hash;
+    }
+
+    /** Сильный ETag в кавычках, как того требует RFC 9110. */
+    public static String etag(String prefix, long stamp) {
+        return "\"" + prefix + "-" + Long.toHexString(stamp) + "\"";
+    }
+
+    private static long mix(long hash, Integer value) {
+        return value == null ? mix(hash, NULL_MARKER) : mix(hash, (long) value);
+    }
+
+    private static long mix(long hash, String value) {
+        if (value == null) {
+            return mix(hash, NULL_MARKER);
+        }
+        hash = mix(hash, (long) value.length());
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * PRIME;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            hash = (hash ^ ((value >>> shift) & 0xff)) * PRIME;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.dto.SuggestionView;
+import com.example.vinyltrackerapi.api.models.Vinyl;
+import com.example.vinyltrackerapi.api.repositories.VinylRepository;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+/**
+ * Автодополнение по исполнителям, названиям и жанрам и исправление опечаток без обращения к БД.
+ * Популярность термина — число пластинок каталога с ним.
+ */
+@Service
+public class CatalogSuggester extends CatalogProjection<CatalogSuggester.Vocabulary> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CatalogSuggester.class);
+    public static final int MAX_LIMIT = 20;
+    private static final int CANDIDATES_PER_WORD = 3;
+    private Vocabulary vocabulary = new Vocabulary();
+    private volatile SuggestionIndex index = SuggestionIndex.EMPTY;
+
+    public CatalogSuggester(VinylRepository vinylRepository,
+                            @Qualifier("taskExecutor") Executor executor,
+                            CacheInvalidationBus invalidationBus) {
+        super("SUGGEST", vinylRepository, executor, invalidationBus);
+    }
+
+    public List<SuggestionView> suggest(String prefix, int limit) {
+        if (prefix == null) {
+            return List.of();
+        }
+        return index.top(prefix, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * Варианты запроса с исправленными словами, лучший первым; пусто, если все слова есть
+     * в названиях или исполнителях либо исправить нечего. Первый вариант берёт лучшего
+     * кандидата для каждого слова, следующие по очереди заменяют одно слово следующим кандидатом.
+     */
+    public synchronized List<String> corrections(String query, int limit) {
+        List<String> words = SpellingDictionary.words(VinylSearchPredicates.normalize(query.strip()));
+        List<List<String>> candidates = new ArrayList<>(words.size());
+        boolean corrected = false;
+        for (String word : words) {
+            boolean known = word.length() < SpellingDictionary.MIN_WORD_LENGTH || vocabulary.spelling.contains(word);
+            List<String> found = known ? List.of() : vocabulary.spelling.lookup(word, CANDIDATES_PER_WORD);
+            corrected |= !found.isEmpty();
+            candidates.add(found.isEmpty() ? List.of(word) : found);
+        }
+        if (!corrected) {
+            return List.of();
+        }
+        Set<String> result = new LinkedHashSet<>();
+        result.add(join(candidates, -1, 0));
+        for (int rank = 1; rank < CANDIDATES_PER_WORD; rank++) {
+            for (int position = 0; position < candidates.size(); position++) {
+                if (candidates.get(position).size() > rank) {
+                    result.add(join(candidates, position, rank));
+                }
+            }
+        }
+        return result.stream().limit(limit).toList();
+    }
+
+    @Override
+    protected Vocabulary newState() {
+        return new Vocabulary();
+    }
+
+    @Override
+    protected void accumulate(Vocabulary state, Integer id, Vinyl vinyl) {
+        state.replace(id, vinyl);
+    }
+
+    // пересобираются только затронутые термины
+    @Override
+    protected void applyChanges(Map<Integer, Vinyl> changes) {
+        Set<String> changed = new HashSet<>();
+        changes.forEach((id, vinyl) -> changed.addAll(vocabulary.replace(id, vinyl)));
+        if (changed.isEmpty()) {
+            return;
+        }
+        Map<String, SuggestionView> termChanges = new HashMap<>();
+        changed.forEach(termId -> termChanges.put(termId, vocabulary.terms.get(termId)));
+        index = index.with(termChanges);
+    }
+
+    @Override
+    protected void install(Vocabulary built, long elapsedMillis) {
+        vocabulary = built;
+        index = SuggestionIndex.of(built.terms);
+        LOGGER.info("[SUGGEST] Словарь подсказок построен: {} терминов и {} слов из {} пластинок за {} мс",
+                built.terms.size(), built.spelling.size(), built.termsByVinyl.size(), elapsedMillis);
+    }
+
+    int size() {
+        return index.size();
+    }
+
+    private static String join(List<List<String>> candidates, int position, int rank) {
+        List<String> words = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            words.add(candidates.get(i).get(i == position ? rank : 0));
+        }
+        return String.join(" ", words);
+    }
+
+    /**
+     * Термины по пластинкам, их популярность и слова для исправления опечаток.
+     */
+    static final class Vocabulary {
+        private final Map<Integer, List<String>> termsByVinyl = new HashMap<>();
+        private final Map<String, SuggestionView> terms = new HashMap<>();
+        private final SpellingDictionary spelling = new SpellingDictionary();
+
+        List<String> replace(Integer id, Vinyl vinyl) {
+            List<String> changed = new ArrayList<>();
+            List<String> previous = termsByVinyl.remove(id);
+            if (previous != null) {
+                for (String termId : previous) {
+                    SuggestionView view = terms.get(termId);
+                    if (view.popularity() > 1) {
+                        terms.put(termId, new SuggestionView(view.text(), view.type(), view.popularity() - 1));
+                    } else {
+                        terms.remove(termId);
+                    }
+                    spellingWords(termId, view.type()).forEach(spelling::remove);
+                    changed.add(termId);
+                }
+            }
+            if (vinyl == null) {
+                return changed;
+            }
+            List<String> current = new ArrayList<>(3);
+            add(current, SuggestionView.Type.ARTIST, vinyl.getArtist());
+            add(current, SuggestionView.Type.TITLE, vinyl.getTitle());
+            // у пластинок, пришедших без графа, жанр может быть не загружен
+            if (vinyl.getGenre() != null && Hibernate.isInitialized(vinyl.getGenre())) {
+                add(current, SuggestionView.Type.GENRE, vinyl.getGenre().getName());
+            }
+            termsByVinyl.put(id, current);
+            changed.addAll(current);
+            return changed;
+        }
+
+        private void add(List<String> current, SuggestionView.Type type, String text) {
+            if (text == null || text.isBlank()) {
+                return;
+            }
+            String termId = SuggestionIndex.termId(type, text);
+            if (current.contains(termId)) {
+                return;
+            }
+            current.add(termId);
+            terms.merge(termId, new SuggestionView(text.strip(), type, 1),
+                    (view, one) -> new SuggestionView(view.text(), type, view.popularity() + 1));
+            spellingWords(termId, type).forEach(spelling::add);
+        }
+
+        // опечатки ищем в названиях и исполнителях; жанров мало, их проще выбрать из подсказок
+        private static List<String> spellingWords(String termId, SuggestionView.Type type) {
+            if (type == SuggestionView.Type.GENRE) {
+                return List.of();
+            }
+            return SpellingDictionary.words(termId.substring(termId.indexOf(':') + 1));
+        }
+    }
+}
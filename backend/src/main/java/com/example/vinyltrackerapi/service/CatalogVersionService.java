@@ -0,0 +1,44 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.configs.CacheProperties;
+import com.example.vinyltrackerapi.api.models.CatalogVersion;
+import com.example.vinyltrackerapi.api.repositories.CatalogVersionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Счётчик изменений каталога в БД. Растёт при каждой записи пластинок и пользователей
+ * на любом узле; по нему проверяется, не устарел ли снимок кеша. Без снимков счётчик не нужен,
+ * и лишний запрос на каждую запись не делается, поэтому настройка снимков должна быть общей для узлов.
+ */
+@Service
+public class CatalogVersionService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CatalogVersionService.class);
+    private static final Integer ROW_ID = 1;
+    private final CatalogVersionRepository catalogVersionRepository;
+    private final boolean enabled;
+
+    public CatalogVersionService(CatalogVersionRepository catalogVersionRepository, CacheProperties properties) {
+        this.catalogVersionRepository = catalogVersionRepository;
+        this.enabled = properties.getSnapshot().isEnabled();
+    }
+
+    public long current() {
+        return catalogVersionRepository.findById(ROW_ID).map(CatalogVersion::getVersion).orElse(0L);
+    }
+
+    public void bump() {
+        if (!enabled || catalogVersionRepository.increment(ROW_ID) > 0) {
+            return;
+        }
+        try {
+            catalogVersionRepository.save(new CatalogVersion(ROW_ID, 1L));
+            LOGGER.info("[SNAPSHOT] Создан счётчик версии каталога");
+        } catch (DataIntegrityViolationException e) {
+            // строку только что создал другой узел
+            catalogVersionRepository.increment(ROW_ID);
+        }
+    }
+}
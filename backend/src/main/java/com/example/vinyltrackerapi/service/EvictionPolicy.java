@@ -0,0 +1,23 @@
+package com.example.vinyltrackerapi.service;
+
+import java.util.List;
+
+/**
+ * Политика вытеснения кеша с учётом веса записей. Ёмкость задаётся суммарным весом:
+ * в байтах для регионов с бюджетом памяти или числом записей, если каждая весит 1.
+ * Не потокобезопасна: вызывается только под блокировкой CacheService.
+ */
+public interface EvictionPolicy {
+    /**
+     * Регистрирует новый ключ и возвращает ключи, которые нужно вытеснить
+     * (в том числе может вернуть сам добавленный ключ, если он не прошёл допуск).
+     */
+    List<String> recordInsert(String key, long weight);
+
+    /** Вес значения по существующему ключу изменился; возвращает ключи для вытеснения. */
+    List<String> recordUpdate(String key, long weight);
+
+    void recordAccess(String key);
+
+    void recordRemove(String key);
+}
@@ -0,0 +1,14 @@
+package com.example.vinyltrackerapi.service;
+
+public enum EvictionPolicyType {
+    TINY_LFU,
+    LRU;
+
+    public EvictionPolicy create(CacheRegionSettings settings) {
+        long maximumWeight = settings.isWeighted() ? settings.maxBytes() : settings.maxSize();
+        return switch (this) {
+            case TINY_LFU -> new WindowTinyLfuPolicy(maximumWeight, settings.maxSize());
+            case LRU -> new LruPolicy(maximumWeight);
+        };
+    }
+}
@@ -0,0 +1,392 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.dto.FacetCountsView;
+import com.example.vinyltrackerapi.api.dto.FacetFilter;
+import com.example.vinyltrackerapi.api.models.Vinyl;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Stream;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * Неизменяемые сжатые множества id пластинок по жанру, году, десятилетию и загрузившему.
+ * Фильтр — это ИЛИ множеств внутри фасета и И между фасетами, счётчики — мощность пересечения,
+ * поэтому ни страница, ни её счётчики не требуют {@code count(*)}. Рядом хранятся значения
+ * фасетов по id: когда подходящих пластинок мало, а значений фасета много, дешевле пройти
+ * по пластинкам, чем пересекать каждое множество. Изменения собираются в {@link Builder},
+ * который копирует только затронутые множества и страницы значений.
+ */
+final class FacetBitmaps {
+    static final FacetBitmaps EMPTY = new FacetBitmaps(new RoaringBitmap(), Map.of(), new TreeMap<>(),
+            new TreeMap<>(), Map.of(), Column.EMPTY, Column.EMPTY, Column.EMPTY);
+    static final int MAX_UPLOADERS = 20;
+    // пересечение с одним множеством стоит примерно как просмотр сотни пластинок
+    private static final int SCAN_PER_VALUE = 100;
+    private final RoaringBitmap all;
+    private final Map<Integer, RoaringBitmap> genres;
+    private final NavigableMap<Integer, RoaringBitmap> years;
+    private final NavigableMap<Integer, RoaringBitmap> decades;
+    private final Map<Integer, RoaringBitmap> uploaders;
+    private final Column genreOf;
+    private final Column yearOf;
+    private final Column uploaderOf;
+
+    private FacetBitmaps(RoaringBitmap all, Map<Integer, RoaringBitmap> genres,
+                         NavigableMap<Integer, RoaringBitmap> years, NavigableMap<Integer, RoaringBitmap> decades,
+                         Map<Integer, RoaringBitmap> uploaders, Column genreOf, Column yearOf, Column uploaderOf) {
+        this.all = all;
+        this.genres = Map.copyOf(genres);
+        this.years = Collections.unmodifiableNavigableMap(new TreeMap<>(years));
+        this.decades = Collections.unmodifiableNavigableMap(new TreeMap<>(decades));
+        this.uploaders = Map.copyOf(uploaders);
+        this.genreOf = genreOf;
+        this.yearOf = yearOf;
+        this.uploaderOf = uploaderOf;
+    }
+
+    Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    int size() {
+        return all.getCardinality();
+    }
+
+    /**
+     * Подходящие под фильтр пластинки и счётчики фасетов по одним и тем же маскам.
+     */
+    Selection select(FacetFilter filter) {
+        RoaringBitmap genre = filter.genreIds().isEmpty() ? null : union(genres, filter.genreIds());
+        RoaringBitmap range = filter.hasYearRange() ? union(years.subMap(
+                filter.yearFrom() != null ? filter.yearFrom() : Integer.MIN_VALUE, true,
+                filter.yearTo() != null ? filter.yearTo() : Integer.MAX_VALUE, true).values()) : null;
+        RoaringBitmap decade = filter.decades().isEmpty() ? null
+                : union(decades, filter.decades().stream().map(FacetBitmaps::decade).toList());
+        RoaringBitmap uploader = filter.uploaderIds().isEmpty() ? null : union(uploaders, filter.uploaderIds());
+
+        FacetCountsView counts = new FacetCountsView(
+                counts(genres, genreOf::get, intersect(range, decade, uploader), Integer.MAX_VALUE),
+                counts(years, yearOf::get, intersect(genre, decade, uploader), Integer.MAX_VALUE),
+                counts(decades, this::decadeOf, intersect(genre, range, uploader), Integer.MAX_VALUE),
+                counts(uploaders, uploaderOf::get, intersect(genre, range, decade), MAX_UPLOADERS));
+        return new Selection(intersect(genre, range, decade, uploader), counts);
+    }
+
+    /**
+     * Id страницы в порядке id или года выпуска; внутри года — по id в ту же сторону.
+     */
+    List<Integer> page(RoaringBitmap matching, Order order, long offset, int limit) {
+        List<Integer> result = new ArrayList<>(Math.min(limit, matching.getCardinality()));
+        if (!order.byYear()) {
+            append(matching, order.descending(), offset, limit, result);
+            return result;
+        }
+        if (matching.getCardinality() < (long) years.size() * SCAN_PER_VALUE) {
+            return pageByYearScan(matching, order.descending(), offset, limit);
+        }
+        long skip = offset;
+        for (RoaringBitmap year : (order.descending() ? years.descendingMap() : years).values()) {
+            if (result.size() == limit) {
+                break;
+            }
+            int count = RoaringBitmap.andCardinality(year, matching);
+            if (skip >= count) {
+                skip -= count;
+                continue;
+            }
+            append(RoaringBitmap.and(year, matching), order.descending(), skip, limit, result);
+            skip = 0;
+        }
+        return result;
+    }
+
+    // подходящих мало: раскладываем их по годам за один проход вместо пересечения с каждым годом
+    private List<Integer> pageByYearScan(RoaringBitmap matching, boolean descending, long offset, int limit) {
+        TreeMap<Integer, List<Integer>> idsByYear = new TreeMap<>();
+        matching.forEach((int id) -> {
+            int year = yearOf.get(id);
+            if (year != Column.NONE) {
+                idsByYear.computeIfAbsent(year, key -> new ArrayList<>()).add(id);
+            }
+        });
+        List<Integer> result = new ArrayList<>(limit);
+        long skip = offset;
+        for (List<Integer> ids : (descending ? idsByYear.descendingMap() : idsByYear).values()) {
+            if (result.size() == limit) {
+                break;
+            }
+            if (skip >= ids.size()) {
+                skip -= ids.size();
+                continue;
+            }
+            if (descending) {
+                Collections.reverse(ids);
+            }
+            result.addAll(ids.subList((int) skip, (int) Math.min(ids.size(), skip + limit - result.size())));
+            skip = 0;
+        }
+        return result;
+    }
+
+    static int decade(int year) {
+        return Math.floorDiv(year, 10) * 10;
+    }
+
+    private int decadeOf(int id) {
+        int year = yearOf.get(id);
+        return year == Column.NONE ? Column.NONE : decade(year);
+    }
+
+    private static void append(RoaringBitmap ids, boolean descending, long skip, int limit, List<Integer> result) {
+        int cardinality = ids.getCardinality();
+        for (long rank = skip; rank < cardinality && result.size() < limit; rank++) {
+            result.add(ids.select((int) (descending ? cardinality - 1 - rank : rank)));
+        }
+    }
+
+    private static RoaringBitmap union(Map<Integer, RoaringBitmap> bitmaps, Collection<Integer> keys) {
+        return union(keys.stream().map(bitmaps::get).filter(bitmap -> bitmap != null).toList());
+    }
+
+    private static RoaringBitmap union(Collection<RoaringBitmap> bitmaps) {
+        return FastAggregation.or(bitmaps.iterator());
+    }
+
+    // без масок подходит весь каталог
+    private RoaringBitmap intersect(RoaringBitmap... masks) {
+        List<RoaringBitmap> present = Stream.of(masks).filter(mask -> mask != null).toList();
+        if (present.isEmpty()) {
+            return all;
+        }
+        return present.size() == 1 ? present.get(0) : FastAggregation.and(present.iterator());
+    }
+
+    private Map<Integer, Integer> counts(Map<Integer, RoaringBitmap> bitmaps, IntUnaryOperator valueOf,
+                                         RoaringBitmap base, int limit) {
+        Map<Integer, Integer> result = new TreeMap<>();
+        if (base != all && base.getCardinality() < (long) bitmaps.size() * SCAN_PER_VALUE) {
+            Map<Integer, Integer> scanned = new HashMap<>();
+            base.forEach((int id) -> {
+                int value = valueOf.applyAsInt(id);
+                if (value != Column.NONE) {
+                    scanned.merge(value, 1, Integer::sum);
+                }
+            });
+            result.putAll(scanned);
+        } else {
+            bitmaps.forEach((key, bitmap) -> {
+                int count = base == all ? bitmap.getCardinality() : RoaringBitmap.andCardinality(bitmap, base);
+                if (count > 0) {
+                    result.put(key, count);
+                }
+            });
+        }
+        if (result.size() <= limit) {
+            return result;
+        }
+        Map<Integer, Integer> top = new LinkedHashMap<>();
+        result.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed())
+                .limit(limit)
+                .forEach(entry -> top.put(entry.getKey(), entry.getValue()));
+        return top;
+    }
+
+    record Selection(RoaringBitmap matching, FacetCountsView counts) {
+    }
+
+    record Order(boolean byYear, boolean descending) {
+    }
+
+    /**
+     * Значения фасетов одной пластинки; {@code null} — значения нет.
+     */
+    record VinylFacets(Integer genreId, Integer releaseYear, Integer uploaderId) {
+
+        static VinylFacets of(Vinyl vinyl) {
+            // id у прокси доступен без загрузки сущности
+            return new VinylFacets(vinyl.getGenre() != null ? vinyl.getGenre().getId() : null,
+                    vinyl.getReleaseYear(),
+                    vinyl.getAddedBy() != null ? vinyl.getAddedBy().getId() : null);
+        }
+    }
+
+    /**
+     * Значение фасета по id пластинки, страницами по {@value #PAGE_SIZE} id.
+     */
+    private static final class Column {
+        static final int NONE = Integer.MIN_VALUE;
+        static final Column EMPTY = new Column(new int[0][]);
+        private static final int PAGE_BITS = 10;
+        private static final int PAGE_SIZE = 1 << PAGE_BITS;
+        private final int[][] pages;
+
+        private Column(int[][] pages) {
+            this.pages = pages;
+        }
+
+        int get(int id) {
+            return valueAt(pages, id);
+        }
+
+        static int valueAt(int[][] pages, int id) {
+            int page = id >>> PAGE_BITS;
+            return page < pages.length && pages[page] != null ? pages[page][id & (PAGE_SIZE - 1)] : NONE;
+        }
+    }
+
+    /**
+     * Изменяемая копия: множество или страница значений копируются при первом изменении,
+     * остальные разделяются с исходным снимком. После {@link #build()} можно продолжать изменения,
+     * снимок они не заденут.
+     */
+    static final class Builder {
+        private RoaringBitmap all;
+        private final Map<Integer, RoaringBitmap> genres;
+        private final NavigableMap<Integer, RoaringBitmap> years;
+        private final NavigableMap<Integer, RoaringBitmap> decades;
+        private final Map<Integer, RoaringBitmap> uploaders;
+        private final ColumnBuilder genreOf;
+        private final ColumnBuilder yearOf;
+        private final ColumnBuilder uploaderOf;
+        private final Set<RoaringBitmap> owned = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private Builder(FacetBitmaps source) {
+            this.all = source.all;
+            this.genres = new HashMap<>(source.genres);
+            this.years = new TreeMap<>(source.years);
+            this.decades = new TreeMap<>(source.decades);
+            this.uploaders = new HashMap<>(source.uploaders);
+            this.genreOf = new ColumnBuilder(source.genreOf);
+            this.yearOf = new ColumnBuilder(source.yearOf);
+            this.uploaderOf = new ColumnBuilder(source.uploaderOf);
+        }
+
+        /**
+         * Заменяет значения фасетов пластинки; {@code null} — пластинка удалена.
+         */
+        void put(int id, VinylFacets facets) {
+            if (all.contains(id)) {
+                ownAll().remove(id);
+                remove(genres, genreOf.get(id), id);
+                int year = yearOf.get(id);
+                remove(years, year, id);
+                remove(decades, year == Column.NONE ? Column.NONE : decade(year), id);
+                remove(uploaders, uploaderOf.get(id), id);
+            }
+            if (facets == null) {
+                genreOf.set(id, Column.NONE);
+                yearOf.set(id, Column.NONE);
+                uploaderOf.set(id, Column.NONE);
+                return;
+            }
+            ownAll().add(id);
+            genreOf.set(id, add(genres, facets.genreId(), id));
+            yearOf.set(id, add(years, facets.releaseYear(), id));
+            add(decades, facets.releaseYear() != null ? decade(facets.releaseYear()) : null, id);
+            uploaderOf.set(id, add(uploaders, facets.uploaderId(), id));
+        }
+
+        FacetBitmaps build() {
+            owned.forEach(RoaringBitmap::runOptimize);
+            owned.clear();
+            return new FacetBitmaps(all, genres, years, decades, uploaders, genreOf.build(), yearOf.build(),
+                    uploaderOf.build());
+        }
+
+        private RoaringBitmap ownAll() {
+            if (!owned.contains(all)) {
+                all = all.clone();
+                owned.add(all);
+            }
+            return all;
+        }
+
+        private int add(Map<Integer, RoaringBitmap> bitmaps, Integer key, int id) {
+            if (key == null) {
+                return Column.NONE;
+            }
+            RoaringBitmap bitmap = owned(bitmaps.get(key));
+            bitmap.add(id);
+            bitmaps.put(key, bitmap);
+            return key;
+        }
+
+        private void remove(Map<Integer, RoaringBitmap> bitmaps, int key, int id) {
+            RoaringBitmap bitmap = key != Column.NONE ? bitmaps.get(key) : null;
+            if (bitmap == null) {
+                return;
+            }
+            bitmap = owned(bitmap);
+            bitmap.remove(id);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            } else {
+                bitmaps.put(key, bitmap);
+            }
+        }
+
+        private RoaringBitmap owned(RoaringBitmap bitmap) {
+            if (bitmap == null || !owned.contains(bitmap)) {
+                RoaringBitmap copy = bitmap == null ? new RoaringBitmap() : bitmap.clone();
+                owned.add(copy);
+                return copy;
+            }
+            return bitmap;
+        }
+    }
+
+    private static final class ColumnBuilder {
+        private int[][] pages;
+        private boolean ownsPages;
+        private final Set<int[]> owned = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        ColumnBuilder(Column source) {
+            this.pages = source.pages;
+        }
+
+        int get(int id) {
+            return Column.valueAt(pages, id);
+        }
+
+        void set(int id, int value) {
+            int index = id >>> Column.PAGE_BITS;
+            if (index >= pages.length && value == Column.NONE) {
+                return;
+            }
+            if (!ownsPages || index >= pages.length) {
+                pages = Arrays.copyOf(pages, Math.max(pages.length, index + 1));
+                ownsPages = true;
+            }
+            int[] page = pages[index];
+            if (page == null) {
+                page = new int[Column.PAGE_SIZE];
+                Arrays.fill(page, Column.NONE);
+                owned.add(page);
+            } else if (!owned.contains(page)) {
+                page = page.clone();
+                owned.add(page);
+            }
+            pages[index] = page;
+            page[id & (Column.PAGE_SIZE - 1)] = value;
+        }
+
+        Column build() {
+            ownsPages = false;
+            owned.clear();
+            return new Column(pages);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.vinyltrackerapi.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Шина в пределах одной JVM. Для одного узла рассылать некому; узлы, созданные через {@link #join()},
+ * получают сообщения друг друга, что позволяет проверять сходимость кешей без внешнего брокера.
+ */
+public class InProcessInvalidationBus extends BatchingInvalidationBus {
+    private final Collection<InProcessInvalidationBus> peers;
+
+    public InProcessInvalidationBus(Duration flushInterval) {
+        this(flushInterval, new CopyOnWriteArrayList<>());
+    }
+
+    private InProcessInvalidationBus(Duration flushInterval, Collection<InProcessInvalidationBus> peers) {
+        super(flushInterval);
+        this.peers = peers;
+        peers.add(this);
+    }
+
+    /** Новый узел той же сети. */
+    public InProcessInvalidationBus join(Duration flushInterval) {
+        return new InProcessInvalidationBus(flushInterval, peers);
+    }
+
+    @Override
+    protected void send(List<CacheInvalidation> batch) {
+        for (InProcessInvalidationBus peer : peers) {
+            if (peer != this) {
+                peer.deliver(batch);
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        peers.remove(this);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.vinyltrackerapi.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+public class LruPolicy implements EvictionPolicy {
+    private final long maximumWeight;
+    private final LinkedHashSet<String> order = new LinkedHashSet<>();
+    private final Map<String, Long> weights = new HashMap<>();
+    private long totalWeight;
+
+    public LruPolicy(long maximumWeight) {
+        this.maximumWeight = maximumWeight;
+    }
+
+    @Override
+    public List<String> recordInsert(String key, long weight) {
+        if (weight > maximumWeight) {
+            return List.of(key);
+        }
+        order.add(key);
+        weights.put(key, weight);
+        totalWeight += weight;
+        return evictExcess();
+    }
+
+    @Override
+    public List<String> recordUpdate(String key, long weight) {
+        Long previous = weights.get(key);
+        if (previous == null) {
+            return recordInsert(key, weight);
+        }
+        if (weight > maximumWeight) {
+            recordRemove(key);
+            return List.of(key);
+        }
+        weights.put(key, weight);
+        totalWeight += weight - previous;
+        recordAccess(key);
+        return evictExcess();
+    }
+
+    @Override
+    public void recordAccess(String key) {
+        if (order.remove(key)) {
+            order.add(key);
+        }
+    }
+
+    @Override
+    public void recordRemove(String key) {
+        if (order.remove(key)) {
+            totalWeight -= weights.remove(key);
+        }
+    }
+
+    private List<String> evictExcess() {
+        List<String> evicted = new ArrayList<>();
+        Iterator<String> iterator = order.iterator();
+        while (totalWeight > maximumWeight) {
+            String eldest = iterator.next();
+            iterator.remove();
+            totalWeight -= weights.remove(eldest);
+            evicted.add(eldest);
+        }
+        return evicted;
+    }
+}
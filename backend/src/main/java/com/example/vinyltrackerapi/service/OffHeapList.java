@@ -0,0 +1,46 @@
+package com.example.vinyltrackerapi.service;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Список записей, сериализованный в direct ByteBuffer. На куче остаётся только этот
+ * небольшой объект; сами записи декодируются заново при каждом чтении.
+ */
+public final class OffHeapList<T> {
+    private final ByteBuffer data;
+    private final int count;
+    private final RecordCodec<T> codec;
+
+    private OffHeapList(ByteBuffer data, int count, RecordCodec<T> codec) {
+        this.data = data;
+        this.count = count;
+        this.codec = codec;
+    }
+
+    public static <T> OffHeapList<T> encode(List<T> values, RecordCodec<T> codec) {
+        BinaryOutput out = new BinaryOutput(values.size() * 64);
+        for (T value : values) {
+            codec.write(value, out);
+        }
+        return new OffHeapList<>(out.toDirectBuffer(), values.size(), codec);
+    }
+
+    public List<T> decode() {
+        BinaryInput in = new BinaryInput(data.duplicate());
+        List<T> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(codec.read(in));
+        }
+        return values;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public long sizeInBytes() {
+        return data.capacity();
+    }
+}
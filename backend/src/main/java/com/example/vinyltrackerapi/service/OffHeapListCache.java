@@ -0,0 +1,49 @@
+package com.example.vinyltrackerapi.service;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Уровень кеша для списков, который хранит записи вне кучи в компактном бинарном виде.
+ * Индекс, TTL, однопоточная загрузка и метрики берутся из обычного региона; вес записи в нём —
+ * размер сериализованных данных, поэтому бюджет региона ограничивает память вне кучи.
+ */
+public class OffHeapListCache<T> {
+    private final CacheService<OffHeapList<T>> region;
+    private final RecordCodec<T> codec;
+    private final boolean enabled;
+
+    public OffHeapListCache(CacheService<OffHeapList<T>> region, RecordCodec<T> codec, boolean enabled) {
+        this.region = region;
+        this.codec = codec;
+        this.enabled = enabled;
+    }
+
+    public String getName() {
+        return region.getName();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<T> get(String key, Supplier<List<T>> loader) {
+        return region.get(key, () -> OffHeapList.encode(loader.get(), codec)).decode();
+    }
+
+    public boolean contains(String key) {
+        return region.contains(key);
+    }
+
+    public boolean containsOrLoading(String key) {
+        return region.containsOrLoading(key);
+    }
+
+    public void remove(String key) {
+        region.remove(key);
+    }
+
+    public long usedBytes() {
+        return region.estimatedBytes();
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.vinyltrackerapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Шина поверх PostgreSQL LISTEN/NOTIFY: отдельного брокера не нужно, все узлы и так ходят в одну БД.
+ * Слушатель держит одно соединение из пула. NOTIFY не хранит сообщения, поэтому после
+ * переподключения узел сбрасывает все свои регионы: пропущенные за это время сообщения не восстановить.
+ */
+public class PostgresInvalidationBus extends BatchingInvalidationBus {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PostgresInvalidationBus.class);
+    static final String CHANNEL = "cache_invalidation";
+    // предел полезной нагрузки NOTIFY — 8000 байт
+    static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final int POLL_TIMEOUT_MS = 500;
+    private static final long RETRY_DELAY_MS = 5000;
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final String nodeId = UUID.randomUUID().toString();
+    private volatile boolean running;
+    private Thread listener;
+
+    public PostgresInvalidationBus(DataSource dataSource, ObjectMapper objectMapper, Duration flushInterval) {
+        super(flushInterval);
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+    }
+
+    public void start() {
+        running = true;
+        listener = new Thread(this::listen, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    protected void send(List<CacheInvalidation> batch) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            for (String payload : encode(batch)) {
+                statement.setString(1, CHANNEL);
+                statement.setString(2, payload);
+                statement.execute();
+            }
+        } catch (SQLException | JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось отправить NOTIFY: " + e.getMessage(), e);
+        }
+    }
+
+    List<String> encode(List<CacheInvalidation> batch) throws JsonProcessingException {
+        String payload = objectMapper.writeValueAsString(new Message(nodeId, batch));
+        if (payload.getBytes(StandardCharsets.UTF_8).length <= MAX_PAYLOAD_BYTES) {
+            return List.of(payload);
+        }
+        if (batch.size() == 1) {
+            // ключ поиска может быть длиннее предела: очищаем его регион целиком
+            return encode(List.of(CacheInvalidation.region(batch.get(0).region())));
+        }
+        int middle = batch.size() / 2;
+        List<String> payloads = new ArrayList<>(encode(batch.subList(0, middle)));
+        payloads.addAll(encode(batch.subList(middle, batch.size())));
+        return payloads;
+    }
+
+    void receive(String payload) {
+        try {
+            Message message = objectMapper.readValue(payload, Message.class);
+            if (!nodeId.equals(message.node())) {
+                deliver(message.invalidations());
+            }
+        } catch (JsonProcessingException e) {
+            LOGGER.warn("[CACHE-BUS] Некорректное сообщение инвалидации: {}", e.getMessage());
+        }
+    }
+
+    private void listen() {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (connectedBefore) {
+                    deliver(List.of(CacheInvalidation.everything()));
+                }
+                connectedBefore = true;
+                LOGGER.info("[CACHE-BUS] Подписка на канал {} установлена", CHANNEL);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                LOGGER.warn("[CACHE-BUS] Соединение слушателя потеряно, повтор через {} мс: {}",
+                        RETRY_DELAY_MS, e.getMessage());
+                try {
+                    Thread.sleep(RETRY_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        running = false;
+        super.shutdown();
+        if (listener != null) {
+            try {
+                listener.join(POLL_TIMEOUT_MS * 2L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    record Message(String node, List<CacheInvalidation> invalidations) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.vinyltrackerapi.service;
+
+public interface RecordCodec<T> {
+    void write(T value, BinaryOutput out);
+
+    T read(BinaryInput in);
+}
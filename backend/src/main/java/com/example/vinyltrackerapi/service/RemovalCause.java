@@ -0,0 +1,7 @@
+package com.example.vinyltrackerapi.service;
+
+public enum RemovalCause {
+    SIZE,
+    EXPIRED,
+    EXPLICIT
+}
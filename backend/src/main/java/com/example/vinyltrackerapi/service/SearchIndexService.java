@@ -0,0 +1,136 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.dto.SearchIndexStatusDto;
+import com.example.vinyltrackerapi.api.models.Vinyl;
+import com.example.vinyltrackerapi.api.repositories.VinylRepository;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+/**
+ * Перестроение полнотекстового индекса из БД и его синхронизация с записями на других узлах.
+ * Свои записи {@link VinylService} вносит в индекс сам; о чужих узнаёт по шине инвалидации.
+ */
+@Service
+public class SearchIndexService implements ApplicationRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SearchIndexService.class);
+    static final String KEY_ID = "vinyl-";
+    private static final int BATCH_SIZE = 1000;
+    private final CatalogSearchIndex catalogSearchIndex;
+    private final VinylRepository vinylRepository;
+    private final Executor executor;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile Instant lastRebuildAt;
+    private volatile Integer lastRebuildDocuments;
+
+    public SearchIndexService(CatalogSearchIndex catalogSearchIndex,
+                              VinylRepository vinylRepository,
+                              @Qualifier("taskExecutor") Executor executor,
+                              CacheInvalidationBus invalidationBus) {
+        this.catalogSearchIndex = catalogSearchIndex;
+        this.vinylRepository = vinylRepository;
+        this.executor = executor;
+        if (catalogSearchIndex.isEnabled()) {
+            invalidationBus.subscribe(this::onInvalidations);
+        }
+    }
+
+    // пустой индекс (первый запуск или потерянный том) строится в фоне, поиск пока пуст; после сбоя
+    // индекс перестраивается, пока поиск идёт по последней фиксации
+    @Override
+    public void run(ApplicationArguments args) {
+        if (catalogSearchIndex.isEnabled()
+                && (catalogSearchIndex.size() == 0 || !catalogSearchIndex.wasClosedCleanly())) {
+            startRebuild();
+        }
+    }
+
+    /**
+     * @return {@code false}, если перестроение уже идёт или индекс выключен
+     */
+    public boolean startRebuild() {
+        if (!catalogSearchIndex.isEnabled() || !rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        executor.execute(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                catalogSearchIndex.abortRebuild();
+                LOGGER.error("[SEARCH] Не удалось перестроить индекс: {}", e.getMessage(), e);
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Читает каталог пачками по id, без OFFSET, поэтому время на пачку не растёт с размером таблицы.
+     * Пока идёт перестроение, поиск работает по старым документам.
+     */
+    int rebuild() {
+        long start = System.nanoTime();
+        long generation = catalogSearchIndex.beginRebuild();
+        int indexed = 0;
+        int lastId = 0;
+        List<Vinyl> batch;
+        do {
+            batch = vinylRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.ofSize(BATCH_SIZE));
+            catalogSearchIndex.add(batch);
+            indexed += batch.size();
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == BATCH_SIZE);
+        catalogSearchIndex.finishRebuild(generation);
+        lastRebuildAt = Instant.now();
+        lastRebuildDocuments = indexed;
+        LOGGER.info("[SEARCH] Индекс перестроен: {} пластинок за {} мс", indexed,
+                (System.nanoTime() - start) / 1_000_000);
+        return indexed;
+    }
+
+    public SearchIndexStatusDto getStatus() {
+        return new SearchIndexStatusDto(catalogSearchIndex.isEnabled(), catalogSearchIndex.size(),
+                rebuilding.get(), lastRebuildAt, lastRebuildDocuments);
+    }
+
+    void onInvalidations(List<CacheInvalidation> invalidations) {
+        Set<Integer> ids = new HashSet<>();
+        for (CacheInvalidation invalidation : invalidations) {
+            if (invalidation.region() == null
+                    || CatalogSearchIndex.NAME.equals(invalidation.region()) && invalidation.isRegionWide()) {
+                // после разрыва связи с шиной неизвестно, что пропущено
+                startRebuild();
+                return;
+            }
+            if (CatalogSearchIndex.NAME.equals(invalidation.region())) {
+                ids.add(Integer.valueOf(invalidation.key().substring(KEY_ID.length())));
+            }
+        }
+        if (!ids.isEmpty()) {
+            // шину не задерживаем запросом к БД
+            executor.execute(() -> sync(ids));
+        }
+    }
+
+    void sync(Set<Integer> ids) {
+        List<Vinyl> found = vinylRepository.findByIdIn(ids);
+        catalogSearchIndex.index(found);
+        Set<Integer> removed = new HashSet<>(ids);
+        found.forEach(vinyl -> removed.remove(vinyl.getId()));
+        catalogSearchIndex.delete(removed);
+        LOGGER.debug("[SEARCH] Синхронизированы изменения с других узлов: {} пластинок", ids.size());
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.models.Vinyl;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Хранит рядом с ключом закешированного поиска его условие. При любом изменении пластинки
+ * можно найти ровно те результаты, в которые она входила или должна теперь войти.
+ */
+@Service
+public class SearchInvalidationIndex {
+    private final Map<String, Predicate<Vinyl>> predicates = new ConcurrentHashMap<>();
+
+    public void register(String cacheKey, Predicate<Vinyl> predicate) {
+        predicates.put(cacheKey, predicate);
+    }
+
+    /**
+     * Удаляет из индекса и возвращает ключи, условию которых удовлетворяет
+     * хотя бы одно из переданных состояний пластинки (например, до и после изменения).
+     */
+    public Set<String> removeMatching(Collection<Vinyl> states) {
+        Set<String> matched = new HashSet<>();
+        predicates.forEach((key, predicate) -> {
+            if (states.stream().anyMatch(predicate)) {
+                matched.add(key);
+            }
+        });
+        matched.forEach(predicates::remove);
+        return matched;
+    }
+
+    /** Забывает ключи, которых уже нет в кеше (вытеснены или истекли) и которые не загружаются. */
+    public void retainCached(Predicate<String> isCached) {
+        predicates.keySet().removeIf(key -> !isCached.test(key));
+    }
+
+    public int size() {
+        return predicates.size();
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.vinyltrackerapi.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Словарь слов из названий и исполнителей для исправления опечаток по схеме symmetric delete:
+ * для каждого слова заранее сохраняются варианты с удалёнными символами, а при поиске такие же
+ * варианты строятся для запроса. Совпавшие варианты дают кандидатов, которые проверяются
+ * настоящим расстоянием Дамерау — Левенштейна. Удаления строятся только по первым
+ * {@value #PREFIX_LENGTH} символам, иначе длинные слова раздули бы словарь.
+ * Слова приходят уже нормализованными, поэтому кириллица и латиница обрабатываются одинаково.
+ * Не потокобезопасен: доступ под блокировкой владельца.
+ */
+final class SpellingDictionary {
+    static final int MAX_DISTANCE = 2;
+    static final int MIN_WORD_LENGTH = 3;
+    private static final int PREFIX_LENGTH = 7;
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private final Map<String, Integer> frequencies = new HashMap<>();
+    private final Map<String, Set<String>> wordsByDelete = new HashMap<>();
+
+    void add(String word) {
+        if (word.length() < MIN_WORD_LENGTH) {
+            return;
+        }
+        if (frequencies.merge(word, 1, Integer::sum) == 1) {
+            for (String variant : deletes(word, MAX_DISTANCE)) {
+                wordsByDelete.computeIfAbsent(variant, key -> new HashSet<>()).add(word);
+            }
+        }
+    }
+
+    void remove(String word) {
+        Integer frequency = frequencies.get(word);
+        if (frequency == null) {
+            return;
+        }
+        if (frequency > 1) {
+            frequencies.put(word, frequency - 1);
+            return;
+        }
+        frequencies.remove(word);
+        for (String variant : deletes(word, MAX_DISTANCE)) {
+            Set<String> words = wordsByDelete.get(variant);
+            if (words != null && words.remove(word) && words.isEmpty()) {
+                wordsByDelete.remove(variant);
+            }
+        }
+    }
+
+    boolean contains(String word) {
+        return frequencies.containsKey(word);
+    }
+
+    /**
+     * Ближайшие слова словаря: сначала по расстоянию, затем по частоте. Для коротких слов
+     * допускается одна правка, иначе почти любое слово оказалось бы рядом с любым.
+     */
+    List<String> lookup(String word, int limit) {
+        int maxDistance = word.length() <= 4 ? 1 : MAX_DISTANCE;
+        Map<String, Integer> distances = new HashMap<>();
+        for (String variant : deletes(word, maxDistance)) {
+            for (String candidate : wordsByDelete.getOrDefault(variant, Set.of())) {
+                if (!distances.containsKey(candidate)) {
+                    int distance = distance(word, candidate, maxDistance);
+                    if (distance <= maxDistance) {
+                        distances.put(candidate, distance);
+                    }
+                }
+            }
+        }
+        return distances.keySet().stream()
+                .sorted(Comparator.<String>comparingInt(distances::get)
+                        .thenComparing(candidate -> -frequencies.get(candidate))
+                        .thenComparing(Comparator.naturalOrder()))
+                .limit(limit)
+                .toList();
+    }
+
+    int size() {
+        return frequencies.size();
+    }
+
+    static List<String> words(String normalizedText) {
+        return WORD_SEPARATORS.splitAsStream(normalizedText).filter(word -> !word.isEmpty()).toList();
+    }
+
+    private static Set<String> deletes(String word, int distance) {
+        String prefix = word.length() > PREFIX_LENGTH ? word.substring(0, PREFIX_LENGTH) : word;
+        Set<String> result = new HashSet<>();
+        result.add(prefix);
+        List<String> frontier = List.of(prefix);
+        for (int step = 0; step < distance; step++) {
+            List<String> next = new ArrayList<>();
+            for (String value : frontier) {
+                for (int i = 0; i < value.length(); i++) {
+                    String variant = value.substring(0, i) + value.substring(i + 1);
+                    if (result.add(variant)) {
+                        next.add(variant);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return result;
+    }
+
+    // расстояние с перестановкой соседних символов; при разнице длин больше предела считать незачем
+    static int distance(String a, String b, int limit) {
+        if (Math.abs(a.length() - b.length()) > limit) {
+            return limit + 1;
+        }
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+}
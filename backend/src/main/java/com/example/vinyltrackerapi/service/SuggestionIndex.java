@@ -0,0 +1,205 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.dto.SuggestionView;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Неизменяемый отсортированный массив ключей для автодополнения. Термин доступен по началу
+ * всей строки и по началу каждого слова в ней, поэтому «floyd» находит «Pink Floyd».
+ * Все ключи с общим префиксом лежат подряд и находятся бинарным поиском; лучшие в диапазоне
+ * достаются из дерева отрезков, где в узле хранится самый популярный ключ поддерева, поэтому
+ * короткий префикс не требует просмотра тысяч ключей. Изменения вливаются слиянием
+ * за линейное время, без пересортировки всего массива.
+ */
+public final class SuggestionIndex {
+    static final SuggestionIndex EMPTY = new SuggestionIndex(new String[0], new String[0], new SuggestionView[0]);
+    private static final Comparator<SuggestionView> BEST_FIRST = Comparator
+            .comparingInt(SuggestionView::popularity).reversed()
+            .thenComparing(SuggestionView::text);
+    private final String[] keys;
+    private final String[] termIds;
+    private final SuggestionView[] views;
+    private final int leaves;
+    private final int[] best;
+
+    private SuggestionIndex(String[] keys, String[] termIds, SuggestionView[] views) {
+        this.keys = keys;
+        this.termIds = termIds;
+        this.views = views;
+        this.leaves = Integer.highestOneBit(Math.max(1, keys.length * 2 - 1));
+        this.best = new int[leaves * 2];
+        Arrays.fill(best, -1);
+        for (int i = 0; i < keys.length; i++) {
+            best[leaves + i] = i;
+        }
+        for (int node = leaves - 1; node > 0; node--) {
+            best[node] = better(best[node * 2], best[node * 2 + 1]);
+        }
+    }
+
+    /**
+     * @param terms подсказки по идентификатору термина, см. {@link #termId(SuggestionView.Type, String)}
+     */
+    static SuggestionIndex of(Map<String, SuggestionView> terms) {
+        return EMPTY.with(terms);
+    }
+
+    /**
+     * Новый индекс с заменёнными терминами; {@code null} в значении удаляет термин.
+     */
+    SuggestionIndex with(Map<String, SuggestionView> changes) {
+        List<Entry> added = new ArrayList<>();
+        changes.forEach((termId, view) -> {
+            if (view != null) {
+                for (String key : keysOf(termId)) {
+                    added.add(new Entry(key, termId, view));
+                }
+            }
+        });
+        added.sort(Comparator.comparing(Entry::key).thenComparing(Entry::termId));
+
+        int capacity = keys.length + added.size();
+        String[] newKeys = new String[capacity];
+        String[] newTermIds = new String[capacity];
+        SuggestionView[] newViews = new SuggestionView[capacity];
+        int size = 0;
+        int old = 0;
+        int fresh = 0;
+        while (old < keys.length || fresh < added.size()) {
+            if (old < keys.length && changes.containsKey(termIds[old])) {
+                old++;
+                continue;
+            }
+            boolean takeOld = fresh == added.size() || old < keys.length && compare(old, added.get(fresh)) <= 0;
+            if (takeOld) {
+                newKeys[size] = keys[old];
+                newTermIds[size] = termIds[old];
+                newViews[size] = views[old];
+                old++;
+            } else {
+                Entry entry = added.get(fresh++);
+                newKeys[size] = entry.key();
+                newTermIds[size] = entry.termId();
+                newViews[size] = entry.view();
+            }
+            size++;
+        }
+        return new SuggestionIndex(trim(newKeys, size), trim(newTermIds, size), trim(newViews, size));
+    }
+
+    /**
+     * Самые популярные подсказки, у которых строка или одно из слов начинается с префикса.
+     */
+    List<SuggestionView> top(String prefix, int limit) {
+        String normalizedPrefix = VinylSearchPredicates.normalize(prefix.strip());
+        if (normalizedPrefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        PriorityQueue<Integer> nodes =
+                new PriorityQueue<>((a, b) -> BEST_FIRST.compare(views[best[a]], views[best[b]]));
+        // узлы, целиком покрывающие диапазон [from, to)
+        for (int from = lowerBound(normalizedPrefix) + leaves, to = upperBound(normalizedPrefix) + leaves;
+             from < to; from >>= 1, to >>= 1) {
+            if ((from & 1) == 1) {
+                nodes.add(from++);
+            }
+            if ((to & 1) == 1) {
+                nodes.add(--to);
+            }
+        }
+        List<SuggestionView> result = new ArrayList<>(limit);
+        Set<String> seen = new HashSet<>();
+        while (!nodes.isEmpty() && result.size() < limit) {
+            int node = nodes.poll();
+            if (node >= leaves) {
+                if (seen.add(termIds[best[node]])) {
+                    result.add(views[best[node]]);
+                }
+                continue;
+            }
+            for (int child = node * 2; child <= node * 2 + 1; child++) {
+                if (best[child] >= 0) {
+                    nodes.add(child);
+                }
+            }
+        }
+        return result;
+    }
+
+    int size() {
+        return keys.length;
+    }
+
+    static String termId(SuggestionView.Type type, String text) {
+        return type.name() + ':' + VinylSearchPredicates.normalize(text.strip());
+    }
+
+    private static List<String> keysOf(String termId) {
+        String normalized = termId.substring(termId.indexOf(':') + 1);
+        List<String> result = new ArrayList<>();
+        result.add(normalized);
+        for (int i = 1; i < normalized.length(); i++) {
+            boolean wordStart = !Character.isLetterOrDigit(normalized.charAt(i - 1))
+                    && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordStart) {
+                result.add(normalized.substring(i));
+            }
+        }
+        return result;
+    }
+
+    private int compare(int index, Entry entry) {
+        int byKey = keys[index].compareTo(entry.key());
+        return byKey != 0 ? byKey : termIds[index].compareTo(entry.termId());
+    }
+
+    private int better(int left, int right) {
+        if (left < 0 || right < 0) {
+            return Math.max(left, right);
+        }
+        return BEST_FIRST.compare(views[left], views[right]) <= 0 ? left : right;
+    }
+
+    // первый ключ после диапазона: он больше префикса и не начинается с него
+    private int upperBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0 || keys[mid].startsWith(prefix)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static <T> T[] trim(T[] array, int size) {
+        return size == array.length ? array : Arrays.copyOf(array, size);
+    }
+
+    private record Entry(String key, String termId, SuggestionView view) {
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.vinyltrackerapi.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Иерархическое колесо таймеров для истечения записей. Каждый уровень — 64 корзины, корзина
+ * уровня покрывает 64 корзины предыдущего: секунды, ~минуты, ~часы, ~сутки. Постановка и отмена
+ * стоят O(1), а при продвижении времени просматриваются только наступившие корзины.
+ * Срок из корзины верхнего уровня проверяет вызывающий и при необходимости ставит ключ заново,
+ * так запись спускается на нижние уровни по мере приближения срока. Не потокобезопасно.
+ */
+public class TimerWheel {
+    private static final int BUCKETS = 64;
+    private static final long[] SPANS = {
+        1_000L, 1_000L * BUCKETS, 1_000L * BUCKETS * BUCKETS, 1_000L * BUCKETS * BUCKETS * BUCKETS
+    };
+    @SuppressWarnings("unchecked")
+    private final Set<String>[] buckets = new Set[SPANS.length * BUCKETS];
+    private final Map<String, Integer> locations = new HashMap<>();
+    private long time;
+
+    public TimerWheel(long now) {
+        this.time = now;
+    }
+
+    /** Ставит ключ на момент {@code deadline}, заменяя прежнюю постановку. */
+    public void schedule(String key, long deadline) {
+        cancel(key);
+        int location = locate(deadline);
+        Set<String> bucket = buckets[location];
+        if (bucket == null) {
+            bucket = new HashSet<>();
+            buckets[location] = bucket;
+        }
+        bucket.add(key);
+        locations.put(key, location);
+    }
+
+    public void cancel(String key) {
+        Integer location = locations.remove(key);
+        if (location != null) {
+            buckets[location].remove(key);
+        }
+    }
+
+    /**
+     * Продвигает время до {@code now} и возвращает ключи из наступивших корзин, снимая их с колеса.
+     * Для ключей с верхних уровней срок мог ещё не наступить: их нужно поставить заново.
+     */
+    public List<String> advance(long now) {
+        List<String> due = new ArrayList<>();
+        long previous = time;
+        time = now;
+        for (int level = 0; level < SPANS.length; level++) {
+            long previousTicks = previous / SPANS[level];
+            long currentTicks = now / SPANS[level];
+            if (currentTicks <= previousTicks) {
+                break;
+            }
+            // нижний уровень отдаёт прошедшие секунды, верхние — корзины, в которые время только вошло,
+            // чтобы ключи успели спуститься ниже до наступления срока
+            long first = level == 0 ? previousTicks : previousTicks + 1;
+            long last = Math.min(level == 0 ? currentTicks - 1 : currentTicks, first + BUCKETS - 1);
+            for (long tick = first; tick <= last; tick++) {
+                drain(level * BUCKETS + (int) (tick & (BUCKETS - 1)), due);
+            }
+        }
+        return due;
+    }
+
+    public int size() {
+        return locations.size();
+    }
+
+    private void drain(int location, List<String> due) {
+        Set<String> bucket = buckets[location];
+        if (bucket == null || bucket.isEmpty()) {
+            return;
+        }
+        buckets[location] = null;
+        for (String key : bucket) {
+            locations.remove(key);
+            due.add(key);
+        }
+    }
+
+    private int locate(long deadline) {
+        long target = Math.max(deadline, time);
+        for (int level = 0; level < SPANS.length; level++) {
+            long ticks = target / SPANS[level] - time / SPANS[level];
+            // корзину текущего тика верхний уровень уже отдал, поэтому туда ставить нельзя
+            if (ticks < BUCKETS && (level == 0 || ticks > 0)) {
+                return level * BUCKETS + (int) ((target / SPANS[level]) & (BUCKETS - 1));
+            }
+        }
+        int top = SPANS.length - 1;
+        // дальше горизонта колеса: последняя корзина верхнего уровня, потом ключ будет поставлен заново
+        long capped = time / SPANS[top] + BUCKETS - 1;
+        return top * BUCKETS + (int) (capped & (BUCKETS - 1));
+    }
+}
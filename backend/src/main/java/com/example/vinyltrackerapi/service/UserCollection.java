@@ -0,0 +1,70 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.dto.UserVinylView;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Неизменяемая коллекция пользователя: vinylId → готовое представление со статусом.
+ * Изменения возвращают новую коллекцию с версией на единицу больше, поэтому после
+ * добавления или смены статуса список не перечитывается из БД.
+ */
+public final class UserCollection {
+    private final long version;
+    private final Map<Integer, UserVinylView> byVinylId;
+    private final List<UserVinylView> views;
+
+    private UserCollection(long version, LinkedHashMap<Integer, UserVinylView> byVinylId) {
+        this.version = version;
+        this.byVinylId = Collections.unmodifiableMap(byVinylId);
+        this.views = List.copyOf(byVinylId.values());
+    }
+
+    public static UserCollection of(Collection<UserVinylView> views) {
+        LinkedHashMap<Integer, UserVinylView> byVinylId = new LinkedHashMap<>();
+        for (UserVinylView view : views) {
+            byVinylId.put(view.vinylId(), view);
+        }
+        return new UserCollection(0, byVinylId);
+    }
+
+    /** Заменяет запись той же пластинки на месте, новую добавляет в конец. */
+    public UserCollection with(UserVinylView view) {
+        LinkedHashMap<Integer, UserVinylView> copy = new LinkedHashMap<>(byVinylId);
+        copy.put(view.vinylId(), view);
+        return new UserCollection(version + 1, copy);
+    }
+
+    public UserCollection without(Integer vinylId) {
+        if (!byVinylId.containsKey(vinylId)) {
+            return this;
+        }
+        LinkedHashMap<Integer, UserVinylView> copy = new LinkedHashMap<>(byVinylId);
+        copy.remove(vinylId);
+        return new UserCollection(version + 1, copy);
+    }
+
+    public Integer statusOf(Integer vinylId) {
+        UserVinylView view = byVinylId.get(vinylId);
+        return view != null ? view.statusId() : null;
+    }
+
+    public UserVinylView get(Integer vinylId) {
+        return byVinylId.get(vinylId);
+    }
+
+    public List<UserVinylView> views() {
+        return views;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return views.size();
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.vinyltrackerapi.service;
 
 import com.example.vinyltrackerapi.api.dto.UserDto;
+import com.example.vinyltrackerapi.api.dto.UserView;
 import com.example.vinyltrackerapi.api.models.User;
 import com.example.vinyltrackerapi.api.repositories.UserRepository;
 import java.nio.charset.StandardCharsets;
@@ -10,6 +11,7 @@ import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
@@ -19,65 +21,104 @@ public class UserService {
     private static final Logger LOGGER = LoggerFactory.getLogger(UserService.class);
     private final UserRepository userRepository;
     private final RoleService roleService;
-    private final CacheService<User> userCache;
-    private final CacheService<List<User>> userListCache;
-    private final CacheService<List<User>> userByUsernameCache;
+    private final CacheService<UserView> userCache;
+    private final CacheService<Boolean> userMissingCache;
+    private final CacheService<List<UserView>> userListCache;
+    private final CacheService<List<UserView>> userByUsernameCache;
+    private final CatalogVersionService catalogVersionService;
+    private final CacheInvalidationBus invalidationBus;
     private static final String KEY_ALL = "all-users";
     private static final String KEY_ID = "user-";
     private static final String KEY_NAME = "user-username-";
 
     public UserService(UserRepository userRepository,
-                       CacheService<User> userCache,
+                       @Qualifier("userCache") CacheService<UserView> userCache,
+                       @Qualifier("userMissingCache") CacheService<Boolean> userMissingCache,
                        RoleService roleService,
-                       CacheService<List<User>> userListCache,
-                       CacheService<List<User>> userByUsernameCache) {
+                       @Qualifier("userListCache") CacheService<List<UserView>> userListCache,
+                       @Qualifier("userByUsernameCache") CacheService<List<UserView>> userByUsernameCache,
+                       CatalogVersionService catalogVersionService,
+                       CacheInvalidationBus invalidationBus) {
         this.userRepository = userRepository;
         this.roleService = roleService;
         this.userCache = userCache;
+        this.userMissingCache = userMissingCache;
         this.userListCache = userListCache;
         this.userByUsernameCache = userByUsernameCache;
+        this.catalogVersionService = catalogVersionService;
+        this.invalidationBus = invalidationBus;
     }
 
-    public List<User> getAllUsers() {
-        String cacheKey = KEY_ALL;
-        if (userListCache.contains(cacheKey)) {
-            return userListCache.get(cacheKey);
+    public List<UserView> getAllUsers() {
+        return userListCache.get(KEY_ALL, () -> {
+            List<UserView> users = toViews(userRepository.findAll());
+            LOGGER.info("[USER] Получены все пользователи");
+            return users;
+        });
+    }
+
+    /**
+     * Отсутствие пользователя кешируется на короткий срок: токены удалённых
+     * пользователей не стоят запроса к БД на каждый вызов.
+     */
+    public UserView getUserView(Integer id) {
+        String key = KEY_ID + id;
+        if (userMissingCache.get(key) != null) {
+            throw userNotFound(id);
         }
-        List<User> users = userRepository.findAll();
-        userListCache.put(cacheKey, users);
-        LOGGER.info("[USER] Получены все пользователи");
-        return users;
+        return userCache.get(key, () -> {
+            // отметку от поиска, начатого до создания записи, сохранять нельзя
+            long mark = userMissingCache.removalMark();
+            User user = userRepository.findById(id).orElse(null);
+            if (user == null) {
+                userMissingCache.putIfNotRemovedSince(key, Boolean.TRUE, mark);
+                throw userNotFound(id);
+            }
+            UserView view = UserView.of(user);
+            LOGGER.info("[USER] Пользователь найден и добавлен в кэш: ID={}", id);
+            return view;
+        });
     }
 
+    /**
+     * Управляемая сущность для операций записи; в кэш не попадает.
+     */
     public User getUser(Integer id) {
-        String cacheKey = KEY_ID + id;
+        return userRepository.findById(id).orElseThrow(() -> userNotFound(id));
+    }
 
-        if (userCache.contains(cacheKey)) {
-            return userCache.get(cacheKey);
-        }
+    private static ResponseStatusException userNotFound(Integer id) {
+        LOGGER.warn("[USER] Пользователь с ID={} не найден!", id);
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Пользователь с ID " + id + " не найден!");
+    }
 
-        return userRepository.findById(id)
-                .map(user -> {
-                    userCache.put(cacheKey, user);
-                    LOGGER.info("[USER] Пользователь найден и добавлен в кэш: ID={}", id);
-                    return user;
-                })
-                .orElseThrow(() -> {
-                    LOGGER.warn("[USER] Пользователь с ID={} не найден!", id);
-                    return new ResponseStatusException(HttpStatus.NOT_FOUND,
-                            "Пользователь с ID " + id + " не найден!");
-                });
+    public List<UserView> getUserByUsername(String username) {
+        return userByUsernameCache.get(KEY_NAME + username, () -> {
+            List<UserView> users = toViews(userRepository.findByUsername(username));
+            LOGGER.info("[USER] Получен пользователь по имени");
+            return users;
+        });
     }
 
-    public List<User> getUserByUsername(String username) {
-        String cacheKey = KEY_NAME + username;
-        if (userByUsernameCache.contains(cacheKey)) {
-            return userByUsernameCache.get(cacheKey);
-        }
-        List<User> users = userRepository.findByUsername(username);
-        userByUsernameCache.put(cacheKey, users);
-        LOGGER.info("[USER] Получен пользователь по имени");
-        return users;
+    private static List<UserView> toViews(List<User> users) {
+        return users.stream().map(UserView::of).toList();
+    }
+
+    private void cacheUser(User user) {
+        UserView view = UserView.of(user);
+        userMissingCache.remove(KEY_ID + view.id());
+        userCache.put(KEY_ID + view.id(), view);
+        userListCache.put(KEY_ALL, toViews(userRepository.findAll()));
+        userByUsernameCache.put(KEY_NAME + view.username(), List.of(view));
+        catalogVersionService.bump();
+        publishChanges(view.id(), view.username());
+    }
+
+    private void publishChanges(Integer id, String username) {
+        invalidationBus.publish(CacheInvalidation.key(userCache.getName(), KEY_ID + id));
+        invalidationBus.publish(CacheInvalidation.key(userMissingCache.getName(), KEY_ID + id));
+        invalidationBus.publish(CacheInvalidation.key(userListCache.getName(), KEY_ALL));
+        invalidationBus.publish(CacheInvalidation.key(userByUsernameCache.getName(), KEY_NAME + username));
     }
 
     public Optional<User> getUserByEmail(String email) {
@@ -100,9 +141,7 @@ public class UserService {
         user.setPassword(hashPassword(userDto.getPassword()));
         User savedUser = userRepository.save(user);
 
-        userCache.put(KEY_ID + savedUser.getId(), savedUser);
-        userListCache.put(KEY_ALL, userRepository.findAll());
-        userByUsernameCache.put(KEY_NAME + savedUser.getUsername(), List.of(savedUser));
+        cacheUser(savedUser);
         LOGGER.info("[USER] Создан пользователь ID={}", savedUser.getId());
 
         return savedUser;
@@ -118,9 +157,7 @@ public class UserService {
             user.setRole(roleService.getRoleById(userDto.getRoleId()));
             User updatedUser = userRepository.save(user);
 
-            userCache.put(KEY_ID + id, updatedUser);
-            userListCache.put(KEY_ALL, userRepository.findAll());
-            userByUsernameCache.put(KEY_NAME + updatedUser.getUsername(), List.of(updatedUser));
+            cacheUser(updatedUser);
 
             LOGGER.info("[USER] Обновлен пользователь с ID={}, {}", userDto.getId(), user);
 
@@ -138,8 +175,10 @@ public class UserService {
                     "Пользователь с ID " + id + " не найден!"); });
         userRepository.deleteById(id);
         userCache.remove(KEY_ID + id);
-        userListCache.put(KEY_ALL, userRepository.findAll());
+        userListCache.put(KEY_ALL, toViews(userRepository.findAll()));
         userByUsernameCache.remove(KEY_NAME + user.getUsername());
+        catalogVersionService.bump();
+        publishChanges(id, user.getUsername());
         LOGGER.info("[USER] Удалён пользователь с ID={}", id);
     }
 
@@ -163,9 +202,7 @@ public class UserService {
             user.setRole(roleService.getRoleById(roleId));
             User updatedUser = userRepository.save(user);
 
-            userCache.put(KEY_ID + id, updatedUser);
-            userListCache.put(KEY_ALL, userRepository.findAll());
-            userByUsernameCache.put(KEY_NAME + updatedUser.getUsername(), List.of(updatedUser));
+            cacheUser(updatedUser);
 
             LOGGER.info("[USER] Обновлена роль пользователя ID={} на роль ID={}", id, roleId);
 
@@ -1,11 +1,12 @@
 package com.example.vinyltrackerapi.service;
 
+import com.example.vinyltrackerapi.api.dto.AuthenticatedUser;
 import com.example.vinyltrackerapi.api.dto.UserVinylDto;
+import com.example.vinyltrackerapi.api.dto.UserVinylView;
 import com.example.vinyltrackerapi.api.models.User;
 import com.example.vinyltrackerapi.api.models.UserVinyl;
 import com.example.vinyltrackerapi.api.models.Vinyl;
 import com.example.vinyltrackerapi.api.models.VinylStatus;
-import java.security.Principal;
 import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
@@ -24,42 +25,31 @@ public class UserVinylFacade {
     private final UserVinylService userVinylService;
     private static final String STATUS_ER = "Статус не найден!";
 
-    private User getCurrentUser(Principal principal) {
-        return userService.getUserByEmail(principal.getName())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED,
-                        "Пользователь не найден"));
-    }
-
-    public UserVinylDto addVinylToCurrentUser(Integer vinylId, Integer statusId, Principal principal) {
+    public UserVinylDto addVinylToCurrentUser(Integer vinylId, Integer statusId, AuthenticatedUser currentUser) {
         if (statusId < 1 || statusId > 3) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Недопустимый статус");
         }
-        User user = getCurrentUser(principal);
+        User user = userService.getUser(currentUser.id());
         Vinyl vinyl = vinylService.getVinyl(vinylId);
         VinylStatus status = vinylStatusService.getById(statusId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, STATUS_ER));
         return userVinylService.addVinylToUser(user, vinyl, status);
     }
 
-    public void removeVinylFromCurrentUser(Integer vinylId, Principal principal) {
-        User user = getCurrentUser(principal);
-        userVinylService.removeVinylFromUser(user.getId(), vinylId);
+    public void removeVinylFromCurrentUser(Integer vinylId, AuthenticatedUser currentUser) {
+        userVinylService.removeVinylFromUser(currentUser.id(), vinylId);
     }
 
-    public List<UserVinylDto> getCurrentUserVinyls(Principal principal) {
-        User user = getCurrentUser(principal);
-        return userVinylService.getUserVinyls(user.getId()).stream()
-                .map(UserVinylDto::new)
-                .toList();
+    public List<UserVinylView> getCurrentUserVinyls(AuthenticatedUser currentUser) {
+        return userVinylService.getUserVinyls(currentUser.id());
     }
 
-    public Optional<UserVinyl> findVinylForCurrentUser(Integer vinylId, Principal principal) {
-        User user = getCurrentUser(principal);
-        return userVinylService.findUserVinyl(user.getId(), vinylId);
+    public Optional<UserVinyl> findVinylForCurrentUser(Integer vinylId, AuthenticatedUser currentUser) {
+        return userVinylService.findUserVinyl(currentUser.id(), vinylId);
     }
 
-    public UserVinyl updateCurrentUserVinylStatus(Integer vinylId, Integer statusId, Principal principal) {
-        User user = getCurrentUser(principal);
+    public UserVinyl updateCurrentUserVinylStatus(Integer vinylId, Integer statusId, AuthenticatedUser currentUser) {
+        User user = userService.getUser(currentUser.id());
         Vinyl vinyl = vinylService.getVinyl(vinylId);
         VinylStatus status = vinylStatusService.getById(statusId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, STATUS_ER));
@@ -90,11 +80,11 @@ public class UserVinylFacade {
         return userVinylService.findUserVinyl(userId, vinylId);
     }
 
-    public List<UserVinyl> getUserVinyls(Integer userId) {
+    public List<UserVinylView> getUserVinyls(Integer userId) {
         return userVinylService.getUserVinyls(userId);
     }
 
-    public List<UserVinyl> getUsersByVinyl(Integer vinylId) {
+    public List<UserVinylView> getUsersByVinyl(Integer vinylId) {
         return userVinylService.getUsersByVinyl(vinylId);
     }
 
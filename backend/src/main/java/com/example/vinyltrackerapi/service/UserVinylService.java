@@ -1,39 +1,48 @@
 package com.example.vinyltrackerapi.service;
 
 import com.example.vinyltrackerapi.api.dto.UserVinylDto;
+import com.example.vinyltrackerapi.api.dto.UserVinylView;
+import com.example.vinyltrackerapi.api.dto.VinylView;
 import com.example.vinyltrackerapi.api.models.User;
 import com.example.vinyltrackerapi.api.models.UserVinyl;
 import com.example.vinyltrackerapi.api.models.UserVinylId;
 import com.example.vinyltrackerapi.api.models.Vinyl;
 import com.example.vinyltrackerapi.api.models.VinylStatus;
 import com.example.vinyltrackerapi.api.repositories.UserVinylRepository;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.UnaryOperator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 @Service
 public class UserVinylService {
     private static final Logger LOGGER = LoggerFactory.getLogger(UserVinylService.class);
     private final UserVinylRepository userVinylRepository;
-    private final CacheService<List<UserVinyl>> userVinylCache;
-    private final CacheService<List<UserVinyl>> vinylUserCache;
+    private final CacheService<UserCollection> userVinylCache;
+    private final CacheService<List<UserVinylView>> vinylUserCache;
+    private final CacheInvalidationBus invalidationBus;
     private static final String KEY_USER_VINYLS = "user-vinyls-";
     private static final String KEY_VINYL_USERS = "vinyl-users-";
 
     public UserVinylService(UserVinylRepository userVinylRepository,
-                            CacheService<List<UserVinyl>> userVinylCache,
-                            CacheService<List<UserVinyl>> vinylUserCache) {
+                            @Qualifier("userVinylCache") CacheService<UserCollection> userVinylCache,
+                            @Qualifier("vinylUserCache") CacheService<List<UserVinylView>> vinylUserCache,
+                            CacheInvalidationBus invalidationBus) {
         this.userVinylRepository = userVinylRepository;
         this.userVinylCache = userVinylCache;
         this.vinylUserCache = vinylUserCache;
+        this.invalidationBus = invalidationBus;
     }
 
     public UserVinylDto addVinylToUser(User user, Vinyl vinyl, VinylStatus status) {
         UserVinyl userVinyl = new UserVinyl(user, vinyl, status);
         UserVinyl saved = userVinylRepository.save(userVinyl);
-        updateCacheAfterChange(user.getId(), vinyl.getId());
+        applyChange(user.getId(), vinyl.getId(), UserVinylView.of(saved));
         LOGGER.info("[USER-VINYL] Пользователь ID={}, пластинка ID={}, статус ID={} связаны",
                 user.getId(), vinyl.getId(), status.getId());
         return new UserVinylDto(saved);
@@ -46,30 +55,29 @@ public class UserVinylService {
 
     public void removeVinylFromUser(Integer userId, Integer vinylId) {
         userVinylRepository.deleteById(new UserVinylId(userId, vinylId));
-        updateCacheAfterChange(userId, vinylId);
+        applyChange(userId, vinylId, null);
         LOGGER.info("[USER-VINYL] Удалена связь пользователя с ID={} и пластинки с ID={}", userId, vinylId);
     }
 
-    public List<UserVinyl> getUserVinyls(Integer userId) {
-        String cacheKey = KEY_USER_VINYLS + userId;
-
-        List<UserVinyl> userVinyls = userVinylRepository.findAllWithVinylAndStatusByUserId(userId);
-
-        userVinylCache.put(cacheKey, userVinyls);
+    public List<UserVinylView> getUserVinyls(Integer userId) {
+        return getUserCollection(userId).views();
+    }
 
-        LOGGER.info("[USER-VINYL] Получены пластинки пользователя с ID={}", userId);
-        return userVinyls;
+    public UserCollection getUserCollection(Integer userId) {
+        return userVinylCache.get(KEY_USER_VINYLS + userId, () -> {
+            UserCollection collection = UserCollection.of(
+                    toViews(userVinylRepository.findAllWithVinylAndStatusByUserId(userId)));
+            LOGGER.info("[USER-VINYL] Получены пластинки пользователя с ID={}", userId);
+            return collection;
+        });
     }
 
-    public List<UserVinyl> getUsersByVinyl(Integer vinylId) {
-        String cacheKey = KEY_VINYL_USERS + vinylId;
-        if (vinylUserCache.contains(cacheKey)) {
-            return vinylUserCache.get(cacheKey);
-        }
-        List<UserVinyl> users = userVinylRepository.findByVinylId(vinylId);
-        vinylUserCache.put(cacheKey, users);
-        LOGGER.info("[USER-VINYL] Получены пользователи, добавившие пластинку с ID={}", vinylId);
-        return users;
+    public List<UserVinylView> getUsersByVinyl(Integer vinylId) {
+        return vinylUserCache.get(KEY_VINYL_USERS + vinylId, () -> {
+            List<UserVinylView> users = toViews(userVinylRepository.findByVinylId(vinylId));
+            LOGGER.info("[USER-VINYL] Получены пользователи, добавившие пластинку с ID={}", vinylId);
+            return users;
+        });
     }
 
     public List<UserVinylDto> getAllUserVinyls() {
@@ -84,28 +92,97 @@ public class UserVinylService {
                 .orElseThrow(() -> new IllegalStateException("Запись не найдена!"));
         userVinyl.setStatus(status);
         UserVinyl updated = userVinylRepository.save(userVinyl);
-        updateCacheAfterChange(user.getId(), vinyl.getId());
+        applyChange(user.getId(), vinyl.getId(), UserVinylView.of(updated));
         LOGGER.info("[USER-VINYL] Обновлен статус пользователя с ID={} и пластинки с ID={} на статус с ID={}",
                 user.getId(), vinyl.getId(), status.getId());
         return updated;
     }
 
-    private void updateCacheAfterChange(Integer userId, Integer vinylId) {
-        List<UserVinyl> updatedUserVinyls = userVinylRepository.findByUserId(userId);
-        List<UserVinyl> updatedVinylUsers = userVinylRepository.findByVinylId(vinylId);
-        userVinylCache.put(KEY_USER_VINYLS + userId, updatedUserVinyls);
-        vinylUserCache.put(KEY_VINYL_USERS + vinylId, updatedVinylUsers);
+    /**
+     * Правит закешированные коллекции на месте вместо перечитывания списков из БД.
+     * {@code view == null} означает удаление связи. Если коллекции нет в кэше, она
+     * загрузится при следующем чтении уже с изменением.
+     */
+    private void applyChange(Integer userId, Integer vinylId, UserVinylView view) {
+        userVinylCache.update(KEY_USER_VINYLS + userId, collection -> {
+            UserCollection changed = view != null ? collection.with(view) : collection.without(vinylId);
+            LOGGER.debug("[USER-VINYL] Коллекция пользователя ID={} обновлена до версии {}",
+                    userId, changed.version());
+            return changed;
+        });
+        vinylUserCache.update(KEY_VINYL_USERS + vinylId, users -> replaceUser(users, userId, view));
+        invalidationBus.publish(CacheInvalidation.key(userVinylCache.getName(), KEY_USER_VINYLS + userId));
+        invalidationBus.publish(CacheInvalidation.key(vinylUserCache.getName(), KEY_VINYL_USERS + vinylId));
+    }
+
+    private static List<UserVinylView> replaceUser(List<UserVinylView> users, Integer userId, UserVinylView view) {
+        List<UserVinylView> result = new ArrayList<>(users.size() + 1);
+        boolean replaced = false;
+        for (UserVinylView user : users) {
+            if (user.userId() != userId) {
+                result.add(user);
+            } else if (view != null) {
+                result.add(view);
+                replaced = true;
+            }
+        }
+        if (!replaced && view != null) {
+            result.add(view);
+        }
+        return List.copyOf(result);
+    }
+
+    private static List<UserVinylView> toViews(List<UserVinyl> userVinyls) {
+        return userVinyls.stream().map(UserVinylView::of).toList();
     }
 
     public void removeAllByUser(Integer userId) {
         userVinylRepository.deleteAllByUserId(userId);
         userVinylCache.remove(KEY_USER_VINYLS + userId);
+        invalidationBus.publish(CacheInvalidation.key(userVinylCache.getName(), KEY_USER_VINYLS + userId));
         LOGGER.info("[CACHE] Удалены все связи пользователя: {}", userId);
     }
 
     public void removeAllByVinyl(Integer vinylId) {
+        List<Integer> userIds = userIdsOf(vinylId);
         userVinylRepository.deleteAllByVinylId(vinylId);
+        for (Integer userId : userIds) {
+            patchUserCollection(userId, collection -> collection.without(vinylId));
+        }
         vinylUserCache.remove(KEY_VINYL_USERS + vinylId);
+        invalidationBus.publish(CacheInvalidation.key(vinylUserCache.getName(), KEY_VINYL_USERS + vinylId));
         LOGGER.info("[CACHE] Удалены все связи винила: {}", vinylId);
     }
+
+    /**
+     * Подменяет пластинки в закешированных связях их владельцев: коллекции хранят копии
+     * представлений, и без этого после правки пластинки показывали бы её старые данные.
+     */
+    public void replaceVinyls(Collection<VinylView> vinyls) {
+        for (VinylView vinyl : vinyls) {
+            for (Integer userId : userIdsOf(vinyl.id())) {
+                patchUserCollection(userId, collection -> {
+                    UserVinylView link = collection.get(vinyl.id());
+                    return link != null ? collection.with(link.withVinyl(vinyl)) : collection;
+                });
+            }
+            vinylUserCache.update(KEY_VINYL_USERS + vinyl.id(),
+                    users -> users.stream().map(user -> user.withVinyl(vinyl)).toList());
+            invalidationBus.publish(CacheInvalidation.key(vinylUserCache.getName(), KEY_VINYL_USERS + vinyl.id()));
+        }
+    }
+
+    // владельцев берём из закешированного списка, его держит точным applyChange
+    private List<Integer> userIdsOf(Integer vinylId) {
+        List<UserVinylView> users = vinylUserCache.get(KEY_VINYL_USERS + vinylId);
+        if (users != null) {
+            return users.stream().map(UserVinylView::userId).toList();
+        }
+        return userVinylRepository.findUserIdsByVinylId(vinylId);
+    }
+
+    private void patchUserCollection(Integer userId, UnaryOperator<UserCollection> patch) {
+        userVinylCache.update(KEY_USER_VINYLS + userId, patch);
+        invalidationBus.publish(CacheInvalidation.key(userVinylCache.getName(), KEY_USER_VINYLS + userId));
+    }
 }
@@ -0,0 +1,66 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.repositories.VinylScroll;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Непрозрачный курсор keyset-пагинации: сортировка, ключ последней выданной пластинки и отпечаток
+ * фильтров. Курсор от другого запроса или испорченный отклоняется, а не молча даёт чужую выборку.
+ */
+final class VinylCursor {
+    static final String RANK = "rank";
+    private static final int VERSION = 1;
+
+    private VinylCursor() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    static String encode(int filters, VinylScroll scroll, VinylScroll.Key last) {
+        BinaryOutput out = new BinaryOutput(64);
+        out.writeVarInt(VERSION);
+        out.writeVarInt(filters);
+        out.writeString(scroll.property());
+        out.writeVarInt(scroll.descending() ? 1 : 0);
+        out.writeString(String.valueOf(last.value()));
+        out.writeVarInt(last.id());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(out.toByteArray());
+    }
+
+    static VinylScroll decode(String cursor, int filters, int limit) {
+        try {
+            BinaryInput in = new BinaryInput(ByteBuffer.wrap(Base64.getUrlDecoder().decode(cursor)));
+            if (in.readVarInt() != VERSION || in.readVarInt() != filters) {
+                throw invalid();
+            }
+            String property = in.readString();
+            boolean descending = in.readVarInt() == 1;
+            Object value = value(property, in.readString());
+            int id = in.readVarInt();
+            if (in.hasRemaining()) {
+                throw invalid();
+            }
+            return new VinylScroll(property, descending, new VinylScroll.Key(id, value), limit);
+        } catch (ResponseStatusException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw invalid();
+        }
+    }
+
+    // тип значения нужен, чтобы сравнение в БД шло по типу колонки, а не по строке
+    private static Object value(String property, String value) {
+        return switch (property) {
+            case "title", "artist" -> value;
+            case "id", "releaseYear" -> Integer.valueOf(value);
+            case RANK -> Double.valueOf(value);
+            default -> throw invalid();
+        };
+    }
+
+    private static ResponseStatusException invalid() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Курсор недействителен для этого запроса");
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.dto.VinylView;
+import com.example.vinyltrackerapi.api.repositories.VinylRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Выгрузка всего каталога потоком: пластинки читаются из БД порциями и сразу пишутся в ответ,
+ * поэтому расход памяти не зависит от размера каталога. Кэши каталога не используются и не заполняются.
+ */
+@Service
+public class VinylExportService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VinylExportService.class);
+    private static final String CSV_HEADER = "id,title,artist,genreId,releaseYear,description,coverUrl,addedById";
+    private final VinylRepository vinylRepository;
+    private final ObjectWriter jsonWriter;
+
+    public VinylExportService(VinylRepository vinylRepository, ObjectMapper objectMapper) {
+        this.vinylRepository = vinylRepository;
+        this.jsonWriter = objectMapper.writerFor(VinylView.class);
+    }
+
+    /**
+     * Пишет каталог в {@code out} и возвращает число пластинок. Поток ответа не закрывается.
+     */
+    @Transactional(readOnly = true)
+    public long export(Format format, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        try (Stream<VinylView> vinyls = vinylRepository.streamAllViews()) {
+            Iterator<VinylView> iterator = vinyls.iterator();
+            while (iterator.hasNext()) {
+                VinylView vinyl = iterator.next();
+                writer.write(format == Format.CSV ? csvLine(vinyl) : jsonWriter.writeValueAsString(vinyl));
+                writer.write('\n');
+                count++;
+            }
+        }
+        writer.flush();
+        LOGGER.info("[EXPORT] Выгружено {} пластинок в {} за {} мс", count, format,
+                (System.nanoTime() - start) / 1_000_000);
+        return count;
+    }
+
+    private static String csvLine(VinylView vinyl) {
+        return String.join(",", csvValue(vinyl.id()), csvValue(vinyl.title()), csvValue(vinyl.artist()),
+                csvValue(vinyl.genreId()), csvValue(vinyl.releaseYear()), csvValue(vinyl.description()),
+                csvValue(vinyl.coverUrl()), csvValue(vinyl.addedById()));
+    }
+
+    // RFC 4180: поле с разделителем, кавычкой или переводом строки берётся в кавычки, кавычки удваиваются
+    static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    public enum Format {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public static Format of(String name) {
+            try {
+                return valueOf(name.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Формат выгрузки не поддерживается: " + name);
+            }
+        }
+
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+}
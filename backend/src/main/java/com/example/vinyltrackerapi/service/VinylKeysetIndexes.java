@@ -0,0 +1,43 @@
+package com.example.vinyltrackerapi.service;
+
+import javax.sql.DataSource;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+
+/**
+ * Создаёт составные индексы (ключ сортировки, id) для окон по курсору. Им не нужны расширения БД,
+ * поэтому они идут отдельно от миграций поиска и со своей таблицей истории: окна не должны
+ * сортировать всю таблицу только потому, что на сервере нет pg_trgm.
+ */
+@Service
+public class VinylKeysetIndexes implements ApplicationRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VinylKeysetIndexes.class);
+    private final Flyway flyway;
+
+    public VinylKeysetIndexes(DataSource dataSource) {
+        this.flyway = Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/keyset")
+                .table("flyway_keyset_history")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load();
+    }
+
+    // таблицы к этому моменту уже создал Hibernate
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            int applied = flyway.migrate().migrationsExecuted;
+            LOGGER.info("[VINYL] Индексы для окон по курсору готовы, применено миграций: {}", applied);
+        } catch (FlywayException e) {
+            LOGGER.warn("[VINYL] Индексы для окон по курсору не созданы, окна будут сортировать всю выборку: {}",
+                    e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.models.Genre;
+import com.example.vinyltrackerapi.api.models.Vinyl;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.hibernate.Hibernate;
+
+/**
+ * Повторяет в памяти условия поиска из {@code VinylSpecification} и {@code VinylSearchRepository},
+ * чтобы по изменённой пластинке понять, какие закешированные результаты поиска она затрагивает.
+ * Где точно повторить SQL нельзя, условие шире: лишний сброс кеша безопасен, пропущенный нет.
+ */
+public final class VinylSearchPredicates {
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private VinylSearchPredicates() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    public static Predicate<Vinyl> byFields(String title, String artist, Integer releaseYear, Integer genreId) {
+        return vinyl -> (title == null || title.isBlank() || containsNormalized(vinyl.getTitle(), title))
+                && (artist == null || artist.isBlank() || containsNormalized(vinyl.getArtist(), artist))
+                && (releaseYear == null || releaseYear.equals(vinyl.getReleaseYear()))
+                && (genreId == null || genreId.equals(genreId(vinyl)));
+    }
+
+    public static Predicate<Vinyl> byText(String normalizedQuery, Integer year, Set<Integer> matchedGenreIds) {
+        return vinyl -> containsNormalized(vinyl.getTitle(), normalizedQuery)
+                || containsNormalized(vinyl.getArtist(), normalizedQuery)
+                || containsAllWords(vinyl, normalizedQuery)
+                || (year != null && year.equals(vinyl.getReleaseYear()))
+                || (genreId(vinyl) != null && matchedGenreIds.contains(genreId(vinyl)))
+                || genreNameContains(vinyl.getGenre(), normalizedQuery);
+    }
+
+    private static boolean containsNormalized(String value, String part) {
+        return value != null && normalize(value).contains(normalize(part));
+    }
+
+    // tsvector: каждое слово запроса должно быть словом документа, здесь хватает подстроки
+    private static boolean containsAllWords(Vinyl vinyl, String query) {
+        String document = normalize(Stream.of(vinyl.getTitle(), vinyl.getArtist(), vinyl.getDescription())
+                .filter(Objects::nonNull).collect(Collectors.joining(" ")));
+        String[] words = WORD_SEPARATORS.split(normalize(query));
+        return Arrays.stream(words).anyMatch(word -> !word.isEmpty())
+                && Arrays.stream(words).allMatch(document::contains);
+    }
+
+    /**
+     * Нижний регистр без диакритики, ё становится е. Снимает больше знаков, чем unaccent в БД
+     * (например, й становится и), поэтому совпадений не меньше, чем в SQL.
+     */
+    static String normalize(String value) {
+        return MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private static Integer genreId(Vinyl vinyl) {
+        return vinyl.getGenre() != null ? vinyl.getGenre().getId() : null;
+    }
+
+    // жанр, созданный уже после запроса, в matchedGenreIds не попал; проверяем имя, если оно загружено
+    private static boolean genreNameContains(Genre genre, String normalizedQuery) {
+        return genre != null && Hibernate.isInitialized(genre)
+                && containsNormalized(genre.getName(), normalizedQuery);
+    }
+}
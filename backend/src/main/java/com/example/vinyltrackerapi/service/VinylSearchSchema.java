@@ -0,0 +1,47 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.configs.SearchProperties;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+
+/**
+ * Применяет миграции поиска (pg_trgm, unaccent, нормализованные колонки и GIN-индексы)
+ * и сообщает, можно ли искать через них. Таблицы к этому моменту уже создал Hibernate.
+ * Пока миграции не применены или если они не прошли, поиск идёт через {@code LIKE}.
+ */
+@Service
+public class VinylSearchSchema implements ApplicationRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VinylSearchSchema.class);
+    private final Flyway flyway;
+    private final boolean enabled;
+    private volatile boolean available;
+
+    public VinylSearchSchema(Flyway flyway, SearchProperties properties) {
+        this.flyway = flyway;
+        this.enabled = properties.getDatabase().isEnabled();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            LOGGER.info("[SEARCH] Поиск через индексы БД выключен, используется LIKE");
+            return;
+        }
+        try {
+            int applied = flyway.migrate().migrationsExecuted;
+            available = true;
+            LOGGER.info("[SEARCH] Схема поиска в БД готова, применено миграций: {}", applied);
+        } catch (FlywayException e) {
+            LOGGER.warn("[SEARCH] Схема поиска в БД недоступна, используется LIKE: {}", e.getMessage());
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+}
@@ -1,18 +1,36 @@
 package com.example.vinyltrackerapi.service;
 
+import com.example.vinyltrackerapi.api.dto.CatalogSearchView;
+import com.example.vinyltrackerapi.api.dto.CursorSlice;
+import com.example.vinyltrackerapi.api.dto.FacetCountsView;
+import com.example.vinyltrackerapi.api.dto.FacetFilter;
+import com.example.vinyltrackerapi.api.dto.FacetedPageView;
 import com.example.vinyltrackerapi.api.dto.VinylDto;
+import com.example.vinyltrackerapi.api.dto.VinylView;
 import com.example.vinyltrackerapi.api.models.Genre;
 import com.example.vinyltrackerapi.api.models.User;
 import com.example.vinyltrackerapi.api.models.Vinyl;
 import com.example.vinyltrackerapi.api.repositories.GenreRepository;
 import com.example.vinyltrackerapi.api.repositories.VinylRepository;
+import com.example.vinyltrackerapi.api.repositories.VinylScroll;
 import com.example.vinyltrackerapi.api.specifications.VinylSpecification;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -25,25 +43,61 @@ public class VinylService {
     private final GenreRepository genreRepository;
     private final UserService userService;
     private final GenreService genreService;
-    private final CacheService<Vinyl> vinylCache;
-    private final CacheService<List<Vinyl>> vinylListCache;
-    private final CacheKeyTracker vinylKeyTracker;
+    private final CacheService<VinylView> vinylCache;
+    private final CacheService<Boolean> vinylMissingCache;
+    private final CacheService<List<VinylView>> vinylListCache;
+    private final CacheService<CatalogSnapshot<VinylView>> vinylCatalogCache;
+    private final SearchInvalidationIndex searchIndex;
+    private final OffHeapListCache<VinylView> vinylSearchOffHeapCache;
+    private final CatalogSearchIndex catalogSearchIndex;
+    private final VinylSearchSchema vinylSearchSchema;
+    private final CatalogSuggester catalogSuggester;
+    private final CatalogFacets catalogFacets;
+    private final CatalogVersionService catalogVersionService;
+    private final UserVinylService userVinylService;
+    private final CacheInvalidationBus invalidationBus;
     private static final String KEY_ALL = "all-vinyls";
     private static final String KEY_ID = "vinyl-";
+    private static final int GLOBAL_SEARCH_LIMIT = 100;
+    private static final int FEW_HITS = 3;
+    private static final int MAX_CORRECTIONS = 3;
+    private static final int MAX_SCROLL_SIZE = 100;
+    private volatile StampedCatalog stampedCatalog;
 
     public VinylService(VinylRepository vinylRepository,
                         GenreRepository genreRepository,
                         UserService userService,
                         GenreService genreService,
-                        CacheService<Vinyl> vinylCache, CacheService<List<Vinyl>> vinylListCache,
-                        CacheKeyTracker vinylKeyTracker) {
+                        @Qualifier("vinylCache") CacheService<VinylView> vinylCache,
+                        @Qualifier("vinylMissingCache") CacheService<Boolean> vinylMissingCache,
+                        @Qualifier("vinylListCache") CacheService<List<VinylView>> vinylListCache,
+                        @Qualifier("vinylCatalogCache") CacheService<CatalogSnapshot<VinylView>> vinylCatalogCache,
+                        SearchInvalidationIndex searchIndex,
+                        OffHeapListCache<VinylView> vinylSearchOffHeapCache,
+                        CatalogSearchIndex catalogSearchIndex,
+                        VinylSearchSchema vinylSearchSchema,
+                        CatalogSuggester catalogSuggester,
+                        CatalogFacets catalogFacets,
+                        CatalogVersionService catalogVersionService,
+                        UserVinylService userVinylService,
+                        CacheInvalidationBus invalidationBus) {
         this.vinylRepository = vinylRepository;
         this.genreRepository = genreRepository;
         this.userService = userService;
         this.genreService = genreService;
         this.vinylCache = vinylCache;
+        this.vinylMissingCache = vinylMissingCache;
         this.vinylListCache = vinylListCache;
-        this.vinylKeyTracker = vinylKeyTracker;
+        this.vinylCatalogCache = vinylCatalogCache;
+        this.searchIndex = searchIndex;
+        this.vinylSearchOffHeapCache = vinylSearchOffHeapCache;
+        this.catalogSearchIndex = catalogSearchIndex;
+        this.vinylSearchSchema = vinylSearchSchema;
+        this.catalogSuggester = catalogSuggester;
+        this.catalogFacets = catalogFacets;
+        this.catalogVersionService = catalogVersionService;
+        this.userVinylService = userVinylService;
+        this.invalidationBus = invalidationBus;
     }
 
     public List<Vinyl> getVinylsByUploaderUsername(String username) {
@@ -58,89 +112,244 @@ public class VinylService {
         return vinyls;
     }
 
-    public List<Vinyl> getAllVinyls() {
-        String cacheKey = KEY_ALL;
+    public List<VinylView> getAllVinyls() {
+        return vinylCatalogCache.get(KEY_ALL, () -> {
+            List<VinylView> vinyls = toViews(vinylRepository.findAll());
+            LOGGER.info("[VINYL] Получены все пластинки");
+            return CatalogSnapshot.of(vinyls, VinylView::id);
+        }).values();
+    }
 
-        if (vinylListCache.contains(cacheKey)) {
-            return vinylListCache.get(cacheKey);
+    /**
+     * ETag каталога или {@code null}, если каталога нет в кеше: тогда ответ строится как обычно.
+     * Отпечаток считается один раз на снимок; каталог меняется только через запись в этом сервисе.
+     */
+    public String getCatalogEtag() {
+        CatalogSnapshot<VinylView> snapshot = vinylCatalogCache.get(KEY_ALL);
+        if (snapshot == null) {
+            return null;
+        }
+        StampedCatalog stamped = stampedCatalog;
+        if (stamped == null || stamped.snapshot() != snapshot) {
+            stamped = new StampedCatalog(snapshot, CatalogStamp.etag("catalog", CatalogStamp.of(snapshot.values())));
+            stampedCatalog = stamped;
         }
+        return stamped.etag();
+    }
 
-        List<Vinyl> vinyls = vinylRepository.findAll();
-        vinylListCache.put(cacheKey, vinyls);
-        LOGGER.info("[VINYL] Получены все пластинки");
-        return vinyls;
+    /**
+     * ETag пластинки по закешированному представлению или {@code null}, если его нет ни в одном регионе.
+     */
+    public String getVinylEtag(Integer id) {
+        VinylView view = vinylCache.get(KEY_ID + id);
+        if (view == null) {
+            CatalogSnapshot<VinylView> snapshot = vinylCatalogCache.get(KEY_ALL);
+            view = snapshot != null ? snapshot.get(id) : null;
+        }
+        return view != null ? CatalogStamp.etag("vinyl", CatalogStamp.of(view)) : null;
     }
 
-    public Vinyl getVinyl(Integer id) {
-        String cacheKey = KEY_ID + id;
+    /**
+     * ETag для текстового поиска. Полнотекстовый индекс на других узлах догоняет каталог
+     * асинхронно, поэтому его выдача ETag не получает: тег мог бы опередить содержимое.
+     */
+    public String getTextSearchEtag() {
+        return catalogSearchIndex.isEnabled() ? null : getCatalogEtag();
+    }
 
-        if (vinylCache.contains(cacheKey)) {
-            return vinylCache.get(cacheKey);
+    /**
+     * Отсутствие пластинки тоже кешируется, в отдельном регионе с коротким TTL от момента записи:
+     * повторные запросы удалённых id не доходят до БД.
+     */
+    public VinylView getVinylView(Integer id) {
+        String key = KEY_ID + id;
+        if (vinylMissingCache.get(key) != null) {
+            throw vinylNotFound(id);
         }
+        return vinylCache.get(key, () -> {
+            // отметку от поиска, начатого до создания записи, сохранять нельзя
+            long mark = vinylMissingCache.removalMark();
+            Vinyl vinyl = vinylRepository.findById(id).orElse(null);
+            if (vinyl == null) {
+                vinylMissingCache.putIfNotRemovedSince(key, Boolean.TRUE, mark);
+                throw vinylNotFound(id);
+            }
+            VinylView view = VinylView.of(vinyl);
+            LOGGER.info("[VINYL] Пластинка найдена и добавлена в кэш: ID={}", id);
+            return view;
+        });
+    }
 
-        return vinylRepository.findById(id)
-                .map(vinyl -> {
-                    vinylCache.put(cacheKey, vinyl);
-                    LOGGER.info("[VINYL] Пластинка найдена и добавлена в кэш: ID={}", id);
-                    return vinyl;
-                })
-                .orElseThrow(() -> {
-                    LOGGER.warn("[VINYL] Пластинка с ID={} не найдена!", id);
-                    return new ResponseStatusException(HttpStatus.NOT_FOUND,
-                            "Пластинка с ID " + id + " не найдена!");
-                });
+    /**
+     * Управляемая сущность для операций записи; в кэш не попадает.
+     */
+    public Vinyl getVinyl(Integer id) {
+        return vinylRepository.findById(id).orElseThrow(() -> vinylNotFound(id));
     }
 
-    public List<VinylDto> searchVinylsGlobal(String query) {
+    private static ResponseStatusException vinylNotFound(Integer id) {
+        LOGGER.warn("[VINYL] Пластинка с ID={} не найдена!", id);
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Пластинка с ID " + id + " не найдена!");
+    }
+
+    /**
+     * Первые {@value #GLOBAL_SEARCH_LIMIT} результатов по релевантности из полнотекстового индекса
+     * или из индексов БД, если доступен хотя бы один из них, иначе первые по id совпадения подстроки.
+     */
+    public List<VinylView> searchVinylsGlobal(String query) {
         String normalizedQuery = query == null ? "" : query.trim().toLowerCase();
         if (normalizedQuery.isEmpty()) return List.of();
 
+        if (catalogSearchIndex.isEnabled()) {
+            return catalogSearchIndex.search(normalizedQuery, PageRequest.ofSize(GLOBAL_SEARCH_LIMIT)).getContent();
+        }
+
         String cacheKey = "search-vinyl-text-" + normalizedQuery;
-        if (vinylListCache.contains(cacheKey)) {
-            return vinylListCache.get(cacheKey).stream().map(VinylDto::new).toList();
+        return cachedSearch(cacheKey, () -> findVinylsByText(normalizedQuery, cacheKey));
+    }
+
+    /**
+     * {@link #searchVinylsGlobal(String)} с исправлениями опечаток, если совпадений меньше {@value #FEW_HITS}.
+     * При {@code autoCorrect} отдаются результаты лучшего исправления, если по нему нашлось больше.
+     */
+    public CatalogSearchView searchWithCorrections(String query, boolean autoCorrect) {
+        List<VinylView> results = searchVinylsGlobal(query);
+        if (query == null || query.isBlank() || results.size() >= FEW_HITS) {
+            return new CatalogSearchView(query, null, List.of(), results);
+        }
+        List<String> corrections = catalogSuggester.corrections(query, MAX_CORRECTIONS);
+        if (autoCorrect && !corrections.isEmpty()) {
+            List<VinylView> corrected = searchVinylsGlobal(corrections.get(0));
+            if (corrected.size() > results.size()) {
+                LOGGER.info("[VINYL] Запрос исправлен: найдено {} вместо {}", corrected.size(), results.size());
+                return new CatalogSearchView(query, corrections.get(0), corrections, corrected);
+            }
         }
+        return new CatalogSearchView(query, null, corrections, results);
+    }
 
-        Specification<Vinyl> spec = Specification.where(null);
+    private List<Vinyl> findVinylsByText(String normalizedQuery, String cacheKey) {
+        Integer year = parseYear(normalizedQuery);
+        Set<Integer> matchedGenreIds = matchedGenreIds(normalizedQuery);
+        // регистрируем условие до запроса: изменение, случившееся во время загрузки, отменит её
+        searchIndex.register(cacheKey, VinylSearchPredicates.byText(normalizedQuery, year, matchedGenreIds));
+        List<Vinyl> result = vinylSearchSchema.isAvailable()
+                ? vinylRepository.searchByText(normalizedQuery, year, matchedGenreIds, GLOBAL_SEARCH_LIMIT)
+                : vinylRepository.findAll(textSpecification(normalizedQuery, year, matchedGenreIds),
+                        PageRequest.of(0, GLOBAL_SEARCH_LIMIT, Sort.by("id"))).getContent();
+
+        LOGGER.info("[VINYL] Выполнен универсальный поиск");
 
+        return result;
+    }
+
+    private static Integer parseYear(String normalizedQuery) {
         try {
-            Integer year = Integer.parseInt(normalizedQuery);
-            spec = spec.or(VinylSpecification.hasReleaseYear(year));
+            return Integer.parseInt(normalizedQuery);
         } catch (NumberFormatException e) {
             // не число, значит не год
+            return null;
         }
+    }
 
+    private Set<Integer> matchedGenreIds(String normalizedQuery) {
         List<Genre> matchedGenres = genreRepository.findByNameContainingIgnoreCase(normalizedQuery);
-        if (!matchedGenres.isEmpty()) {
+        return matchedGenres.stream().map(Genre::getId).collect(Collectors.toSet());
+    }
+
+    private static Specification<Vinyl> textSpecification(String normalizedQuery, Integer year,
+                                                          Set<Integer> genreIds) {
+        Specification<Vinyl> spec = Specification.where(null);
+        if (year != null) {
+            spec = spec.or(VinylSpecification.hasReleaseYear(year));
+        }
+        if (!genreIds.isEmpty()) {
             Specification<Vinyl> genreSpec = Specification.where(null);
-            for (Genre genre : matchedGenres) {
-                genreSpec = genreSpec.or(VinylSpecification.hasGenreId(genre.getId()));
+            for (Integer genreId : genreIds) {
+                genreSpec = genreSpec.or(VinylSpecification.hasGenreId(genreId));
             }
             spec = spec.or(genreSpec);
         }
-
-        spec = spec.or(VinylSpecification.hasTitleLike(normalizedQuery))
+        return spec.or(VinylSpecification.hasTitleLike(normalizedQuery))
                 .or(VinylSpecification.hasArtistLike(normalizedQuery));
+    }
 
-        List<Vinyl> result = vinylRepository.findAll(spec);
-
-        for (Vinyl vinyl : result) {
-            vinylKeyTracker.addVinylCacheKey(vinyl.getId(), cacheKey);
+    /**
+     * Ранжированный постраничный поиск. Без индекса страница нарезается из результата
+     * {@link #searchVinylsGlobal(String)}.
+     */
+    public Page<VinylView> searchCatalog(String query, Pageable pageable) {
+        String normalizedQuery = query == null ? "" : query.trim().toLowerCase();
+        if (normalizedQuery.isEmpty()) {
+            return Page.empty(pageable);
         }
+        if (catalogSearchIndex.isEnabled()) {
+            Page<VinylView> page = catalogSearchIndex.search(normalizedQuery, pageable);
+            LOGGER.info("[VINYL] Полнотекстовый поиск: page={}, найдено {}", pageable.getPageNumber() + 1,
+                    page.getTotalElements());
+            return page;
+        }
+        List<VinylView> all = searchVinylsGlobal(normalizedQuery);
+        int from = (int) Math.min(pageable.getOffset(), all.size());
+        int to = Math.min(from + pageable.getPageSize(), all.size());
+        return new PageImpl<>(all.subList(from, to), pageable, all.size());
+    }
 
-        vinylListCache.put(cacheKey, result);
+    public List<VinylView> searchVinyls(String title, String artist, Integer releaseYear, Integer genreId) {
+        String cacheKey = "search-vinyl-" + title + "-" + artist + "-" + releaseYear + "-" + genreId;
+        return cachedSearch(cacheKey, () -> findVinyls(title, artist, releaseYear, genreId, cacheKey));
+    }
 
-        LOGGER.info("[VINYL] Выполнен универсальный поиск");
+    private List<VinylView> cachedSearch(String cacheKey, Supplier<List<Vinyl>> query) {
+        if (vinylSearchOffHeapCache.isEnabled()) {
+            return vinylSearchOffHeapCache.get(cacheKey, () -> toViews(query.get()));
+        }
+        return vinylListCache.get(cacheKey, () -> toViews(query.get()));
+    }
 
-        return result.stream().map(VinylDto::new).toList();
+    private static List<VinylView> toViews(Collection<Vinyl> vinyls) {
+        return vinyls.stream().map(VinylView::of).toList();
     }
 
-    public List<VinylDto> searchVinyls(String title, String artist, Integer releaseYear, Integer genreId) {
-        String cacheKey = "search-vinyl-" + title + "-" + artist + "-" + releaseYear + "-" + genreId;
+    private void evictSearchResults(Collection<Vinyl> states) {
+        // условие загружающегося поиска нужно сохранить: только по нему запись отменит эту загрузку
+        searchIndex.retainCached(key -> vinylListCache.containsOrLoading(key)
+                || vinylSearchOffHeapCache.containsOrLoading(key));
+        for (String key : searchIndex.removeMatching(states)) {
+            vinylListCache.remove(key);
+            vinylSearchOffHeapCache.remove(key);
+        }
+    }
 
-        if (vinylListCache.contains(cacheKey)) {
-            return vinylListCache.get(cacheKey).stream().map(VinylDto::new).toList();
+    // индексы поиска у других узлов свои, поэтому там результаты поиска сбрасываются целиком
+    private void publishChanges(Collection<Integer> ids) {
+        for (Integer id : ids) {
+            invalidationBus.publish(CacheInvalidation.key(vinylCache.getName(), KEY_ID + id));
+            invalidationBus.publish(CacheInvalidation.key(vinylMissingCache.getName(), KEY_ID + id));
+            invalidationBus.publish(CacheInvalidation.key(CatalogProjection.NAME, KEY_ID + id));
+            if (catalogSearchIndex.isEnabled()) {
+                invalidationBus.publish(CacheInvalidation.key(CatalogSearchIndex.NAME, KEY_ID + id));
+            }
         }
+        invalidationBus.publish(CacheInvalidation.key(vinylCatalogCache.getName(), KEY_ALL));
+        invalidationBus.publish(CacheInvalidation.region(vinylListCache.getName()));
+        invalidationBus.publish(CacheInvalidation.region(vinylSearchOffHeapCache.getName()));
+    }
 
+    private List<Vinyl> findVinyls(String title, String artist, Integer releaseYear, Integer genreId,
+                                   String cacheKey) {
+        searchIndex.register(cacheKey, VinylSearchPredicates.byFields(title, artist, releaseYear, genreId));
+        List<Vinyl> result = vinylSearchSchema.isAvailable()
+                ? vinylRepository.searchByFields(title, artist, releaseYear, genreId, Pageable.unpaged()).getContent()
+                : vinylRepository.findAll(fieldSpecification(title, artist, releaseYear, genreId));
+
+        LOGGER.info("[VINYL] Получена пластинка по параметрам");
+
+        return result;
+    }
+
+    private static Specification<Vinyl> fieldSpecification(String title, String artist, Integer releaseYear,
+                                                           Integer genreId) {
         Specification<Vinyl> spec = Specification.where(null);
 
         if (title != null && !title.isBlank()) {
@@ -155,18 +364,7 @@ public class VinylService {
         if (genreId != null) {
             spec = spec.and(VinylSpecification.hasGenreId(genreId));
         }
-
-        List<Vinyl> result = vinylRepository.findAll(spec);
-
-        for (Vinyl vinyl : result) {
-            vinylKeyTracker.addVinylCacheKey(vinyl.getId(), cacheKey);
-        }
-
-        vinylListCache.put(cacheKey, result);
-
-        LOGGER.info("[VINYL] Получена пластинка по параметрам");
-
-        return result.stream().map(VinylDto::new).toList();
+        return spec;
     }
 
     public Vinyl createVinyl(VinylDto vinylDto) {
@@ -182,8 +380,16 @@ public class VinylService {
         Vinyl vinyl = vinylDto.toEntity(genre, addedBy);
         Vinyl savedVinyl = vinylRepository.save(vinyl);
 
-        vinylCache.put(KEY_ID + savedVinyl.getId(), savedVinyl);
-        vinylListCache.put(KEY_ALL, vinylRepository.findAll());
+        VinylView view = VinylView.of(savedVinyl);
+        vinylMissingCache.remove(KEY_ID + view.id());
+        vinylCache.put(KEY_ID + view.id(), view);
+        evictSearchResults(List.of(savedVinyl));
+        catalogSearchIndex.index(List.of(savedVinyl));
+        catalogSuggester.apply(List.of(savedVinyl), List.of());
+        catalogFacets.apply(List.of(savedVinyl), List.of());
+        vinylCatalogCache.update(KEY_ALL, catalog -> catalog.withUpserted(List.of(view)));
+        catalogVersionService.bump();
+        publishChanges(List.of(view.id()));
         LOGGER.info("[VINYL] Создана пластинка с ID={} title={}", savedVinyl.getId(), vinyl.getTitle());
 
         return savedVinyl;
@@ -200,6 +406,7 @@ public class VinylService {
         }
 
         return vinylRepository.findById(id).map(vinyl -> {
+            Vinyl before = copyOf(vinyl);
             vinyl.setTitle(vinylDto.getTitle());
             vinyl.setArtist(vinylDto.getArtist());
             vinyl.setGenre(genre);
@@ -210,15 +417,18 @@ public class VinylService {
 
             Vinyl updatedVinyl = vinylRepository.save(vinyl);
 
-            vinylCache.put(KEY_ID + id, updatedVinyl);
+            VinylView view = VinylView.of(updatedVinyl);
+            vinylCache.put(KEY_ID + id, view);
 
-            Set<String> affectedCacheKeys = vinylKeyTracker.getVinylCacheKeys(id);
-            for (String key : affectedCacheKeys) {
-                vinylListCache.remove(key);
-            }
-            vinylKeyTracker.removeVinylCacheKeys(id);
+            evictSearchResults(List.of(before, updatedVinyl));
+            catalogSearchIndex.index(List.of(updatedVinyl));
+            catalogSuggester.apply(List.of(updatedVinyl), List.of());
+            catalogFacets.apply(List.of(updatedVinyl), List.of());
 
-            vinylListCache.put(KEY_ALL, vinylRepository.findAll());
+            vinylCatalogCache.update(KEY_ALL, catalog -> catalog.withUpserted(List.of(view)));
+            userVinylService.replaceVinyls(List.of(view));
+            catalogVersionService.bump();
+            publishChanges(List.of(id));
 
             LOGGER.info("[VINYL] Обновлена пластинка с ID={} title={}", updatedVinyl.getId(),
                     updatedVinyl.getTitle());
@@ -230,18 +440,19 @@ public class VinylService {
     }
 
     public void deleteVinyl(Integer id) {
-        if (!vinylRepository.existsById(id)) {
+        Vinyl vinyl = vinylRepository.findById(id).orElseThrow(() -> {
             LOGGER.warn("[VINYL] Пластинки с ID={} не существует!", id);
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Винил с ID " + id + " не найден!");
-        }
+            return new ResponseStatusException(HttpStatus.NOT_FOUND, "Винил с ID " + id + " не найден!");
+        });
         vinylRepository.deleteById(id);
         vinylCache.remove(KEY_ID + id);
-        Set<String> affectedCacheKeys = vinylKeyTracker.getVinylCacheKeys(id);
-        for (String key : affectedCacheKeys) {
-            vinylListCache.remove(key);
-        }
-        vinylKeyTracker.removeVinylCacheKeys(id);
-        vinylListCache.put(KEY_ALL, vinylRepository.findAll());
+        evictSearchResults(List.of(vinyl));
+        catalogSearchIndex.delete(List.of(id));
+        catalogSuggester.apply(List.of(), List.of(id));
+        catalogFacets.apply(List.of(), List.of(id));
+        vinylCatalogCache.update(KEY_ALL, catalog -> catalog.without(id));
+        catalogVersionService.bump();
+        publishChanges(List.of(id));
         LOGGER.info("[VINYL] Пластинка с ID={} удалена!", id);
     }
 
@@ -249,6 +460,29 @@ public class VinylService {
         List<Vinyl> vinylsAddedByUser = vinylRepository.findByAddedBy(user);
         vinylsAddedByUser.forEach(vinyl -> vinyl.setAddedBy(null));
         vinylRepository.saveAll(vinylsAddedByUser);
+        // в закешированных результатах поиска остался бы старый addedById
+        evictSearchResults(vinylsAddedByUser);
+        catalogSearchIndex.index(vinylsAddedByUser);
+        catalogFacets.apply(vinylsAddedByUser, List.of());
+        List<VinylView> views = toViews(vinylsAddedByUser);
+        views.forEach(view -> vinylCache.put(KEY_ID + view.id(), view));
+        vinylCatalogCache.update(KEY_ALL, catalog -> catalog.withUpserted(views));
+        userVinylService.replaceVinyls(views);
+        catalogVersionService.bump();
+        publishChanges(views.stream().map(VinylView::id).toList());
+    }
+
+    private static Vinyl copyOf(Vinyl vinyl) {
+        Vinyl copy = new Vinyl();
+        copy.setId(vinyl.getId());
+        copy.setTitle(vinyl.getTitle());
+        copy.setArtist(vinyl.getArtist());
+        copy.setGenre(vinyl.getGenre());
+        copy.setReleaseYear(vinyl.getReleaseYear());
+        copy.setDescription(vinyl.getDescription());
+        copy.setCoverUrl(vinyl.getCoverUrl());
+        copy.setAddedBy(vinyl.getAddedBy());
+        return copy;
     }
 
     public List<Vinyl> createVinylsBulk(List<VinylDto> vinylDtos) {
@@ -263,12 +497,19 @@ public class VinylService {
 
         List<Vinyl> savedVinyls = vinylRepository.saveAll(vinyls);
 
-        savedVinyls.forEach(vinyl -> {
-            String cacheKey = KEY_ID + vinyl.getId();
-            vinylCache.put(cacheKey, vinyl);
+        List<VinylView> views = toViews(savedVinyls);
+        views.forEach(view -> {
+            vinylMissingCache.remove(KEY_ID + view.id());
+            vinylCache.put(KEY_ID + view.id(), view);
         });
+        evictSearchResults(savedVinyls);
+        catalogSearchIndex.index(savedVinyls);
+        catalogSuggester.apply(savedVinyls, List.of());
+        catalogFacets.apply(savedVinyls, List.of());
 
-        vinylListCache.put(KEY_ALL, vinylRepository.findAll());
+        vinylCatalogCache.update(KEY_ALL, catalog -> catalog.withUpserted(views));
+        catalogVersionService.bump();
+        publishChanges(views.stream().map(VinylView::id).toList());
 
         LOGGER.info("[VINYL] Загружено {} новых пластинок", savedVinyls.size());
         return savedVinyls;
@@ -301,36 +542,163 @@ public class VinylService {
             String genreName,
             Integer genreId
     ) {
-        Specification<Vinyl> spec = Specification.where(null);
-
-        if (title != null && !title.isBlank()) {
-            spec = spec.and(VinylSpecification.hasTitle(title));
-        }
-        if (artist != null && !artist.isBlank()) {
-            spec = spec.and(VinylSpecification.hasArtist(artist));
-        }
-        if (releaseYear != null) {
-            spec = spec.and(VinylSpecification.hasReleaseYear(releaseYear));
-        }
-
         // приоритет: genreId, иначе пробуем genreName
-        if (genreId != null) {
-            spec = spec.and(VinylSpecification.hasGenreId(genreId));
-        } else if (genreName != null && !genreName.isBlank()) {
+        Integer resolvedGenreId = genreId;
+        if (resolvedGenreId == null && genreName != null && !genreName.isBlank()) {
             // exact match (без contains), чтобы не ловить "Rock" внутри "Rockabilly"
             var g = genreRepository.findByNameIgnoreCase(genreName.trim());
-            if (g.isPresent()) {
-                spec = spec.and(VinylSpecification.hasGenreId(g.get().getId()));
-            } else {
+            if (g.isEmpty()) {
                 // жанр не найден — вернём пустую страницу без запроса к таблице
                 return Page.empty(pageable);
             }
+            resolvedGenreId = g.get().getId();
         }
 
-        Page<Vinyl> page = vinylRepository.findAll(spec, pageable);
+        // без текстовых фильтров обычный запрос и так идёт по индексам, похожесть считать не нужно
+        boolean textFilter = (title != null && !title.isBlank()) || (artist != null && !artist.isBlank());
+        Page<Vinyl> page = textFilter && vinylSearchSchema.isAvailable()
+                ? vinylRepository.searchByFields(title, artist, releaseYear, resolvedGenreId, pageable)
+                : vinylRepository.findAll(fieldSpecification(title, artist, releaseYear, resolvedGenreId), pageable);
         LOGGER.info("[VINYL] Страница с фильтрами: page={}/{}, size={}, total={}",
                 pageable.getPageNumber() + 1, page.getTotalPages(), pageable.getPageSize(), page.getTotalElements());
 
         return page.map(VinylDto::new);
     }
+
+    /**
+     * Keyset-версия {@link #getVinylsPage(Pageable, String, String, Integer, String, Integer)}: окно
+     * после курсора без OFFSET и подсчёта всех записей. Порядок всегда дополняется id, поэтому
+     * новые пластинки не сдвигают уже выданные окна. Курсор хранит сортировку, с ним {@code sort} не нужен.
+     */
+    public CursorSlice<VinylView> scrollVinyls(String title, String artist, Integer releaseYear, String genreName,
+                                               Integer genreId, Sort sort, String cursor, int size) {
+        Integer resolvedGenreId = genreId;
+        if (resolvedGenreId == null && genreName != null && !genreName.isBlank()) {
+            var g = genreRepository.findByNameIgnoreCase(genreName.trim());
+            if (g.isEmpty()) {
+                return CursorSlice.empty(scrollSize(size));
+            }
+            resolvedGenreId = g.get().getId();
+        }
+        int filters = Objects.hash("fields", title, artist, releaseYear, resolvedGenreId);
+        VinylScroll scroll = scroll(cursor, filters, sort, size);
+        List<VinylScroll.Key> keys = vinylRepository.scrollByFields(title, artist, releaseYear, resolvedGenreId,
+                null, vinylSearchSchema.isAvailable(), scroll);
+        return toSlice(keys, scroll, filters);
+    }
+
+    /**
+     * Keyset-версия универсального поиска. С индексами БД окна идут по релевантности, иначе по id;
+     * полнотекстовый индекс для листания не используется, его порядок между запросами не стабилен.
+     */
+    public CursorSlice<VinylView> scrollVinylsGlobal(String query, String cursor, int size) {
+        String normalizedQuery = query == null ? "" : query.trim().toLowerCase();
+        if (normalizedQuery.isEmpty()) {
+            return CursorSlice.empty(scrollSize(size));
+        }
+        boolean ranked = vinylSearchSchema.isAvailable();
+        int filters = Objects.hash("text", normalizedQuery, ranked);
+        VinylScroll scroll = cursor != null && !cursor.isBlank()
+                ? VinylCursor.decode(cursor, filters, scrollSize(size) + 1)
+                : new VinylScroll(ranked ? VinylCursor.RANK : "id", ranked, null, scrollSize(size) + 1);
+        List<VinylScroll.Key> keys = vinylRepository.scrollByText(normalizedQuery, parseYear(normalizedQuery),
+                matchedGenreIds(normalizedQuery), ranked, scroll);
+        LOGGER.info("[VINYL] Универсальный поиск окном: {} записей", keys.size());
+        return toSlice(keys, scroll, filters);
+    }
+
+    public CursorSlice<VinylView> scrollVinylsByUploader(String username, Sort sort, String cursor, int size) {
+        int filters = Objects.hash("uploader", username);
+        VinylScroll scroll = scroll(cursor, filters, sort, size);
+        List<VinylScroll.Key> keys = vinylRepository.scrollByFields(null, null, null, null, username, false, scroll);
+        return toSlice(keys, scroll, filters);
+    }
+
+    // запрашивается на одну запись больше, чтобы узнать, есть ли следующее окно
+    private static VinylScroll scroll(String cursor, int filters, Sort sort, int size) {
+        int limit = scrollSize(size) + 1;
+        if (cursor != null && !cursor.isBlank()) {
+            return VinylCursor.decode(cursor, filters, limit);
+        }
+        List<Sort.Order> orders = sort.toList();
+        if (orders.size() > 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Окна сортируются только по одному полю");
+        }
+        return orders.isEmpty()
+                ? new VinylScroll("id", false, null, limit)
+                : new VinylScroll(orders.get(0).getProperty(), orders.get(0).isDescending(), null, limit);
+    }
+
+    private static int scrollSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_SCROLL_SIZE);
+    }
+
+    private CursorSlice<VinylView> toSlice(List<VinylScroll.Key> keys, VinylScroll scroll, int filters) {
+        int size = scroll.limit() - 1;
+        boolean hasNext = keys.size() > size;
+        List<VinylScroll.Key> window = hasNext ? keys.subList(0, size) : keys;
+        List<VinylView> content = getVinylViews(window.stream().map(VinylScroll.Key::id).toList());
+        String nextCursor = hasNext ? VinylCursor.encode(filters, scroll, window.get(size - 1)) : null;
+        return new CursorSlice<>(content, size, hasNext, nextCursor);
+    }
+
+    /**
+     * Страница каталога с множественными фильтрами и счётчиками фасетов. Id страницы, их число
+     * и счётчики берутся из индекса фасетов, из БД дочитываются только пластинки, которых нет в кэше.
+     * Пока индекс строится, страница считается запросом к БД, а счётчиков нет.
+     */
+    public FacetedPageView browseCatalog(FacetFilter filter, Pageable pageable) {
+        if (!catalogFacets.isReady()) {
+            CatalogFacets.checkSort(pageable.getSort());
+            Page<Vinyl> page = vinylRepository.findAll(facetSpecification(filter), pageable);
+            return new FacetedPageView(toViews(page.getContent()), page.getNumber(), page.getSize(),
+                    page.getTotalElements(), page.getTotalPages(), FacetCountsView.EMPTY);
+        }
+        CatalogFacets.Selection selection = catalogFacets.select(filter, pageable);
+        List<VinylView> content = getVinylViews(selection.ids());
+        int totalPages = (int) Math.ceil((double) selection.total() / pageable.getPageSize());
+        LOGGER.info("[VINYL] Страница каталога по фасетам: page={}/{}, total={}",
+                pageable.getPageNumber() + 1, totalPages, selection.total());
+        return new FacetedPageView(content, pageable.getPageNumber(), pageable.getPageSize(), selection.total(),
+                totalPages, selection.counts());
+    }
+
+    // пластинка могла быть удалена после выборки id, такие просто пропускаются
+    private List<VinylView> getVinylViews(List<Integer> ids) {
+        Map<Integer, VinylView> views = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            VinylView view = vinylCache.get(KEY_ID + id);
+            if (view != null) {
+                views.put(id, view);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            vinylRepository.findByIdIn(missing).forEach(vinyl -> views.put(vinyl.getId(), VinylView.of(vinyl)));
+        }
+        return ids.stream().map(views::get).filter(Objects::nonNull).toList();
+    }
+
+    private static Specification<Vinyl> facetSpecification(FacetFilter filter) {
+        Specification<Vinyl> spec = Specification.where(null);
+        if (!filter.genreIds().isEmpty()) {
+            spec = spec.and(VinylSpecification.hasGenreIdIn(filter.genreIds()));
+        }
+        if (filter.hasYearRange()) {
+            spec = spec.and(VinylSpecification.hasReleaseYearBetween(filter.yearFrom(), filter.yearTo()));
+        }
+        if (!filter.decades().isEmpty()) {
+            spec = spec.and(VinylSpecification.hasReleaseDecadeIn(
+                    filter.decades().stream().map(FacetBitmaps::decade).collect(Collectors.toSet())));
+        }
+        if (!filter.uploaderIds().isEmpty()) {
+            spec = spec.and(VinylSpecification.hasAddedByIdIn(filter.uploaderIds()));
+        }
+        return spec;
+    }
+
+    private record StampedCatalog(CatalogSnapshot<VinylView> snapshot, String etag) {
+    }
 }
@@ -0,0 +1,32 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.dto.VinylView;
+
+public class VinylViewCodec implements RecordCodec<VinylView> {
+    public static final VinylViewCodec INSTANCE = new VinylViewCodec();
+
+    @Override
+    public void write(VinylView view, BinaryOutput out) {
+        out.writeNullableInt(view.id());
+        out.writeString(view.title());
+        out.writeString(view.artist());
+        out.writeNullableInt(view.genreId());
+        out.writeNullableInt(view.releaseYear());
+        out.writeString(view.description());
+        out.writeString(view.coverUrl());
+        out.writeNullableInt(view.addedById());
+    }
+
+    @Override
+    public VinylView read(BinaryInput in) {
+        return new VinylView(
+                in.readNullableInt(),
+                in.readString(),
+                in.readString(),
+                in.readNullableInt(),
+                in.readNullableInt(),
+                in.readString(),
+                in.readString(),
+                in.readNullableInt());
+    }
+}
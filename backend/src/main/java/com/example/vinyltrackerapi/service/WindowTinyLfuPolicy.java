@@ -0,0 +1,179 @@
+package com.example.vinyltrackerapi.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * W-TinyLFU: маленькое LRU-окно для новых ключей и сегментированный LRU (probation/protected)
+ * для основной части. Кандидат из окна попадает в основную часть, только если по оценке
+ * {@link FrequencySketch} он популярнее жертвы из probation. Размеры сегментов считаются
+ * в весе записей, поэтому одна тяжёлая запись может вытеснить несколько лёгких.
+ */
+public class WindowTinyLfuPolicy implements EvictionPolicy {
+    private final long windowMaximum;
+    private final long mainMaximum;
+    private final long protectedMaximum;
+    private final FrequencySketch sketch;
+    private final LinkedHashSet<String> window = new LinkedHashSet<>();
+    private final LinkedHashSet<String> probation = new LinkedHashSet<>();
+    private final LinkedHashSet<String> protectedSegment = new LinkedHashSet<>();
+    private final Map<String, Long> weights = new HashMap<>();
+    private long windowWeight;
+    private long probationWeight;
+    private long protectedWeight;
+
+    public WindowTinyLfuPolicy(int maximumSize) {
+        this(maximumSize, maximumSize);
+    }
+
+    /**
+     * @param maximumWeight   суммарный допустимый вес
+     * @param expectedEntries ожидаемое число записей, по нему подбирается размер {@link FrequencySketch}
+     */
+    public WindowTinyLfuPolicy(long maximumWeight, int expectedEntries) {
+        // при весе 1 окно не нужно, иначе основной части не останется места
+        this.windowMaximum = maximumWeight > 1 ? Math.max(1, maximumWeight / 100) : 0;
+        this.mainMaximum = maximumWeight - windowMaximum;
+        this.protectedMaximum = mainMaximum * 80 / 100;
+        this.sketch = new FrequencySketch(expectedEntries);
+    }
+
+    @Override
+    public List<String> recordInsert(String key, long weight) {
+        sketch.increment(key);
+        if (weight > mainMaximum) {
+            return List.of(key);
+        }
+        weights.put(key, weight);
+        window.add(key);
+        windowWeight += weight;
+        return evictExcess();
+    }
+
+    @Override
+    public List<String> recordUpdate(String key, long weight) {
+        Long previous = weights.get(key);
+        if (previous == null) {
+            return recordInsert(key, weight);
+        }
+        if (weight > mainMaximum) {
+            recordRemove(key);
+            return List.of(key);
+        }
+        weights.put(key, weight);
+        addWeight(key, weight - previous);
+        recordAccess(key);
+        return evictExcess();
+    }
+
+    @Override
+    public void recordAccess(String key) {
+        sketch.increment(key);
+        if (window.remove(key)) {
+            window.add(key);
+        } else if (probation.remove(key)) {
+            long weight = weights.get(key);
+            probationWeight -= weight;
+            protectedSegment.add(key);
+            protectedWeight += weight;
+            while (protectedWeight > protectedMaximum && protectedSegment.size() > 1) {
+                String demoted = pollFirst(protectedSegment);
+                long demotedWeight = weights.get(demoted);
+                protectedWeight -= demotedWeight;
+                probation.add(demoted);
+                probationWeight += demotedWeight;
+            }
+        } else if (protectedSegment.remove(key)) {
+            protectedSegment.add(key);
+        }
+    }
+
+    @Override
+    public void recordRemove(String key) {
+        Long weight = weights.remove(key);
+        if (weight == null) {
+            return;
+        }
+        if (window.remove(key)) {
+            windowWeight -= weight;
+        } else if (probation.remove(key)) {
+            probationWeight -= weight;
+        } else if (protectedSegment.remove(key)) {
+            protectedWeight -= weight;
+        }
+    }
+
+    private List<String> evictExcess() {
+        List<String> evicted = new ArrayList<>();
+        while (windowWeight > windowMaximum) {
+            String candidate = pollFirst(window);
+            long candidateWeight = weights.get(candidate);
+            windowWeight -= candidateWeight;
+            admit(candidate, candidateWeight, evicted);
+        }
+        // запись, вес которой изменился уже в основной части, могла переполнить её
+        while (mainWeight() > mainMaximum) {
+            String victim = firstVictim();
+            recordRemove(victim);
+            evicted.add(victim);
+        }
+        return evicted;
+    }
+
+    // кандидат должен победить всех жертв, которые освобождают ему место, иначе не вытесняется никто
+    private void admit(String candidate, long candidateWeight, List<String> evicted) {
+        int candidateFrequency = sketch.frequency(candidate);
+        long excess = mainWeight() + candidateWeight - mainMaximum;
+        List<String> victims = new ArrayList<>();
+        Iterator<String> order = Stream.concat(probation.stream(), protectedSegment.stream()).iterator();
+        while (excess > 0) {
+            String victim = order.hasNext() ? order.next() : null;
+            if (victim == null || candidateFrequency <= sketch.frequency(victim)) {
+                weights.remove(candidate);
+                evicted.add(candidate);
+                return;
+            }
+            victims.add(victim);
+            excess -= weights.get(victim);
+        }
+        for (String victim : victims) {
+            recordRemove(victim);
+            evicted.add(victim);
+        }
+        probation.add(candidate);
+        probationWeight += candidateWeight;
+    }
+
+    private void addWeight(String key, long delta) {
+        if (window.contains(key)) {
+            windowWeight += delta;
+        } else if (probation.contains(key)) {
+            probationWeight += delta;
+        } else {
+            protectedWeight += delta;
+        }
+    }
+
+    private long mainWeight() {
+        return probationWeight + protectedWeight;
+    }
+
+    private String firstVictim() {
+        if (!probation.isEmpty()) {
+            return probation.iterator().next();
+        }
+        return protectedSegment.isEmpty() ? null : protectedSegment.iterator().next();
+    }
+
+    private static String pollFirst(LinkedHashSet<String> segment) {
+        Iterator<String> iterator = segment.iterator();
+        String first = iterator.next();
+        iterator.remove();
+        return first;
+    }
+}
@@ -0,0 +1,9 @@
+-- Составные индексы для keyset-пагинации: окно читается с места курсора (ключ, id)
+-- без OFFSET, а id из индекса позволяет обойтись без чтения строк таблицы.
+-- Применяются всегда, независимо от поиска через pg_trgm, и ведут свою историю миграций.
+
+CREATE INDEX IF NOT EXISTS vinyls_title_id_idx ON vinyls (title, id);
+CREATE INDEX IF NOT EXISTS vinyls_artist_id_idx ON vinyls (artist, id);
+CREATE INDEX IF NOT EXISTS vinyls_release_year_id_idx ON vinyls (release_year, id);
+CREATE INDEX IF NOT EXISTS vinyls_genre_id_id_idx ON vinyls (genre_id, id);
+CREATE INDEX IF NOT EXISTS vinyls_added_by_id_id_idx ON vinyls (added_by_id, id);
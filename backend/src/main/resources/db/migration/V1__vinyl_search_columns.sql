@@ -0,0 +1,29 @@
+-- Базовые таблицы создаёт Hibernate (ddl-auto=update), миграции применяются после него
+-- и добавляют только то, что Hibernate описать не умеет: расширения, функции, индексы.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+-- unaccent() объявлена STABLE, поэтому для генерируемых колонок нужна IMMUTABLE-обёртка
+-- с явно указанным словарём. ё приводится к е отдельно, чтобы не зависеть от версии правил.
+CREATE OR REPLACE FUNCTION vinyl_search_normalize(value text) RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE
+AS $$
+SELECT lower(translate(public.unaccent('public.unaccent'::regdictionary, coalesce(value, '')), 'Ёё', 'Ее'))
+$$;
+
+ALTER TABLE vinyls
+    ADD COLUMN IF NOT EXISTS search_title text
+        GENERATED ALWAYS AS (vinyl_search_normalize(title)) STORED,
+    ADD COLUMN IF NOT EXISTS search_artist text
+        GENERATED ALWAYS AS (vinyl_search_normalize(artist)) STORED,
+    ADD COLUMN IF NOT EXISTS search_document tsvector
+        GENERATED ALWAYS AS (
+            setweight(to_tsvector('simple', vinyl_search_normalize(title)), 'A')
+                || setweight(to_tsvector('simple', vinyl_search_normalize(artist)), 'A')
+                || setweight(to_tsvector('simple', vinyl_search_normalize(description)), 'C')
+        ) STORED;
+
+CREATE INDEX IF NOT EXISTS vinyls_search_title_trgm_idx ON vinyls USING gin (search_title gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS vinyls_search_artist_trgm_idx ON vinyls USING gin (search_artist gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS vinyls_search_document_idx ON vinyls USING gin (search_document);
@@ -0,0 +1,70 @@
+package com.example.vinyltrackerapi.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.vinyltrackerapi.api.dto.VinylView;
+import com.example.vinyltrackerapi.service.CacheService;
+import com.example.vinyltrackerapi.service.OffHeapList;
+import com.example.vinyltrackerapi.service.OffHeapListCache;
+import com.example.vinyltrackerapi.service.VinylViewCodec;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Сколько кучи удерживает кеш результатов поиска в обычном и в off-heap варианте.
+ * Запуск: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.example.vinyltrackerapi.benchmark.CacheFootprintComparison}
+ */
+public final class CacheFootprintComparison {
+    private static final int KEYS = 1000;
+    private static final int RESULT_SIZE = 50;
+
+    private CacheFootprintComparison() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    public static void main(String[] args) {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        long baseline = usedHeap();
+        CacheService<OffHeapList<VinylView>> region =
+                new CacheService<>(SearchCacheBenchmark.settings("off-heap", KEYS));
+        OffHeapListCache<VinylView> offHeap =
+                new OffHeapListCache<>(region, VinylViewCodec.INSTANCE, true);
+        fillOffHeap(offHeap);
+        long offHeapHeapBytes = usedHeap() - baseline;
+
+        baseline = usedHeap();
+        CacheService<List<VinylView>> onHeap = new CacheService<>(SearchCacheBenchmark.settings("on-heap", KEYS));
+        fillOnHeap(onHeap);
+        long onHeapBytes = usedHeap() - baseline;
+
+        System.out.printf("Записей: %d x %d пластинок%n", KEYS, RESULT_SIZE);
+        System.out.printf("on-heap:  куча %,d байт%n", onHeapBytes);
+        System.out.printf("off-heap: куча %,d байт, вне кучи %,d байт%n", offHeapHeapBytes, offHeap.usedBytes());
+        onHeap.shutdown();
+        region.shutdown();
+    }
+
+    private static void fillOnHeap(CacheService<List<VinylView>> cache) {
+        for (int i = 0; i < KEYS; i++) {
+            cache.put(SearchCacheBenchmark.key(i), CatalogSamples.searchResult(i, RESULT_SIZE));
+        }
+    }
+
+    private static void fillOffHeap(OffHeapListCache<VinylView> cache) {
+        for (int i = 0; i < KEYS; i++) {
+            int seed = i;
+            cache.get(SearchCacheBenchmark.key(i), () -> CatalogSamples.searchResult(seed, RESULT_SIZE));
+        }
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.vinyltrackerapi.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.vinyltrackerapi.api.dto.VinylDto;
+import com.example.vinyltrackerapi.api.dto.VinylView;
+import com.example.vinyltrackerapi.api.models.Vinyl;
+import com.example.vinyltrackerapi.service.CacheService;
+import com.example.vinyltrackerapi.service.CatalogSnapshot;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Аллокации на одно попадание в кеш: сущности с маппингом в DTO против готовых представлений.
+ * Смотреть на {@code gc.alloc.rate.norm}.
+ * Запуск: {@code mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ * -Dexec.args="-cp %classpath org.openjdk.jmh.Main CacheHitAllocationBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheHitAllocationBenchmark {
+    private static final String KEY_ALL = "all-vinyls";
+
+    @Param({"100", "1000"})
+    private int catalogSize;
+
+    private CacheService<CatalogSnapshot<Vinyl>> entityCatalog;
+    private CacheService<CatalogSnapshot<VinylView>> viewCatalog;
+    private CacheService<Vinyl> entityById;
+    private CacheService<VinylView> viewById;
+
+    @Setup
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        List<Vinyl> entities = CatalogSamples.entities(0, catalogSize);
+        List<VinylView> views = entities.stream().map(VinylView::of).toList();
+
+        entityCatalog = new CacheService<>(SearchCacheBenchmark.settings("entity-catalog", 1));
+        viewCatalog = new CacheService<>(SearchCacheBenchmark.settings("view-catalog", 1));
+        entityCatalog.put(KEY_ALL, CatalogSnapshot.of(entities, Vinyl::getId));
+        viewCatalog.put(KEY_ALL, CatalogSnapshot.of(views, VinylView::id));
+
+        entityById = new CacheService<>(SearchCacheBenchmark.settings("entity-by-id", catalogSize));
+        viewById = new CacheService<>(SearchCacheBenchmark.settings("view-by-id", catalogSize));
+        for (int i = 0; i < catalogSize; i++) {
+            entityById.put(key(i), entities.get(i));
+            viewById.put(key(i), views.get(i));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityCatalog.shutdown();
+        viewCatalog.shutdown();
+        entityById.shutdown();
+        viewById.shutdown();
+    }
+
+    @Benchmark
+    public List<VinylDto> catalogEntityHit() {
+        return entityCatalog.get(KEY_ALL).values().stream().map(VinylDto::new).toList();
+    }
+
+    @Benchmark
+    public List<VinylView> catalogViewHit() {
+        return viewCatalog.get(KEY_ALL).values();
+    }
+
+    @Benchmark
+    public VinylDto byIdEntityHit() {
+        return new VinylDto(entityById.get(key(ThreadLocalRandom.current().nextInt(catalogSize))));
+    }
+
+    @Benchmark
+    public VinylView byIdViewHit() {
+        return viewById.get(key(ThreadLocalRandom.current().nextInt(catalogSize)));
+    }
+
+    private static String key(int i) {
+        return "vinyl-" + i;
+    }
+}
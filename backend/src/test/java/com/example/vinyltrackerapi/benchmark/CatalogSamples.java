@@ -0,0 +1,47 @@
+package com.example.vinyltrackerapi.benchmark;
+
+import com.example.vinyltrackerapi.api.dto.VinylView;
+import com.example.vinyltrackerapi.api.models.Genre;
+import com.example.vinyltrackerapi.api.models.User;
+import com.example.vinyltrackerapi.api.models.Vinyl;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+final class CatalogSamples {
+    private CatalogSamples() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    static List<VinylView> searchResult(int seed, int size) {
+        Random random = new Random(seed);
+        List<VinylView> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int id = seed * size + i;
+            result.add(new VinylView(id,
+                    "Album title number " + id,
+                    "Artist " + random.nextInt(500),
+                    1 + random.nextInt(20),
+                    1950 + random.nextInt(75),
+                    "Описание пластинки " + id + " с немного более длинным текстом для реалистичного размера",
+                    "https://covers.example.com/" + id + ".jpg",
+                    random.nextBoolean() ? random.nextInt(1000) : null));
+        }
+        return result;
+    }
+
+    // те же данные в виде сущностей, как их раньше держал кеш
+    static List<Vinyl> entities(int seed, int size) {
+        List<Vinyl> result = new ArrayList<>(size);
+        for (VinylView view : searchResult(seed, size)) {
+            User addedBy = null;
+            if (view.addedById() != null) {
+                addedBy = new User();
+                addedBy.setId(view.addedById());
+            }
+            result.add(new Vinyl(view.id(), view.title(), view.artist(), new Genre(view.genreId(), "Genre"),
+                    view.releaseYear(), view.description(), view.coverUrl(), addedBy));
+        }
+        return result;
+    }
+}
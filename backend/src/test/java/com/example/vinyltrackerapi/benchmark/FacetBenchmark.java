@@ -0,0 +1,90 @@
+package com.example.vinyltrackerapi.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.vinyltrackerapi.api.dto.FacetFilter;
+import com.example.vinyltrackerapi.api.models.Vinyl;
+import com.example.vinyltrackerapi.service.CatalogFacets;
+import com.example.vinyltrackerapi.service.InProcessInvalidationBus;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Время страницы каталога со счётчиками фасетов на 100 000 пластинок (20 жанров, 75 лет,
+ * 1000 загрузивших) и цена одной записи, которая копирует затронутые множества.
+ * Запуск: {@code mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ * -Dexec.args="-cp %classpath org.openjdk.jmh.Main FacetBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FacetBenchmark {
+    private static final int CATALOG_SIZE = 100_000;
+    private static final Map<String, FacetFilter> FILTERS = Map.of(
+            "none", new FacetFilter(null, null, null, null, null),
+            "genres-decades", new FacetFilter(Set.of(1, 2, 3), null, null, Set.of(1970, 1980), null),
+            "all-facets", new FacetFilter(Set.of(4), 1960, 1999, null, Set.of(1, 2, 3, 4, 5)));
+
+    @Param({"none", "genres-decades", "all-facets"})
+    private String filter;
+
+    private InProcessInvalidationBus bus;
+    private CatalogFacets facets;
+    private Vinyl updated;
+    private int round;
+
+    @Setup
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        bus = new InProcessInvalidationBus(Duration.ofSeconds(1));
+        facets = new CatalogFacets(null, Runnable::run, bus);
+        for (int seed = 0; seed < CATALOG_SIZE / 1000; seed++) {
+            facets.apply(CatalogSamples.entities(seed, 1000), List.of());
+        }
+        updated = CatalogSamples.entities(0, 1).get(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        bus.shutdown();
+    }
+
+    @Benchmark
+    public CatalogFacets.Selection pageById() {
+        return facets.select(FILTERS.get(filter), PageRequest.of(50, 20));
+    }
+
+    @Benchmark
+    public CatalogFacets.Selection pageByYear() {
+        Pageable pageable = PageRequest.of(50, 20, Sort.by("releaseYear").descending());
+        return facets.select(FILTERS.get(filter), pageable);
+    }
+
+    @Benchmark
+    public void update() {
+        updated.setReleaseYear(1950 + round++ % 75);
+        facets.apply(List.of(updated), List.of());
+    }
+}
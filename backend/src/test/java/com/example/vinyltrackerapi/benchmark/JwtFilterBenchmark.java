@@ -0,0 +1,126 @@
+package com.example.vinyltrackerapi.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.vinyltrackerapi.api.dto.UserView;
+import com.example.vinyltrackerapi.api.dto.VerifiedToken;
+import com.example.vinyltrackerapi.api.filters.JwtAuthenticationFilter;
+import com.example.vinyltrackerapi.api.models.Role;
+import com.example.vinyltrackerapi.api.models.User;
+import com.example.vinyltrackerapi.api.utils.JwtUtil;
+import com.example.vinyltrackerapi.service.CacheService;
+import com.example.vinyltrackerapi.service.UserService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Путь запроса через {@link JwtAuthenticationFilter}: токен из кэша проверенных, первый запрос
+ * с токеном (один разбор и проверка подписи) и прежняя схема с четырьмя разборами и ключом,
+ * который строился заново на каждый вызов.
+ * Запуск: {@code mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ * -Dexec.args="-cp %classpath org.openjdk.jmh.Main JwtFilterBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark";
+    private static final FilterChain NOOP_CHAIN = (request, response) -> { };
+
+    private CacheService<VerifiedToken> tokenCache;
+    private CacheService<UserView> userCache;
+    private CacheService<Boolean> userMissingCache;
+    private JwtAuthenticationFilter filter;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        tokenCache = new CacheService<>(SearchCacheBenchmark.settings("jwt-verified", 1000));
+        userCache = new CacheService<>(SearchCacheBenchmark.settings("user", 10));
+        userMissingCache = new CacheService<>(SearchCacheBenchmark.settings("user-missing", 10));
+
+        Role role = new Role();
+        role.setId(2);
+        role.setName("USER");
+        User user = new User();
+        user.setId(7);
+        user.setUsername("listener");
+        user.setEmail("listener@example.com");
+        user.setRole(role);
+        // пользователь уже в кэше, как на горячем пути: репозиторий не нужен
+        userCache.put("user-7", UserView.of(user));
+
+        JwtUtil jwtUtil = new JwtUtil(SECRET, tokenCache);
+        UserService userService = new UserService(null, userCache, userMissingCache, null, null, null, null, null);
+        filter = new JwtAuthenticationFilter(userService, jwtUtil);
+        token = jwtUtil.generateToken(user);
+    }
+
+    @TearDown
+    public void tearDown() {
+        tokenCache.shutdown();
+        userCache.shutdown();
+        userMissingCache.shutdown();
+    }
+
+    @Benchmark
+    public Authentication cachedToken() throws ServletException, IOException {
+        return authenticate();
+    }
+
+    @Benchmark
+    public Authentication firstRequestWithToken() throws ServletException, IOException {
+        tokenCache.invalidateAll();
+        return authenticate();
+    }
+
+    @Benchmark
+    public String legacyFourParses() {
+        String subject = parse(token).getSubject();
+        boolean valid = subject.equals(parse(token).getSubject()) && parse(token).getExpiration().after(new Date());
+        return valid ? parse(token).get("role", String.class) : null;
+    }
+
+    private Authentication authenticate() throws ServletException, IOException {
+        // OncePerRequestFilter помечает запрос, поэтому каждый раз новый
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/user/user-vinyls");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), NOOP_CHAIN);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    private static Claims parse(String jwt) {
+        Key key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(jwt).getBody();
+    }
+}
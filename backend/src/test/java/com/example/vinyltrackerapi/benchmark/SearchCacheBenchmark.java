@@ -0,0 +1,88 @@
+package com.example.vinyltrackerapi.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.vinyltrackerapi.api.dto.VinylView;
+import com.example.vinyltrackerapi.service.CacheRegionSettings;
+import com.example.vinyltrackerapi.service.CacheService;
+import com.example.vinyltrackerapi.service.EvictionPolicyType;
+import com.example.vinyltrackerapi.service.OffHeapList;
+import com.example.vinyltrackerapi.service.OffHeapListCache;
+import com.example.vinyltrackerapi.service.VinylViewCodec;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Сравнение попадания в обычный регион и в off-heap уровень для результатов поиска.
+ * Запуск: {@code mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ * -Dexec.args="-cp %classpath org.openjdk.jmh.Main SearchCacheBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchCacheBenchmark {
+    private static final int KEYS = 200;
+
+    @Param({"20", "200"})
+    private int resultSize;
+
+    private CacheService<List<VinylView>> onHeap;
+    private CacheService<OffHeapList<VinylView>> offHeapRegion;
+    private OffHeapListCache<VinylView> offHeap;
+
+    @Setup
+    public void setUp() {
+        // отладочный лог каждого попадания иначе измерялся бы вместо самого кеша
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        onHeap = new CacheService<>(settings("on-heap", KEYS));
+        offHeapRegion = new CacheService<>(settings("off-heap", KEYS));
+        offHeap = new OffHeapListCache<>(offHeapRegion, VinylViewCodec.INSTANCE, true);
+        for (int i = 0; i < KEYS; i++) {
+            List<VinylView> result = CatalogSamples.searchResult(i, resultSize);
+            onHeap.put(key(i), result);
+            offHeap.get(key(i), () -> result);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        onHeap.shutdown();
+        offHeapRegion.shutdown();
+    }
+
+    @Benchmark
+    public List<VinylView> onHeapHit() {
+        return onHeap.get(key(ThreadLocalRandom.current().nextInt(KEYS)));
+    }
+
+    @Benchmark
+    public List<VinylView> offHeapHit() {
+        return offHeap.get(key(ThreadLocalRandom.current().nextInt(KEYS)), List::of);
+    }
+
+    static CacheRegionSettings settings(String name, int maxSize) {
+        return new CacheRegionSettings(name, Duration.ofHours(1), maxSize, EvictionPolicyType.TINY_LFU);
+    }
+
+    static String key(int i) {
+        return "search-vinyl-text-" + i;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.vinyltrackerapi.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.vinyltrackerapi.api.dto.SuggestionView;
+import com.example.vinyltrackerapi.service.CatalogSuggester;
+import com.example.vinyltrackerapi.service.InProcessInvalidationBus;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Распределение времени ответа автодополнения на каталоге из 50 000 пластинок. Все названия
+ * начинаются с «Album», поэтому короткий префикс проходит самый длинный диапазон ключей.
+ * Запуск: {@code mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+ * -Dexec.args="-cp %classpath org.openjdk.jmh.Main SuggestBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SuggestBenchmark {
+    private static final int CATALOG_SIZE = 50_000;
+
+    @Param({"a", "album title number 4", "artist 12"})
+    private String prefix;
+
+    private InProcessInvalidationBus bus;
+    private CatalogSuggester suggester;
+
+    @Setup
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+        bus = new InProcessInvalidationBus(Duration.ofSeconds(1));
+        suggester = new CatalogSuggester(null, Runnable::run, bus);
+        for (int seed = 0; seed < CATALOG_SIZE / 1000; seed++) {
+            suggester.apply(CatalogSamples.entities(seed, 1000), List.of());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        bus.shutdown();
+    }
+
+    @Benchmark
+    public List<SuggestionView> suggest() {
+        return suggester.suggest(prefix, 10);
+    }
+}
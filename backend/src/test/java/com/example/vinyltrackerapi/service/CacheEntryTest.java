@@ -27,4 +27,22 @@ class CacheEntryTest {
 
         assertThat(entry.getTimestamp()).isGreaterThan(originalTimestamp);
     }
+
+    @Test
+    void isExpired_shouldUseEntryOwnExpiration() {
+        CacheEntry<String> entry = new CacheEntry<>("test", 10, 1000);
+
+        assertThat(entry.isExpired(entry.getTimestamp() + 1000)).isFalse();
+        assertThat(entry.isExpired(entry.getTimestamp() + 1001)).isTrue();
+        assertThat(entry.getWriteTimestamp()).isEqualTo(entry.getTimestamp());
+    }
+
+    @Test
+    void getDeadline_shouldNotOverflowForEntriesWithoutExpiration() {
+        CacheEntry<String> entry = new CacheEntry<>("test");
+        CacheEntry<String> expiring = new CacheEntry<>("test", 10, 1000);
+
+        assertThat(entry.getDeadline()).isEqualTo(Long.MAX_VALUE);
+        assertThat(expiring.getDeadline()).isEqualTo(expiring.getTimestamp() + 1000);
+    }
 }
@@ -0,0 +1,90 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.VinylTrackerApiApplication;
+import com.example.vinyltrackerapi.api.dto.VinylDto;
+import com.example.vinyltrackerapi.api.dto.VinylView;
+import com.example.vinyltrackerapi.api.models.Genre;
+import com.example.vinyltrackerapi.api.models.Vinyl;
+import com.example.vinyltrackerapi.api.repositories.GenreRepository;
+import com.example.vinyltrackerapi.api.repositories.VinylRepository;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Два экземпляра приложения над одной БД: запись через первый узел должна сбросить
+ * устаревшие записи кеша второго узла через LISTEN/NOTIFY.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class CacheInvalidationConvergenceTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+
+    @BeforeEach
+    void setUp() {
+        nodeA = startNode();
+        nodeB = startNode();
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(VinylTrackerApiApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=" + POSTGRES.getJdbcUrl(),
+                "--spring.datasource.username=" + POSTGRES.getUsername(),
+                "--spring.datasource.password=" + POSTGRES.getPassword(),
+                "--spring.jpa.show-sql=false",
+                "--jwt.secret=" + "c".repeat(64),
+                "--cache.invalidation.transport=postgres",
+                "--cache.invalidation.flush-interval=20ms");
+    }
+
+    @Test
+    void updateOnOneNode_shouldEvictStaleEntriesOnOtherNode() throws InterruptedException {
+        nodeA.getBean(GenreRepository.class).save(new Genre(1, "Рок"));
+        nodeA.getBean(GenreService.class).loadGenres();
+        Vinyl vinyl = new Vinyl();
+        vinyl.setTitle("Группа крови");
+        vinyl.setArtist("Кино");
+        vinyl.setReleaseYear(1988);
+        vinyl.setGenre(new Genre(1, "Рок"));
+        Integer id = nodeA.getBean(VinylRepository.class).save(vinyl).getId();
+
+        VinylService serviceA = nodeA.getBean(VinylService.class);
+        VinylService serviceB = nodeB.getBean(VinylService.class);
+        assertThat(serviceB.getVinylView(id).title()).isEqualTo("Группа крови");
+        assertThat(serviceB.getAllVinyls()).extracting(VinylView::title).containsExactly("Группа крови");
+        assertThat(serviceB.searchVinylsGlobal("звезда")).isEmpty();
+
+        serviceA.updateVinyl(id, new VinylDto(id, "Звезда по имени Солнце", "Кино", 1, 1989, null, null, null));
+
+        awaitTrue(() -> "Звезда по имени Солнце".equals(serviceB.getVinylView(id).title()));
+        assertThat(serviceB.getAllVinyls()).extracting(VinylView::title).containsExactly("Звезда по имени Солнце");
+        assertThat(serviceB.searchVinylsGlobal("звезда")).extracting(VinylView::id).containsExactly(id);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("узлы не сошлись за 10 секунд").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.configs.CacheProperties;
+import com.example.vinyltrackerapi.api.dto.CacheStatsDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheRegionManagerTest {
+
+    private CacheRegionManager manager;
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        CacheProperties properties = new CacheProperties();
+        CacheProperties.Region vinyl = new CacheProperties.Region();
+        vinyl.setMaxSize(2);
+        vinyl.setPolicy(EvictionPolicyType.LRU);
+        properties.getRegions().put("vinyl", vinyl);
+        properties.getDefaults().setTtl(Duration.ofMinutes(5));
+        meterRegistry = new SimpleMeterRegistry();
+        manager = new CacheRegionManager(properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.shutdown();
+    }
+
+    @Test
+    void getRegion_shouldReturnSameInstanceForSameName() {
+        CacheService<String> first = manager.getRegion("vinyl");
+        CacheService<String> second = manager.getRegion("vinyl");
+
+        assertThat(first).isSameAs(second);
+        assertThat(first.getName()).isEqualTo("vinyl");
+    }
+
+    @Test
+    void regions_shouldNotShareEntriesOrCapacity() {
+        CacheService<String> vinyls = manager.getRegion("vinyl");
+        CacheService<String> users = manager.getRegion("user");
+
+        users.put("user-1", "u");
+        vinyls.put("vinyl-1", "a");
+        vinyls.put("vinyl-2", "b");
+        vinyls.put("vinyl-3", "c");
+
+        assertThat(vinyls.size()).isEqualTo(2);
+        assertThat(vinyls.contains("vinyl-1")).isFalse();
+        assertThat(users.get("user-1")).isEqualTo("u");
+        assertThat(vinyls.contains("user-1")).isFalse();
+        assertThat(manager.getRegions()).hasSize(2);
+    }
+
+    @Test
+    void resolve_shouldFallBackToDefaults() {
+        CacheProperties properties = new CacheProperties();
+        properties.getDefaults().setMaxSize(7);
+
+        CacheRegionSettings settings = properties.resolve("unknown");
+
+        assertThat(settings.maxSize()).isEqualTo(7);
+        assertThat(settings.ttl()).isEqualTo(CacheRegionSettings.DEFAULT.ttl());
+        assertThat(settings.policy()).isEqualTo(EvictionPolicyType.TINY_LFU);
+        assertThat(settings.isWeighted()).isFalse();
+    }
+
+    @Test
+    void resolve_shouldApplyRegionByteBudgetOverDefault() {
+        CacheProperties properties = new CacheProperties();
+        properties.getDefaults().setMaxBytes(DataSize.ofMegabytes(16));
+        CacheProperties.Region region = new CacheProperties.Region();
+        region.setMaxBytes(DataSize.ofMegabytes(96));
+        properties.getRegions().put("vinyl-list", region);
+
+        assertThat(properties.resolve("vinyl-list").maxBytes()).isEqualTo(DataSize.ofMegabytes(96).toBytes());
+        assertThat(properties.resolve("user").maxBytes()).isEqualTo(DataSize.ofMegabytes(16).toBytes());
+    }
+
+    @Test
+    void getRegion_shouldExportMicrometerMeters() {
+        CacheService<String> vinyls = manager.getRegion("vinyl");
+        vinyls.put("vinyl-1", "a");
+        vinyls.get("vinyl-1");
+        vinyls.get("vinyl-2");
+
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "vinyl").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "vinyl").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("cache.size").tag("cache", "vinyl").gauge().value()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("cache.estimated.bytes").tag("cache", "vinyl").gauge().value())
+                .isPositive();
+    }
+
+    @Test
+    void getSummary_shouldReportEvictionsByCause() {
+        CacheService<String> vinyls = manager.getRegion("vinyl");
+        vinyls.put("vinyl-1", "a");
+        vinyls.put("vinyl-2", "b");
+        vinyls.put("vinyl-3", "c");
+        vinyls.remove("vinyl-3");
+
+        List<CacheStatsDto> summary = manager.getSummary();
+
+        assertThat(summary).hasSize(1);
+        CacheStatsDto dto = summary.get(0);
+        assertThat(dto.getRegion()).isEqualTo("vinyl");
+        assertThat(dto.getPuts()).isEqualTo(3);
+        assertThat(dto.getEvictions().get(RemovalCause.SIZE)).isEqualTo(1);
+        assertThat(dto.getEvictions().get(RemovalCause.EXPLICIT)).isEqualTo(1);
+        assertThat(dto.getSize()).isEqualTo(1);
+    }
+}
@@ -4,12 +4,21 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import java.lang.reflect.Field;
-import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.assertj.core.api.AssertionsForClassTypes.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class CacheServiceTest {
 
@@ -30,12 +39,42 @@ class CacheServiceTest {
         cacheService.put("keyRefresh", "valueRefresh");
 
         long before = getEntryTimestamp();
+        while (System.currentTimeMillis() <= before) {
+            Thread.onSpinWait();
+        }
         cacheService.get("keyRefresh");
         long after = getEntryTimestamp();
 
         assertThat(after).isGreaterThan(before);
     }
 
+    @Test
+    void get_shouldNotExtendEntryThatExpiresAfterWrite() throws Exception {
+        cacheService.shutdown();
+        cacheService = new CacheService<>(new CacheRegionSettings("missing", Duration.ofMinutes(1), 100,
+                EvictionPolicyType.LRU, 0, null, 0.0, true));
+        cacheService.put("keyRefresh", "valueRefresh");
+
+        long before = getEntryTimestamp();
+        while (System.currentTimeMillis() <= before) {
+            Thread.onSpinWait();
+        }
+        cacheService.get("keyRefresh");
+
+        assertThat(getEntryTimestamp()).isEqualTo(before);
+    }
+
+    @Test
+    void putIfNotRemovedSince_shouldSkipValueReadBeforeRemoval() {
+        long mark = cacheService.removalMark();
+        cacheService.remove("key");
+
+        assertThat(cacheService.putIfNotRemovedSince("key", "stale", mark)).isFalse();
+        assertThat(cacheService.get("key")).isNull();
+        assertThat(cacheService.putIfNotRemovedSince("key", "fresh", cacheService.removalMark())).isTrue();
+        assertThat(cacheService.get("key")).isEqualTo("fresh");
+    }
+
     @Test
     void cleanUp_shouldRemoveExpiredEntries() throws Exception {
         cacheService.put("oldKey", "oldValue");
@@ -89,20 +128,41 @@ class CacheServiceTest {
     }
 
     @Test
-    void shutdown_shouldInterruptIfNotTerminated() {
-        CacheService<String> localCache = new CacheService<>() {
-            @Override
-            public void shutdown() {
-                scheduler.shutdown();
-                Thread.currentThread().interrupt();
-                super.shutdown();
-            }
-        };
+    void shutdown_shouldStopOnlyOwnExpiryTask() {
+        CacheService<String> other = new CacheService<>();
+        try {
+            cacheService.shutdown();
 
-        localCache.put("interruptKey", "value");
-        localCache.shutdown();
+            assertThat(cacheService.isExpiryScheduled()).isFalse();
+            assertThat(other.isExpiryScheduled()).isTrue();
+        } finally {
+            other.shutdown();
+        }
+    }
+
+    @Test
+    void get_shouldNotReturnExpiredEntryBeforeCleanUp() throws Exception {
+        cacheService.put("oldKey", "oldValue");
+        setTimestamp(getEntry("oldKey"), System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(31));
 
-        assertThat(Thread.interrupted()).isTrue();
+        assertThat(cacheService.contains("oldKey")).isFalse();
+        assertThat(cacheService.get("oldKey")).isNull();
+        assertThat(cacheService.get("oldKey", () -> "reloaded")).isEqualTo("reloaded");
+        assertThat(cacheService.getStats().missCount()).isEqualTo(2);
+    }
+
+    @Test
+    void cleanUp_shouldRemoveEntryWhenItsTimerFires() {
+        cacheService.shutdown();
+        cacheService = new CacheService<>(new CacheRegionSettings("short", Duration.ofMillis(1), 100,
+                EvictionPolicyType.TINY_LFU));
+        cacheService.put("key", "value");
+
+        waitMillis(1_100);
+        cacheService.cleanUp();
+
+        assertThat(cacheService.size()).isZero();
+        assertThat(cacheService.getStats().evictionCount(RemovalCause.EXPIRED)).isEqualTo(1);
     }
 
     @SuppressWarnings("unchecked")
@@ -124,14 +184,204 @@ class CacheServiceTest {
     }
 
     @Test
-    void removeOldestEntryWhenEmpty_shouldNotThrow() throws Exception {
-        Method method = CacheService.class.getDeclaredMethod("removeOldestEntry");
-        method.setAccessible(true);
+    void put_shouldKeepSizeBoundUnderConcurrentWrites() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 500; i++) {
+                    cacheService.put("key-" + thread + "-" + i, "value");
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
 
-        assertThatCode(() -> method.invoke(cacheService))
-                .doesNotThrowAnyException();
+        assertThat(cacheService.size()).isLessThanOrEqualTo(100);
     }
 
+    @Test
+    void frequentlyReadEntry_shouldSurviveOneOffKeys() {
+        cacheService.put("vinyl-1", "hot");
+        for (int i = 0; i < 5; i++) {
+            cacheService.get("vinyl-1");
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            cacheService.put("search-vinyl-text-" + i, "cold");
+        }
+
+        assertThat(cacheService.get("vinyl-1")).isEqualTo("hot");
+        assertThat(cacheService.size()).isEqualTo(100);
+    }
+
+    @Test
+    void remove_shouldFreeSlotForNewEntry() {
+        for (int i = 0; i < 100; i++) {
+            cacheService.put("key" + i, "value" + i);
+        }
+        cacheService.remove("key0");
+        cacheService.put("fresh", "value");
+
+        assertThat(cacheService.contains("fresh")).isTrue();
+        assertThat(cacheService.size()).isEqualTo(100);
+    }
+
+    @Test
+    void weightedRegion_shouldKeepEstimatedBytesWithinBudget() {
+        CacheService<String> weighted = new CacheService<>(new CacheRegionSettings("weighted",
+                Duration.ofMinutes(30), 100, EvictionPolicyType.TINY_LFU, 10_000));
+        String large = "x".repeat(1000);
+        for (int i = 0; i < 100; i++) {
+            weighted.put("key" + i, large);
+        }
+
+        assertThat(weighted.estimatedBytes()).isLessThanOrEqualTo(10_000);
+        assertThat(weighted.size()).isLessThan(10);
+        weighted.shutdown();
+    }
+
+    @Test
+    void weightedRegion_shouldRejectValueLargerThanBudget() {
+        CacheService<String> weighted = new CacheService<>(new CacheRegionSettings("weighted",
+                Duration.ofMinutes(30), 100, EvictionPolicyType.LRU, 1_000));
+        weighted.put("small", "s");
+
+        weighted.put("huge", "x".repeat(1000));
+
+        assertThat(weighted.contains("huge")).isFalse();
+        assertThat(weighted.contains("small")).isTrue();
+        weighted.shutdown();
+    }
+
+    @Test
+    void weightedRegion_shouldEvictWhenExistingValueGrows() {
+        CacheService<String> weighted = new CacheService<>(new CacheRegionSettings("weighted",
+                Duration.ofMinutes(30), 100, EvictionPolicyType.LRU, 1_000));
+        weighted.put("a", "x".repeat(200));
+        weighted.put("b", "x".repeat(200));
+
+        weighted.put("b", "x".repeat(400));
+
+        assertThat(weighted.contains("a")).isFalse();
+        assertThat(weighted.contains("b")).isTrue();
+        assertThat(weighted.estimatedBytes()).isLessThanOrEqualTo(1_000);
+        weighted.shutdown();
+    }
+
+    @Test
+    void getWithLoader_shouldServeStaleValueWhileRefreshingInBackground() {
+        List<Runnable> tasks = new ArrayList<>();
+        CacheService<String> refreshing = new CacheService<>(refreshAheadSettings(), tasks::add);
+        refreshing.put("all-vinyls", "old");
+        waitMillis(5);
+
+        String first = refreshing.get("all-vinyls", () -> "new");
+        String second = refreshing.get("all-vinyls", () -> "newer");
+
+        assertThat(first).isEqualTo("old");
+        assertThat(second).isEqualTo("old");
+        assertThat(tasks).hasSize(1);
+
+        tasks.get(0).run();
+
+        assertThat(refreshing.get("all-vinyls")).isEqualTo("new");
+        assertThat(refreshing.getStats().loadCount()).isEqualTo(1);
+        refreshing.shutdown();
+    }
+
+    @Test
+    void refresh_shouldNotRestoreKeyRemovedDuringReload() {
+        List<Runnable> tasks = new ArrayList<>();
+        CacheService<String> refreshing = new CacheService<>(refreshAheadSettings(), tasks::add);
+        refreshing.put("vinyl-1", "old");
+        waitMillis(5);
+        refreshing.get("vinyl-1", () -> "reloaded");
+
+        refreshing.remove("vinyl-1");
+        tasks.get(0).run();
+
+        assertThat(refreshing.contains("vinyl-1")).isFalse();
+        refreshing.shutdown();
+    }
+
+    @Test
+    void refresh_shouldKeepOldValueWhenReloadFails() {
+        List<Runnable> tasks = new ArrayList<>();
+        CacheService<String> refreshing = new CacheService<>(refreshAheadSettings(), tasks::add);
+        refreshing.put("vinyl-1", "old");
+        waitMillis(5);
+        refreshing.get("vinyl-1", () -> {
+            throw new IllegalStateException("db down");
+        });
+
+        tasks.get(0).run();
+
+        assertThat(refreshing.get("vinyl-1")).isEqualTo("old");
+        assertThat(refreshing.getStats().loadFailureCount()).isEqualTo(1);
+        refreshing.shutdown();
+    }
+
+    @Test
+    void put_shouldSpreadExpirationWithJitter() throws Exception {
+        cacheService.shutdown();
+        cacheService = new CacheService<>(new CacheRegionSettings("jitter", Duration.ofMinutes(10), 100,
+                EvictionPolicyType.TINY_LFU, 0, null, 0.2));
+        Set<Long> expirations = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            cacheService.put("key" + i, "value");
+            expirations.add(getEntry("key" + i).getExpireAfterMs());
+        }
+
+        assertThat(expirations).hasSizeGreaterThan(1)
+                .allSatisfy(ms -> assertThat(ms).isBetween(TimeUnit.MINUTES.toMillis(8),
+                        TimeUnit.MINUTES.toMillis(12)));
+    }
+
+    private static CacheRegionSettings refreshAheadSettings() {
+        return new CacheRegionSettings("refresh", Duration.ofMinutes(30), 100, EvictionPolicyType.TINY_LFU,
+                0, Duration.ofMillis(1), 0.0);
+    }
+
+    private static void waitMillis(long millis) {
+        long until = System.currentTimeMillis() + millis;
+        while (System.currentTimeMillis() <= until) {
+            Thread.onSpinWait();
+        }
+    }
+
+    @Test
+    void update_shouldReplaceCachedValueAtomically() {
+        cacheService.put("all-vinyls", "a");
+
+        cacheService.update("all-vinyls", value -> value + "b");
+
+        assertThat(cacheService.get("all-vinyls")).isEqualTo("ab");
+    }
+
+    @Test
+    void update_shouldCancelInFlightLoadWhenValueIsMissing() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<String> load = executor.submit(() -> cacheService.get("all-vinyls", () -> {
+            loading.countDown();
+            await(release);
+            return "before-write";
+        }));
+        await(loading);
+
+        cacheService.update("all-vinyls", value -> value + "patched");
+        release.countDown();
+
+        assertThat(load.get(5, TimeUnit.SECONDS)).isEqualTo("before-write");
+        assertThat(cacheService.contains("all-vinyls")).isFalse();
+        executor.shutdown();
+    }
 
     @Test
     void cleanUpNothingToCleanUp() {
@@ -140,4 +390,90 @@ class CacheServiceTest {
         assertThat(cacheService.contains("freshKey")).isTrue();
     }
 
+    @Test
+    void getWithLoader_shouldLoadOncePerKeyForConcurrentCallers() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<String>> results = new ArrayList<>();
+
+        results.add(executor.submit(() -> cacheService.get("all-vinyls", () -> {
+            loads.incrementAndGet();
+            loaderStarted.countDown();
+            await(releaseLoader);
+            return "loaded";
+        })));
+        assertThat(loaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < 7; i++) {
+            results.add(executor.submit(() -> cacheService.get("all-vinyls", () -> {
+                loads.incrementAndGet();
+                return "duplicate";
+            })));
+        }
+        releaseLoader.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("loaded");
+        }
+        executor.shutdown();
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cacheService.get("all-vinyls")).isEqualTo("loaded");
+        assertThat(cacheService.getStats().loadCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getWithLoader_shouldReturnCachedValueWithoutLoading() {
+        cacheService.put("vinyl-1", "cached");
+
+        String result = cacheService.get("vinyl-1", () -> {
+            throw new AssertionError("loader must not be called");
+        });
+
+        assertThat(result).isEqualTo("cached");
+    }
+
+    @Test
+    void getWithLoader_shouldPropagateLoaderExceptionAndNotCache() {
+        assertThatThrownBy(() -> cacheService.get("vinyl-404", () -> {
+            throw new IllegalStateException("not found");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cacheService.contains("vinyl-404")).isFalse();
+        assertThat(cacheService.get("vinyl-404", () -> "found")).isEqualTo("found");
+        assertThat(cacheService.getStats().loadFailureCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getWithLoader_shouldNotStoreValueRemovedDuringLoad() {
+        String result = cacheService.get("vinyl-1", () -> {
+            cacheService.remove("vinyl-1");
+            return "stale";
+        });
+
+        assertThat(result).isEqualTo("stale");
+        assertThat(cacheService.contains("vinyl-1")).isFalse();
+    }
+
+    @Test
+    void containsOrLoading_shouldCoverKeyWhileItLoads() {
+        String result = cacheService.get("search-1", () -> {
+            assertThat(cacheService.contains("search-1")).isFalse();
+            assertThat(cacheService.containsOrLoading("search-1")).isTrue();
+            return "found";
+        });
+
+        assertThat(result).isEqualTo("found");
+        assertThat(cacheService.containsOrLoading("search-1")).isTrue();
+        cacheService.remove("search-1");
+        assertThat(cacheService.containsOrLoading("search-1")).isFalse();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
@@ -0,0 +1,57 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.dto.DictionaryEntryDto;
+import com.example.vinyltrackerapi.api.dto.UserView;
+import com.example.vinyltrackerapi.api.dto.UserVinylView;
+import com.example.vinyltrackerapi.api.dto.VinylView;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheSizeEstimatorTest {
+
+    @Test
+    void estimate_shouldBeZeroForNull() {
+        assertThat(CacheSizeEstimator.estimate(null)).isZero();
+    }
+
+    @Test
+    void estimate_shouldGrowWithStringLength() {
+        assertThat(CacheSizeEstimator.estimate("a".repeat(100)))
+                .isGreaterThan(CacheSizeEstimator.estimate("a"));
+    }
+
+    @Test
+    void estimate_shouldScaleWithListLength() {
+        VinylView vinyl = new VinylView(1, "Abbey Road", "The Beatles", 2, 1969, null, null, null);
+
+        long single = CacheSizeEstimator.estimate(List.of(vinyl));
+        long many = CacheSizeEstimator.estimate(List.of(vinyl, vinyl, vinyl, vinyl));
+
+        assertThat(many).isGreaterThan(single * 3);
+    }
+
+    @Test
+    void estimate_shouldIncludeNestedViewsOfUserVinyl() {
+        UserView user = new UserView(1, "john", "john@example.com", "hash", 2);
+        VinylView vinyl = new VinylView(1, "Abbey Road", "The Beatles", 2, 1969, null, null, 1);
+        UserVinylView link = new UserVinylView(user, vinyl, 1, new DictionaryEntryDto(1, "Хочу"));
+
+        assertThat(CacheSizeEstimator.estimate(link))
+                .isGreaterThan(CacheSizeEstimator.estimate(user) + CacheSizeEstimator.estimate(vinyl));
+    }
+
+    @Test
+    void estimate_shouldExtrapolateLargeListsFromSample() {
+        List<String> uniform = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            uniform.add("same-length");
+        }
+        long element = CacheSizeEstimator.estimate("same-length");
+
+        long estimate = CacheSizeEstimator.estimate(uniform);
+
+        assertThat(estimate).isEqualTo(32 + 4 * 10_000 + element * 10_000);
+    }
+}
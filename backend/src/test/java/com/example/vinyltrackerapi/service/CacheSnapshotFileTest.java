@@ -0,0 +1,126 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.dto.VinylView;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheSnapshotFileTest {
+
+    @TempDir
+    Path directory;
+
+    private final CacheService<CatalogSnapshot<VinylView>> catalog = region("vinyl-catalog");
+    private final CacheService<VinylView> vinyls = region("vinyl");
+
+    @AfterEach
+    void tearDown() {
+        catalog.shutdown();
+        vinyls.shutdown();
+    }
+
+    private static <T> CacheService<T> region(String name) {
+        return new CacheService<>(new CacheRegionSettings(name, Duration.ofMinutes(10), 100,
+                EvictionPolicyType.TINY_LFU));
+    }
+
+    private List<CacheSnapshotSection<?>> sections(CacheService<CatalogSnapshot<VinylView>> catalogRegion,
+                                                    CacheService<VinylView> vinylRegion) {
+        return List.of(
+                new CacheSnapshotSection<>(catalogRegion,
+                        new CatalogSnapshotCodec<>(VinylViewCodec.INSTANCE, VinylView::id)),
+                new CacheSnapshotSection<>(vinylRegion, VinylViewCodec.INSTANCE));
+    }
+
+    private void fill() {
+        VinylView vinyl = new VinylView(1, "Группа крови", "Кино", 2, 1988, null, "http://x/1", 5);
+        catalog.put("all-vinyls", CatalogSnapshot.of(List.of(vinyl), VinylView::id));
+        vinyls.put("vinyl-1", vinyl);
+    }
+
+    @Test
+    void restore_shouldLoadEntriesWrittenForSameCatalogVersion() throws IOException {
+        fill();
+        Path file = directory.resolve("cache.snapshot");
+        assertThat(CacheSnapshotFile.write(file, 7, sections(catalog, vinyls))).isEqualTo(2);
+
+        CacheService<CatalogSnapshot<VinylView>> restoredCatalog = region("vinyl-catalog");
+        CacheService<VinylView> restoredVinyls = region("vinyl");
+        try {
+            int restored = CacheSnapshotFile.restore(file, 7, sections(restoredCatalog, restoredVinyls));
+
+            assertThat(restored).isEqualTo(2);
+            assertThat(restoredCatalog.get("all-vinyls").get(1).title()).isEqualTo("Группа крови");
+            assertThat(restoredVinyls.get("vinyl-1")).isEqualTo(vinyls.get("vinyl-1"));
+        } finally {
+            restoredCatalog.shutdown();
+            restoredVinyls.shutdown();
+        }
+    }
+
+    @Test
+    void restore_shouldRejectSnapshotOfOtherCatalogVersion() throws IOException {
+        fill();
+        Path file = directory.resolve("cache.snapshot");
+        CacheSnapshotFile.write(file, 7, sections(catalog, vinyls));
+        CacheService<VinylView> restoredVinyls = region("vinyl");
+        try {
+            assertThat(CacheSnapshotFile.restore(file, 8, sections(catalog, restoredVinyls))).isEqualTo(-1);
+            assertThat(restoredVinyls.size()).isZero();
+        } finally {
+            restoredVinyls.shutdown();
+        }
+    }
+
+    @Test
+    void restore_shouldRejectCorruptedFile() throws IOException {
+        fill();
+        Path file = directory.resolve("cache.snapshot");
+        CacheSnapshotFile.write(file, 7, sections(catalog, vinyls));
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(file, bytes);
+
+        assertThat(CacheSnapshotFile.restore(file, 7, sections(catalog, vinyls))).isEqualTo(-1);
+    }
+
+    @Test
+    void restore_shouldSkipSectionsOfUnknownRegions() throws IOException {
+        fill();
+        Path file = directory.resolve("cache.snapshot");
+        CacheSnapshotFile.write(file, 7, sections(catalog, vinyls));
+        CacheService<VinylView> restoredVinyls = region("vinyl");
+        try {
+            int restored = CacheSnapshotFile.restore(file, 7,
+                    List.of(new CacheSnapshotSection<>(restoredVinyls, VinylViewCodec.INSTANCE)));
+
+            assertThat(restored).isEqualTo(1);
+            assertThat(restoredVinyls.get("vinyl-1")).isNotNull();
+        } finally {
+            restoredVinyls.shutdown();
+        }
+    }
+
+    @Test
+    void write_shouldKeepPreviousFileWhenVersionChangedDuringWalk() throws IOException {
+        fill();
+        Path file = directory.resolve("cache.snapshot");
+        CacheSnapshotFile.write(file, 7, sections(catalog, vinyls));
+
+        assertThat(CacheSnapshotFile.write(file, 8, sections(catalog, vinyls), () -> false)).isEqualTo(-1);
+        assertThat(CacheSnapshotFile.restore(file, 7, sections(catalog, vinyls))).isEqualTo(2);
+    }
+
+    @Test
+    void restore_shouldReportMissingFile() throws IOException {
+        assertThat(CacheSnapshotFile.restore(directory.resolve("absent"), 1, sections(catalog, vinyls)))
+                .isEqualTo(-1);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.vinyltrackerapi.service;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheStatsTest {
+
+    @Test
+    void hitRate_shouldBeZeroWithoutRequests() {
+        assertThat(new CacheStats().hitRate()).isZero();
+    }
+
+    @Test
+    void counters_shouldAccumulate() {
+        CacheStats stats = new CacheStats();
+        stats.recordHit();
+        stats.recordHit();
+        stats.recordMiss();
+        stats.recordEviction(RemovalCause.EXPIRED);
+        stats.recordLoadSuccess(TimeUnit.MILLISECONDS.toNanos(4));
+        stats.recordLoadFailure(TimeUnit.MILLISECONDS.toNanos(2));
+
+        assertThat(stats.hitRate()).isEqualTo(2.0 / 3);
+        assertThat(stats.evictionCount(RemovalCause.EXPIRED)).isEqualTo(1);
+        assertThat(stats.evictionCount(RemovalCause.SIZE)).isZero();
+        assertThat(stats.loadCount()).isEqualTo(2);
+        assertThat(stats.loadFailureCount()).isEqualTo(1);
+        assertThat(stats.totalLoadTime(TimeUnit.MILLISECONDS)).isEqualTo(6);
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.dto.FacetFilter;
+import com.example.vinyltrackerapi.api.models.Genre;
+import com.example.vinyltrackerapi.api.models.User;
+import com.example.vinyltrackerapi.api.models.Vinyl;
+import com.example.vinyltrackerapi.api.repositories.VinylRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogFacetsTest {
+
+    private static final FacetFilter NO_FILTER = new FacetFilter(null, null, null, null, null);
+
+    @Mock private VinylRepository vinylRepository;
+    @Mock private CacheInvalidationBus invalidationBus;
+
+    private CatalogFacets facets;
+
+    @BeforeEach
+    void setUp() {
+        facets = new CatalogFacets(vinylRepository, Runnable::run, invalidationBus);
+    }
+
+    private static Vinyl vinyl(int id, int genreId, int year, Integer uploaderId) {
+        Genre genre = new Genre();
+        genre.setId(genreId);
+        Vinyl vinyl = new Vinyl();
+        vinyl.setId(id);
+        vinyl.setGenre(genre);
+        vinyl.setReleaseYear(year);
+        if (uploaderId != null) {
+            User user = new User();
+            user.setId(uploaderId);
+            vinyl.setAddedBy(user);
+        }
+        return vinyl;
+    }
+
+    private CatalogFacets.Selection select(FacetFilter filter) {
+        return facets.select(filter, PageRequest.of(0, 10));
+    }
+
+    @Test
+    void select_shouldCombineValuesWithOrAndFacetsWithAnd() {
+        facets.apply(List.of(vinyl(1, 1, 1969, 7), vinyl(2, 2, 1973, 7), vinyl(3, 3, 1975, 8),
+                vinyl(4, 1, 1977, null), vinyl(5, 2, 1991, 7)), List.of());
+
+        CatalogFacets.Selection selection = select(new FacetFilter(Set.of(1, 2), null, null, Set.of(1970), null));
+
+        assertThat(selection.ids()).containsExactly(2, 4);
+        assertThat(selection.total()).isEqualTo(2);
+        assertThat(select(new FacetFilter(Set.of(1, 2), 1970, 1991, Set.of(1970), Set.of(7))).ids())
+                .containsExactly(2);
+        assertThat(select(new FacetFilter(Set.of(9), null, null, null, null)).total()).isZero();
+    }
+
+    @Test
+    void select_shouldCountEachFacetWithoutItsOwnFilter() {
+        facets.apply(List.of(vinyl(1, 1, 1969, 7), vinyl(2, 2, 1973, 7), vinyl(3, 3, 1975, 8),
+                vinyl(4, 1, 1977, null), vinyl(5, 2, 1991, 7)), List.of());
+
+        CatalogFacets.Selection selection = select(new FacetFilter(Set.of(1), null, null, Set.of(1970), null));
+
+        assertThat(selection.ids()).containsExactly(4);
+        assertThat(selection.counts().genres()).isEqualTo(Map.of(1, 1, 2, 1, 3, 1));
+        assertThat(selection.counts().decades()).isEqualTo(Map.of(1960, 1, 1970, 1));
+        assertThat(selection.counts().years()).isEqualTo(Map.of(1977, 1));
+        assertThat(selection.counts().uploaders()).isEmpty();
+    }
+
+    @Test
+    void select_shouldPageByIdOrByReleaseYear() {
+        facets.apply(List.of(vinyl(1, 1, 1980, null), vinyl(2, 1, 1970, null), vinyl(3, 1, 1990, null),
+                vinyl(4, 1, 1970, null)), List.of());
+
+        assertThat(facets.select(NO_FILTER, PageRequest.of(1, 3)).ids()).containsExactly(4);
+        assertThat(facets.select(NO_FILTER, PageRequest.of(0, 3, Sort.by("id").descending())).ids())
+                .containsExactly(4, 3, 2);
+        assertThat(facets.select(NO_FILTER, PageRequest.of(0, 10, Sort.by("releaseYear"))).ids())
+                .containsExactly(2, 4, 1, 3);
+        assertThat(facets.select(NO_FILTER, PageRequest.of(1, 2, Sort.by("releaseYear").descending())).ids())
+                .containsExactly(4, 2);
+        assertThatThrownBy(() -> facets.select(NO_FILTER, PageRequest.of(0, 10, Sort.by("title"))))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void select_shouldPageLargeSelectionsByYearAcrossYearBoundary() {
+        List<Vinyl> vinyls = new ArrayList<>();
+        for (int id = 1; id <= 300; id++) {
+            vinyls.add(vinyl(id, id <= 100 ? 1 : 2, id % 2 == 0 ? 2000 : 2001, null));
+        }
+        facets.apply(vinyls, List.of());
+        Sort byYear = Sort.by("releaseYear").descending();
+
+        List<Integer> all = facets.select(NO_FILTER, PageRequest.of(7, 20, byYear)).ids();
+        List<Integer> filtered = facets.select(new FacetFilter(Set.of(1), null, null, null, null),
+                PageRequest.of(2, 20, byYear)).ids();
+
+        assertThat(all).hasSize(20).startsWith(19, 17).contains(1, 300).endsWith(284, 282);
+        assertThat(filtered).containsExactly(19, 17, 15, 13, 11, 9, 7, 5, 3, 1, 100, 98, 96, 94, 92, 90, 88, 86, 84,
+                82);
+    }
+
+    @Test
+    void apply_shouldMoveVinylsBetweenFacetsWithoutTouchingPublishedSelection() {
+        facets.apply(List.of(vinyl(1, 1, 1973, 7), vinyl(2, 1, 1975, 7)), List.of());
+        CatalogFacets.Selection before = select(NO_FILTER);
+
+        facets.apply(List.of(vinyl(2, 2, 1985, null)), List.of(1));
+
+        CatalogFacets.Selection after = select(NO_FILTER);
+        assertThat(after.ids()).containsExactly(2);
+        assertThat(after.counts().genres()).isEqualTo(Map.of(2, 1));
+        assertThat(after.counts().decades()).isEqualTo(Map.of(1980, 1));
+        assertThat(after.counts().uploaders()).isEmpty();
+        assertThat(before.counts().genres()).isEqualTo(Map.of(1, 2));
+        assertThat(before.ids()).containsExactly(1, 2);
+    }
+
+    @Test
+    void rebuild_shouldReplayChangesMadeWhileReading() {
+        when(vinylRepository.findByIdGreaterThanOrderByIdAsc(eq(0), any())).thenAnswer(inv -> {
+            // запись на этом узле между чтением строки и подменой индекса
+            facets.apply(List.of(vinyl(1, 2, 1999, null)), List.of());
+            return List.of(vinyl(1, 1, 1970, null), vinyl(2, 1, 1971, null));
+        });
+
+        assertThat(facets.isReady()).isFalse();
+        facets.startRebuild();
+
+        assertThat(facets.isReady()).isTrue();
+        assertThat(select(NO_FILTER).counts().genres()).isEqualTo(Map.of(1, 1, 2, 1));
+        assertThat(select(NO_FILTER).counts().years()).isEqualTo(Map.of(1971, 1, 1999, 1));
+    }
+
+    @Test
+    void select_shouldKeepOnlyMostActiveUploaders() {
+        for (int id = 1; id <= FacetBitmaps.MAX_UPLOADERS + 5; id++) {
+            facets.apply(List.of(vinyl(id, 1, 2000, id), vinyl(1000 + id, 1, 2000, id == 1 ? 1 : 999)), List.of());
+        }
+
+        Map<Integer, Integer> uploaders = select(NO_FILTER).counts().uploaders();
+
+        assertThat(uploaders).hasSize(FacetBitmaps.MAX_UPLOADERS);
+        assertThat(uploaders.keySet()).startsWith(999, 1);
+    }
+}
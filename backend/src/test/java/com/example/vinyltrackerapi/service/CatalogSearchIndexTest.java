@@ -0,0 +1,205 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.dto.VinylView;
+import com.example.vinyltrackerapi.api.models.Genre;
+import com.example.vinyltrackerapi.api.models.Vinyl;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogSearchIndexTest {
+
+    private final Genre rock = new Genre();
+    private Directory directory;
+    private CatalogSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        rock.setId(3);
+        rock.setName("Rock");
+        directory = new ByteBuffersDirectory();
+        index = new CatalogSearchIndex(directory, Duration.ofSeconds(1), Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        index.close();
+    }
+
+    private Vinyl vinyl(int id, String title, String artist, int year, String description) {
+        Vinyl vinyl = new Vinyl();
+        vinyl.setId(id);
+        vinyl.setTitle(title);
+        vinyl.setArtist(artist);
+        vinyl.setGenre(rock);
+        vinyl.setReleaseYear(year);
+        vinyl.setDescription(description);
+        return vinyl;
+    }
+
+    private List<Integer> ids(String query) {
+        return index.search(query, PageRequest.of(0, 10)).getContent().stream().map(VinylView::id).toList();
+    }
+
+    @Test
+    void search_shouldRankTitleMatchAboveDescriptionMatch() {
+        index.index(List.of(
+                vinyl(1, "Songs", "Someone", 1980, "Inspired by Abbey Road"),
+                vinyl(2, "Abbey Road", "The Beatles", 1969, null)));
+
+        assertThat(ids("abbey road")).containsExactly(2, 1);
+    }
+
+    @Test
+    void search_shouldReturnStoredViewWithoutDatabase() {
+        Vinyl vinyl = vinyl(1, "Abbey Road", "The Beatles", 1969, "Classic");
+        vinyl.setCoverUrl("http://covers/1.jpg");
+        index.index(List.of(vinyl));
+
+        assertThat(index.search("beatles", PageRequest.of(0, 10)).getContent())
+                .containsExactly(VinylView.of(vinyl));
+    }
+
+    @Test
+    void search_shouldMatchPrefixGenreAndYear() {
+        index.index(List.of(vinyl(1, "Abbey Road", "The Beatles", 1969, null),
+                vinyl(2, "Paranoid", "Black Sabbath", 1970, null)));
+
+        assertThat(ids("beat")).containsExactly(1);
+        assertThat(ids("rock")).containsExactlyInAnyOrder(1, 2);
+        assertThat(ids("1970")).containsExactly(2);
+    }
+
+    @Test
+    void search_shouldIgnoreCaseAndFoldYo() {
+        index.index(List.of(vinyl(1, "Ёжик в тумане", "Кино", 1988, null)));
+
+        assertThat(ids("ЕЖИК")).containsExactly(1);
+        assertThat(ids("кино")).containsExactly(1);
+    }
+
+    @Test
+    void search_shouldPageRankedResults() {
+        for (int i = 1; i <= 25; i++) {
+            index.add(List.of(vinyl(i, "Live " + i, "Band", 2000, null)));
+        }
+        index.refresh();
+
+        Page<VinylView> page = index.search("live", PageRequest.of(2, 10));
+
+        assertThat(page.getContent()).hasSize(5);
+        assertThat(page.getTotalElements()).isEqualTo(25);
+    }
+
+    @Test
+    void index_shouldReplaceDocumentAndDeleteShouldRemoveIt() {
+        index.index(List.of(vinyl(1, "Old title", "Band", 2000, null)));
+        index.index(List.of(vinyl(1, "New title", "Band", 2000, null)));
+
+        assertThat(ids("old")).isEmpty();
+        assertThat(ids("new")).containsExactly(1);
+
+        index.delete(List.of(1));
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void finishRebuild_shouldDropDocumentsMissingFromRebuild() throws IOException {
+        index.index(List.of(vinyl(1, "Kept", "Band", 2000, null), vinyl(2, "Gone", "Band", 2000, null)));
+
+        long generation = index.beginRebuild();
+        index.add(List.of(vinyl(1, "Kept", "Band", 2000, null)));
+        assertThat(ids("gone")).containsExactly(2);
+        index.finishRebuild(generation);
+
+        assertThat(ids("gone")).isEmpty();
+        assertThat(ids("kept")).containsExactly(1);
+
+        // поколение переживает перезапуск, иначе следующее перестроение удалило бы свежие документы
+        index.close();
+        index = new CatalogSearchIndex(directory, Duration.ofSeconds(1), Duration.ofMinutes(1));
+        assertThat(index.beginRebuild()).isEqualTo(generation + 1);
+    }
+
+    @Test
+    void add_shouldNotRestoreVinylsChangedDuringRebuild() {
+        index.index(List.of(vinyl(1, "Deleted", "Band", 2000, null), vinyl(2, "Old", "Band", 2000, null)));
+        List<Vinyl> readBeforeWrites = List.of(vinyl(1, "Deleted", "Band", 2000, null),
+                vinyl(2, "Old", "Band", 2000, null), vinyl(3, "Untouched", "Band", 2000, null));
+
+        long generation = index.beginRebuild();
+        index.delete(List.of(1));
+        index.index(List.of(vinyl(2, "New", "Band", 2000, null)));
+        index.add(readBeforeWrites);
+        index.finishRebuild(generation);
+
+        assertThat(ids("deleted")).isEmpty();
+        assertThat(ids("old")).isEmpty();
+        assertThat(ids("new")).containsExactly(2);
+        assertThat(ids("untouched")).containsExactly(3);
+    }
+
+    @Test
+    void index_shouldBeVisibleAtOnceAndReachDiskWithPeriodicCommit() throws Exception {
+        Directory other = new ByteBuffersDirectory();
+        CatalogSearchIndex fastCommit = new CatalogSearchIndex(other, Duration.ofSeconds(1), Duration.ofMillis(20));
+        try {
+            fastCommit.index(List.of(vinyl(1, "Title", "Band", 2000, null)));
+            assertThat(fastCommit.size()).isEqualTo(1);
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!committed(other, 1) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(committed(other, 1)).isTrue();
+        } finally {
+            fastCommit.close();
+        }
+    }
+
+    @Test
+    void close_shouldCommitWritesAndMarkIndexClosedCleanly() throws IOException {
+        assertThat(index.wasClosedCleanly()).isFalse();
+        index.index(List.of(vinyl(1, "Title", "Band", 2000, null)));
+        assertThat(committed(directory, 1)).isFalse();
+
+        index.close();
+        index = new CatalogSearchIndex(directory, Duration.ofSeconds(1), Duration.ofMinutes(1));
+
+        assertThat(index.wasClosedCleanly()).isTrue();
+        assertThat(ids("title")).containsExactly(1);
+    }
+
+    private static boolean committed(Directory directory, int documents) throws IOException {
+        if (!DirectoryReader.indexExists(directory)) {
+            return false;
+        }
+        try (DirectoryReader reader = DirectoryReader.open(directory)) {
+            return reader.numDocs() == documents;
+        }
+    }
+
+    @Test
+    void disabled_shouldIgnoreWritesAndRejectSearch() {
+        CatalogSearchIndex disabled = CatalogSearchIndex.disabled();
+
+        disabled.index(List.of(vinyl(1, "Title", "Band", 2000, null)));
+
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThat(disabled.size()).isZero();
+        assertThatThrownBy(() -> disabled.search("title", PageRequest.of(0, 10)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
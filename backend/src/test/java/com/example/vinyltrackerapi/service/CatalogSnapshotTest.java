@@ -0,0 +1,54 @@
+package com.example.vinyltrackerapi.service;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogSnapshotTest {
+
+    private record Item(Integer id, String name) {
+    }
+
+    private static CatalogSnapshot<Item> snapshot(Item... items) {
+        return CatalogSnapshot.of(List.of(items), Item::id);
+    }
+
+    @Test
+    void withUpserted_shouldReplaceInPlaceAndAppendNew() {
+        CatalogSnapshot<Item> original = snapshot(new Item(1, "a"), new Item(2, "b"));
+
+        CatalogSnapshot<Item> patched = original.withUpserted(List.of(new Item(1, "a2"), new Item(3, "c")));
+
+        assertThat(patched.values()).extracting(Item::name).containsExactly("a2", "b", "c");
+        assertThat(patched.get(1).name()).isEqualTo("a2");
+        assertThat(original.values()).extracting(Item::name).containsExactly("a", "b");
+    }
+
+    @Test
+    void without_shouldRemoveByIdAndKeepOriginalIntact() {
+        CatalogSnapshot<Item> original = snapshot(new Item(1, "a"), new Item(2, "b"));
+
+        CatalogSnapshot<Item> patched = original.without(1);
+
+        assertThat(patched.values()).extracting(Item::id).containsExactly(2);
+        assertThat(patched.get(1)).isNull();
+        assertThat(original.size()).isEqualTo(2);
+    }
+
+    @Test
+    void without_shouldReturnSameSnapshotForUnknownId() {
+        CatalogSnapshot<Item> original = snapshot(new Item(1, "a"));
+
+        assertThat(original.without(42)).isSameAs(original);
+    }
+
+    @Test
+    void values_shouldBeImmutable() {
+        CatalogSnapshot<Item> original = snapshot(new Item(1, "a"));
+        List<Item> values = original.values();
+        Item item = new Item(2, "b");
+
+        assertThatThrownBy(() -> values.add(item)).isInstanceOf(UnsupportedOperationException.class);
+    }
+}
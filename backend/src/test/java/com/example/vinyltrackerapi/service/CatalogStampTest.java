@@ -0,0 +1,50 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.dto.VinylView;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogStampTest {
+
+    private static final VinylView VINYL = new VinylView(1, "Abbey Road", "The Beatles", 2, 1969, null, null, 5);
+
+    @Test
+    void of_shouldBeDeterministic() {
+        VinylView copy = new VinylView(1, "Abbey Road", "The Beatles", 2, 1969, null, null, 5);
+
+        assertThat(CatalogStamp.of(copy)).isEqualTo(CatalogStamp.of(VINYL));
+    }
+
+    @Test
+    void of_shouldChangeWhenAnyFieldChanges() {
+        long stamp = CatalogStamp.of(VINYL);
+
+        assertThat(CatalogStamp.of(new VinylView(1, "Abbey Road", "The Beatles", 2, 1970, null, null, 5)))
+                .isNotEqualTo(stamp);
+        assertThat(CatalogStamp.of(new VinylView(1, "Abbey Road", "The Beatles", 2, 1969, "", null, 5)))
+                .isNotEqualTo(stamp);
+    }
+
+    @Test
+    void of_shouldNotConfuseFieldBoundaries() {
+        VinylView left = new VinylView(1, "ab", "c", null, null, null, null, null);
+        VinylView right = new VinylView(1, "a", "bc", null, null, null, null, null);
+
+        assertThat(CatalogStamp.of(left)).isNotEqualTo(CatalogStamp.of(right));
+    }
+
+    @Test
+    void of_shouldDependOnOrderOfList() {
+        VinylView other = new VinylView(2, "Help!", "The Beatles", 2, 1965, null, null, 5);
+
+        assertThat(CatalogStamp.of(List.of(VINYL, other))).isNotEqualTo(CatalogStamp.of(List.of(other, VINYL)));
+    }
+
+    @Test
+    void etag_shouldBeQuotedStrongTag() {
+        assertThat(CatalogStamp.etag("vinyl", 255L)).isEqualTo("\"vinyl-ff\"");
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.dto.SuggestionView;
+import com.example.vinyltrackerapi.api.dto.SuggestionView.Type;
+import com.example.vinyltrackerapi.api.models.Genre;
+import com.example.vinyltrackerapi.api.models.Vinyl;
+import com.example.vinyltrackerapi.api.repositories.VinylRepository;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSuggesterTest {
+
+    @Mock private VinylRepository vinylRepository;
+    @Mock private CacheInvalidationBus invalidationBus;
+
+    private CatalogSuggester suggester;
+
+    @BeforeEach
+    void setUp() {
+        suggester = new CatalogSuggester(vinylRepository, Runnable::run, invalidationBus);
+    }
+
+    private static Vinyl vinyl(int id, String title, String artist, String genreName) {
+        Genre genre = new Genre();
+        genre.setName(genreName);
+        Vinyl vinyl = new Vinyl();
+        vinyl.setId(id);
+        vinyl.setTitle(title);
+        vinyl.setArtist(artist);
+        vinyl.setGenre(genre);
+        return vinyl;
+    }
+
+    @Test
+    void constructor_shouldSubscribeToInvalidations() {
+        verify(invalidationBus).subscribe(any());
+    }
+
+    @Test
+    void rebuild_shouldCountVinylsPerTerm() {
+        when(vinylRepository.findByIdGreaterThanOrderByIdAsc(eq(0), any())).thenReturn(List.of(
+                vinyl(1, "Animals", "Pink Floyd", "Rock"),
+                vinyl(2, "The Wall", "Pink Floyd", "Rock"),
+                vinyl(3, "Pinkerton", "Weezer", "Rock")));
+
+        suggester.startRebuild();
+
+        assertThat(suggester.suggest("pink", 10)).containsExactly(
+                new SuggestionView("Pink Floyd", Type.ARTIST, 2), new SuggestionView("Pinkerton", Type.TITLE, 1));
+        assertThat(suggester.suggest("ro", 10)).containsExactly(new SuggestionView("Rock", Type.GENRE, 3));
+    }
+
+    @Test
+    void apply_shouldMoveCountsBetweenTermsOnUpdateAndDelete() {
+        suggester.apply(List.of(vinyl(1, "Low", "Bowie", "Rock"), vinyl(2, "Heroes", "Bowie", "Rock")), List.of());
+
+        suggester.apply(List.of(vinyl(2, "Heroes", "Bowie", "Art Rock")), List.of());
+        assertThat(suggester.suggest("r", 10)).extracting(SuggestionView::text, SuggestionView::popularity)
+                .containsExactly(Tuple.tuple("Art Rock", 1),
+                        Tuple.tuple("Rock", 1));
+
+        suggester.apply(List.of(), List.of(1));
+        assertThat(suggester.suggest("bow", 10)).containsExactly(new SuggestionView("Bowie", Type.ARTIST, 1));
+        assertThat(suggester.suggest("low", 10)).isEmpty();
+    }
+
+    @Test
+    void rebuild_shouldReplayChangesMadeWhileReading() {
+        when(vinylRepository.findByIdGreaterThanOrderByIdAsc(eq(0), any())).thenAnswer(inv -> {
+            // запись на этом узле между чтением строки и подменой словаря
+            suggester.apply(List.of(vinyl(1, "Blue", "Joni Mitchell", "Folk")), List.of());
+            return List.of(vinyl(1, "Blue Train", "John Coltrane", "Jazz"));
+        });
+
+        suggester.startRebuild();
+
+        assertThat(suggester.suggest("jo", 10)).extracting(SuggestionView::text).containsExactly("Joni Mitchell");
+        assertThat(suggester.suggest("jazz", 10)).isEmpty();
+    }
+
+    @Test
+    void onInvalidations_shouldSyncChangedAndDeletedVinylsFromOtherNodes() {
+        suggester.apply(List.of(vinyl(1, "Kind of Blue", "Miles Davis", "Jazz")), List.of());
+        when(vinylRepository.findByIdIn(Set.of(1, 2))).thenReturn(List.of(vinyl(2, "Giant Steps", "Coltrane", "Jazz")));
+
+        suggester.onInvalidations(List.of(CacheInvalidation.key(CatalogProjection.NAME, "vinyl-1"),
+                CacheInvalidation.key(CatalogProjection.NAME, "vinyl-2"), CacheInvalidation.key("vinyl", "vinyl-3")));
+
+        assertThat(suggester.suggest("miles", 10)).isEmpty();
+        assertThat(suggester.suggest("gi", 10)).extracting(SuggestionView::text).containsExactly("Giant Steps");
+    }
+
+    @Test
+    void corrections_shouldFixMisspelledWordsAndKeepKnownOnes() {
+        suggester.apply(List.of(vinyl(1, "Wish You Were Here", "Pink Floyd", "Rock"),
+                vinyl(2, "Группа крови", "Кино", "Рок")), List.of());
+
+        assertThat(suggester.corrections("pink flyod", 3)).containsExactly("pink floyd");
+        assertThat(suggester.corrections("грппа крови", 3)).containsExactly("группа крови");
+        assertThat(suggester.corrections("Pink Floyd", 3)).isEmpty();
+    }
+
+    @Test
+    void corrections_shouldForgetWordsOfDeletedVinyls() {
+        suggester.apply(List.of(vinyl(1, "Thriller", "Michael Jackson", "Pop")), List.of());
+        suggester.apply(List.of(), List.of(1));
+
+        assertThat(suggester.corrections("triller", 3)).isEmpty();
+    }
+}
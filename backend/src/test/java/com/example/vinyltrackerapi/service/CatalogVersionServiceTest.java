@@ -0,0 +1,86 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.configs.CacheProperties;
+import com.example.vinyltrackerapi.api.models.CatalogVersion;
+import com.example.vinyltrackerapi.api.repositories.CatalogVersionRepository;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogVersionServiceTest {
+
+    @Mock private CatalogVersionRepository catalogVersionRepository;
+    private final CacheProperties properties = new CacheProperties();
+    private CatalogVersionService catalogVersionService;
+
+    @BeforeEach
+    void init() {
+        properties.getSnapshot().setEnabled(true);
+        catalogVersionService = new CatalogVersionService(catalogVersionRepository, properties);
+    }
+
+    @Test
+    void current_shouldBeZeroBeforeFirstWrite() {
+        when(catalogVersionRepository.findById(1)).thenReturn(Optional.empty());
+
+        assertThat(catalogVersionService.current()).isZero();
+    }
+
+    @Test
+    void current_shouldReturnStoredVersion() {
+        when(catalogVersionRepository.findById(1)).thenReturn(Optional.of(new CatalogVersion(1, 42L)));
+
+        assertThat(catalogVersionService.current()).isEqualTo(42);
+    }
+
+    @Test
+    void bump_shouldIncrementExistingRow() {
+        when(catalogVersionRepository.increment(1)).thenReturn(1);
+
+        catalogVersionService.bump();
+
+        verify(catalogVersionRepository, never()).save(any());
+    }
+
+    @Test
+    void bump_shouldCreateRowOnFirstWrite() {
+        when(catalogVersionRepository.increment(1)).thenReturn(0);
+
+        catalogVersionService.bump();
+
+        verify(catalogVersionRepository).save(any(CatalogVersion.class));
+    }
+
+    @Test
+    void bump_shouldIncrementIfAnotherNodeCreatedRowConcurrently() {
+        when(catalogVersionRepository.increment(1)).thenReturn(0, 1);
+        when(catalogVersionRepository.save(any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        catalogVersionService.bump();
+
+        verify(catalogVersionRepository, times(2)).increment(1);
+    }
+
+    @Test
+    void bump_shouldNotTouchDatabaseWhenSnapshotsAreDisabled() {
+        properties.getSnapshot().setEnabled(false);
+        catalogVersionService = new CatalogVersionService(catalogVersionRepository, properties);
+
+        catalogVersionService.bump();
+
+        verify(catalogVersionRepository, never()).increment(any());
+        verify(catalogVersionRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.vinyltrackerapi.service;
+
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FrequencySketchTest {
+
+    @Test
+    void frequency_shouldBeZeroForUnknownKey() {
+        FrequencySketch sketch = new FrequencySketch(100);
+        assertThat(sketch.frequency("vinyl-1")).isZero();
+    }
+
+    @Test
+    void increment_shouldRaiseFrequency() {
+        FrequencySketch sketch = new FrequencySketch(100);
+        for (int i = 0; i < 3; i++) {
+            sketch.increment("vinyl-1");
+        }
+        assertThat(sketch.frequency("vinyl-1")).isEqualTo(3);
+    }
+
+    @Test
+    void increment_shouldSaturateAtFifteen() {
+        FrequencySketch sketch = new FrequencySketch(100);
+        for (int i = 0; i < 100; i++) {
+            sketch.increment("vinyl-1");
+        }
+        assertThat(sketch.frequency("vinyl-1")).isEqualTo(15);
+    }
+
+    @Test
+    void reset_shouldHalveCountersAfterSample() {
+        FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 8; i++) {
+            sketch.increment("hot");
+        }
+        for (int i = 0; i < 200; i++) {
+            sketch.increment("key" + i);
+        }
+        assertThat(sketch.frequency("hot")).isLessThan(8);
+    }
+}
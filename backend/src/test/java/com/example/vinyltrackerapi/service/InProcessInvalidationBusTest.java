@@ -0,0 +1,142 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.configs.CacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InProcessInvalidationBusTest {
+
+    // отправку вызываем вручную, чтобы тесты не зависели от таймера
+    private static final Duration NEVER = Duration.ofHours(1);
+
+    private InProcessInvalidationBus nodeA;
+    private InProcessInvalidationBus nodeB;
+    private final List<List<CacheInvalidation>> receivedByA = new ArrayList<>();
+    private final List<List<CacheInvalidation>> receivedByB = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        nodeA = new InProcessInvalidationBus(NEVER);
+        nodeB = nodeA.join(NEVER);
+        nodeA.subscribe(receivedByA::add);
+        nodeB.subscribe(receivedByB::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.shutdown();
+        nodeB.shutdown();
+    }
+
+    @Test
+    void flush_shouldDeliverBatchToPeersButNotToSender() {
+        nodeA.publish(CacheInvalidation.key("vinyl", "vinyl-1"));
+        nodeA.publish(CacheInvalidation.key("vinyl", "vinyl-2"));
+
+        nodeA.flush();
+
+        assertThat(receivedByB).containsExactly(List.of(
+                CacheInvalidation.key("vinyl", "vinyl-1"), CacheInvalidation.key("vinyl", "vinyl-2")));
+        assertThat(receivedByA).isEmpty();
+    }
+
+    @Test
+    void flush_shouldSendNothingWhenQueueIsEmpty() {
+        nodeA.flush();
+
+        assertThat(receivedByB).isEmpty();
+    }
+
+    @Test
+    void coalesce_shouldDropDuplicatesAndKeysOfClearedRegions() {
+        List<CacheInvalidation> batch = BatchingInvalidationBus.coalesce(List.of(
+                CacheInvalidation.key("vinyl", "vinyl-1"),
+                CacheInvalidation.key("vinyl", "vinyl-1"),
+                CacheInvalidation.key("vinyl-list", "search-vinyl-text-kino"),
+                CacheInvalidation.region("vinyl-list")));
+
+        assertThat(batch).containsExactly(
+                CacheInvalidation.key("vinyl", "vinyl-1"),
+                CacheInvalidation.region("vinyl-list"));
+    }
+
+    @Test
+    void coalesce_shouldClearRegionInsteadOfSendingTooManyKeys() {
+        List<CacheInvalidation> burst = IntStream.rangeClosed(0, BatchingInvalidationBus.REGION_KEY_LIMIT)
+                .mapToObj(id -> CacheInvalidation.key("vinyl", "vinyl-" + id))
+                .toList();
+
+        assertThat(BatchingInvalidationBus.coalesce(burst)).containsExactly(CacheInvalidation.region("vinyl"));
+    }
+
+    @Test
+    void coalesce_shouldReduceEverythingToSingleMessage() {
+        List<CacheInvalidation> batch = BatchingInvalidationBus.coalesce(List.of(
+                CacheInvalidation.key("vinyl", "vinyl-1"), CacheInvalidation.everything()));
+
+        assertThat(batch).containsExactly(CacheInvalidation.everything());
+    }
+
+    @Test
+    void flush_shouldKeepBatchQueuedWhenSendFails() {
+        List<List<CacheInvalidation>> sent = new ArrayList<>();
+        BatchingInvalidationBus flaky = new BatchingInvalidationBus(NEVER) {
+            private boolean failed;
+
+            @Override
+            protected void send(List<CacheInvalidation> batch) {
+                if (!failed) {
+                    failed = true;
+                    throw new IllegalStateException("нет соединения");
+                }
+                sent.add(batch);
+            }
+        };
+        try {
+            flaky.publish(CacheInvalidation.key("user", "user-1"));
+
+            flaky.flush();
+            flaky.flush();
+
+            assertThat(sent).containsExactly(List.of(CacheInvalidation.key("user", "user-1")));
+        } finally {
+            flaky.shutdown();
+        }
+    }
+
+    @Test
+    void nodes_shouldConvergeAfterWriteOnOtherNode() {
+        CacheRegionManager managerA = new CacheRegionManager(new CacheProperties(), new SimpleMeterRegistry());
+        CacheRegionManager managerB = new CacheRegionManager(new CacheProperties(), new SimpleMeterRegistry());
+        nodeB.subscribe(managerB::invalidate);
+        try {
+            CacheService<String> vinylsA = managerA.getRegion("vinyl");
+            CacheService<String> vinylsB = managerB.getRegion("vinyl");
+            CacheService<String> searchB = managerB.getRegion("vinyl-list");
+            vinylsA.put("vinyl-1", "old");
+            vinylsB.put("vinyl-1", "old");
+            vinylsB.put("vinyl-2", "untouched");
+            searchB.put("search-vinyl-text-old", "old");
+
+            vinylsA.put("vinyl-1", "new");
+            nodeA.publish(CacheInvalidation.key("vinyl", "vinyl-1"));
+            nodeA.publish(CacheInvalidation.region("vinyl-list"));
+            nodeA.flush();
+
+            assertThat(vinylsB.get("vinyl-1", () -> vinylsA.get("vinyl-1"))).isEqualTo("new");
+            assertThat(vinylsB.get("vinyl-2")).isEqualTo("untouched");
+            assertThat(searchB.size()).isZero();
+        } finally {
+            managerA.shutdown();
+            managerB.shutdown();
+        }
+    }
+}
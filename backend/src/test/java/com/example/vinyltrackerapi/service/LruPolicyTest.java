@@ -0,0 +1,53 @@
+package com.example.vinyltrackerapi.service;
+
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LruPolicyTest {
+
+    @Test
+    void recordInsert_shouldEvictLeastRecentlyUsed() {
+        LruPolicy policy = new LruPolicy(2);
+        policy.recordInsert("a", 1);
+        policy.recordInsert("b", 1);
+        policy.recordAccess("a");
+
+        assertThat(policy.recordInsert("c", 1)).containsExactly("b");
+    }
+
+    @Test
+    void recordRemove_shouldFreeCapacity() {
+        LruPolicy policy = new LruPolicy(1);
+        policy.recordInsert("a", 1);
+        policy.recordRemove("a");
+
+        assertThat(policy.recordInsert("b", 1)).isEmpty();
+    }
+
+    @Test
+    void recordInsert_shouldEvictByWeight() {
+        LruPolicy policy = new LruPolicy(100);
+        policy.recordInsert("a", 40);
+        policy.recordInsert("b", 40);
+
+        assertThat(policy.recordInsert("c", 50)).containsExactly("a");
+    }
+
+    @Test
+    void recordUpdate_shouldEvictWhenEntryGrows() {
+        LruPolicy policy = new LruPolicy(100);
+        policy.recordInsert("a", 40);
+        policy.recordInsert("b", 40);
+
+        assertThat(policy.recordUpdate("b", 70)).containsExactly("a");
+    }
+
+    @Test
+    void recordInsert_shouldRejectEntryHeavierThanBudget() {
+        LruPolicy policy = new LruPolicy(100);
+        policy.recordInsert("a", 10);
+
+        assertThat(policy.recordInsert("huge", 101)).containsExactly("huge");
+        assertThat(policy.recordInsert("b", 90)).isEmpty();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.dto.VinylView;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OffHeapListCacheTest {
+
+    private final CacheService<OffHeapList<VinylView>> region =
+            new CacheService<>(new CacheRegionSettings("offheap", Duration.ofMinutes(10), 100,
+                    EvictionPolicyType.TINY_LFU));
+
+    @AfterEach
+    void tearDown() {
+        region.shutdown();
+    }
+
+    private static VinylView view(int id) {
+        return new VinylView(id, "Кино — Группа крови " + id, "Кино", 2, 1988, null, "http://x/" + id, null);
+    }
+
+    @Test
+    void codec_shouldRoundTripAllFieldsIncludingNulls() {
+        VinylView full = new VinylView(-7, "Title", "Artist", 3, 1999, "Описание", "url", 42);
+        VinylView empty = new VinylView(null, null, null, null, null, null, null, null);
+
+        OffHeapList<VinylView> block = OffHeapList.encode(List.of(full, empty), VinylViewCodec.INSTANCE);
+
+        assertThat(block.size()).isEqualTo(2);
+        assertThat(block.decode()).containsExactly(full, empty);
+    }
+
+    @Test
+    void get_shouldLoadOnceAndDecodeFreshCopiesOnHit() {
+        OffHeapListCache<VinylView> cache = new OffHeapListCache<>(region, VinylViewCodec.INSTANCE, true);
+        AtomicInteger loads = new AtomicInteger();
+
+        List<VinylView> first = cache.get("key", () -> {
+            loads.incrementAndGet();
+            return List.of(view(1), view(2));
+        });
+        List<VinylView> second = cache.get("key", () -> {
+            loads.incrementAndGet();
+            return List.of();
+        });
+
+        assertThat(loads).hasValue(1);
+        assertThat(second).isEqualTo(first).isNotSameAs(first);
+        assertThat(second.get(0)).isNotSameAs(first.get(0));
+        assertThat(cache.usedBytes()).isPositive();
+    }
+
+    @Test
+    void get_shouldNotKeepEntryThatExceedsRegionBudget() {
+        CacheService<OffHeapList<VinylView>> small = new CacheService<>(new CacheRegionSettings("small",
+                Duration.ofMinutes(10), 100, EvictionPolicyType.TINY_LFU, 64));
+        OffHeapListCache<VinylView> cache = new OffHeapListCache<>(small, VinylViewCodec.INSTANCE, true);
+
+        List<VinylView> result = cache.get("big", () -> List.of(view(1), view(2), view(3)));
+
+        assertThat(result).hasSize(3);
+        assertThat(small.contains("big")).isFalse();
+        assertThat(cache.usedBytes()).isZero();
+        small.shutdown();
+    }
+
+    @Test
+    void remove_shouldReleaseBudget() {
+        OffHeapListCache<VinylView> cache = new OffHeapListCache<>(region, VinylViewCodec.INSTANCE, true);
+        cache.get("key", () -> List.of(view(1)));
+
+        cache.remove("key");
+
+        assertThat(cache.usedBytes()).isZero();
+        assertThat(region.contains("key")).isFalse();
+    }
+}
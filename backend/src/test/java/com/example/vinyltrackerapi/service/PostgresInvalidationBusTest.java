@@ -0,0 +1,82 @@
+package com.example.vinyltrackerapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class PostgresInvalidationBusTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private PostgresInvalidationBus sender;
+    private PostgresInvalidationBus receiver;
+    private final List<List<CacheInvalidation>> received = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        sender = new PostgresInvalidationBus(mock(DataSource.class), objectMapper, Duration.ofHours(1));
+        receiver = new PostgresInvalidationBus(mock(DataSource.class), objectMapper, Duration.ofHours(1));
+        sender.subscribe(received::add);
+        receiver.subscribe(received::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sender.shutdown();
+        receiver.shutdown();
+    }
+
+    @Test
+    void receive_shouldDeliverMessagesOfOtherNodesOnly() throws JsonProcessingException {
+        List<CacheInvalidation> batch = List.of(
+                CacheInvalidation.key("vinyl", "vinyl-1"), CacheInvalidation.region("vinyl-list"));
+        String payload = sender.encode(batch).get(0);
+
+        sender.receive(payload);
+        receiver.receive(payload);
+
+        assertThat(received).containsExactly(batch);
+    }
+
+    @Test
+    void encode_shouldSplitBatchToFitNotifyPayloadLimit() throws JsonProcessingException {
+        List<CacheInvalidation> batch = IntStream.range(0, 1000)
+                .mapToObj(id -> CacheInvalidation.key("vinyl", "vinyl-" + id))
+                .toList();
+
+        List<String> payloads = sender.encode(batch);
+
+        assertThat(payloads).hasSizeGreaterThan(1);
+        assertThat(payloads).allSatisfy(payload -> assertThat(payload.getBytes(StandardCharsets.UTF_8))
+                .hasSizeLessThanOrEqualTo(PostgresInvalidationBus.MAX_PAYLOAD_BYTES));
+        payloads.forEach(receiver::receive);
+        assertThat(received.stream().flatMap(List::stream).toList()).isEqualTo(batch);
+    }
+
+    @Test
+    void encode_shouldClearRegionWhenSingleKeyDoesNotFit() throws JsonProcessingException {
+        String hugeKey = "search-vinyl-text-" + "a".repeat(PostgresInvalidationBus.MAX_PAYLOAD_BYTES);
+
+        List<String> payloads = sender.encode(List.of(CacheInvalidation.key("vinyl-list", hugeKey)));
+        payloads.forEach(receiver::receive);
+
+        assertThat(received).containsExactly(List.of(CacheInvalidation.region("vinyl-list")));
+    }
+
+    @Test
+    void receive_shouldIgnoreMalformedPayload() {
+        receiver.receive("not json");
+
+        assertThat(received).isEmpty();
+    }
+}
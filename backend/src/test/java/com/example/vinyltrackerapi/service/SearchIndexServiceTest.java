@@ -0,0 +1,147 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.models.Vinyl;
+import com.example.vinyltrackerapi.api.repositories.VinylRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SearchIndexServiceTest {
+
+    @Mock private CatalogSearchIndex catalogSearchIndex;
+    @Mock private VinylRepository vinylRepository;
+    @Mock private CacheInvalidationBus invalidationBus;
+
+    private SearchIndexService service;
+
+    @BeforeEach
+    void setUp() {
+        when(catalogSearchIndex.isEnabled()).thenReturn(true);
+        service = new SearchIndexService(catalogSearchIndex, vinylRepository, Runnable::run, invalidationBus);
+    }
+
+    private static Vinyl vinyl(int id) {
+        Vinyl vinyl = new Vinyl();
+        vinyl.setId(id);
+        return vinyl;
+    }
+
+    private static List<Vinyl> vinyls(int from, int count) {
+        return IntStream.range(from, from + count).mapToObj(SearchIndexServiceTest::vinyl).toList();
+    }
+
+    @Test
+    void constructor_shouldSubscribeToInvalidations() {
+        verify(invalidationBus).subscribe(any());
+    }
+
+    @Test
+    void rebuild_shouldReadCatalogByIdBatchesAndDropStaleDocuments() {
+        List<Vinyl> first = vinyls(1, 1000);
+        List<Vinyl> second = vinyls(1001, 3);
+        when(catalogSearchIndex.beginRebuild()).thenReturn(7L);
+        when(vinylRepository.findByIdGreaterThanOrderByIdAsc(eq(0), any())).thenReturn(first);
+        when(vinylRepository.findByIdGreaterThanOrderByIdAsc(eq(1000), any())).thenReturn(second);
+
+        assertThat(service.rebuild()).isEqualTo(1003);
+
+        verify(vinylRepository).findByIdGreaterThanOrderByIdAsc(0, PageRequest.ofSize(1000));
+        verify(catalogSearchIndex).add(first);
+        verify(catalogSearchIndex).add(second);
+        verify(catalogSearchIndex).finishRebuild(7L);
+        assertThat(service.getStatus().lastRebuildDocuments()).isEqualTo(1003);
+    }
+
+    @Test
+    void startRebuild_shouldRunOnExecutorAndAllowNextRun() {
+        when(vinylRepository.findByIdGreaterThanOrderByIdAsc(anyInt(), any())).thenReturn(List.of());
+
+        assertThat(service.startRebuild()).isTrue();
+        assertThat(service.startRebuild()).isTrue();
+        assertThat(service.getStatus().rebuilding()).isFalse();
+    }
+
+    @Test
+    void startRebuild_shouldStopTrackingDirectWritesWhenRebuildFails() {
+        when(vinylRepository.findByIdGreaterThanOrderByIdAsc(anyInt(), any()))
+                .thenThrow(new IllegalStateException("db down"));
+
+        assertThat(service.startRebuild()).isTrue();
+
+        verify(catalogSearchIndex).abortRebuild();
+        verify(catalogSearchIndex, never()).finishRebuild(anyLong());
+    }
+
+    @Test
+    void run_shouldBuildEmptyIndexOnStartup() {
+        when(catalogSearchIndex.size()).thenReturn(0);
+        when(vinylRepository.findByIdGreaterThanOrderByIdAsc(anyInt(), any())).thenReturn(List.of());
+
+        service.run(null);
+
+        verify(catalogSearchIndex).finishRebuild(anyLong());
+    }
+
+    @Test
+    void run_shouldRebuildIndexNotClosedOnLastShutdown() {
+        when(catalogSearchIndex.size()).thenReturn(5);
+        when(catalogSearchIndex.wasClosedCleanly()).thenReturn(false);
+        when(vinylRepository.findByIdGreaterThanOrderByIdAsc(anyInt(), any())).thenReturn(List.of());
+
+        service.run(null);
+
+        verify(catalogSearchIndex).finishRebuild(anyLong());
+    }
+
+    @Test
+    void run_shouldKeepIndexClosedCleanly() {
+        when(catalogSearchIndex.size()).thenReturn(5);
+        when(catalogSearchIndex.wasClosedCleanly()).thenReturn(true);
+
+        service.run(null);
+
+        verify(catalogSearchIndex, never()).beginRebuild();
+    }
+
+    @Test
+    void onInvalidations_shouldReindexChangedAndDeleteMissingVinyls() {
+        Vinyl changed = vinyl(1);
+        when(vinylRepository.findByIdIn(Set.of(1, 2))).thenReturn(List.of(changed));
+
+        service.onInvalidations(List.of(
+                CacheInvalidation.key(CatalogSearchIndex.NAME, "vinyl-1"),
+                CacheInvalidation.key(CatalogSearchIndex.NAME, "vinyl-2"),
+                CacheInvalidation.key("vinyl", "vinyl-3")));
+
+        verify(catalogSearchIndex).index(List.of(changed));
+        verify(catalogSearchIndex).delete(Set.of(2));
+        verify(catalogSearchIndex, never()).beginRebuild();
+    }
+
+    @Test
+    void onInvalidations_shouldRebuildAfterMissedMessages() {
+        when(vinylRepository.findByIdGreaterThanOrderByIdAsc(anyInt(), any())).thenReturn(List.of());
+
+        service.onInvalidations(List.of(CacheInvalidation.everything()));
+
+        verify(catalogSearchIndex).beginRebuild();
+        verify(vinylRepository, never()).findByIdIn(any());
+    }
+}
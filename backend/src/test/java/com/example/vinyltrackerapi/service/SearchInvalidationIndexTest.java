@@ -0,0 +1,76 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.models.Vinyl;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchInvalidationIndexTest {
+
+    private SearchInvalidationIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SearchInvalidationIndex();
+    }
+
+    private static Vinyl vinyl(String title, int year) {
+        Vinyl vinyl = new Vinyl();
+        vinyl.setTitle(title);
+        vinyl.setArtist("Artist");
+        vinyl.setReleaseYear(year);
+        return vinyl;
+    }
+
+    @Test
+    void removeMatching_shouldReturnOnlyKeysWhosePredicateMatches() {
+        index.register("by-year", v -> v.getReleaseYear() == 1990);
+        index.register("by-title", v -> v.getTitle().contains("Rock"));
+
+        Set<String> matched = index.removeMatching(List.of(vinyl("Jazz", 1990)));
+
+        assertThat(matched).containsExactly("by-year");
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void removeMatching_shouldConsiderEveryState() {
+        index.register("old", v -> v.getTitle().equals("Old"));
+        index.register("new", v -> v.getTitle().equals("New"));
+        index.register("other", v -> v.getTitle().equals("Other"));
+
+        Set<String> matched = index.removeMatching(List.of(vinyl("Old", 2000), vinyl("New", 2000)));
+
+        assertThat(matched).containsExactlyInAnyOrder("old", "new");
+    }
+
+    @Test
+    void retainCached_shouldForgetKeysThatAreNoLongerCached() {
+        index.register("alive", v -> true);
+        index.register("evicted", v -> true);
+
+        index.retainCached("alive"::equals);
+
+        assertThat(index.removeMatching(List.of(vinyl("Any", 2000)))).containsExactly("alive");
+    }
+
+    @Test
+    void register_shouldBeSafeUnderConcurrentWrites() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            int n = i;
+            executor.submit(() -> index.register("key-" + n, v -> v.getReleaseYear() == n));
+            executor.submit(() -> index.removeMatching(List.of(vinyl("Any", -1))));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(index.size()).isEqualTo(1000);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.vinyltrackerapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpellingDictionaryTest {
+
+    private static SpellingDictionary dictionary(String... words) {
+        SpellingDictionary dictionary = new SpellingDictionary();
+        for (String word : words) {
+            dictionary.add(word);
+        }
+        return dictionary;
+    }
+
+    @Test
+    void lookup_shouldFindInsertionsDeletionsSubstitutionsAndTranspositions() {
+        SpellingDictionary dictionary = dictionary("metallica", "radiohead", "coltrane");
+
+        assertThat(dictionary.lookup("metalica", 3)).containsExactly("metallica");
+        assertThat(dictionary.lookup("radiohed", 3)).containsExactly("radiohead");
+        assertThat(dictionary.lookup("coltrame", 3)).containsExactly("coltrane");
+        assertThat(dictionary.lookup("cotlrane", 3)).containsExactly("coltrane");
+        assertThat(dictionary.lookup("beatles", 3)).isEmpty();
+    }
+
+    @Test
+    void lookup_shouldHandleCyrillicWords() {
+        SpellingDictionary dictionary = dictionary("кино", "аквариум", "земфира");
+
+        assertThat(dictionary.lookup("акварим", 3)).containsExactly("аквариум");
+        assertThat(dictionary.lookup("зимфира", 3)).containsExactly("земфира");
+    }
+
+    @Test
+    void lookup_shouldPreferCloserThenMoreFrequentWords() {
+        SpellingDictionary dictionary = dictionary("stones", "stoned", "stoned", "tones");
+
+        assertThat(dictionary.lookup("stonez", 3)).containsExactly("stoned", "stones", "tones");
+    }
+
+    @Test
+    void lookup_shouldAllowSingleEditForShortWords() {
+        SpellingDictionary dictionary = dictionary("abba", "blur");
+
+        assertThat(dictionary.lookup("aba", 3)).containsExactly("abba");
+        assertThat(dictionary.lookup("bur", 3)).containsExactly("blur");
+        assertThat(dictionary.lookup("bxx", 3)).isEmpty();
+    }
+
+    @Test
+    void remove_shouldDropWordOnlyAfterLastOccurrence() {
+        SpellingDictionary dictionary = dictionary("queen", "queen");
+
+        dictionary.remove("queen");
+        assertThat(dictionary.lookup("quen", 3)).containsExactly("queen");
+
+        dictionary.remove("queen");
+        assertThat(dictionary.lookup("quen", 3)).isEmpty();
+        assertThat(dictionary.size()).isZero();
+    }
+
+    @Test
+    void distance_shouldCountAdjacentTranspositionAsOneEdit() {
+        assertThat(SpellingDictionary.distance("abcd", "abdc", 2)).isEqualTo(1);
+        assertThat(SpellingDictionary.distance("kitten", "sitting", 3)).isEqualTo(3);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.dto.SuggestionView;
+import com.example.vinyltrackerapi.api.dto.SuggestionView.Type;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestionIndexTest {
+
+    private static Map<String, SuggestionView> terms(SuggestionView... views) {
+        Map<String, SuggestionView> result = new HashMap<>();
+        for (SuggestionView view : views) {
+            result.put(SuggestionIndex.termId(view.type(), view.text()), view);
+        }
+        return result;
+    }
+
+    @Test
+    void top_shouldOrderByPopularityAndMatchWordStarts() {
+        SuggestionIndex index = SuggestionIndex.of(terms(
+                new SuggestionView("Pink Floyd", Type.ARTIST, 5),
+                new SuggestionView("Pink Moon", Type.TITLE, 1),
+                new SuggestionView("Pinkerton", Type.TITLE, 2),
+                new SuggestionView("Pop", Type.GENRE, 9)));
+
+        assertThat(index.top("pink", 10)).extracting(SuggestionView::text)
+                .containsExactly("Pink Floyd", "Pinkerton", "Pink Moon");
+        assertThat(index.top("Floy", 10)).extracting(SuggestionView::text).containsExactly("Pink Floyd");
+        assertThat(index.top("p", 2)).extracting(SuggestionView::text).containsExactly("Pop", "Pink Floyd");
+        assertThat(index.top(" ", 10)).isEmpty();
+    }
+
+    @Test
+    void top_shouldIgnoreCaseAndDiacriticsInCyrillicAndLatin() {
+        SuggestionIndex index = SuggestionIndex.of(terms(
+                new SuggestionView("Ёлка", Type.ARTIST, 1),
+                new SuggestionView("Beyoncé", Type.ARTIST, 1)));
+
+        assertThat(index.top("ел", 10)).extracting(SuggestionView::text).containsExactly("Ёлка");
+        assertThat(index.top("BEYONCE", 10)).extracting(SuggestionView::text).containsExactly("Beyoncé");
+    }
+
+    @Test
+    void top_shouldReturnTermOnceWhenSeveralOfItsKeysMatch() {
+        SuggestionIndex index = SuggestionIndex.of(terms(new SuggestionView("The The", Type.ARTIST, 1)));
+
+        assertThat(index.top("the", 10)).hasSize(1);
+    }
+
+    @Test
+    void with_shouldReplaceAndRemoveTermsWithoutTouchingOthers() {
+        SuggestionIndex index = SuggestionIndex.of(terms(
+                new SuggestionView("Radiohead", Type.ARTIST, 1),
+                new SuggestionView("Rock", Type.GENRE, 3),
+                new SuggestionView("Kid A", Type.TITLE, 1)));
+        Map<String, SuggestionView> changes = terms(new SuggestionView("Rock", Type.GENRE, 4));
+        changes.put(SuggestionIndex.termId(Type.TITLE, "Kid A"), null);
+
+        SuggestionIndex changed = index.with(changes);
+
+        assertThat(changed.top("r", 10)).containsExactly(
+                new SuggestionView("Rock", Type.GENRE, 4), new SuggestionView("Radiohead", Type.ARTIST, 1));
+        assertThat(changed.top("kid", 10)).isEmpty();
+        assertThat(changed.size()).isEqualTo(index.size() - 2);
+        assertThat(index.top("kid", 10)).hasSize(1);
+    }
+}
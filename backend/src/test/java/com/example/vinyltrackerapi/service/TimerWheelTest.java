@@ -0,0 +1,93 @@
+package com.example.vinyltrackerapi.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimerWheelTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void advance_shouldReturnKeyOnlyAfterItsSecondHasPassed() {
+        TimerWheel wheel = new TimerWheel(START);
+        wheel.schedule("vinyl-1", START + 2_500);
+
+        assertThat(wheel.advance(START + 2_000)).isEmpty();
+        assertThat(wheel.advance(START + 3_000)).containsExactly("vinyl-1");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void cancel_shouldRemoveScheduledKey() {
+        TimerWheel wheel = new TimerWheel(START);
+        wheel.schedule("vinyl-1", START + 1_000);
+
+        wheel.cancel("vinyl-1");
+
+        assertThat(wheel.advance(START + 10_000)).isEmpty();
+    }
+
+    @Test
+    void schedule_shouldReplacePreviousDeadline() {
+        TimerWheel wheel = new TimerWheel(START);
+        wheel.schedule("vinyl-1", START + 1_000);
+        wheel.schedule("vinyl-1", START + 30_000);
+
+        assertThat(wheel.advance(START + 5_000)).isEmpty();
+        assertThat(wheel.advance(START + 31_000)).containsExactly("vinyl-1");
+    }
+
+    @Test
+    void distantDeadline_shouldCascadeToExactSecond() {
+        long deadline = START + TimeUnit.MINUTES.toMillis(30);
+        List<Long> dueAt = runUntilExpired(new TimerWheel(START), deadline, START + TimeUnit.HOURS.toMillis(2));
+
+        assertThat(dueAt.get(dueAt.size() - 1)).isBetween(deadline, deadline + 2_000);
+    }
+
+    @Test
+    void deadlineBeyondHorizon_shouldBeRescheduledUntilReached() {
+        long deadline = START + TimeUnit.DAYS.toMillis(400);
+        List<Long> dueAt = runUntilExpired(new TimerWheel(START), deadline, deadline + TimeUnit.DAYS.toMillis(1));
+
+        assertThat(dueAt.get(dueAt.size() - 1)).isBetween(deadline, deadline + 2_000);
+    }
+
+    @Test
+    void advance_shouldVisitOnlyElapsedBuckets() {
+        TimerWheel wheel = new TimerWheel(START);
+        for (int i = 0; i < 1000; i++) {
+            wheel.schedule("key-" + i, START + TimeUnit.MINUTES.toMillis(10) + i);
+        }
+
+        assertThat(wheel.advance(START + 1_000)).isEmpty();
+        assertThat(wheel.size()).isEqualTo(1000);
+    }
+
+    /**
+     * Имитирует регион: ключ, вынутый раньше срока, ставится заново. Вдали от срока время
+     * идёт крупными шагами, как после долгой паузы планировщика.
+     */
+    private static List<Long> runUntilExpired(TimerWheel wheel, long deadline, long until) {
+        wheel.schedule("vinyl-1", deadline);
+        List<Long> dueAt = new ArrayList<>();
+        for (long now = START; now <= until && wheel.size() > 0; now += step(deadline - now)) {
+            for (String key : wheel.advance(now)) {
+                dueAt.add(now);
+                if (now < deadline) {
+                    wheel.schedule(key, deadline);
+                }
+            }
+        }
+        assertThat(wheel.size()).isZero();
+        return dueAt;
+    }
+
+    private static long step(long remaining) {
+        return Math.max(1_000, remaining / 64 / 1_000 * 1_000);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.dto.DictionaryEntryDto;
+import com.example.vinyltrackerapi.api.dto.UserView;
+import com.example.vinyltrackerapi.api.dto.UserVinylView;
+import com.example.vinyltrackerapi.api.dto.VinylView;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserCollectionTest {
+
+    private static UserVinylView view(int vinylId, int statusId) {
+        return new UserVinylView(new UserView(1, "user", "user@mail.com", "hash", 2),
+                new VinylView(vinylId, "Title " + vinylId, "Artist", 3, 1970, null, null, 1),
+                statusId, new DictionaryEntryDto(statusId, "status-" + statusId));
+    }
+
+    @Test
+    void of_shouldIndexByVinylIdAndStartAtVersionZero() {
+        UserCollection collection = UserCollection.of(List.of(view(1, 1), view(2, 3)));
+
+        assertThat(collection.version()).isZero();
+        assertThat(collection.size()).isEqualTo(2);
+        assertThat(collection.statusOf(2)).isEqualTo(3);
+        assertThat(collection.statusOf(9)).isNull();
+    }
+
+    @Test
+    void with_shouldReplaceInPlaceAndBumpVersion() {
+        UserCollection collection = UserCollection.of(List.of(view(1, 1), view(2, 1)));
+
+        UserCollection changed = collection.with(view(1, 2));
+
+        assertThat(changed.version()).isEqualTo(1);
+        assertThat(changed.views()).containsExactly(view(1, 2), view(2, 1));
+        assertThat(collection.statusOf(1)).isEqualTo(1);
+    }
+
+    @Test
+    void with_shouldAppendNewVinyl() {
+        UserCollection changed = UserCollection.of(List.of(view(1, 1))).with(view(5, 1));
+
+        assertThat(changed.views()).extracting(UserVinylView::vinylId).containsExactly(1, 5);
+        assertThat(changed.get(5)).isEqualTo(view(5, 1));
+    }
+
+    @Test
+    void without_shouldRemoveAndBumpVersion() {
+        UserCollection collection = UserCollection.of(List.of(view(1, 1), view(2, 1)));
+
+        UserCollection changed = collection.without(1);
+
+        assertThat(changed.version()).isEqualTo(1);
+        assertThat(changed.views()).containsExactly(view(2, 1));
+    }
+
+    @Test
+    void without_shouldReturnSameCollectionWhenVinylAbsent() {
+        UserCollection collection = UserCollection.of(List.of(view(1, 1)));
+
+        assertThat(collection.without(7)).isSameAs(collection);
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.vinyltrackerapi.service;
 
 import com.example.vinyltrackerapi.api.dto.UserDto;
+import com.example.vinyltrackerapi.api.dto.UserView;
 import com.example.vinyltrackerapi.api.models.Role;
 import com.example.vinyltrackerapi.api.models.User;
 import com.example.vinyltrackerapi.api.repositories.UserRepository;
@@ -11,6 +12,7 @@ import org.springframework.web.server.ResponseStatusException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.function.Supplier;
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -21,16 +23,20 @@ class UserServiceTest {
 
     @Mock private UserRepository userRepository;
     @Mock private RoleService roleService;
-    @Mock private CacheService<User> userCache;
-    @Mock private CacheService<List<User>> userListCache;
-    @Mock private CacheService<List<User>> userByUsernameCache;
+    @Mock private CacheService<UserView> userCache;
+    @Mock private CacheService<Boolean> userMissingCache;
+    @Mock private CacheService<List<UserView>> userListCache;
+    @Mock private CacheService<List<UserView>> userByUsernameCache;
+    @Mock private CatalogVersionService catalogVersionService;
+    @Mock private CacheInvalidationBus invalidationBus;
 
     private AutoCloseable closeable;
 
     @BeforeEach
     void setUp() {
         closeable = MockitoAnnotations.openMocks(this);
-        userService = new UserService(userRepository, userCache, roleService, userListCache, userByUsernameCache);
+        userService = new UserService(userRepository, userCache, userMissingCache, roleService, userListCache, userByUsernameCache,
+                catalogVersionService, invalidationBus);
     }
 
     @AfterEach
@@ -38,40 +44,80 @@ class UserServiceTest {
         closeable.close();
     }
 
-    @Test
-    void getUser_shouldReturnCachedUser() {
+    @SuppressWarnings("unchecked")
+    private static <T> void loadThrough(CacheService<T> cache) {
+        when(cache.get(anyString(), any())).thenAnswer(inv -> ((Supplier<T>) inv.getArgument(1)).get());
+    }
+
+    private static User user(int id, String username) {
         User user = new User();
-        user.setId(1);
-        when(userCache.contains("user-1")).thenReturn(true);
-        when(userCache.get("user-1")).thenReturn(user);
+        user.setId(id);
+        user.setUsername(username);
+        Role role = new Role();
+        role.setId(2);
+        user.setRole(role);
+        return user;
+    }
 
-        User result = userService.getUser(1);
-        assertThat(result.getId()).isEqualTo(1);
+    @Test
+    void getUserView_shouldReturnCachedView() {
+        UserView view = new UserView(1, "john", "john@mail.com", "hash", 2);
+        when(userCache.get(eq("user-1"), any())).thenReturn(view);
+
+        UserView result = userService.getUserView(1);
+        assertThat(result).isSameAs(view);
         verifyNoInteractions(userRepository);
     }
 
     @Test
-    void getUser_shouldCacheAndReturnIfNotInCache() {
-        User user = new User();
-        user.setId(2);
+    void getUserView_shouldBuildViewOnceOnMiss() {
+        loadThrough(userCache);
+        when(userRepository.findById(2)).thenReturn(Optional.of(user(2, "john")));
 
-        when(userCache.contains("user-2")).thenReturn(false);
-        when(userRepository.findById(2)).thenReturn(Optional.of(user));
+        UserView result = userService.getUserView(2);
+        assertThat(result).isEqualTo(new UserView(2, "john", null, null, 2));
 
-        User result = userService.getUser(2);
-        assertThat(result.getId()).isEqualTo(2);
+        verify(userCache).get(eq("user-2"), any());
+    }
+
+    @Test
+    void getUserView_shouldThrowIfNotFound() {
+        loadThrough(userCache);
+        when(userRepository.findById(99)).thenReturn(Optional.empty());
 
-        verify(userCache).put("user-2", user);
+        assertThatThrownBy(() -> userService.getUserView(99))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("не найден");
     }
 
     @Test
-    void getUser_shouldThrowIfNotFound() {
-        when(userCache.contains("user-99")).thenReturn(false);
+    void getUserView_shouldRememberMissingUser() {
+        loadThrough(userCache);
         when(userRepository.findById(99)).thenReturn(Optional.empty());
 
-        assertThatThrownBy(() -> userService.getUser(99))
+        assertThatThrownBy(() -> userService.getUserView(99)).isInstanceOf(ResponseStatusException.class);
+
+        verify(userMissingCache).putIfNotRemovedSince("user-99", Boolean.TRUE, 0L);
+    }
+
+    @Test
+    void getUserView_shouldAnswerFromNegativeCacheWithoutRepository() {
+        when(userMissingCache.get("user-99")).thenReturn(Boolean.TRUE);
+
+        assertThatThrownBy(() -> userService.getUserView(99))
                 .isInstanceOf(ResponseStatusException.class)
                 .hasMessageContaining("не найден");
+
+        verifyNoInteractions(userRepository, userCache);
+    }
+
+    @Test
+    void getUser_shouldReadManagedEntityBypassingCache() {
+        User user = user(3, "john");
+        when(userRepository.findById(3)).thenReturn(Optional.of(user));
+
+        assertThat(userService.getUser(3)).isSameAs(user);
+        verifyNoInteractions(userCache);
     }
 
     @Test
@@ -96,6 +142,7 @@ class UserServiceTest {
         User result = userService.createUser(dto);
         assertThat(result.getId()).isEqualTo(1);
         assertThat(result.getUsername()).isEqualTo("testuser");
+        verify(userMissingCache).remove("user-1");
     }
 
     @Test
@@ -157,6 +204,7 @@ class UserServiceTest {
 
         when(userRepository.findById(1)).thenReturn(Optional.of(user));
         when(userRepository.findAll()).thenReturn(Collections.emptyList());
+        when(userCache.getName()).thenReturn("user");
 
         userService.deleteUser(1);
 
@@ -164,6 +212,8 @@ class UserServiceTest {
         verify(userCache).remove("user-1");
         verify(userListCache).put(eq("all-users"), any());
         verify(userByUsernameCache).remove("user-username-delme");
+        verify(catalogVersionService).bump();
+        verify(invalidationBus).publish(CacheInvalidation.key("user", "user-1"));
     }
 
     @Test
@@ -177,11 +227,10 @@ class UserServiceTest {
 
     @Test
     void getAllUsers_shouldReturnFromCache() {
-        List<User> cachedUsers = List.of(new User());
-        when(userListCache.contains("all-users")).thenReturn(true);
-        when(userListCache.get("all-users")).thenReturn(cachedUsers);
+        List<UserView> cachedUsers = List.of(new UserView(1, "john", null, null, 2));
+        when(userListCache.get(eq("all-users"), any())).thenReturn(cachedUsers);
 
-        List<User> result = userService.getAllUsers();
+        List<UserView> result = userService.getAllUsers();
 
         assertThat(result).isSameAs(cachedUsers);
         verifyNoInteractions(userRepository);
@@ -189,23 +238,21 @@ class UserServiceTest {
 
     @Test
     void getAllUsers_shouldFetchAndCacheIfNotInCache() {
-        List<User> dbUsers = List.of(new User());
-        when(userListCache.contains("all-users")).thenReturn(false);
-        when(userRepository.findAll()).thenReturn(dbUsers);
+        loadThrough(userListCache);
+        when(userRepository.findAll()).thenReturn(List.of(user(1, "john")));
 
-        List<User> result = userService.getAllUsers();
+        List<UserView> result = userService.getAllUsers();
 
-        assertThat(result).isEqualTo(dbUsers);
-        verify(userListCache).put("all-users", dbUsers);
+        assertThat(result).containsExactly(new UserView(1, "john", null, null, 2));
+        verify(userListCache).get(eq("all-users"), any());
     }
 
     @Test
     void getUserByUsername_shouldReturnFromCache() {
-        List<User> cached = List.of(new User());
-        when(userByUsernameCache.contains("user-username-john")).thenReturn(true);
-        when(userByUsernameCache.get("user-username-john")).thenReturn(cached);
+        List<UserView> cached = List.of(new UserView(1, "john", null, null, 2));
+        when(userByUsernameCache.get(eq("user-username-john"), any())).thenReturn(cached);
 
-        List<User> result = userService.getUserByUsername("john");
+        List<UserView> result = userService.getUserByUsername("john");
 
         assertThat(result).isSameAs(cached);
         verifyNoInteractions(userRepository);
@@ -213,14 +260,13 @@ class UserServiceTest {
 
     @Test
     void getUserByUsername_shouldQueryAndCacheIfMiss() {
-        List<User> fromDb = List.of(new User());
-        when(userByUsernameCache.contains("user-username-john")).thenReturn(false);
-        when(userRepository.findByUsername("john")).thenReturn(fromDb);
+        loadThrough(userByUsernameCache);
+        when(userRepository.findByUsername("john")).thenReturn(List.of(user(1, "john")));
 
-        List<User> result = userService.getUserByUsername("john");
+        List<UserView> result = userService.getUserByUsername("john");
 
-        assertThat(result).isEqualTo(fromDb);
-        verify(userByUsernameCache).put("user-username-john", fromDb);
+        assertThat(result).containsExactly(new UserView(1, "john", null, null, 2));
+        verify(userByUsernameCache).get(eq("user-username-john"), any());
     }
 
     @Test
@@ -296,9 +342,11 @@ class UserServiceTest {
         User result = userService.updateUserRole(userId, roleId);
 
         assertThat(result.getRole()).isEqualTo(newRole);
-        verify(userCache).put("user-1", result);
+        UserView view = UserView.of(result);
+        verify(userCache).put("user-1", view);
         verify(userListCache).put(eq("all-users"), any());
-        verify(userByUsernameCache).put("user-username-rolechanger", List.of(result));
+        verify(userByUsernameCache).put("user-username-rolechanger", List.of(view));
+        verify(catalogVersionService).bump();
     }
 
 }
@@ -1,6 +1,8 @@
 package com.example.vinyltrackerapi.service;
 
+import com.example.vinyltrackerapi.api.dto.AuthenticatedUser;
 import com.example.vinyltrackerapi.api.dto.UserVinylDto;
+import com.example.vinyltrackerapi.api.dto.UserVinylView;
 import com.example.vinyltrackerapi.api.models.Role;
 import com.example.vinyltrackerapi.api.models.User;
 import com.example.vinyltrackerapi.api.models.UserVinyl;
@@ -13,7 +15,6 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.web.server.ResponseStatusException;
-import java.security.Principal;
 import java.util.List;
 import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -29,7 +30,7 @@ class UserVinylFacadeTest {
     @Mock private UserVinylService userVinylService;
     @Mock private VinylStatusService vinylStatusService;
 
-    private final Principal principal = () -> "test@mail.com";
+    private final AuthenticatedUser principal = new AuthenticatedUser(1, "uploader", "USER");
     private final User user = new User();
     private final Vinyl vinyl = new Vinyl();
     private final VinylStatus status = new VinylStatus();
@@ -48,7 +49,7 @@ class UserVinylFacadeTest {
 
     @Test
     void addVinylToCurrentUser_shouldSucceed() {
-        when(userService.getUserByEmail("test@mail.com")).thenReturn(Optional.of(user));
+        when(userService.getUser(1)).thenReturn(user);
         when(vinylService.getVinyl(2)).thenReturn(vinyl);
         when(vinylStatusService.getById(3)).thenReturn(Optional.of(status));
         when(userVinylService.addVinylToUser(user, vinyl, status)).thenReturn(new UserVinylDto());
@@ -73,24 +74,23 @@ class UserVinylFacadeTest {
 
     @Test
     void removeVinylFromCurrentUser_shouldCallRemove() {
-        when(userService.getUserByEmail("test@mail.com")).thenReturn(Optional.of(user));
         facade.removeVinylFromCurrentUser(2, principal);
         verify(userVinylService).removeVinylFromUser(1, 2);
+        verifyNoInteractions(userService);
     }
 
     @Test
     void getCurrentUserVinyls_shouldReturnList() {
-        when(userService.getUserByEmail("test@mail.com")).thenReturn(Optional.of(user));
-
         userVinyl.setUser(user);
-        userVinyl.setVinyl(new Vinyl());
-        userVinyl.setStatus(new VinylStatus());
+        userVinyl.setVinyl(vinyl);
+        userVinyl.setStatus(status);
 
-        when(userVinylService.getUserVinyls(1)).thenReturn(List.of(userVinyl));
+        when(userVinylService.getUserVinyls(1)).thenReturn(List.of(UserVinylView.of(userVinyl)));
 
-        List<UserVinylDto> result = facade.getCurrentUserVinyls(principal);
+        List<UserVinylView> result = facade.getCurrentUserVinyls(principal);
 
         assertThat(result).hasSize(1);
+        verifyNoInteractions(userService);
     }
 
     @Test
@@ -111,7 +111,6 @@ class UserVinylFacadeTest {
 
     @Test
     void findVinylForCurrentUser_shouldDelegate() {
-        when(userService.getUserByEmail("test@mail.com")).thenReturn(Optional.of(user));
         when(userVinylService.findUserVinyl(1, 2)).thenReturn(Optional.of(userVinyl));
         Optional<UserVinyl> result = facade.findVinylForCurrentUser(2, principal);
         assertThat(result).isPresent();
@@ -119,7 +118,7 @@ class UserVinylFacadeTest {
 
     @Test
     void updateCurrentUserVinylStatus_shouldUpdate() {
-        when(userService.getUserByEmail("test@mail.com")).thenReturn(Optional.of(user));
+        when(userService.getUser(1)).thenReturn(user);
         when(vinylService.getVinyl(2)).thenReturn(vinyl);
         when(vinylStatusService.getById(3)).thenReturn(Optional.of(status));
         when(userVinylService.updateVinylStatus(user, vinyl, status)).thenReturn(userVinyl);
@@ -129,7 +128,7 @@ class UserVinylFacadeTest {
 
     @Test
     void updateCurrentUserVinylStatus_shouldThrowIfStatusNotFound() {
-        when(userService.getUserByEmail("test@mail.com")).thenReturn(Optional.of(user));
+        when(userService.getUser(1)).thenReturn(user);
         when(vinylService.getVinyl(2)).thenReturn(vinyl);
         when(vinylStatusService.getById(3)).thenReturn(Optional.empty());
         assertThatThrownBy(() -> facade.updateCurrentUserVinylStatus(2, 3, principal))
@@ -149,8 +148,11 @@ class UserVinylFacadeTest {
 
     @Test
     void getUserVinyls_shouldReturnList() {
-        when(userVinylService.getUserVinyls(1)).thenReturn(List.of(userVinyl));
-        List<UserVinyl> result = facade.getUserVinyls(1);
+        userVinyl.setUser(user);
+        userVinyl.setVinyl(vinyl);
+        userVinyl.setStatus(status);
+        when(userVinylService.getUserVinyls(1)).thenReturn(List.of(UserVinylView.of(userVinyl)));
+        List<UserVinylView> result = facade.getUserVinyls(1);
         assertThat(result).hasSize(1);
     }
 
@@ -190,10 +192,13 @@ class UserVinylFacadeTest {
 
     @Test
     void getUsersByVinyl_shouldReturnList() {
-        List<UserVinyl> list = List.of(new UserVinyl());
+        userVinyl.setUser(user);
+        userVinyl.setVinyl(vinyl);
+        userVinyl.setStatus(status);
+        List<UserVinylView> list = List.of(UserVinylView.of(userVinyl));
         when(userVinylService.getUsersByVinyl(1)).thenReturn(list);
 
-        List<UserVinyl> result = facade.getUsersByVinyl(1);
+        List<UserVinylView> result = facade.getUsersByVinyl(1);
 
         assertThat(result).isEqualTo(list);
         verify(userVinylService).getUsersByVinyl(1);
@@ -1,6 +1,8 @@
 package com.example.vinyltrackerapi.service;
 
 import com.example.vinyltrackerapi.api.dto.UserVinylDto;
+import com.example.vinyltrackerapi.api.dto.UserVinylView;
+import com.example.vinyltrackerapi.api.dto.VinylView;
 import com.example.vinyltrackerapi.api.models.Role;
 import com.example.vinyltrackerapi.api.models.User;
 import com.example.vinyltrackerapi.api.models.UserVinyl;
@@ -12,8 +14,11 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -22,9 +27,11 @@ class UserVinylServiceTest {
     @Mock
     private UserVinylRepository userVinylRepository;
     @Mock
-    private CacheService<List<UserVinyl>> userVinylCache;
+    private CacheService<UserCollection> userVinylCache;
     @Mock
-    private CacheService<List<UserVinyl>> vinylUserCache;
+    private CacheService<List<UserVinylView>> vinylUserCache;
+    @Mock
+    private CacheInvalidationBus invalidationBus;
 
     private AutoCloseable closeable;
 
@@ -34,7 +41,8 @@ class UserVinylServiceTest {
     @BeforeEach
     void setUp() {
         closeable = MockitoAnnotations.openMocks(this);
-        userVinylService = new UserVinylService(userVinylRepository, userVinylCache, vinylUserCache);
+        userVinylService = new UserVinylService(userVinylRepository, userVinylCache, vinylUserCache,
+                invalidationBus);
     }
 
     @AfterEach
@@ -42,6 +50,40 @@ class UserVinylServiceTest {
         closeable.close();
     }
 
+    @SuppressWarnings("unchecked")
+    private static <T> void loadThrough(CacheService<T> cache) {
+        when(cache.get(anyString(), any())).thenAnswer(inv -> ((Supplier<T>) inv.getArgument(1)).get());
+    }
+
+    private static UserVinyl link(int userId, int vinylId) {
+        return link(userId, vinylId, new VinylStatus(1, "Хочу"));
+    }
+
+    private static UserVinyl link(int userId, int vinylId, VinylStatus status) {
+        Role role = new Role();
+        role.setId(2);
+        User user = new User();
+        user.setId(userId);
+        user.setRole(role);
+        Vinyl vinyl = new Vinyl();
+        vinyl.setId(vinylId);
+        return new UserVinyl(user, vinyl, status);
+    }
+
+    @SuppressWarnings("unchecked")
+    private UserCollection patchedCollection(UserCollection cached) {
+        ArgumentCaptor<UnaryOperator<UserCollection>> patch = ArgumentCaptor.forClass(UnaryOperator.class);
+        verify(userVinylCache).update(eq("user-vinyls-1"), patch.capture());
+        return patch.getValue().apply(cached);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<UserVinylView> patchedVinylUsers(List<UserVinylView> cached) {
+        ArgumentCaptor<UnaryOperator<List<UserVinylView>>> patch = ArgumentCaptor.forClass(UnaryOperator.class);
+        verify(vinylUserCache).update(eq("vinyl-users-2"), patch.capture());
+        return patch.getValue().apply(cached);
+    }
+
     @Test
     void getAllUserVinyls_shouldReturnAllMappedToDto() {
         Role role = new Role();
@@ -107,60 +149,107 @@ class UserVinylServiceTest {
 
     @Test
     void removeVinylFromUser_shouldCallRepositoryAndUpdateCache() {
+        UserVinylView kept = UserVinylView.of(link(1, 3));
+        UserVinylView removed = UserVinylView.of(link(1, 2));
+
         userVinylService.removeVinylFromUser(1, 2);
+
         verify(userVinylRepository).deleteById(new UserVinylId(1, 2));
+        assertThat(patchedCollection(UserCollection.of(List.of(kept, removed))).views()).containsExactly(kept);
+        assertThat(patchedVinylUsers(List.of(removed))).isEmpty();
+        verify(userVinylRepository, never()).findByVinylId(any());
     }
 
     @Test
     void getUserVinyls_shouldFetchAndCacheResult() {
-        UserVinyl mockVinyl = new UserVinyl();
-        List<UserVinyl> dbResult = List.of(mockVinyl);
+        UserVinyl entity = link(1, 2);
+        loadThrough(userVinylCache);
+        when(userVinylRepository.findAllWithVinylAndStatusByUserId(1)).thenReturn(List.of(entity));
 
-        when(userVinylRepository.findAllWithVinylAndStatusByUserId(1)).thenReturn(dbResult);
+        List<UserVinylView> result = userVinylService.getUserVinyls(1);
 
-        List<UserVinyl> result = userVinylService.getUserVinyls(1);
-
-        assertThat(result).isEqualTo(dbResult);
+        assertThat(result).containsExactly(UserVinylView.of(entity));
+        assertThat(result.get(0).vinylId()).isEqualTo(2);
         verify(userVinylRepository).findAllWithVinylAndStatusByUserId(1);
-        verify(userVinylCache).put("user-vinyls-1", dbResult);
+        verify(userVinylCache).get(eq("user-vinyls-1"), any());
+    }
+
+    @Test
+    void getUserVinyls_shouldReturnCachedCollectionWithoutQuery() {
+        UserCollection cached = UserCollection.of(List.of(UserVinylView.of(link(1, 2))));
+        when(userVinylCache.get(eq("user-vinyls-1"), any())).thenReturn(cached);
+
+        assertThat(userVinylService.getUserVinyls(1)).isSameAs(cached.views());
+        verifyNoInteractions(userVinylRepository);
+    }
+
+    @Test
+    void addVinylToUser_shouldPatchCachedCollectionsInPlace() {
+        UserVinyl saved = link(1, 2);
+        UserVinylView existing = UserVinylView.of(link(1, 5));
+        UserVinylView otherUser = UserVinylView.of(link(4, 2));
+        when(userVinylRepository.save(any(UserVinyl.class))).thenReturn(saved);
+
+        userVinylService.addVinylToUser(saved.getUser(), saved.getVinyl(), saved.getStatus());
+
+        UserCollection patched = patchedCollection(UserCollection.of(List.of(existing)));
+        assertThat(patched.views()).containsExactly(existing, UserVinylView.of(saved));
+        assertThat(patched.version()).isEqualTo(1);
+        assertThat(patchedVinylUsers(List.of(otherUser))).containsExactly(otherUser, UserVinylView.of(saved));
+        verify(userVinylRepository, never()).findByVinylId(any());
     }
 
     @Test
     void getUsersByVinyl_shouldReturnFromCacheIfPresent() {
-        List<UserVinyl> cached = List.of(new UserVinyl());
-        when(vinylUserCache.contains("vinyl-users-1")).thenReturn(true);
-        when(vinylUserCache.get("vinyl-users-1")).thenReturn(cached);
+        List<UserVinylView> cached = List.of(UserVinylView.of(link(1, 1)));
+        when(vinylUserCache.get(eq("vinyl-users-1"), any())).thenReturn(cached);
 
-        List<UserVinyl> result = userVinylService.getUsersByVinyl(1);
+        List<UserVinylView> result = userVinylService.getUsersByVinyl(1);
 
         assertThat(result).isEqualTo(cached);
-        verify(vinylUserCache).get("vinyl-users-1");
+        verify(vinylUserCache).get(eq("vinyl-users-1"), any());
         verifyNoInteractions(userVinylRepository);
     }
 
     @Test
     void getUsersByVinyl_shouldFetchAndCacheIfNotPresent() {
-        List<UserVinyl> fromDb = List.of(new UserVinyl());
-        when(vinylUserCache.contains("vinyl-users-2")).thenReturn(false);
-        when(userVinylRepository.findByVinylId(2)).thenReturn(fromDb);
+        UserVinyl entity = link(1, 2);
+        loadThrough(vinylUserCache);
+        when(userVinylRepository.findByVinylId(2)).thenReturn(List.of(entity));
 
-        List<UserVinyl> result = userVinylService.getUsersByVinyl(2);
+        List<UserVinylView> result = userVinylService.getUsersByVinyl(2);
 
-        assertThat(result).isEqualTo(fromDb);
+        assertThat(result).containsExactly(UserVinylView.of(entity));
         verify(userVinylRepository).findByVinylId(2);
-        verify(vinylUserCache).put("vinyl-users-2", fromDb);
+        verify(vinylUserCache).get(eq("vinyl-users-2"), any());
     }
 
     @Test
     void getUsersByVinyl_shouldReturnCachedIfPresent() {
-        List<UserVinyl> cached = List.of(new UserVinyl());
-        when(vinylUserCache.contains("vinyl-users-2")).thenReturn(true);
-        when(vinylUserCache.get("vinyl-users-2")).thenReturn(cached);
+        List<UserVinylView> cached = List.of(UserVinylView.of(link(1, 2)));
+        when(vinylUserCache.get(eq("vinyl-users-2"), any())).thenReturn(cached);
 
-        List<UserVinyl> result = userVinylService.getUsersByVinyl(2);
+        List<UserVinylView> result = userVinylService.getUsersByVinyl(2);
         assertThat(result).isEqualTo(cached);
     }
 
+    @Test
+    void updateVinylStatus_shouldReplaceStatusInCachedCollection() {
+        UserVinyl stored = link(1, 2);
+        VinylStatus listened = new VinylStatus(2, "Слушаю");
+        when(userVinylRepository.findById(new UserVinylId(1, 2))).thenReturn(Optional.of(stored));
+        when(userVinylRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        UserCollection cached = UserCollection.of(List.of(UserVinylView.of(link(1, 2)), UserVinylView.of(link(1, 3))));
+
+        userVinylService.updateVinylStatus(stored.getUser(), stored.getVinyl(), listened);
+
+        UserCollection patched = patchedCollection(cached);
+        assertThat(patched.statusOf(2)).isEqualTo(2);
+        assertThat(patched.views()).extracting(UserVinylView::vinylId).containsExactly(2, 3);
+        assertThat(patchedVinylUsers(List.of(UserVinylView.of(link(1, 2))))).extracting(UserVinylView::statusId)
+                .containsExactly(2);
+    }
+
     @Test
     void updateVinylStatus_shouldUpdateStatusAndReturnUpdated() {
         User user = new User(); user.setId(1);
@@ -178,9 +267,12 @@ class UserVinylServiceTest {
 
     @Test
     void removeAllByUser_shouldCallRepoAndCacheRemove() {
+        when(userVinylCache.getName()).thenReturn("user-vinyl");
+
         userVinylService.removeAllByUser(1);
         verify(userVinylRepository).deleteAllByUserId(1);
         verify(userVinylCache).remove("user-vinyls-1");
+        verify(invalidationBus).publish(CacheInvalidation.key("user-vinyl", "user-vinyls-1"));
     }
 
     @Test
@@ -189,4 +281,52 @@ class UserVinylServiceTest {
         verify(userVinylRepository).deleteAllByVinylId(2);
         verify(vinylUserCache).remove("vinyl-users-2");
     }
+
+    @Test
+    void removeAllByVinyl_shouldDropVinylFromCachedCollectionsOfItsUsers() {
+        try (CachedRegions regions = new CachedRegions()) {
+            when(userVinylRepository.findAllWithVinylAndStatusByUserId(1)).thenReturn(List.of(link(1, 2), link(1, 3)));
+            when(userVinylRepository.findUserIdsByVinylId(2)).thenReturn(List.of(1));
+            regions.service.getUserVinyls(1);
+
+            regions.service.removeAllByVinyl(2);
+
+            assertThat(regions.service.getUserVinyls(1)).extracting(UserVinylView::vinylId).containsExactly(3);
+            verify(userVinylRepository).findAllWithVinylAndStatusByUserId(1);
+        }
+    }
+
+    @Test
+    void replaceVinyls_shouldShowEditedVinylInCachedCollectionsOfItsUsers() {
+        try (CachedRegions regions = new CachedRegions()) {
+            when(userVinylRepository.findAllWithVinylAndStatusByUserId(1)).thenReturn(List.of(link(1, 2)));
+            when(userVinylRepository.findByVinylId(2)).thenReturn(List.of(link(1, 2)));
+            regions.service.getUserVinyls(1);
+            regions.service.getUsersByVinyl(2);
+            VinylView edited = new VinylView(2, "Edited", "Artist", 3, 1990, null, null, null);
+
+            regions.service.replaceVinyls(List.of(edited));
+
+            assertThat(regions.service.getUserVinyls(1)).extracting(UserVinylView::vinyl).containsExactly(edited);
+            assertThat(regions.service.getUsersByVinyl(2)).extracting(UserVinylView::vinyl).containsExactly(edited);
+            verify(userVinylRepository).findAllWithVinylAndStatusByUserId(1);
+            verify(userVinylRepository, never()).findUserIdsByVinylId(any());
+        }
+    }
+
+    // настоящие регионы, чтобы проверить чтение после изменения
+    private final class CachedRegions implements AutoCloseable {
+        private final CacheService<UserCollection> collections = new CacheService<>(new CacheRegionSettings(
+                "user-vinyl", Duration.ofMinutes(10), 100, EvictionPolicyType.LRU));
+        private final CacheService<List<UserVinylView>> links = new CacheService<>(new CacheRegionSettings(
+                "vinyl-user", Duration.ofMinutes(10), 100, EvictionPolicyType.LRU));
+        private final UserVinylService service = new UserVinylService(userVinylRepository, collections, links,
+                invalidationBus);
+
+        @Override
+        public void close() {
+            collections.shutdown();
+            links.shutdown();
+        }
+    }
 }
@@ -0,0 +1,46 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.repositories.VinylScroll;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.assertj.core.api.Assertions.*;
+
+class VinylCursorTest {
+
+    @Test
+    void decode_shouldRestoreSortAndTypedKey() {
+        VinylScroll scroll = new VinylScroll("releaseYear", true, null, 21);
+
+        String cursor = VinylCursor.encode(42, scroll, new VinylScroll.Key(7, 1973));
+
+        assertThat(VinylCursor.decode(cursor, 42, 21))
+                .isEqualTo(new VinylScroll("releaseYear", true, new VinylScroll.Key(7, 1973), 21));
+    }
+
+    @Test
+    void decode_shouldKeepRankExactly() {
+        double rank = 0.1 + 0.2;
+        String cursor = VinylCursor.encode(1, new VinylScroll("rank", true, null, 11), new VinylScroll.Key(3, rank));
+
+        assertThat(VinylCursor.decode(cursor, 1, 11).after().value()).isEqualTo(rank);
+    }
+
+    @Test
+    void decode_shouldRejectCursorOfOtherFilters() {
+        String cursor = VinylCursor.encode(1, new VinylScroll("title", false, null, 11),
+                new VinylScroll.Key(3, "Abbey Road"));
+
+        assertThatThrownBy(() -> VinylCursor.decode(cursor, 2, 11)).isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void decode_shouldRejectDamagedCursor() {
+        String cursor = VinylCursor.encode(1, new VinylScroll("id", false, null, 11), new VinylScroll.Key(3, 3));
+
+        assertThatThrownBy(() -> VinylCursor.decode(cursor.substring(0, cursor.length() - 2), 1, 11))
+                .isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> VinylCursor.decode("не base64", 1, 11))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+}
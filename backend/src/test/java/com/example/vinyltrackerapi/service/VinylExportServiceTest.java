@@ -0,0 +1,81 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.dto.VinylView;
+import com.example.vinyltrackerapi.api.repositories.VinylRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VinylExportServiceTest {
+
+    @Mock
+    private VinylRepository vinylRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final VinylView first = new VinylView(1, "Abbey Road", "The Beatles", 3, 1969, null, null, 5);
+    private final VinylView second = new VinylView(2, "Say \"Hi\", again", "Ария", 4, 1987, "строка 1\nстрока 2",
+            "http://covers/2.png", null);
+    private VinylExportService exportService;
+
+    @BeforeEach
+    void init() {
+        exportService = new VinylExportService(vinylRepository, objectMapper);
+    }
+
+    @Test
+    void export_shouldWriteOneJsonObjectPerLineAndCloseStream() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(vinylRepository.streamAllViews()).thenReturn(Stream.of(first, second).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = exportService.export(VinylExportService.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[0], VinylView.class)).isEqualTo(first);
+        assertThat(objectMapper.readValue(lines[1], VinylView.class)).isEqualTo(second);
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void export_shouldQuoteCsvFieldsWithSeparatorsQuotesAndLineBreaks() throws Exception {
+        when(vinylRepository.streamAllViews()).thenReturn(Stream.of(first, second));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(VinylExportService.Format.CSV, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "id,title,artist,genreId,releaseYear,description,coverUrl,addedById\n"
+                        + "1,Abbey Road,The Beatles,3,1969,,,5\n"
+                        + "2,\"Say \"\"Hi\"\", again\",Ария,4,1987,\"строка 1\nстрока 2\",http://covers/2.png,\n");
+    }
+
+    @Test
+    void export_shouldWriteOnlyHeaderForEmptyCatalog() throws Exception {
+        when(vinylRepository.streamAllViews()).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(exportService.export(VinylExportService.Format.CSV, out)).isZero();
+        assertThat(out.toString(StandardCharsets.UTF_8)).hasLineCount(1);
+    }
+
+    @Test
+    void formatOf_shouldIgnoreCaseAndRejectUnknownFormat() {
+        assertThat(VinylExportService.Format.of(" csv ")).isEqualTo(VinylExportService.Format.CSV);
+        assertThatThrownBy(() -> VinylExportService.Format.of("xml")).isInstanceOf(ResponseStatusException.class);
+    }
+}
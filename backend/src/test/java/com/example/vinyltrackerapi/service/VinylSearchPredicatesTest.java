@@ -0,0 +1,79 @@
+package com.example.vinyltrackerapi.service;
+
+import com.example.vinyltrackerapi.api.models.Genre;
+import com.example.vinyltrackerapi.api.models.Vinyl;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VinylSearchPredicatesTest {
+
+    private static Vinyl vinyl(String title, String artist, int year, Integer genreId, String genreName) {
+        Vinyl vinyl = new Vinyl();
+        vinyl.setTitle(title);
+        vinyl.setArtist(artist);
+        vinyl.setReleaseYear(year);
+        if (genreId != null) {
+            Genre genre = new Genre();
+            genre.setId(genreId);
+            genre.setName(genreName);
+            vinyl.setGenre(genre);
+        }
+        return vinyl;
+    }
+
+    @Test
+    void byFields_shouldMatchLikeSpecification() {
+        var predicate = VinylSearchPredicates.byFields("dark", null, 1973, 2);
+
+        assertThat(predicate.test(vinyl("The Dark Side of the Moon", "Pink Floyd", 1973, 2, "Rock"))).isTrue();
+        assertThat(predicate.test(vinyl("The Dark Side of the Moon", "Pink Floyd", 1974, 2, "Rock"))).isFalse();
+        assertThat(predicate.test(vinyl("The Dark Side of the Moon", "Pink Floyd", 1973, 3, "Jazz"))).isFalse();
+        assertThat(predicate.test(vinyl("Wish You Were Here", "Pink Floyd", 1973, 2, "Rock"))).isFalse();
+    }
+
+    @Test
+    void byFields_shouldIgnoreBlankCriteria() {
+        var predicate = VinylSearchPredicates.byFields(" ", null, null, null);
+
+        assertThat(predicate.test(vinyl("Anything", "Anyone", 2000, null, null))).isTrue();
+    }
+
+    @Test
+    void byText_shouldMatchTitleArtistYearOrGenre() {
+        var predicate = VinylSearchPredicates.byText("rock", null, Set.of(7));
+
+        assertThat(predicate.test(vinyl("Rock Bottom", "Robert Wyatt", 1974, null, null))).isTrue();
+        assertThat(predicate.test(vinyl("Low", "Bowie", 1977, 7, "Art"))).isTrue();
+        assertThat(predicate.test(vinyl("Low", "Bowie", 1977, 9, "Hard Rock"))).isTrue();
+        assertThat(predicate.test(vinyl("Kind of Blue", "Miles Davis", 1959, 3, "Jazz"))).isFalse();
+    }
+
+    @Test
+    void byText_shouldMatchYearQuery() {
+        var predicate = VinylSearchPredicates.byText("1959", 1959, Set.of());
+
+        assertThat(predicate.test(vinyl("Kind of Blue", "Miles Davis", 1959, null, null))).isTrue();
+        assertThat(predicate.test(vinyl("Low", "Bowie", 1977, null, null))).isFalse();
+    }
+
+    @Test
+    void byFields_shouldIgnoreCaseAndDiacriticsLikeDatabaseColumns() {
+        assertThat(VinylSearchPredicates.byFields("ежик", null, null, null)
+                .test(vinyl("Ёжик в тумане", "Норштейн", 1975, null, null))).isTrue();
+        assertThat(VinylSearchPredicates.byFields(null, "beyonce", null, null)
+                .test(vinyl("Lemonade", "Beyoncé", 2016, null, null))).isTrue();
+    }
+
+    @Test
+    void byText_shouldMatchAllQueryWordsAcrossFields() {
+        Vinyl wall = vinyl("The Wall", "Pink Floyd", 1979, null, null);
+        wall.setDescription("Рок-опера");
+        var predicate = VinylSearchPredicates.byText("floyd wall", null, Set.of());
+
+        assertThat(predicate.test(wall)).isTrue();
+        assertThat(VinylSearchPredicates.byText("wall опера", null, Set.of()).test(wall)).isTrue();
+        assertThat(predicate.test(vinyl("Animals", "Pink Floyd", 1977, null, null))).isFalse();
+    }
+}
@@ -1,25 +1,40 @@
 package com.example.vinyltrackerapi.service;
 
+import com.example.vinyltrackerapi.api.dto.CatalogSearchView;
+import com.example.vinyltrackerapi.api.dto.CursorSlice;
+import com.example.vinyltrackerapi.api.dto.FacetCountsView;
+import com.example.vinyltrackerapi.api.dto.FacetFilter;
+import com.example.vinyltrackerapi.api.dto.FacetedPageView;
 import com.example.vinyltrackerapi.api.dto.VinylDto;
+import com.example.vinyltrackerapi.api.dto.VinylView;
 import com.example.vinyltrackerapi.api.models.Genre;
 import com.example.vinyltrackerapi.api.models.User;
 import com.example.vinyltrackerapi.api.models.Vinyl;
 import com.example.vinyltrackerapi.api.repositories.GenreRepository;
 import com.example.vinyltrackerapi.api.repositories.VinylRepository;
+import com.example.vinyltrackerapi.api.repositories.VinylScroll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -34,9 +49,19 @@ class VinylServiceTest {
     @Mock private GenreRepository genreRepository;
     @Mock private UserService userService;
     @Mock private GenreService genreService;
-    @Mock private CacheService<Vinyl> vinylCache;
-    @Mock private CacheService<List<Vinyl>> vinylListCache;
-    @Mock private CacheKeyTracker vinylKeyTracker;
+    @Mock private CacheService<VinylView> vinylCache;
+    @Mock private CacheService<Boolean> vinylMissingCache;
+    @Mock private CacheService<List<VinylView>> vinylListCache;
+    @Mock private CacheService<CatalogSnapshot<VinylView>> vinylCatalogCache;
+    @Mock private SearchInvalidationIndex searchIndex;
+    @Mock private OffHeapListCache<VinylView> vinylSearchOffHeapCache;
+    @Mock private CatalogSearchIndex catalogSearchIndex;
+    @Mock private VinylSearchSchema vinylSearchSchema;
+    @Mock private CatalogSuggester catalogSuggester;
+    @Mock private CatalogFacets catalogFacets;
+    @Mock private CatalogVersionService catalogVersionService;
+    @Mock private UserVinylService userVinylService;
+    @Mock private CacheInvalidationBus invalidationBus;
 
     private final Vinyl vinyl = new Vinyl();
     private final Genre genre = new Genre();
@@ -51,7 +76,10 @@ class VinylServiceTest {
         genre.setId(3);
         user.setId(5);
         closeable = MockitoAnnotations.openMocks(this);
-        vinylService = new VinylService(vinylRepository, genreRepository, userService, genreService, vinylCache, vinylListCache,vinylKeyTracker);
+        vinylService = new VinylService(vinylRepository, genreRepository, userService, genreService, vinylCache,
+                vinylMissingCache, vinylListCache, vinylCatalogCache, searchIndex,
+                vinylSearchOffHeapCache, catalogSearchIndex, vinylSearchSchema, catalogSuggester, catalogFacets,
+                catalogVersionService, userVinylService, invalidationBus);
     }
 
     @AfterEach
@@ -59,6 +87,11 @@ class VinylServiceTest {
         closeable.close();
     }
 
+    @SuppressWarnings("unchecked")
+    private static <T> void loadThrough(CacheService<T> cache) {
+        when(cache.get(anyString(), any())).thenAnswer(inv -> ((Supplier<T>) inv.getArgument(1)).get());
+    }
+
     @Test
     void getVinylsByUploaderUsername_shouldReturnList() {
         List<Vinyl> vinyls = List.of(vinyl);
@@ -79,67 +112,123 @@ class VinylServiceTest {
         assertThat(result).isEmpty();
         verify(vinylRepository).findVinylsByUploaderUsername("empty");
     }
+    @SuppressWarnings("unchecked")
+    private List<VinylView> patchedCatalog(VinylView... cached) {
+        ArgumentCaptor<UnaryOperator<CatalogSnapshot<VinylView>>> patch = ArgumentCaptor.forClass(UnaryOperator.class);
+        verify(vinylCatalogCache).update(eq("all-vinyls"), patch.capture());
+        return patch.getValue().apply(CatalogSnapshot.of(List.of(cached), VinylView::id)).values();
+    }
+
     @Test
     void getAllVinyls_shouldReturnFromCache() {
-        List<Vinyl> cached = List.of(vinyl);
-        when(vinylListCache.contains("all-vinyls")).thenReturn(true);
-        when(vinylListCache.get("all-vinyls")).thenReturn(cached);
+        List<VinylView> cached = List.of(VinylView.of(vinyl));
+        when(vinylCatalogCache.get(eq("all-vinyls"), any())).thenReturn(CatalogSnapshot.of(cached, VinylView::id));
 
-        List<Vinyl> result = vinylService.getAllVinyls();
+        List<VinylView> result = vinylService.getAllVinyls();
 
-        assertThat(result).containsExactly(vinyl);
+        assertThat(result).isEqualTo(cached);
         verifyNoInteractions(vinylRepository);
     }
 
     @Test
-    void getAllVinyls_shouldFetchAndCacheIfMissing() {
-        List<Vinyl> all = List.of(vinyl);
-        when(vinylListCache.contains("all-vinyls")).thenReturn(false);
-        when(vinylRepository.findAll()).thenReturn(all);
+    void getAllVinyls_shouldBuildViewsOnceWhenMissing() {
+        vinyl.setGenre(genre);
+        vinyl.setAddedBy(user);
+        loadThrough(vinylCatalogCache);
+        when(vinylRepository.findAll()).thenReturn(List.of(vinyl));
 
-        List<Vinyl> result = vinylService.getAllVinyls();
+        List<VinylView> result = vinylService.getAllVinyls();
 
-        assertThat(result).isEqualTo(all);
-        verify(vinylListCache).put("all-vinyls", all);
+        assertThat(result).containsExactly(new VinylView(1, "Test", null, 3, null, null, null, 5));
+        verify(vinylCatalogCache).get(eq("all-vinyls"), any());
     }
+
     @Test
-    void getVinyl_shouldReturnFromCache() {
-        when(vinylCache.contains("vinyl-1")).thenReturn(true);
-        when(vinylCache.get("vinyl-1")).thenReturn(vinyl);
+    void getVinylView_shouldReturnFromCache() {
+        VinylView view = VinylView.of(vinyl);
+        when(vinylCache.get(eq("vinyl-1"), any())).thenReturn(view);
 
-        Vinyl result = vinylService.getVinyl(1);
-        assertThat(result).isEqualTo(vinyl);
+        VinylView result = vinylService.getVinylView(1);
+        assertThat(result).isSameAs(view);
+        verifyNoInteractions(vinylRepository);
     }
 
     @Test
-    void getVinyl_shouldFetchAndCacheIfMissing() {
-        when(vinylCache.contains("vinyl-1")).thenReturn(false);
+    void getVinylView_shouldFetchAndCacheIfMissing() {
+        loadThrough(vinylCache);
         when(vinylRepository.findById(1)).thenReturn(Optional.of(vinyl));
 
-        Vinyl result = vinylService.getVinyl(1);
+        VinylView result = vinylService.getVinylView(1);
 
-        assertThat(result).isEqualTo(vinyl);
-        verify(vinylCache).put("vinyl-1", vinyl);
+        assertThat(result).isEqualTo(VinylView.of(vinyl));
+        verify(vinylCache).get(eq("vinyl-1"), any());
     }
 
     @Test
-    void getVinyl_shouldThrowIfNotFound() {
-        when(vinylCache.contains("vinyl-1")).thenReturn(false);
+    void getVinylView_shouldThrowIfNotFound() {
+        loadThrough(vinylCache);
         when(vinylRepository.findById(1)).thenReturn(Optional.empty());
 
-        assertThatThrownBy(() -> vinylService.getVinyl(1))
+        assertThatThrownBy(() -> vinylService.getVinylView(1))
                 .isInstanceOf(ResponseStatusException.class);
+        verify(vinylMissingCache).putIfNotRemovedSince("vinyl-1", Boolean.TRUE, 0L);
+    }
+
+    @Test
+    void getVinylView_shouldDropMissMarkerOfLookupOvertakenByCreate() {
+        CacheService<Boolean> missing = new CacheService<>(new CacheRegionSettings("vinyl-missing",
+                Duration.ofMinutes(1), 100, EvictionPolicyType.LRU));
+        vinylService = new VinylService(vinylRepository, genreRepository, userService, genreService, vinylCache,
+                missing, vinylListCache, vinylCatalogCache, searchIndex,
+                vinylSearchOffHeapCache, catalogSearchIndex, vinylSearchSchema, catalogSuggester, catalogFacets,
+                catalogVersionService, userVinylService, invalidationBus);
+        VinylDto dto = mock(VinylDto.class);
+        when(dto.getGenreId()).thenReturn(3);
+        when(dto.toEntity(any(), any())).thenReturn(vinyl);
+        when(genreService.getGenreById(3)).thenReturn(genre);
+        when(vinylRepository.save(any())).thenReturn(vinyl);
+        loadThrough(vinylCache);
+        // поиск прочитал «не найдено», а создание успело завершиться до записи отметки
+        when(vinylRepository.findById(1)).thenAnswer(inv -> {
+            vinylService.createVinyl(dto);
+            return Optional.empty();
+        });
+
+        try {
+            assertThatThrownBy(() -> vinylService.getVinylView(1)).isInstanceOf(ResponseStatusException.class);
+
+            assertThat(missing.get("vinyl-1")).isNull();
+        } finally {
+            missing.shutdown();
+        }
+    }
+
+    @Test
+    void getVinylView_shouldAnswerFromNegativeCacheWithoutRepository() {
+        when(vinylMissingCache.get("vinyl-1")).thenReturn(Boolean.TRUE);
+
+        assertThatThrownBy(() -> vinylService.getVinylView(1))
+                .isInstanceOf(ResponseStatusException.class);
+        verifyNoInteractions(vinylRepository, vinylCache);
+    }
+
+    @Test
+    void getVinyl_shouldReadManagedEntityBypassingCache() {
+        when(vinylRepository.findById(1)).thenReturn(Optional.of(vinyl));
+
+        assertThat(vinylService.getVinyl(1)).isSameAs(vinyl);
+        verifyNoInteractions(vinylCache);
     }
 
     @Test
     void searchVinylsGlobal_shouldReturnFromCacheIfExists() {
         String cacheKey = "search-vinyl-text-rock";
-        when(vinylListCache.contains(cacheKey)).thenReturn(true);
-        when(vinylListCache.get(cacheKey)).thenReturn(List.of(vinyl));
+        when(vinylListCache.get(eq(cacheKey), any())).thenReturn(List.of(VinylView.of(vinyl)));
 
-        List<VinylDto> result = vinylService.searchVinylsGlobal("rock");
+        List<VinylView> result = vinylService.searchVinylsGlobal("rock");
 
         assertThat(result).hasSize(1);
+        verifyNoInteractions(vinylRepository);
     }
 
     @Test
@@ -151,81 +240,103 @@ class VinylServiceTest {
     @Test
     void searchVinylsGlobal_shouldSearchWhenNotCached() {
         String query = "metal";
+        loadThrough(vinylListCache);
         when(genreRepository.findByNameContainingIgnoreCase("metal")).thenReturn(List.of());
-        when(vinylRepository.findAll(any(Specification.class))).thenReturn(List.of(vinyl));
+        when(vinylRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(vinyl)));
 
-        List<VinylDto> result = vinylService.searchVinylsGlobal(query);
+        List<VinylView> result = vinylService.searchVinylsGlobal(query);
 
         assertThat(result).hasSize(1);
-        verify(vinylKeyTracker).addVinylCacheKey(eq(vinyl.getId()), contains("metal"));
-        verify(vinylListCache).put(contains("metal"), any());
+        verify(searchIndex).register(eq("search-vinyl-text-metal"), any());
+        verify(vinylListCache).get(contains("metal"), any());
+        verify(vinylRepository).findAll(any(Specification.class), eq(PageRequest.of(0, 100, Sort.by("id"))));
     }
 
     @Test
     void searchVinylsGlobal_shouldApplyYearIfNumber() {
-        when(vinylListCache.contains(anyString())).thenReturn(false);
+        loadThrough(vinylListCache);
         when(genreRepository.findByNameContainingIgnoreCase(anyString())).thenReturn(List.of());
-        when(vinylRepository.findAll(any(Specification.class))).thenReturn(List.of(vinyl));
+        when(vinylRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(vinyl)));
 
-        List<VinylDto> result = vinylService.searchVinylsGlobal("1990");
+        List<VinylView> result = vinylService.searchVinylsGlobal("1990");
 
         assertThat(result).hasSize(1);
-        verify(vinylListCache).put(contains("1990"), any());
+        verify(vinylListCache).get(contains("1990"), any());
     }
 
     @Test
     void searchVinylsGlobal_shouldApplyGenresIfMatched() {
         Genre g = new Genre(); g.setId(42);
-        when(vinylListCache.contains(anyString())).thenReturn(false);
+        loadThrough(vinylListCache);
         when(genreRepository.findByNameContainingIgnoreCase("rock")).thenReturn(List.of(g));
-        when(vinylRepository.findAll(any(Specification.class))).thenReturn(List.of(vinyl));
+        when(vinylRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(vinyl)));
 
-        List<VinylDto> result = vinylService.searchVinylsGlobal("rock");
+        List<VinylView> result = vinylService.searchVinylsGlobal("rock");
 
         assertThat(result).hasSize(1);
-        verify(vinylKeyTracker).addVinylCacheKey(anyInt(), contains("rock"));
+        verify(searchIndex).register(contains("rock"), any());
     }
 
 
     @Test
     void searchVinyls_shouldReturnFromCacheIfExists() {
         String key = "search-vinyl-1-2-3-4";
-        when(vinylListCache.contains(key)).thenReturn(true);
-        when(vinylListCache.get(key)).thenReturn(List.of(vinyl));
+        when(vinylListCache.get(eq(key), any())).thenReturn(List.of(VinylView.of(vinyl)));
 
-        List<VinylDto> result = vinylService.searchVinyls("1", "2", 3, 4);
+        List<VinylView> result = vinylService.searchVinyls("1", "2", 3, 4);
 
         assertThat(result).hasSize(1);
+        verifyNoInteractions(vinylRepository);
     }
 
     @Test
     void searchVinyls_shouldBuildSpecAndReturnIfNotCached() {
-        when(vinylListCache.contains(anyString())).thenReturn(false);
+        loadThrough(vinylListCache);
         when(vinylRepository.findAll(any(Specification.class))).thenReturn(List.of(vinyl));
 
-        List<VinylDto> result = vinylService.searchVinyls("A", "B", 2000, 1);
+        List<VinylView> result = vinylService.searchVinyls("A", "B", 2000, 1);
 
         assertThat(result).hasSize(1);
-        verify(vinylKeyTracker).addVinylCacheKey(eq(vinyl.getId()), contains("search-vinyl-"));
-        verify(vinylListCache).put(anyString(), any());
+        verify(searchIndex).register(eq("search-vinyl-A-B-2000-1"), any());
+        verify(vinylListCache).get(anyString(), any());
     }
 
     @Test
     void searchVinyls_shouldBuildSpecFromAllParams() {
-        when(vinylListCache.contains(anyString())).thenReturn(false);
+        loadThrough(vinylListCache);
         when(vinylRepository.findAll(any(Specification.class))).thenReturn(List.of(vinyl));
 
-        List<VinylDto> result = vinylService.searchVinyls("Title", "Artist", 1985, 7);
+        List<VinylView> result = vinylService.searchVinyls("Title", "Artist", 1985, 7);
 
         assertThat(result).hasSize(1);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void searchVinylsGlobal_shouldUseOffHeapTierWhenEnabled() {
+        when(vinylSearchOffHeapCache.isEnabled()).thenReturn(true);
+        when(vinylSearchOffHeapCache.get(anyString(), any()))
+                .thenAnswer(inv -> ((Supplier<List<VinylView>>) inv.getArgument(1)).get());
+        when(genreRepository.findByNameContainingIgnoreCase("jazz")).thenReturn(List.of());
+        when(vinylRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(vinyl)));
+
+        List<VinylView> result = vinylService.searchVinylsGlobal("jazz");
+
+        assertThat(result).extracting(VinylView::title).containsExactly("Test");
+        verify(vinylSearchOffHeapCache).get(eq("search-vinyl-text-jazz"), any());
+        verifyNoInteractions(vinylListCache);
+    }
+
     @Test
     void searchVinyls_shouldIgnoreNullParams() {
-        when(vinylListCache.contains(anyString())).thenReturn(false);
+        loadThrough(vinylListCache);
         when(vinylRepository.findAll(any(Specification.class))).thenReturn(List.of(vinyl));
 
-        List<VinylDto> result = vinylService.searchVinyls(null, null, null, null);
+        List<VinylView> result = vinylService.searchVinyls(null, null, null, null);
 
         assertThat(result).hasSize(1);
     }
@@ -240,13 +351,16 @@ class VinylServiceTest {
         when(genreService.getGenreById(3)).thenReturn(genre);
         when(userService.getUser(5)).thenReturn(user);
         when(vinylRepository.save(any())).thenReturn(vinyl);
-        when(vinylRepository.findAll()).thenReturn(List.of(vinyl));
 
         Vinyl result = vinylService.createVinyl(dto);
 
         assertThat(result).isEqualTo(vinyl);
-        verify(vinylCache).put("vinyl-1", vinyl);
-        verify(vinylListCache).put("all-vinyls", List.of(vinyl));
+        verify(catalogVersionService).bump();
+        verify(vinylMissingCache).remove("vinyl-1");
+        verify(vinylCache).put("vinyl-1", VinylView.of(vinyl));
+        VinylView existing = new VinylView(7, "Other", "Artist", 3, 2000, null, null, null);
+        assertThat(patchedCatalog(existing)).containsExactly(existing, VinylView.of(vinyl));
+        verify(vinylRepository, never()).findAll();
     }
 
     @Test
@@ -263,16 +377,35 @@ class VinylServiceTest {
         when(genreService.getGenreById(3)).thenReturn(genre);
         when(userService.getUser(5)).thenReturn(user);
         when(vinylRepository.save(any())).thenReturn(vinyl);
-        when(vinylKeyTracker.getVinylCacheKeys(1)).thenReturn(Set.of("some-key"));
-        when(vinylRepository.findAll()).thenReturn(List.of());
+        when(searchIndex.removeMatching(any())).thenReturn(Set.of("some-key"));
 
         Vinyl result = vinylService.updateVinyl(1, dto);
 
         assertThat(result).isEqualTo(vinyl);
-        verify(vinylCache).put("vinyl-1", vinyl);
+        verify(vinylCache).put("vinyl-1", VinylView.of(vinyl));
+        verify(userVinylService).replaceVinyls(List.of(VinylView.of(vinyl)));
         verify(vinylListCache).remove("some-key");
-        verify(vinylKeyTracker).removeVinylCacheKeys(1);
-        verify(vinylListCache).put("all-vinyls", List.of());
+        verify(searchIndex).retainCached(any());
+        verify(searchIndex).removeMatching(argThat(states -> states.stream()
+                .map(Vinyl::getTitle).toList().equals(List.of("Test", "NewTitle"))));
+        assertThat(patchedCatalog(new VinylView(1, "Test", null, 3, null, null, null, null))).singleElement()
+                .extracting(VinylView::title).isEqualTo("NewTitle");
+        verify(vinylRepository, never()).findAll();
+    }
+
+    @Test
+    void createVinyl_shouldEvictSearchResultsThatWouldMatchNewVinyl() {
+        VinylDto dto = mock(VinylDto.class);
+        when(dto.getGenreId()).thenReturn(3);
+        when(dto.toEntity(any(), eq(null))).thenReturn(vinyl);
+        when(genreService.getGenreById(3)).thenReturn(genre);
+        when(vinylRepository.save(any())).thenReturn(vinyl);
+        when(searchIndex.removeMatching(List.of(vinyl))).thenReturn(Set.of("search-vinyl-text-test"));
+
+        vinylService.createVinyl(dto);
+
+        verify(vinylListCache).remove("search-vinyl-text-test");
+        verify(vinylSearchOffHeapCache).remove("search-vinyl-text-test");
     }
 
     @Test
@@ -285,7 +418,6 @@ class VinylServiceTest {
         when(genreService.getGenreById(3)).thenReturn(genre);
         when(userService.getUser(5)).thenReturn(user);
         when(vinylRepository.save(any())).thenReturn(vinyl);
-        when(vinylRepository.findAll()).thenReturn(List.of());
 
         Vinyl result = vinylService.createVinyl(dto);
 
@@ -302,7 +434,6 @@ class VinylServiceTest {
 
         when(genreService.getGenreById(3)).thenReturn(genre);
         when(vinylRepository.save(any())).thenReturn(vinyl);
-        when(vinylRepository.findAll()).thenReturn(List.of());
 
         Vinyl result = vinylService.createVinyl(dto);
 
@@ -322,9 +453,10 @@ class VinylServiceTest {
 
     @Test
     void deleteVinyl_shouldDeleteAndCleanCache() {
-        when(vinylRepository.existsById(1)).thenReturn(true);
-        when(vinylRepository.findAll()).thenReturn(List.of());
-        when(vinylKeyTracker.getVinylCacheKeys(1)).thenReturn(Set.of("key1", "key2"));
+        when(vinylRepository.findById(1)).thenReturn(Optional.of(vinyl));
+        when(searchIndex.removeMatching(List.of(vinyl))).thenReturn(Set.of("key1", "key2"));
+        when(vinylCache.getName()).thenReturn("vinyl");
+        when(vinylListCache.getName()).thenReturn("vinyl-list");
 
         vinylService.deleteVinyl(1);
 
@@ -332,13 +464,31 @@ class VinylServiceTest {
         verify(vinylCache).remove("vinyl-1");
         verify(vinylListCache).remove("key1");
         verify(vinylListCache).remove("key2");
-        verify(vinylKeyTracker).removeVinylCacheKeys(1);
-        verify(vinylListCache).put("all-vinyls", List.of());
+        verify(vinylSearchOffHeapCache).remove("key1");
+        assertThat(patchedCatalog(VinylView.of(vinyl))).isEmpty();
+        verify(catalogVersionService).bump();
+        verify(invalidationBus).publish(CacheInvalidation.key("vinyl", "vinyl-1"));
+        verify(invalidationBus).publish(CacheInvalidation.region("vinyl-list"));
+        verify(vinylRepository, never()).findAll();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deleteVinyl_shouldKeepPredicatesOfSearchesStillLoading() {
+        when(vinylRepository.findById(1)).thenReturn(Optional.of(vinyl));
+        when(vinylListCache.containsOrLoading("search-loading")).thenReturn(true);
+
+        vinylService.deleteVinyl(1);
+
+        ArgumentCaptor<Predicate<String>> kept = ArgumentCaptor.forClass(Predicate.class);
+        verify(searchIndex).retainCached(kept.capture());
+        assertThat(kept.getValue().test("search-loading")).isTrue();
+        assertThat(kept.getValue().test("search-gone")).isFalse();
     }
 
     @Test
     void deleteVinyl_shouldThrowIfNotFound() {
-        when(vinylRepository.existsById(1)).thenReturn(false);
+        when(vinylRepository.findById(1)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> vinylService.deleteVinyl(1))
                 .isInstanceOf(ResponseStatusException.class);
@@ -346,8 +496,8 @@ class VinylServiceTest {
 
     @Test
     void detachUserFromVinyl_shouldRemoveUserReference() {
-        Vinyl v1 = new Vinyl(); v1.setAddedBy(user);
-        Vinyl v2 = new Vinyl(); v2.setAddedBy(user);
+        Vinyl v1 = new Vinyl(); v1.setId(10); v1.setAddedBy(user);
+        Vinyl v2 = new Vinyl(); v2.setId(11); v2.setAddedBy(user);
         when(vinylRepository.findByAddedBy(user)).thenReturn(List.of(v1, v2));
 
         vinylService.detachUserFromVinyl(user);
@@ -355,6 +505,9 @@ class VinylServiceTest {
         assertThat(v1.getAddedBy()).isNull();
         assertThat(v2.getAddedBy()).isNull();
         verify(vinylRepository).saveAll(List.of(v1, v2));
+        verify(vinylCache).put("vinyl-10", VinylView.of(v1));
+        assertThat(patchedCatalog()).extracting(VinylView::addedById).containsOnlyNulls();
+        verify(userVinylService).replaceVinyls(List.of(VinylView.of(v1), VinylView.of(v2)));
     }
 
     @Test
@@ -367,13 +520,14 @@ class VinylServiceTest {
         when(genreService.getGenreById(3)).thenReturn(genre);
         when(userService.getUser(5)).thenReturn(user);
         when(vinylRepository.saveAll(any())).thenReturn(List.of(vinyl));
-        when(vinylRepository.findAll()).thenReturn(List.of(vinyl));
 
         List<Vinyl> result = vinylService.createVinylsBulk(List.of(dto));
 
         assertThat(result).containsExactly(vinyl);
-        verify(vinylCache).put("vinyl-1", vinyl);
-        verify(vinylListCache).put("all-vinyls", List.of(vinyl));
+        verify(vinylMissingCache).remove("vinyl-1");
+        verify(vinylCache).put("vinyl-1", VinylView.of(vinyl));
+        assertThat(patchedCatalog()).containsExactly(VinylView.of(vinyl));
+        verify(vinylRepository, never()).findAll();
     }
 
     @Test
@@ -407,4 +561,297 @@ class VinylServiceTest {
         assertThat(result).isNotNull();
     }
 
-}
\ No newline at end of file
+    @Test
+    void getCatalogEtag_shouldReturnNullWhenCatalogNotCached() {
+        assertThat(vinylService.getCatalogEtag()).isNull();
+        verifyNoInteractions(vinylRepository);
+    }
+
+    @Test
+    void getCatalogEtag_shouldBeStableForSameSnapshotAndChangeAfterPatch() {
+        CatalogSnapshot<VinylView> snapshot = CatalogSnapshot.of(List.of(VinylView.of(vinyl)), VinylView::id);
+        when(vinylCatalogCache.get("all-vinyls")).thenReturn(snapshot);
+        String first = vinylService.getCatalogEtag();
+
+        assertThat(vinylService.getCatalogEtag()).isSameAs(first).startsWith("\"catalog-").endsWith("\"");
+
+        vinyl.setTitle("Changed");
+        when(vinylCatalogCache.get("all-vinyls")).thenReturn(snapshot.withUpserted(List.of(VinylView.of(vinyl))));
+        assertThat(vinylService.getCatalogEtag()).isNotEqualTo(first);
+    }
+
+    @Test
+    void getVinylEtag_shouldFallBackToCatalogSnapshot() {
+        VinylView view = VinylView.of(vinyl);
+        when(vinylCatalogCache.get("all-vinyls")).thenReturn(CatalogSnapshot.of(List.of(view), VinylView::id));
+
+        assertThat(vinylService.getVinylEtag(1)).isEqualTo(CatalogStamp.etag("vinyl", CatalogStamp.of(view)));
+        assertThat(vinylService.getVinylEtag(2)).isNull();
+    }
+
+    @Test
+    void searchVinylsGlobal_shouldUseFullTextIndexWhenEnabled() {
+        VinylView view = VinylView.of(vinyl);
+        when(catalogSearchIndex.isEnabled()).thenReturn(true);
+        when(catalogSearchIndex.search(eq("test"), any())).thenReturn(new PageImpl<>(List.of(view)));
+
+        assertThat(vinylService.searchVinylsGlobal(" Test ")).containsExactly(view);
+        verifyNoInteractions(vinylRepository, genreRepository, vinylListCache);
+    }
+
+    @Test
+    void searchCatalog_shouldSliceDatabaseResultWhenIndexDisabled() {
+        Vinyl other = new Vinyl();
+        other.setId(2);
+        other.setTitle("Test 2");
+        loadThrough(vinylListCache);
+        when(genreRepository.findByNameContainingIgnoreCase("test")).thenReturn(List.of());
+        when(vinylRepository.findAll(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(vinyl, other)));
+
+        Page<VinylView> page = vinylService.searchCatalog("test", PageRequest.of(1, 1));
+
+        assertThat(page.getContent()).containsExactly(VinylView.of(other));
+        assertThat(page.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void createVinyl_shouldIndexAndPublishForFullTextIndex() {
+        vinyl.setGenre(genre);
+        VinylDto dto = new VinylDto(vinyl);
+        when(genreService.getGenreById(3)).thenReturn(genre);
+        when(vinylRepository.save(any())).thenReturn(vinyl);
+        when(catalogSearchIndex.isEnabled()).thenReturn(true);
+
+        vinylService.createVinyl(dto);
+
+        verify(catalogSearchIndex).index(List.of(vinyl));
+        verify(invalidationBus).publish(CacheInvalidation.key(CatalogSearchIndex.NAME, "vinyl-1"));
+    }
+
+    @Test
+    void deleteVinyl_shouldRemoveFromFullTextIndex() {
+        when(vinylRepository.findById(1)).thenReturn(Optional.of(vinyl));
+
+        vinylService.deleteVinyl(1);
+
+        verify(catalogSearchIndex).delete(List.of(1));
+    }
+
+    @Test
+    void getTextSearchEtag_shouldBeNullWhenServedByIndex() {
+        when(catalogSearchIndex.isEnabled()).thenReturn(true);
+
+        assertThat(vinylService.getTextSearchEtag()).isNull();
+        verifyNoInteractions(vinylCatalogCache);
+    }
+
+    @Test
+    void searchVinylsGlobal_shouldUseDatabaseIndexesWhenSchemaAvailable() {
+        Genre g = new Genre(); g.setId(42);
+        loadThrough(vinylListCache);
+        when(vinylSearchSchema.isAvailable()).thenReturn(true);
+        when(genreRepository.findByNameContainingIgnoreCase("rock")).thenReturn(List.of(g));
+        when(vinylRepository.searchByText("rock", null, Set.of(42), 100)).thenReturn(List.of(vinyl));
+
+        assertThat(vinylService.searchVinylsGlobal("Rock")).containsExactly(VinylView.of(vinyl));
+        verify(vinylRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void searchVinyls_shouldUseDatabaseIndexesWhenSchemaAvailable() {
+        loadThrough(vinylListCache);
+        when(vinylSearchSchema.isAvailable()).thenReturn(true);
+        when(vinylRepository.searchByFields("Dark", null, 1973, null, Pageable.unpaged()))
+                .thenReturn(new PageImpl<>(List.of(vinyl)));
+
+        assertThat(vinylService.searchVinyls("Dark", null, 1973, null)).containsExactly(VinylView.of(vinyl));
+        verify(searchIndex).register(eq("search-vinyl-Dark-null-1973-null"), any());
+        verify(vinylRepository, never()).findAll(any(Specification.class));
+    }
+
+    @Test
+    void getVinylsPage_shouldRankTextFiltersInDatabaseWhenSchemaAvailable() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(vinylSearchSchema.isAvailable()).thenReturn(true);
+        when(genreRepository.findByNameIgnoreCase("Rock")).thenReturn(Optional.of(genre));
+        when(vinylRepository.searchByFields("moon", null, null, 3, pageable))
+                .thenReturn(new PageImpl<>(List.of(vinyl), pageable, 1));
+
+        Page<VinylDto> page = vinylService.getVinylsPage(pageable, "moon", null, null, " Rock ", null);
+
+        assertThat(page.getContent()).extracting(VinylDto::getId).containsExactly(1);
+        verify(vinylRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void getVinylsPage_shouldKeepSpecificationWithoutTextFilters() {
+        Pageable pageable = PageRequest.of(0, 10);
+        lenient().when(vinylSearchSchema.isAvailable()).thenReturn(true);
+        when(vinylRepository.findAll(any(Specification.class), eq(pageable)))
+                .thenReturn(new PageImpl<>(List.of(vinyl), pageable, 1));
+
+        assertThat(vinylService.getVinylsPage(pageable, " ", null, 1973, null, 3).getTotalElements()).isEqualTo(1);
+        verify(vinylRepository, never()).searchByFields(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void searchWithCorrections_shouldSuggestWithoutRerunningByDefault() {
+        when(catalogSearchIndex.isEnabled()).thenReturn(true);
+        when(catalogSearchIndex.search(eq("pink flyod"), any())).thenReturn(new PageImpl<>(List.of()));
+        when(catalogSuggester.corrections("pink flyod", 3)).thenReturn(List.of("pink floyd"));
+
+        CatalogSearchView result = vinylService.searchWithCorrections("pink flyod", false);
+
+        assertThat(result.results()).isEmpty();
+        assertThat(result.didYouMean()).containsExactly("pink floyd");
+        assertThat(result.correctedQuery()).isNull();
+        verify(catalogSearchIndex, never()).search(eq("pink floyd"), any());
+    }
+
+    @Test
+    void searchWithCorrections_shouldRunBestCorrectionWhenAutoCorrectEnabled() {
+        VinylView view = VinylView.of(vinyl);
+        when(catalogSearchIndex.isEnabled()).thenReturn(true);
+        when(catalogSearchIndex.search(eq("tset"), any())).thenReturn(new PageImpl<>(List.of()));
+        when(catalogSearchIndex.search(eq("test"), any())).thenReturn(new PageImpl<>(List.of(view)));
+        when(catalogSuggester.corrections("tset", 3)).thenReturn(List.of("test"));
+
+        CatalogSearchView result = vinylService.searchWithCorrections("tset", true);
+
+        assertThat(result.correctedQuery()).isEqualTo("test");
+        assertThat(result.results()).containsExactly(view);
+    }
+
+    @Test
+    void searchWithCorrections_shouldSkipCorrectionsWhenEnoughHits() {
+        List<VinylView> hits = List.of(VinylView.of(vinyl), VinylView.of(vinyl), VinylView.of(vinyl));
+        when(catalogSearchIndex.isEnabled()).thenReturn(true);
+        when(catalogSearchIndex.search(eq("test"), any())).thenReturn(new PageImpl<>(hits));
+
+        assertThat(vinylService.searchWithCorrections("test", true).didYouMean()).isEmpty();
+        verifyNoInteractions(catalogSuggester);
+    }
+
+    @Test
+    void browseCatalog_shouldTakeIdsAndCountsFromFacetsAndLoadOnlyUncachedVinyls() {
+        Pageable pageable = PageRequest.of(1, 2);
+        FacetFilter filter = new FacetFilter(Set.of(3), 1970, 1979, null, null);
+        FacetCountsView counts = new FacetCountsView(Map.of(3, 5), Map.of(1973, 5), Map.of(1970, 5), Map.of());
+        VinylView cached = new VinylView(7, "Cached", "Artist", 3, 1973, null, null, null);
+        when(catalogFacets.isReady()).thenReturn(true);
+        when(catalogFacets.select(filter, pageable)).thenReturn(new CatalogFacets.Selection(List.of(7, 1), 5, counts));
+        when(vinylCache.get("vinyl-7")).thenReturn(cached);
+        when(vinylRepository.findByIdIn(List.of(1))).thenReturn(List.of(vinyl));
+
+        FacetedPageView page = vinylService.browseCatalog(filter, pageable);
+
+        assertThat(page.content()).containsExactly(cached, VinylView.of(vinyl));
+        assertThat(page.totalElements()).isEqualTo(5);
+        assertThat(page.totalPages()).isEqualTo(3);
+        assertThat(page.facets()).isEqualTo(counts);
+        verify(vinylRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void browseCatalog_shouldQueryDatabaseWithoutCountsWhileFacetsBuild() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(catalogFacets.isReady()).thenReturn(false);
+        when(vinylRepository.findAll(any(Specification.class), eq(pageable)))
+                .thenReturn(new PageImpl<>(List.of(vinyl), pageable, 1));
+
+        FacetedPageView page = vinylService.browseCatalog(new FacetFilter(Set.of(3), null, null, Set.of(1970),
+                Set.of(2)), pageable);
+
+        assertThat(page.content()).containsExactly(VinylView.of(vinyl));
+        assertThat(page.facets()).isEqualTo(FacetCountsView.EMPTY);
+        verify(catalogFacets, never()).select(any(), any());
+    }
+
+    @Test
+    void browseCatalog_shouldRejectSortThatFacetsCannotProvide() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("title"));
+        FacetFilter filter = new FacetFilter(null, null, null, null, null);
+
+        assertThatThrownBy(() -> vinylService.browseCatalog(filter, pageable))
+                .isInstanceOf(ResponseStatusException.class);
+        verify(vinylRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void detachUserFromVinyl_shouldMoveVinylsOutOfUploaderFacet() {
+        when(vinylRepository.findByAddedBy(user)).thenReturn(List.of(vinyl));
+
+        vinylService.detachUserFromVinyl(user);
+
+        verify(catalogFacets).apply(List.of(vinyl), List.of());
+    }
+
+    @Test
+    void scrollVinyls_shouldReturnWindowAndContinueAfterLastKeyOfIt() {
+        Vinyl second = new Vinyl();
+        second.setId(2);
+        second.setTitle("Test");
+        when(vinylRepository.scrollByFields(eq("Test"), isNull(), isNull(), isNull(), isNull(), eq(false), any()))
+                .thenReturn(List.of(new VinylScroll.Key(1, "Test"), new VinylScroll.Key(2, "Test"),
+                        new VinylScroll.Key(3, "Test")));
+        when(vinylRepository.findByIdIn(List.of(1, 2))).thenReturn(List.of(second, vinyl));
+
+        CursorSlice<VinylView> first = vinylService.scrollVinyls("Test", null, null, null, null,
+                Sort.by(Sort.Direction.DESC, "title"), null, 2);
+
+        assertThat(first.content()).containsExactly(VinylView.of(vinyl), VinylView.of(second));
+        assertThat(first.hasNext()).isTrue();
+        ArgumentCaptor<VinylScroll> scroll = ArgumentCaptor.forClass(VinylScroll.class);
+        verify(vinylRepository).scrollByFields(eq("Test"), isNull(), isNull(), isNull(), isNull(), eq(false),
+                scroll.capture());
+        assertThat(scroll.getValue()).isEqualTo(new VinylScroll("title", true, null, 3));
+
+        vinylService.scrollVinyls("Test", null, null, null, null, Sort.unsorted(), first.nextCursor(), 2);
+
+        verify(vinylRepository, times(2)).scrollByFields(eq("Test"), isNull(), isNull(), isNull(), isNull(),
+                eq(false), scroll.capture());
+        assertThat(scroll.getValue()).isEqualTo(new VinylScroll("title", true, new VinylScroll.Key(2, "Test"), 3));
+    }
+
+    @Test
+    void scrollVinyls_shouldEndWithoutCursorWhenWindowIsNotFull() {
+        when(vinylRepository.scrollByFields(any(), any(), any(), any(), any(), anyBoolean(), any()))
+                .thenReturn(List.of(new VinylScroll.Key(1, 1)));
+        when(vinylRepository.findByIdIn(List.of(1))).thenReturn(List.of(vinyl));
+
+        CursorSlice<VinylView> slice = vinylService.scrollVinyls(null, null, null, null, null, Sort.unsorted(),
+                null, 20);
+
+        assertThat(slice.content()).containsExactly(VinylView.of(vinyl));
+        assertThat(slice.hasNext()).isFalse();
+        assertThat(slice.nextCursor()).isNull();
+    }
+
+    @Test
+    void scrollVinyls_shouldRejectCursorIssuedForOtherFilters() {
+        when(vinylRepository.scrollByFields(any(), any(), any(), any(), any(), anyBoolean(), any()))
+                .thenReturn(List.of(new VinylScroll.Key(1, 1), new VinylScroll.Key(2, 2)));
+        when(vinylRepository.findByIdIn(List.of(1))).thenReturn(List.of(vinyl));
+        String cursor = vinylService.scrollVinyls(null, null, null, null, null, Sort.unsorted(), null, 1)
+                .nextCursor();
+
+        assertThatThrownBy(() -> vinylService.scrollVinyls("Other", null, null, null, null, Sort.unsorted(),
+                cursor, 1)).isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void scrollVinylsGlobal_shouldOrderByRankWhenSearchSchemaIsAvailable() {
+        when(vinylSearchSchema.isAvailable()).thenReturn(true);
+        when(genreRepository.findByNameContainingIgnoreCase("rock")).thenReturn(List.of(genre));
+        when(vinylRepository.scrollByText(eq("rock"), isNull(), eq(Set.of(3)), eq(true), any()))
+                .thenReturn(List.of());
+
+        CursorSlice<VinylView> slice = vinylService.scrollVinylsGlobal(" Rock ", null, 10);
+
+        assertThat(slice.content()).isEmpty();
+        verify(vinylRepository).scrollByText(eq("rock"), isNull(), eq(Set.of(3)), eq(true),
+                eq(new VinylScroll("rank", true, null, 11)));
+        verify(catalogSearchIndex, never()).search(anyString(), any());
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.vinyltrackerapi.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WindowTinyLfuPolicyTest {
+
+    @Test
+    void recordInsert_shouldNotEvictUntilFull() {
+        WindowTinyLfuPolicy policy = new WindowTinyLfuPolicy(10);
+        for (int i = 0; i < 10; i++) {
+            assertThat(policy.recordInsert("key" + i, 1)).isEmpty();
+        }
+    }
+
+    @Test
+    void recordInsert_shouldKeepSingleEntryWhenCapacityIsOne() {
+        WindowTinyLfuPolicy policy = new WindowTinyLfuPolicy(1);
+
+        assertThat(policy.recordInsert("catalog", 1)).isEmpty();
+        assertThat(policy.recordUpdate("catalog", 1)).isEmpty();
+    }
+
+    @Test
+    void recordInsert_shouldRejectColdCandidateInFavourOfHotVictim() {
+        WindowTinyLfuPolicy policy = new WindowTinyLfuPolicy(10);
+        for (int i = 0; i < 10; i++) {
+            policy.recordInsert("key" + i, 1);
+        }
+        for (int i = 0; i < 10; i++) {
+            policy.recordAccess("key" + i);
+        }
+
+        policy.recordInsert("cold1", 1);
+        List<String> evicted = policy.recordInsert("cold2", 1);
+
+        assertThat(evicted).containsExactly("cold1");
+    }
+
+    @Test
+    void recordInsert_shouldAdmitFrequentCandidate() {
+        WindowTinyLfuPolicy policy = new WindowTinyLfuPolicy(10);
+        for (int i = 0; i < 10; i++) {
+            policy.recordInsert("key" + i, 1);
+        }
+        policy.recordInsert("hot", 1);
+        for (int i = 0; i < 5; i++) {
+            policy.recordAccess("hot");
+        }
+
+        List<String> evicted = policy.recordInsert("next", 1);
+
+        assertThat(evicted).hasSize(1).doesNotContain("hot");
+    }
+
+    @Test
+    void recordRemove_shouldFreeCapacity() {
+        WindowTinyLfuPolicy policy = new WindowTinyLfuPolicy(2);
+        policy.recordInsert("a", 1);
+        policy.recordInsert("b", 1);
+        policy.recordRemove("a");
+
+        assertThat(policy.recordInsert("c", 1)).isEmpty();
+    }
+
+    @Test
+    void recordInsert_shouldKeepTotalWeightWithinBudget() {
+        WindowTinyLfuPolicy policy = new WindowTinyLfuPolicy(1000, 16);
+        Set<String> resident = new HashSet<>();
+        for (int i = 0; i < 50; i++) {
+            String key = "key" + i;
+            resident.add(key);
+            policy.recordInsert(key, 100).forEach(resident::remove);
+        }
+
+        assertThat(resident.size() * 100).isLessThanOrEqualTo(1000);
+    }
+
+    @Test
+    void recordInsert_shouldLetHeavyFrequentEntryDisplaceSeveralLightOnes() {
+        WindowTinyLfuPolicy policy = new WindowTinyLfuPolicy(1000, 16);
+        for (int i = 0; i < 9; i++) {
+            policy.recordInsert("light" + i, 100);
+        }
+        for (int i = 0; i < 5; i++) {
+            policy.recordAccess("heavy");
+        }
+
+        List<String> evicted = new ArrayList<>(policy.recordInsert("heavy", 300));
+        evicted.addAll(policy.recordInsert("next", 10));
+
+        assertThat(evicted).doesNotContain("heavy").hasSizeGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    void recordInsert_shouldEvictNothingWhenCandidateLosesToAnyNeededVictim() {
+        WindowTinyLfuPolicy policy = new WindowTinyLfuPolicy(1000, 16);
+        policy.recordInsert("cold", 490);
+        policy.recordInsert("hot", 490);
+        for (int i = 0; i < 10; i++) {
+            policy.recordAccess("hot");
+        }
+        for (int i = 0; i < 3; i++) {
+            policy.recordAccess("candidate");
+        }
+
+        // места хватит, только если уйдут обе записи, а "hot" популярнее кандидата
+        assertThat(policy.recordInsert("candidate", 600)).containsExactly("candidate");
+        assertThat(policy.recordInsert("small", 5)).isEmpty();
+    }
+
+    @Test
+    void recordInsert_shouldRejectEntryHeavierThanMainSpace() {
+        WindowTinyLfuPolicy policy = new WindowTinyLfuPolicy(1000, 16);
+        policy.recordInsert("a", 10);
+
+        assertThat(policy.recordInsert("huge", 995)).containsExactly("huge");
+    }
+}